@@ -16,96 +16,380 @@
 
 package uk.gov.gchq.gaffer.cache.impl;
 
-import com.google.common.collect.Lists;
-
 import uk.gov.gchq.gaffer.cache.ICache;
+import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
 import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Simple implementation of the {@link ICache} interface, using a {@link HashMap}
- * as the cache data store.
+ * Simple, thread safe implementation of the {@link ICache} interface, using a
+ * {@link HashMap} as the cache data store.
+ * <p>
+ * By default the cache is unbounded and entries never expire. Optionally the
+ * cache can be limited to a maximum number of entries and, if the values are
+ * serialised, a maximum number of bytes. When a limit is exceeded entries are
+ * evicted using the configured {@link EvictionPolicy}. Entries can also be
+ * given a time to live, after which they are removed.
+ * </p>
+ * <p>
+ * Values can be stored as objects or serialised using a
+ * {@link ToBytesSerialiser}, for example a {@link JavaSerialiser}, so each get
+ * returns a new copy of the value.
+ * </p>
  *
  * @param <K> The object type that acts as the key for the HashMap
  * @param <V> The value that is stored in the HashMap
  */
 public class HashMapCache<K, V> implements ICache<K, V> {
     private static final JavaSerialiser JAVA_SERIALISER = new JavaSerialiser();
-    private boolean useJavaSerialisation;
-    private HashMap<K, Object> cache = new HashMap<>();
+
+    /**
+     * The number of least recently used entries considered when evicting an
+     * entry with the {@link EvictionPolicy#LFU} policy.
+     */
+    private static final int LFU_SAMPLE_SIZE = 16;
+
+    private final ToBytesSerialiser serialiser;
+    private final int maxSize;
+    private final long maxBytes;
+    private final long timeToLive;
+    private final EvictionPolicy evictionPolicy;
+    private final LinkedHashMap<K, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
 
     public HashMapCache(final boolean useJavaSerialisation) {
-        this.useJavaSerialisation = useJavaSerialisation;
+        this(useJavaSerialisation ? JAVA_SERIALISER : null, 0, 0, 0, EvictionPolicy.LRU);
     }
 
     public HashMapCache() {
         this(false);
     }
 
+    /**
+     * @param serialiser     the serialiser for the values, or null to store
+     *                       the value objects
+     * @param maxSize        the maximum number of entries, or 0 for no limit
+     * @param maxBytes       the maximum total size of the serialised values,
+     *                       or 0 for no limit
+     * @param timeToLive     the number of milliseconds after which an entry
+     *                       expires, or 0 if entries do not expire
+     * @param evictionPolicy the policy used to choose which entries to evict
+     */
+    public HashMapCache(final ToBytesSerialiser serialiser, final int maxSize, final long maxBytes,
+                        final long timeToLive, final EvictionPolicy evictionPolicy) {
+        this.serialiser = serialiser;
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.timeToLive = timeToLive;
+        this.evictionPolicy = null != evictionPolicy ? evictionPolicy : EvictionPolicy.LRU;
+    }
+
     @Override
     public V get(final K key) {
-        try {
-            return (V) (useJavaSerialisation
-                    ? JAVA_SERIALISER.deserialise((byte[]) cache.get(key))
-                    : cache.get(key));
-        } catch (final SerialisationException e) {
-            throw new RuntimeException(e);
+        Object value = null;
+        synchronized (this) {
+            final CacheEntry entry = cache.get(key);
+            if (null != entry) {
+                if (entry.isExpired(System.currentTimeMillis())) {
+                    removeEntry(key);
+                    expirations.incrementAndGet();
+                } else {
+                    entry.hits++;
+                    value = entry.value;
+                }
+            }
+        }
+
+        if (null == value) {
+            misses.incrementAndGet();
+            return null;
         }
+        hits.incrementAndGet();
+        return fromCacheValue(value);
     }
 
     @Override
     public void put(final K key, final V value) {
-        if (useJavaSerialisation) {
-            try {
-                cache.put(key, JAVA_SERIALISER.serialise(value));
-            } catch (final SerialisationException e) {
-                throw new RuntimeException(e);
+        final CacheEntry entry = createEntry(value);
+        synchronized (this) {
+            addEntry(key, entry);
+        }
+    }
+
+    /**
+     * Adds the key-value pair only if there is no existing value for the key.
+     * The check and the insert are done atomically, without deserialising
+     * the existing value or counting the check as a cache miss.
+     *
+     * @param key   the key to add
+     * @param value the value to add
+     * @throws OverwritingException if the key already has an unexpired value
+     */
+    @Override
+    public void putSafe(final K key, final V value) throws OverwritingException {
+        final CacheEntry entry = createEntry(value);
+        synchronized (this) {
+            final CacheEntry existing = cache.get(key);
+            if (null != existing && null != existing.value) {
+                if (!existing.isExpired(System.currentTimeMillis())) {
+                    throw new OverwritingException("Cache entry already exists for key: " + key);
+                }
+                expirations.incrementAndGet();
             }
-        } else {
-            cache.<K, V>put(key, value);
+            addEntry(key, entry);
         }
     }
 
     @Override
-    public void remove(final K key) {
-        cache.remove(key);
+    public synchronized void remove(final K key) {
+        removeEntry(key);
     }
 
     @Override
     public Collection<V> getAllValues() {
-        ArrayList<V> rtn = Lists.newArrayList();
-        if (useJavaSerialisation) {
-            cache.values()
-                    .forEach((Object o) -> {
-                        try {
-                            rtn.add((V) JAVA_SERIALISER.deserialise((byte[]) o));
-                        } catch (final SerialisationException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
-        } else {
-            rtn.addAll((Collection<V>) cache.values());
+        final List<Object> values;
+        synchronized (this) {
+            removeExpired();
+            values = new ArrayList<>(cache.size());
+            for (final CacheEntry entry : cache.values()) {
+                values.add(entry.value);
+            }
+        }
+
+        final List<V> rtn = new ArrayList<>(values.size());
+        for (final Object value : values) {
+            rtn.add(fromCacheValue(value));
         }
         return rtn;
     }
 
     @Override
-    public Set<K> getAllKeys() {
-        return cache.keySet();
+    public synchronized Set<K> getAllKeys() {
+        removeExpired();
+        return new LinkedHashSet<>(cache.keySet());
     }
 
     @Override
-    public int size() {
+    public synchronized int size() {
+        removeExpired();
         return cache.size();
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
         cache.clear();
+        totalBytes = 0;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the proportion of gets that found a value, or 0 if there have
+     * been no gets.
+     */
+    public double getHitRate() {
+        final long hitCount = hits.get();
+        final long total = hitCount + misses.get();
+        return 0 == total ? 0 : (double) hitCount / total;
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getExpiredCount() {
+        return expirations.get();
+    }
+
+    /**
+     * @return the total size of the serialised values, or 0 if the values are
+     * not serialised.
+     */
+    public synchronized long getBytes() {
+        return totalBytes;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    private CacheEntry createEntry(final V value) {
+        final Object cacheValue = toCacheValue(value);
+        final int bytes = cacheValue instanceof byte[] ? ((byte[]) cacheValue).length : 0;
+        final long expiresAt = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+        return new CacheEntry(cacheValue, bytes, expiresAt);
+    }
+
+    private void addEntry(final K key, final CacheEntry entry) {
+        final CacheEntry previous = cache.put(key, entry);
+        if (null != previous) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += entry.bytes;
+        evict(key);
+    }
+
+    private Object toCacheValue(final V value) {
+        if (null == serialiser) {
+            return value;
+        }
+        try {
+            return serialiser.serialise(value);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private V fromCacheValue(final Object value) {
+        if (null == serialiser) {
+            return (V) value;
+        }
+        try {
+            return (V) serialiser.deserialise((byte[]) value);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void removeEntry(final K key) {
+        final CacheEntry entry = cache.remove(key);
+        if (null != entry) {
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    private void removeExpired() {
+        if (timeToLive > 0) {
+            final long now = System.currentTimeMillis();
+            final Iterator<CacheEntry> itr = cache.values().iterator();
+            while (itr.hasNext()) {
+                final CacheEntry entry = itr.next();
+                if (entry.isExpired(now)) {
+                    itr.remove();
+                    totalBytes -= entry.bytes;
+                    expirations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Evicts entries until the cache is within its bounds, never evicting
+    // the entry that has just been added
+    private void evict(final K addedKey) {
+        if (!isOverLimit()) {
+            return;
+        }
+
+        removeExpired();
+        while (isOverLimit() && cache.size() > 1) {
+            final K key = EvictionPolicy.LFU == evictionPolicy ? getLeastFrequentlyUsed(addedKey) : getLeastRecentlyUsed(addedKey);
+            removeEntry(key);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isOverLimit() {
+        return (maxSize > 0 && cache.size() > maxSize)
+                || (maxBytes > 0 && totalBytes > maxBytes);
+    }
+
+    private K getLeastRecentlyUsed(final K addedKey) {
+        for (final K key : cache.keySet()) {
+            if (!Objects.equals(key, addedKey)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("There are no entries to evict");
+    }
+
+    private K getLeastFrequentlyUsed(final K addedKey) {
+        K leastUsedKey = null;
+        long leastHits = Long.MAX_VALUE;
+        int sampled = 0;
+        for (final Map.Entry<K, CacheEntry> entry : cache.entrySet()) {
+            if (sampled >= LFU_SAMPLE_SIZE) {
+                break;
+            }
+            if (!Objects.equals(entry.getKey(), addedKey)) {
+                sampled++;
+                if (entry.getValue().hits < leastHits) {
+                    leastHits = entry.getValue().hits;
+                    leastUsedKey = entry.getKey();
+                }
+            }
+        }
+        if (null == leastUsedKey) {
+            return getLeastRecentlyUsed(addedKey);
+        }
+        return leastUsedKey;
+    }
+
+    /**
+     * The policy used to choose which entry to evict when a {@link HashMapCache}
+     * exceeds its maximum size.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evict the least recently used entry.
+         */
+        LRU,
+
+        /**
+         * Evict the least frequently used of the least recently used entries.
+         */
+        LFU
+    }
+
+    private static final class CacheEntry {
+        private final Object value;
+        private final int bytes;
+        private final long expiresAt;
+        private long hits;
+
+        private CacheEntry(final Object value, final int bytes, final long expiresAt) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
     }
 }
@@ -16,32 +16,76 @@
 
 package uk.gov.gchq.gaffer.cache.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import uk.gov.gchq.gaffer.cache.ICache;
 import uk.gov.gchq.gaffer.cache.ICacheService;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
 
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Simple implementation of the {@link ICacheService} interface which uses a
  * {@link HashMapCache} as the cache implementation.
+ * <p>
+ * By default the caches are unbounded and entries never expire. The bounds,
+ * eviction policy and time to live can be set for all caches, or for a single
+ * cache by appending "." and the cache name to the property key, e.g.
+ * {@code gaffer.cache.hashmap.timeToLive.JobTracker=86400000}. Bounds should
+ * only be set on caches that hold data which can be recreated, such as job
+ * details, as evicted entries are lost.
+ * </p>
  */
 public class HashMapCacheService implements ICacheService {
     public static final String STATIC_CACHE = "gaffer.cache.hashmap.static";
     public static final String JAVA_SERIALISATION_CACHE = "gaffer.cache.hashmap.useJavaSerialisation";
-    private static final HashMap<String, HashMapCache> STATIC_CACHES = new HashMap<>();
-    private final HashMap<String, HashMapCache> nonStaticCaches = new HashMap<>();
-    private boolean useJavaSerialisation = false;
 
-    private HashMap<String, HashMapCache> caches = nonStaticCaches;
+    /**
+     * The class name of a {@link ToBytesSerialiser} to serialise the cache
+     * values with. This overrides {@link #JAVA_SERIALISATION_CACHE}.
+     */
+    public static final String SERIALISER_CLASS = "gaffer.cache.hashmap.serialiserClass";
+
+    /**
+     * The maximum number of entries in a cache.
+     */
+    public static final String MAX_SIZE = "gaffer.cache.hashmap.maxSize";
+
+    /**
+     * The maximum total size in bytes of the serialised values in a cache.
+     * This only applies if the values are serialised.
+     */
+    public static final String MAX_BYTES = "gaffer.cache.hashmap.maxBytes";
+
+    /**
+     * The {@link HashMapCache.EvictionPolicy} used when a cache exceeds its
+     * bounds, either LRU (the default) or LFU.
+     */
+    public static final String EVICTION_POLICY = "gaffer.cache.hashmap.evictionPolicy";
+
+    /**
+     * The number of milliseconds after which cache entries expire.
+     */
+    public static final String TIME_TO_LIVE = "gaffer.cache.hashmap.timeToLive";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashMapCacheService.class);
+    private static final Map<String, HashMapCache> STATIC_CACHES = new ConcurrentHashMap<>();
+    private final Map<String, HashMapCache> nonStaticCaches = new ConcurrentHashMap<>();
+    private Properties properties = new Properties();
+    private ToBytesSerialiser serialiser;
+
+    private Map<String, HashMapCache> caches = nonStaticCaches;
 
     @Override
     public void initialise(final Properties properties) {
-        if (properties != null) {
-            useJavaSerialisation = Boolean.parseBoolean(properties.getProperty(JAVA_SERIALISATION_CACHE));
-        }
+        this.properties = null != properties ? properties : new Properties();
+        serialiser = createSerialiser(this.properties);
 
-        if (properties != null && Boolean.parseBoolean(properties.getProperty(STATIC_CACHE))) {
+        if (Boolean.parseBoolean(this.properties.getProperty(STATIC_CACHE))) {
             caches = STATIC_CACHES;
         } else {
             caches = nonStaticCaches;
@@ -55,8 +99,41 @@ public class HashMapCacheService implements ICacheService {
 
     @Override
     public <K, V> ICache<K, V> getCache(final String cacheName) {
-        HashMapCache<K, V> cache = caches.computeIfAbsent(cacheName, k -> new HashMapCache<>(useJavaSerialisation));
+        HashMapCache<K, V> cache = caches.computeIfAbsent(cacheName, this::createCache);
 
         return cache;
     }
+
+    private HashMapCache createCache(final String cacheName) {
+        final int maxSize = Integer.parseInt(getProperty(MAX_SIZE, cacheName, "0"));
+        final long maxBytes = Long.parseLong(getProperty(MAX_BYTES, cacheName, "0"));
+        final long timeToLive = Long.parseLong(getProperty(TIME_TO_LIVE, cacheName, "0"));
+        final HashMapCache.EvictionPolicy evictionPolicy = HashMapCache.EvictionPolicy.valueOf(
+                getProperty(EVICTION_POLICY, cacheName, HashMapCache.EvictionPolicy.LRU.name()).toUpperCase());
+        if (maxBytes > 0 && null == serialiser) {
+            LOGGER.warn("{} is ignored for cache {} as the values are not serialised", MAX_BYTES, cacheName);
+        }
+
+        return new HashMapCache<>(serialiser, maxSize, maxBytes, timeToLive, evictionPolicy);
+    }
+
+    // Gets the value of the property for the named cache, falling back to the
+    // value for all caches
+    private String getProperty(final String key, final String cacheName, final String defaultValue) {
+        final String value = properties.getProperty(key + "." + cacheName);
+        return null != value ? value : properties.getProperty(key, defaultValue);
+    }
+
+    private static ToBytesSerialiser createSerialiser(final Properties properties) {
+        final String serialiserClass = properties.getProperty(SERIALISER_CLASS);
+        if (null != serialiserClass) {
+            try {
+                return Class.forName(serialiserClass).asSubclass(ToBytesSerialiser.class).newInstance();
+            } catch (final InstantiationException | IllegalAccessException | ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unable to create cache serialiser: " + serialiserClass, e);
+            }
+        }
+
+        return Boolean.parseBoolean(properties.getProperty(JAVA_SERIALISATION_CACHE)) ? new JavaSerialiser() : null;
+    }
 }
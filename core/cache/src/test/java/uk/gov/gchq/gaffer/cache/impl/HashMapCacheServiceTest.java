@@ -26,6 +26,8 @@ import uk.gov.gchq.gaffer.cache.ICache;
 import uk.gov.gchq.gaffer.cache.exception.CacheOperationException;
 import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 
+import java.util.Properties;
+
 import static org.junit.Assert.assertEquals;
 
 public class HashMapCacheServiceTest {
@@ -144,4 +146,38 @@ public class HashMapCacheServiceTest {
 
         Assert.assertThat(service.getAllValuesFromCache(CACHE_NAME), IsCollectionContaining.hasItems(1, 2, 3));
     }
+
+    @Test
+    public void shouldConfigureCachesFromProperties() {
+        // Given
+        final Properties properties = new Properties();
+        properties.setProperty(HashMapCacheService.MAX_SIZE, "10");
+        properties.setProperty(HashMapCacheService.TIME_TO_LIVE, "1000");
+        properties.setProperty(HashMapCacheService.TIME_TO_LIVE + ".JobTracker", "5000");
+        properties.setProperty(HashMapCacheService.EVICTION_POLICY + ".JobTracker", "lfu");
+        service.initialise(properties);
+
+        // When
+        final HashMapCache defaultCache = (HashMapCache) service.getCache(CACHE_NAME);
+        final HashMapCache jobCache = (HashMapCache) service.getCache("JobTracker");
+
+        // Then
+        assertEquals(10, defaultCache.getMaxSize());
+        assertEquals(1000, defaultCache.getTimeToLive());
+        assertEquals(HashMapCache.EvictionPolicy.LRU, defaultCache.getEvictionPolicy());
+        assertEquals(10, jobCache.getMaxSize());
+        assertEquals(5000, jobCache.getTimeToLive());
+        assertEquals(HashMapCache.EvictionPolicy.LFU, jobCache.getEvictionPolicy());
+    }
+
+    @Test
+    public void shouldCreateUnboundedCachesByDefault() {
+        // When
+        final HashMapCache cache = (HashMapCache) service.getCache(CACHE_NAME);
+
+        // Then
+        assertEquals(0, cache.getMaxSize());
+        assertEquals(0, cache.getMaxBytes());
+        assertEquals(0, cache.getTimeToLive());
+    }
 }
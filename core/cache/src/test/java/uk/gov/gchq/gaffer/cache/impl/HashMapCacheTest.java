@@ -22,9 +22,22 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -158,4 +171,184 @@ public class HashMapCacheTest {
         TempClass tempClass = new TempClass();
         map.put("test1", tempClass);
     }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() {
+        // Given
+        final HashMapCache<String, Integer> lruCache = new HashMapCache<>(null, 2, 0, 0, HashMapCache.EvictionPolicy.LRU);
+        lruCache.put("key1", 1);
+        lruCache.put("key2", 2);
+        lruCache.get("key1");
+
+        // When
+        lruCache.put("key3", 3);
+
+        // Then
+        assertEquals(2, lruCache.size());
+        assertEquals(new Integer(1), lruCache.get("key1"));
+        assertNull(lruCache.get("key2"));
+        assertEquals(new Integer(3), lruCache.get("key3"));
+        assertEquals(1, lruCache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldEvictLeastFrequentlyUsedEntries() {
+        // Given
+        final HashMapCache<String, Integer> lfuCache = new HashMapCache<>(null, 2, 0, 0, HashMapCache.EvictionPolicy.LFU);
+        lfuCache.put("key1", 1);
+        lfuCache.put("key2", 2);
+        lfuCache.get("key1");
+        lfuCache.get("key1");
+        lfuCache.get("key2");
+
+        // When
+        lfuCache.put("key3", 3);
+
+        // Then
+        assertEquals(2, lfuCache.size());
+        assertEquals(new Integer(1), lfuCache.get("key1"));
+        assertNull(lfuCache.get("key2"));
+        assertEquals(new Integer(3), lfuCache.get("key3"));
+    }
+
+    @Test
+    public void shouldEvictEntriesWhenMaxBytesExceeded() throws SerialisationException {
+        // Given
+        final int entryBytes = new JavaSerialiser().serialise("value1").length;
+        final HashMapCache<String, String> boundedCache = new HashMapCache<>(new JavaSerialiser(), 0, entryBytes * 2, 0, HashMapCache.EvictionPolicy.LRU);
+        boundedCache.put("key1", "value1");
+        boundedCache.put("key2", "value2");
+
+        // When
+        boundedCache.put("key3", "value3");
+
+        // Then
+        assertEquals(2, boundedCache.size());
+        assertEquals(entryBytes * 2, boundedCache.getBytes());
+        assertNull(boundedCache.get("key1"));
+        assertEquals("value3", boundedCache.get("key3"));
+    }
+
+    @Test
+    public void shouldExpireEntriesAfterTimeToLive() throws InterruptedException {
+        // Given
+        final HashMapCache<String, Integer> expiringCache = new HashMapCache<>(null, 0, 0, 50, HashMapCache.EvictionPolicy.LRU);
+        expiringCache.put("key1", 1);
+        assertEquals(new Integer(1), expiringCache.get("key1"));
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        assertNull(expiringCache.get("key1"));
+        assertEquals(0, expiringCache.size());
+        assertFalse(expiringCache.getAllKeys().contains("key1"));
+        assertEquals(1, expiringCache.getExpiredCount());
+    }
+
+    @Test
+    public void shouldRecordHitRate() {
+        // Given
+        cache.put("key1", 1);
+
+        // When
+        cache.get("key1");
+        cache.get("key1");
+        cache.get("key1");
+        cache.get("unknown");
+
+        // Then
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75, cache.getHitRate(), 0);
+    }
+
+    @Test
+    public void shouldSupportConcurrentAccess() throws Exception {
+        // Given
+        final HashMapCache<Integer, Integer> boundedCache = new HashMapCache<>(null, 100, 0, 0, HashMapCache.EvictionPolicy.LRU);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread * 1000;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + 1000; i++) {
+                        boundedCache.put(i, i);
+                        boundedCache.get(i - 1);
+                        boundedCache.getAllValues();
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(100, boundedCache.size());
+        assertEquals(3900, boundedCache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldOnlyAllowOneConcurrentPutSafeForAKey() throws Exception {
+        // Given
+        final HashMapCache<String, Integer> serialisedCache = new HashMapCache<>(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger added = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                final int value = thread;
+                futures.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            serialisedCache.putSafe("key" + i, value);
+                            added.incrementAndGet();
+                        } catch (final OverwritingException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(100, added.get());
+        assertEquals(700, rejected.get());
+        assertEquals(100, serialisedCache.size());
+        assertEquals(0, serialisedCache.getMissCount());
+        assertEquals(0, serialisedCache.getHitCount());
+    }
+
+    @Test
+    public void shouldPutSafeOverExpiredEntry() throws InterruptedException {
+        // Given
+        final HashMapCache<String, Integer> expiringCache = new HashMapCache<>(null, 0, 0, 50, HashMapCache.EvictionPolicy.LRU);
+        expiringCache.putSafe("key1", 1);
+        Thread.sleep(100);
+
+        // When
+        expiringCache.putSafe("key1", 2);
+
+        // Then
+        assertEquals(new Integer(2), expiringCache.get("key1"));
+        assertEquals(1, expiringCache.getExpiredCount());
+    }
 }
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.commonutil.iterable;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code ConcurrentChainedIterable} is an iterable composed of other
+ * {@link java.lang.Iterable}s which are consumed concurrently.
+ * <p>
+ * When a client requests an iterator, each child iterable is drained by a
+ * task submitted to the provided {@link ExecutorService} into a bounded
+ * buffer. By default items are returned to the client in the order they
+ * arrive in a shared buffer, so the items of the child iterables are
+ * interleaved. If the iterable is ordered, each child iterable has its own
+ * buffer and the items are returned in the same order as a
+ * {@link ChainedIterable}, whilst the later child iterables are still
+ * consumed in the background.
+ * </p>
+ * <p>
+ * If the executor rejects a task then that child iterable is consumed on
+ * the client thread - once the concurrent children have been exhausted if
+ * unordered, or in its position in the chain if ordered.
+ * </p>
+ * <p>
+ * If a child iterable throws an exception, it is rethrown to the client.
+ * </p>
+ * <p>
+ * If a timeout is provided, each child iterable must be consumed within the
+ * timeout of the iterator being created. Once the timeout has passed the
+ * background tasks stop consuming their iterables and release their threads
+ * and the client is given an exception once the items buffered before the
+ * timeout have been returned.
+ * </p>
+ * <p>
+ * The idle timeout is always applied, even if there is no timeout. If the
+ * client does not take an item for longer than the idle timeout, for example
+ * because it has abandoned the iterator without closing it, the background
+ * tasks stop consuming their iterables and release their threads. Likewise
+ * the client is given an exception if it waits longer than the idle timeout
+ * for the next item. The background tasks are also stopped if the iterator is
+ * garbage collected without being closed.
+ * </p>
+ *
+ * @param <T> the type of items in the iterable.
+ */
+public class ConcurrentChainedIterable<T> implements CloseableIterable<T> {
+    public static final int DEFAULT_BUFFER_SIZE = 1000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 300000;
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final Object END = new Object();
+    private static final Object NULL_ITEM = new Object();
+
+    private final ExecutorService executorService;
+    private final int bufferSize;
+    private final boolean ordered;
+    private final long timeout;
+    private final long idleTimeout;
+    private final Iterable<T>[] itrs;
+
+    public ConcurrentChainedIterable(final ExecutorService executorService, final Iterable... itrs) {
+        this(executorService, DEFAULT_BUFFER_SIZE, itrs);
+    }
+
+    public ConcurrentChainedIterable(final ExecutorService executorService, final int bufferSize, final Iterable... itrs) {
+        this(executorService, bufferSize, false, itrs);
+    }
+
+    public ConcurrentChainedIterable(final ExecutorService executorService, final int bufferSize, final boolean ordered, final Iterable... itrs) {
+        this(executorService, bufferSize, ordered, 0, itrs);
+    }
+
+    public ConcurrentChainedIterable(final ExecutorService executorService, final int bufferSize, final boolean ordered, final long timeout, final Iterable... itrs) {
+        this(executorService, bufferSize, ordered, timeout, DEFAULT_IDLE_TIMEOUT_MILLIS, itrs);
+    }
+
+    public ConcurrentChainedIterable(final ExecutorService executorService, final int bufferSize, final boolean ordered, final long timeout, final long idleTimeout, final Iterable... itrs) {
+        if (null == executorService) {
+            throw new IllegalArgumentException("An executor service is required.");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be at least 1.");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The timeout must not be negative.");
+        }
+        if (idleTimeout < 1) {
+            throw new IllegalArgumentException("The idle timeout must be at least 1.");
+        }
+        if (null == itrs || 0 == itrs.length) {
+            throw new IllegalArgumentException("At least 1 iterable is required.");
+        }
+        this.executorService = executorService;
+        this.bufferSize = bufferSize;
+        this.ordered = ordered;
+        this.timeout = timeout;
+        this.idleTimeout = idleTimeout;
+        this.itrs = itrs;
+    }
+
+    @Override
+    public void close() {
+        for (final Iterable<T> itr : itrs) {
+            CloseableUtil.close(itr);
+        }
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+        return ordered ? new OrderedIteratorWrapper() : new UnorderedIteratorWrapper();
+    }
+
+    private static final class ProducerFailure {
+        private final Exception exception;
+
+        private ProducerFailure(final Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    /**
+     * The state shared between an iterator and its background tasks. The
+     * tasks only reference this state, and not the iterator, so an abandoned
+     * iterator can be garbage collected whilst its tasks are still running.
+     */
+    private static final class Producers {
+        private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        private final long deadline;
+        private final long idleTimeout;
+        private volatile long lastConsumed = System.currentTimeMillis();
+        private volatile boolean stopped;
+        private volatile boolean abandoned;
+
+        private Producers(final long timeout, final long idleTimeout) {
+            this.deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+            this.idleTimeout = idleTimeout;
+        }
+
+        private void stop() {
+            stopped = true;
+            for (final Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        private <T> void produce(final Iterable<T> itr, final BlockingQueue<Object> buffer) {
+            Iterator<T> iterator = null;
+            try {
+                iterator = itr.iterator();
+                while (!stopped && !isExpired() && iterator.hasNext()) {
+                    final T item = iterator.next();
+                    if (!put(buffer, null != item ? item : NULL_ITEM)) {
+                        return;
+                    }
+                }
+                if (!stopped && !isExpired()) {
+                    put(buffer, END);
+                }
+            } catch (final Exception e) {
+                put(buffer, new ProducerFailure(e));
+            } finally {
+                CloseableUtil.close(iterator);
+            }
+        }
+
+        // Gives up once the client has not taken an item for the idle timeout
+        private boolean put(final BlockingQueue<Object> buffer, final Object item) {
+            try {
+                while (!stopped && !isExpired()) {
+                    if (buffer.offer(item, Math.min(POLL_TIMEOUT_MILLIS, getRemainingMillis()), TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if (System.currentTimeMillis() - lastConsumed >= idleTimeout) {
+                        abandoned = true;
+                        return false;
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        private boolean isExpired() {
+            return getRemainingMillis() <= 0;
+        }
+
+        private long getRemainingMillis() {
+            return Long.MAX_VALUE == deadline ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+        }
+    }
+
+    private abstract class AbstractIteratorWrapper implements CloseableIterator<T> {
+        private final Producers producers = new Producers(timeout, idleTimeout);
+        private volatile boolean closed;
+        private Iterator<T> inlineIterator;
+        private Object nextItem;
+
+        @Override
+        public boolean hasNext() {
+            if (null != nextItem) {
+                return true;
+            }
+            if (closed) {
+                return false;
+            }
+
+            nextItem = fetchNext();
+            return null != nextItem;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object item = nextItem;
+            nextItem = null;
+            return NULL_ITEM == item ? null : (T) item;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                producers.stop();
+                clearBuffers();
+                CloseableUtil.close(inlineIterator);
+                ConcurrentChainedIterable.this.close();
+            }
+        }
+
+        // Stops the background tasks and closes the inline iterator of an
+        // iterator that was abandoned without being closed
+        @Override
+        protected void finalize() throws Throwable {
+            try {
+                producers.stop();
+                CloseableUtil.close(inlineIterator);
+            } finally {
+                super.finalize();
+            }
+        }
+
+        /**
+         * @return the next item, {@code NULL_ITEM} for a null item or null if
+         * there are no more items.
+         */
+        protected abstract Object fetchNext();
+
+        protected abstract void clearBuffers();
+
+        protected boolean submit(final Iterable<T> itr, final BlockingQueue<Object> buffer) {
+            final Producers taskProducers = producers;
+            try {
+                taskProducers.futures.add(executorService.submit(() -> taskProducers.produce(itr, buffer)));
+                return true;
+            } catch (final RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        /**
+         * @param buffer the buffer to take the item from
+         * @return the next item from the buffer, or null if the producer
+         * for the buffer has finished.
+         */
+        protected Object takeFrom(final BlockingQueue<Object> buffer) {
+            final long idleDeadline = System.currentTimeMillis() + idleTimeout;
+            Object item = null;
+            try {
+                while (null == item) {
+                    // Waiting for an item counts as consuming, so the other producers keep going
+                    producers.lastConsumed = System.currentTimeMillis();
+                    final long remainingMillis = Math.min(producers.getRemainingMillis(), idleDeadline - producers.lastConsumed);
+                    if (remainingMillis <= 0) {
+                        break;
+                    }
+                    item = buffer.poll(Math.min(POLL_TIMEOUT_MILLIS, remainingMillis), TimeUnit.MILLISECONDS);
+                    if (null == item && producers.abandoned) {
+                        break;
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException("Interrupted whilst waiting for the next item", e);
+            }
+            producers.lastConsumed = System.currentTimeMillis();
+
+            if (null == item) {
+                close();
+                if (producers.isExpired()) {
+                    throw new RuntimeException("Timed out after " + timeout + "ms whilst consuming the iterables");
+                }
+                if (producers.abandoned) {
+                    throw new RuntimeException("No items were taken for " + idleTimeout + "ms, so the iterables were closed");
+                }
+                throw new RuntimeException("No items were received for " + idleTimeout + "ms whilst consuming the iterables");
+            }
+            if (END == item) {
+                return null;
+            }
+            if (item instanceof ProducerFailure) {
+                close();
+                final Exception e = ((ProducerFailure) item).exception;
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            return item;
+        }
+
+        /**
+         * @param itr the iterable to consume on the client thread
+         * @return the next item from the iterable, or null if the iterable
+         * has been exhausted.
+         */
+        protected Object nextInline(final Iterable<T> itr) {
+            producers.lastConsumed = System.currentTimeMillis();
+            if (null == inlineIterator) {
+                inlineIterator = itr.iterator();
+            }
+            if (inlineIterator.hasNext()) {
+                final T item = inlineIterator.next();
+                return null != item ? item : NULL_ITEM;
+            }
+            CloseableUtil.close(inlineIterator);
+            inlineIterator = null;
+            return null;
+        }
+    }
+    private class UnorderedIteratorWrapper extends AbstractIteratorWrapper {
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final List<Iterable<T>> rejectedItrs = new ArrayList<>(0);
+        private int activeProducers;
+        private int rejectedIndex;
+
+        UnorderedIteratorWrapper() {
+            for (final Iterable<T> itr : itrs) {
+                if (submit(itr, buffer)) {
+                    activeProducers++;
+                } else {
+                    rejectedItrs.add(itr);
+                }
+            }
+        }
+
+        @Override
+        protected Object fetchNext() {
+            while (activeProducers > 0) {
+                final Object item = takeFrom(buffer);
+                if (null == item) {
+                    activeProducers--;
+                } else {
+                    return item;
+                }
+            }
+
+            while (rejectedIndex < rejectedItrs.size()) {
+                final Object item = nextInline(rejectedItrs.get(rejectedIndex));
+                if (null != item) {
+                    return item;
+                }
+                rejectedIndex++;
+            }
+            return null;
+        }
+
+        @Override
+        protected void clearBuffers() {
+            buffer.clear();
+        }
+    }
+
+    private class OrderedIteratorWrapper extends AbstractIteratorWrapper {
+        // A null buffer means the iterable was rejected and is consumed inline
+        private final List<BlockingQueue<Object>> buffers = new ArrayList<>(itrs.length);
+        private int index;
+
+        OrderedIteratorWrapper() {
+            for (final Iterable<T> itr : itrs) {
+                final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+                buffers.add(submit(itr, buffer) ? buffer : null);
+            }
+        }
+
+        @Override
+        protected Object fetchNext() {
+            while (index < itrs.length) {
+                final BlockingQueue<Object> buffer = buffers.get(index);
+                final Object item = null != buffer ? takeFrom(buffer) : nextInline(itrs[index]);
+                if (null != item) {
+                    return item;
+                }
+                index++;
+            }
+            return null;
+        }
+
+        @Override
+        protected void clearBuffers() {
+            for (final BlockingQueue<Object> buffer : buffers) {
+                if (null != buffer) {
+                    buffer.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.commonutil.iterable;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrentChainedIterableTest {
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnAllItemsFromAllIterables() {
+        // Given
+        final List<Integer> itr1 = Collections.singletonList(0);
+        final List<Integer> itr2 = new ArrayList<>(0);
+        final List<Integer> itr3 = Lists.newArrayList(1, 2, 3, 4);
+        final List<Integer> itr4 = Lists.newArrayList(5, 6);
+
+        // When
+        final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executorService, 2, itr1, itr2, itr3, itr4);
+
+        // Then
+        final List<Integer> results = Lists.newArrayList(wrappedItr);
+        Collections.sort(results);
+        assertEquals(Lists.newArrayList(0, 1, 2, 3, 4, 5, 6), results);
+    }
+
+    @Test
+    public void shouldConsumeRejectedIterablesOnCallingThread() {
+        // Given
+        executorService.shutdown();
+        final List<Integer> itr1 = Lists.newArrayList(1, 2);
+        final List<Integer> itr2 = Lists.newArrayList(3);
+
+        // When
+        final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executorService, itr1, itr2);
+
+        // Then
+        assertEquals(Lists.newArrayList(1, 2, 3), Lists.newArrayList(wrappedItr));
+    }
+
+    @Test
+    public void shouldReturnAllItemsInOrderWhenOrdered() {
+        // Given
+        final List<Integer> itr1 = Lists.newArrayList(0, 1, 2);
+        final List<Integer> itr2 = new ArrayList<>(0);
+        final List<Integer> itr3 = Lists.newArrayList(3, 4, 5, 6);
+        final List<Integer> itr4 = Lists.newArrayList(7);
+
+        // When
+        final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executorService, 1, true, itr1, itr2, itr3, itr4);
+
+        // Then
+        assertEquals(Lists.newArrayList(0, 1, 2, 3, 4, 5, 6, 7), Lists.newArrayList(wrappedItr));
+    }
+
+    @Test
+    public void shouldConsumeRejectedIterablesInOrderWhenOrdered() {
+        // Given
+        final ExecutorService singleTaskExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        final List<Integer> itr1 = Lists.newArrayList(1, 2);
+        final List<Integer> itr2 = Lists.newArrayList(3);
+        final List<Integer> itr3 = Lists.newArrayList(4, 5);
+
+        try {
+            // When
+            final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(singleTaskExecutor, 10, true, itr1, itr2, itr3);
+
+            // Then
+            assertEquals(Lists.newArrayList(1, 2, 3, 4, 5), Lists.newArrayList(wrappedItr));
+        } finally {
+            singleTaskExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldPropagateExceptionFromIterable() {
+        // Given
+        final Iterable<Integer> failingItr = () -> {
+            throw new IllegalStateException("Scan failed");
+        };
+
+        final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executorService, Lists.newArrayList(1), failingItr);
+
+        // When / Then
+        try {
+            Lists.newArrayList(wrappedItr);
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertEquals("Scan failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldStopReturningItemsWhenClosed() {
+        // Given
+        final List<Integer> itr1 = Lists.newArrayList(1, 2, 3, 4, 5);
+        final CloseableIterator<Integer> itr = new ConcurrentChainedIterable<Integer>(executorService, 1, itr1).iterator();
+        itr.next();
+
+        // When
+        itr.close();
+
+        // Then
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void shouldReleaseProducerThreadsOfAbandonedIteratorAfterTimeout() throws Exception {
+        // Given
+        final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+        final Iterable<Integer> endlessItr = () -> new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return 1;
+            }
+        };
+
+        try {
+            final CloseableIterator<Integer> itr = new ConcurrentChainedIterable<Integer>(singleThreadExecutor, 1, false, 200, endlessItr).iterator();
+            itr.next();
+
+            // When - the iterator is abandoned without being closed
+            final Future<Boolean> nextTask = singleThreadExecutor.submit(() -> true);
+
+            // Then
+            assertTrue(nextTask.get(10, TimeUnit.SECONDS));
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfIterablesNotConsumedWithinTimeout() {
+        // Given
+        final Iterable<Integer> slowItr = () -> new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    Thread.sleep(10000);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+
+            @Override
+            public Integer next() {
+                throw new NoSuchElementException();
+            }
+        };
+        final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executorService, 1, false, 100, Lists.newArrayList(1), slowItr);
+
+        // When / Then
+        try {
+            Lists.newArrayList(wrappedItr);
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertEquals("Timed out after 100ms whilst consuming the iterables", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldReleaseProducerThreadsOfAbandonedIteratorAfterIdleTimeout() throws Exception {
+        // Given
+        final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+
+        try {
+            final CloseableIterator<Integer> itr = new ConcurrentChainedIterable<Integer>(singleThreadExecutor, 1, false, 0, 200, endlessIterable()).iterator();
+            itr.next();
+
+            // When - the iterator is abandoned without being closed
+            final Future<Boolean> nextTask = singleThreadExecutor.submit(() -> true);
+
+            // Then
+            assertTrue(nextTask.get(10, TimeUnit.SECONDS));
+            try {
+                while (itr.hasNext()) {
+                    itr.next();
+                }
+                fail("Exception expected");
+            } catch (final RuntimeException e) {
+                assertEquals("No items were taken for 200ms, so the iterables were closed", e.getMessage());
+            }
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReleaseProducerThreadsWhenAbandonedIteratorIsGarbageCollected() throws Exception {
+        // Given
+        final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+
+        try {
+            startAndAbandonIterator(singleThreadExecutor);
+
+            // When
+            final Future<Boolean> nextTask = singleThreadExecutor.submit(() -> true);
+            for (int i = 0; i < 100 && !nextTask.isDone(); i++) {
+                System.gc();
+                System.runFinalization();
+                Thread.sleep(100);
+            }
+
+            // Then
+            assertTrue(nextTask.get(10, TimeUnit.SECONDS));
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoItemsReceivedWithinIdleTimeout() {
+        // Given
+        final Iterable<Integer> slowItr = () -> new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    Thread.sleep(10000);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+
+            @Override
+            public Integer next() {
+                throw new NoSuchElementException();
+            }
+        };
+        final Iterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executorService, 1, false, 0, 100, Lists.newArrayList(1), slowItr);
+
+        // When / Then
+        try {
+            Lists.newArrayList(wrappedItr);
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertEquals("No items were received for 100ms whilst consuming the iterables", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfIdleTimeoutIsNotPositive() {
+        try {
+            new ConcurrentChainedIterable<>(executorService, 1, false, 0, 0, Lists.newArrayList(1));
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("The idle timeout must be at least 1.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoIterablesProvided() {
+        try {
+            new ConcurrentChainedIterable<>(executorService);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("At least 1 iterable is required.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoExecutorServiceProvided() {
+        try {
+            new ConcurrentChainedIterable<>(null, Lists.newArrayList(1));
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("An executor service is required.", e.getMessage());
+        }
+    }
+
+    // Starts consuming an endless iterable and drops the iterator without closing it
+    private static void startAndAbandonIterator(final ExecutorService executor) {
+        final CloseableIterator<Integer> itr = new ConcurrentChainedIterable<Integer>(executor, 1, endlessIterable()).iterator();
+        itr.next();
+    }
+
+    private static Iterable<Integer> endlessIterable() {
+        return () -> new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return 1;
+            }
+        };
+    }
+}
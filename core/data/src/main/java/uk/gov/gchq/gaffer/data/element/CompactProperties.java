@@ -0,0 +1,569 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@code CompactProperties} is a schema aware {@link Properties} that stores
+ * the values of known properties in a fixed size array, indexed by a shared
+ * {@link PropertySlots} table, rather than in hash table entries.
+ * <p>
+ * The full {@link java.util.Map} API is supported. Properties without a slot
+ * are held in the underlying {@link java.util.HashMap}, which is only
+ * allocated if such a property is added. As with {@link Properties}, null
+ * names and values are ignored, so an empty slot means the property is not
+ * set.
+ * </p>
+ * <p>
+ * Serialisers and store converters that know the slot layout can read and
+ * write values by index with {@link #get(int)} and {@link #put(int, Object)},
+ * avoiding the property name lookup.
+ * </p>
+ * <p>
+ * When serialised with Java serialisation, a {@code CompactProperties} is
+ * written as a plain {@link Properties}.
+ * </p>
+ */
+public class CompactProperties extends Properties {
+    private static final long serialVersionUID = 2497436311429046391L;
+
+    private final PropertySlots slots;
+    private final Object[] values;
+    private int slotSize;
+
+    public CompactProperties() {
+        this(PropertySlots.EMPTY);
+    }
+
+    public CompactProperties(final PropertySlots slots) {
+        super();
+        this.slots = null != slots ? slots : PropertySlots.EMPTY;
+        this.values = new Object[this.slots.size()];
+    }
+
+    public CompactProperties(final PropertySlots slots, final Map<String, Object> properties) {
+        this(slots);
+        if (null != properties) {
+            putAll(properties);
+        }
+    }
+
+    public PropertySlots getSlots() {
+        return slots;
+    }
+
+    /**
+     * @param index the slot index
+     * @return the value of the property in the slot, or null if it is not set.
+     */
+    public Object get(final int index) {
+        return values[index];
+    }
+
+    /**
+     * Sets the value of the property in a slot. Null values are ignored.
+     *
+     * @param index the slot index
+     * @param value the property value
+     * @return the previous value of the property in the slot
+     */
+    public Object put(final int index, final Object value) {
+        if (null == value) {
+            return null;
+        }
+
+        final Object previous = values[index];
+        if (null == previous) {
+            slotSize++;
+        }
+        values[index] = value;
+        return previous;
+    }
+
+    /**
+     * Removes the property in a slot.
+     *
+     * @param index the slot index
+     * @return the previous value of the property in the slot
+     */
+    public Object remove(final int index) {
+        final Object previous = values[index];
+        if (null != previous) {
+            values[index] = null;
+            slotSize--;
+        }
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return slotSize + super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == size();
+    }
+
+    @Override
+    public Object get(final Object name) {
+        final int index = slots.getIndex(name);
+        return index > -1 ? values[index] : super.get(name);
+    }
+
+    @Override
+    public Object getOrDefault(final Object name, final Object defaultValue) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            return null != values[index] ? values[index] : defaultValue;
+        }
+        return super.getOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(final Object name) {
+        final int index = slots.getIndex(name);
+        return index > -1 ? null != values[index] : super.containsKey(name);
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        if (null != value) {
+            for (final Object slotValue : values) {
+                if (value.equals(slotValue)) {
+                    return true;
+                }
+            }
+        }
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Object put(final String name, final Object value) {
+        if (null == name || null == value) {
+            return null;
+        }
+
+        final int index = slots.getIndex(name);
+        return index > -1 ? put(index, value) : super.put(name, value);
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ?> properties) {
+        for (final Entry<? extends String, ?> entry : properties.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(final String name, final Object value) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            final Object previous = values[index];
+            if (null == previous) {
+                put(index, value);
+            }
+            return previous;
+        }
+        return super.putIfAbsent(name, value);
+    }
+
+    @Override
+    public Object remove(final Object name) {
+        final int index = slots.getIndex(name);
+        return index > -1 ? remove(index) : super.remove(name);
+    }
+
+    @Override
+    public boolean remove(final Object name, final Object value) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            if (null != value && value.equals(values[index])) {
+                remove(index);
+                return true;
+            }
+            return false;
+        }
+        return super.remove(name, value);
+    }
+
+    @Override
+    public Object replace(final String name, final Object value) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            return null != values[index] ? set(index, value) : null;
+        }
+        return super.replace(name, value);
+    }
+
+    @Override
+    public boolean replace(final String name, final Object oldValue, final Object newValue) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            if (null != oldValue && oldValue.equals(values[index])) {
+                set(index, newValue);
+                return true;
+            }
+            return false;
+        }
+        return super.replace(name, oldValue, newValue);
+    }
+
+    @Override
+    public Object computeIfAbsent(final String name, final Function<? super String, ?> mappingFunction) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            if (null == values[index]) {
+                final Object value = mappingFunction.apply(name);
+                put(index, value);
+                return value;
+            }
+            return values[index];
+        }
+        return super.computeIfAbsent(name, mappingFunction);
+    }
+
+    @Override
+    public Object computeIfPresent(final String name, final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            if (null != values[index]) {
+                final Object value = remappingFunction.apply(name, values[index]);
+                set(index, value);
+                return value;
+            }
+            return null;
+        }
+        return super.computeIfPresent(name, remappingFunction);
+    }
+
+    @Override
+    public Object compute(final String name, final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            final Object value = remappingFunction.apply(name, values[index]);
+            set(index, value);
+            return value;
+        }
+        return super.compute(name, remappingFunction);
+    }
+
+    @Override
+    public Object merge(final String name, final Object value, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        final int index = slots.getIndex(name);
+        if (index > -1) {
+            Objects.requireNonNull(value);
+            final Object newValue = null == values[index] ? value : remappingFunction.apply(values[index], value);
+            set(index, newValue);
+            return newValue;
+        }
+        return super.merge(name, value, remappingFunction);
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (null != values[i]) {
+                action.accept(slots.getName(i), values[i]);
+            }
+        }
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super String, ? super Object, ?> function) {
+        for (int i = 0; i < values.length; i++) {
+            if (null != values[i]) {
+                set(i, function.apply(slots.getName(i), values[i]));
+            }
+        }
+        super.replaceAll(function);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        slotSize = 0;
+        super.clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new Values();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public CompactProperties clone() {
+        final CompactProperties clone = new CompactProperties(slots);
+        System.arraycopy(values, 0, clone.values, 0, values.length);
+        clone.slotSize = slotSize;
+        super.forEach(clone::put);
+        return clone;
+    }
+
+    private Object writeReplace() {
+        return new Properties(this);
+    }
+
+    // Sets or, for a null value, removes the property in a slot.
+    private Object set(final int index, final Object value) {
+        return null != value ? put(index, value) : remove(index);
+    }
+
+    private Set<Entry<String, Object>> overflowEntrySet() {
+        return super.entrySet();
+    }
+
+    private final class SlotEntry implements Entry<String, Object> {
+        private final int index;
+
+        private SlotEntry(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return slots.getName(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            return set(index, Objects.requireNonNull(value, "Property values cannot be null"));
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> entry = (Entry<?, ?>) obj;
+            return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int nextIndex = nextIndex(0);
+        private int lastIndex = -1;
+        private Iterator<Entry<String, Object>> overflow;
+        private boolean lastFromOverflow;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < values.length || overflow().hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (nextIndex < values.length) {
+                lastIndex = nextIndex;
+                lastFromOverflow = false;
+                nextIndex = nextIndex(nextIndex + 1);
+                return new SlotEntry(lastIndex);
+            }
+            if (!overflow().hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastIndex = -1;
+            lastFromOverflow = true;
+            return overflow.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastFromOverflow) {
+                overflow.remove();
+                lastFromOverflow = false;
+            } else if (lastIndex > -1) {
+                CompactProperties.this.remove(lastIndex);
+                lastIndex = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        // Finds the next occupied slot, or the number of slots if there are none.
+        private int nextIndex(final int fromIndex) {
+            int index = fromIndex;
+            while (index < values.length && null == values[index]) {
+                index++;
+            }
+            return index;
+        }
+
+        private Iterator<Entry<String, Object>> overflow() {
+            if (null == overflow) {
+                overflow = overflowEntrySet().iterator();
+            }
+            return overflow;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactProperties.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactProperties.this.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> entry = (Entry<?, ?>) obj;
+            final Object value = get(entry.getKey());
+            return null != value && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            return obj instanceof Entry
+                    && CompactProperties.this.remove(((Entry<?, ?>) obj).getKey(), ((Entry<?, ?>) obj).getValue());
+        }
+    }
+
+    private final class KeySet extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<Entry<String, Object>> entries = new EntryIterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return entries.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CompactProperties.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactProperties.this.clear();
+        }
+
+        @Override
+        public boolean contains(final Object name) {
+            return containsKey(name);
+        }
+
+        @Override
+        public boolean remove(final Object name) {
+            if (containsKey(name)) {
+                CompactProperties.this.remove(name);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class Values extends AbstractCollection<Object> {
+        @Override
+        public Iterator<Object> iterator() {
+            final Iterator<Entry<String, Object>> entries = new EntryIterator();
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return entries.next().getValue();
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CompactProperties.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactProperties.this.clear();
+        }
+
+        @Override
+        public boolean contains(final Object value) {
+            return containsValue(value);
+        }
+    }
+}
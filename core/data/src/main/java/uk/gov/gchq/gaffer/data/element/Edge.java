@@ -20,8 +20,6 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -203,6 +201,7 @@ public class Edge extends Element implements EdgeId {
             default:
                 LOGGER.error("Unknown identifier type: {} detected.", identifierType);
         }
+        resetIdentityHash();
     }
 
     /**
@@ -271,6 +270,7 @@ public class Edge extends Element implements EdgeId {
         this.directed = directed;
         this.matchedVertex = matchedVertex;
         orderVertices();
+        resetIdentityHash();
     }
 
     private void orderVertices() {
@@ -294,21 +294,6 @@ public class Edge extends Element implements EdgeId {
         }
     }
 
-    /**
-     * Note this does not include the matchedVertex field.
-     *
-     * @return a hash code value for this edge.
-     */
-    @Override
-    public int hashCode() {
-        return new HashCodeBuilder(21, 3)
-                .appendSuper(super.hashCode())
-                .append(getSource())
-                .append(getDestination())
-                .append(isDirected())
-                .toHashCode();
-    }
-
     /**
      * Note this does not include the matchedVertex field.
      *
@@ -332,12 +317,35 @@ public class Edge extends Element implements EdgeId {
      */
     public boolean equals(final Edge edge) {
         return null != edge
-                && new EqualsBuilder()
-                .append(isDirected(), edge.isDirected())
-                .append(getSource(), edge.getSource())
-                .append(getDestination(), edge.getDestination())
-                .appendSuper(super.equals(edge))
-                .isEquals();
+                && isDirected() == edge.isDirected()
+                && isEqual(getSource(), edge.getSource())
+                && isEqual(getDestination(), edge.getDestination())
+                && super.equals(edge);
+    }
+
+    // The matchedVertex field is not included, consistent with equals
+    @Override
+    int hashIdentifiers() {
+        int hash = hash(source);
+        hash = 31 * hash + hash(destination);
+        return 31 * hash + (directed ? 1231 : 1237);
+    }
+
+    @Override
+    boolean identifiersEqual(final Element element) {
+        if (!(element instanceof Edge)) {
+            return false;
+        }
+
+        final Edge edge = (Edge) element;
+        return directed == edge.isDirected()
+                && isEqual(source, edge.getSource())
+                && isEqual(destination, edge.getDestination());
+    }
+
+    @Override
+    boolean hasImmutableIdentifiers() {
+        return isImmutable(source) && isImmutable(destination);
     }
 
     @Override
@@ -18,13 +18,13 @@ package uk.gov.gchq.gaffer.data.element;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
 
+import java.util.Arrays;
 import java.util.Map.Entry;
+import java.util.Objects;
 
 /**
  * {@code Elements} are the fundamental building blocks of the Graph.
@@ -40,6 +40,17 @@ import java.util.Map.Entry;
  * </ul>
  * <p>
  * Equals has been overridden to check groups are equal. NOTE - it does not compare property values.
+ * </p>
+ * <p>
+ * As elements are used as keys in hash based collections in the innermost
+ * loops of the stores, hashing and equality avoid any allocation. The hash
+ * of the group and identifiers is cached when the identifiers are immutable
+ * values, such as Strings or boxed primitives, and is reset whenever the
+ * group or identifiers are changed. The property values are not cached as
+ * they can be modified directly. {@link #identityHashCode()} and
+ * {@link #identityEquals(Element)} provide a key only strategy, ignoring
+ * the properties, for collections keyed on the group and identifiers.
+ * </p>
  */
 public abstract class Element implements ElementId {
     public static final String DEFAULT_GROUP = "UNKNOWN";
@@ -47,6 +58,12 @@ public abstract class Element implements ElementId {
     private Properties properties;
     private String group;
 
+    /**
+     * The cached hash of the group and identifiers, 0 if it has not been
+     * calculated or cannot be cached.
+     */
+    private transient int identityHash;
+
     Element() {
         this(DEFAULT_GROUP);
     }
@@ -91,10 +108,38 @@ public abstract class Element implements ElementId {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(53, 17)
-                .append(group)
-                .append(properties)
-                .toHashCode();
+        return 31 * identityHashCode() + properties.hashCode();
+    }
+
+    /**
+     * Returns a hash code of the group and identifiers, ignoring the
+     * properties. This is consistent with {@link #identityEquals(Element)}.
+     *
+     * @return the hash code of the group and identifiers.
+     */
+    public int identityHashCode() {
+        int hash = identityHash;
+        if (0 == hash) {
+            hash = 31 * Objects.hashCode(group) + hashIdentifiers();
+            if (hasImmutableIdentifiers()) {
+                identityHash = hash;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether the provided element has the same group and identifiers
+     * as this element, ignoring the properties.
+     *
+     * @param element the element to compare
+     * @return true if the groups and identifiers are equal.
+     */
+    public boolean identityEquals(final Element element) {
+        return this == element
+                || (null != element
+                && Objects.equals(group, element.getGroup())
+                && identifiersEqual(element));
     }
 
     public boolean shallowEquals(final Object obj) {
@@ -105,9 +150,7 @@ public abstract class Element implements ElementId {
 
     public boolean shallowEquals(final Element element) {
         return null != element
-                && new EqualsBuilder()
-                .append(group, element.getGroup())
-                .isEquals();
+                && Objects.equals(group, element.getGroup());
     }
 
     @Override
@@ -122,10 +165,8 @@ public abstract class Element implements ElementId {
 
         final Element element = (Element) obj;
 
-        return new EqualsBuilder()
-                .append(group, element.group)
-                .append(properties, element.properties)
-                .isEquals();
+        return Objects.equals(group, element.group)
+                && Objects.equals(properties, element.properties);
     }
 
     @Override
@@ -144,6 +185,75 @@ public abstract class Element implements ElementId {
 
     abstract void putIdentifier(final IdentifierType identifierType, final Object value);
 
+    abstract int hashIdentifiers();
+
+    abstract boolean identifiersEqual(final Element element);
+
+    abstract boolean hasImmutableIdentifiers();
+
+    /**
+     * Resets the cached identity hash. This must be called whenever the
+     * group or identifiers are changed.
+     */
+    void resetIdentityHash() {
+        identityHash = 0;
+    }
+
+    // Hashes a value consistently with isEqual, including the contents of arrays
+    static int hash(final Object value) {
+        if (null == value) {
+            return 0;
+        }
+        if (!value.getClass().isArray()) {
+            return value.hashCode();
+        }
+        if (value instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) value);
+        }
+        if (value instanceof byte[]) {
+            return Arrays.hashCode((byte[]) value);
+        }
+        if (value instanceof long[]) {
+            return Arrays.hashCode((long[]) value);
+        }
+        if (value instanceof int[]) {
+            return Arrays.hashCode((int[]) value);
+        }
+        if (value instanceof short[]) {
+            return Arrays.hashCode((short[]) value);
+        }
+        if (value instanceof char[]) {
+            return Arrays.hashCode((char[]) value);
+        }
+        if (value instanceof boolean[]) {
+            return Arrays.hashCode((boolean[]) value);
+        }
+        if (value instanceof float[]) {
+            return Arrays.hashCode((float[]) value);
+        }
+        return Arrays.hashCode((double[]) value);
+    }
+
+    // Compares values without allocating, including the contents of arrays
+    static boolean isEqual(final Object value1, final Object value2) {
+        return Objects.deepEquals(value1, value2);
+    }
+
+    // Only values that cannot be modified after the hash is calculated can be cached
+    static boolean isImmutable(final Object value) {
+        return null == value
+                || value instanceof String
+                || value instanceof Long
+                || value instanceof Integer
+                || value instanceof Boolean
+                || value instanceof Double
+                || value instanceof Float
+                || value instanceof Short
+                || value instanceof Byte
+                || value instanceof Character
+                || value instanceof Enum;
+    }
+
     @JsonIgnore
     public Element getElement() {
         return this;
@@ -156,6 +266,7 @@ public abstract class Element implements ElementId {
      */
     void setGroup(final String group) {
         this.group = group;
+        resetIdentityHash();
     }
 
     /**
@@ -18,8 +18,6 @@ package uk.gov.gchq.gaffer.data.element;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +81,7 @@ public class Entity extends Element implements EntityId {
     @Override
     public void setVertex(final Object vertex) {
         this.vertex = vertex;
+        resetIdentityHash();
     }
 
     @Override
@@ -100,6 +99,7 @@ public class Entity extends Element implements EntityId {
         switch (identifierType) {
             case VERTEX:
                 vertex = value;
+                resetIdentityHash();
                 break;
             default:
                 LOGGER.error("Unknown identifier type: {} detected.", identifierType);
@@ -107,13 +107,6 @@ public class Entity extends Element implements EntityId {
         }
     }
 
-    public int hashCode() {
-        return new HashCodeBuilder(23, 5)
-                .appendSuper(super.hashCode())
-                .append(vertex)
-                .toHashCode();
-    }
-
     @Override
     public boolean equals(final Object obj) {
         return null != obj
@@ -123,10 +116,24 @@ public class Entity extends Element implements EntityId {
 
     public boolean equals(final Entity entity) {
         return null != entity
-                && new EqualsBuilder()
-                .appendSuper(super.equals(entity))
-                .append(vertex, entity.getVertex())
-                .isEquals();
+                && isEqual(vertex, entity.getVertex())
+                && super.equals(entity);
+    }
+
+    @Override
+    int hashIdentifiers() {
+        return hash(vertex);
+    }
+
+    @Override
+    boolean identifiersEqual(final Element element) {
+        return element instanceof Entity
+                && isEqual(vertex, ((Entity) element).getVertex());
+    }
+
+    @Override
+    boolean hasImmutableIdentifiers() {
+        return isImmutable(vertex);
     }
 
     @Override
@@ -119,6 +119,18 @@ public class LazyEdge extends Edge {
         return edge.hashCode();
     }
 
+    @Override
+    public int identityHashCode() {
+        loadIdentifiers();
+        return edge.identityHashCode();
+    }
+
+    @Override
+    public boolean identityEquals(final Element element) {
+        loadIdentifiers();
+        return edge.identityEquals(element);
+    }
+
     private void loadIdentifiers() {
         if (!identifiersLoaded) {
             valueLoader.loadIdentifiers(edge);
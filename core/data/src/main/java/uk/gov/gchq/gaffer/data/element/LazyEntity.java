@@ -100,6 +100,18 @@ public class LazyEntity extends Entity {
         return entity.hashCode();
     }
 
+    @Override
+    public int identityHashCode() {
+        loadIdentifiers();
+        return entity.identityHashCode();
+    }
+
+    @Override
+    public boolean identityEquals(final Element element) {
+        loadIdentifiers();
+        return entity.identityEquals(element);
+    }
+
     private void loadIdentifiers() {
         if (!identifiersLoaded) {
             valueLoader.loadIdentifiers(entity);
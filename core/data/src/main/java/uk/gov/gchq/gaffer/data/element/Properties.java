@@ -75,7 +75,7 @@ public class Properties extends HashMap<String, Object> {
     @Override
     public String toString() {
         final ToStringBuilder sb = new ToStringBuilder(this);
-        super.forEach((key, value) -> sb.append(key, String.format("<%s>%s", value.getClass().getCanonicalName(), value)));
+        forEach((key, value) -> sb.append(key, String.format("<%s>%s", value.getClass().getCanonicalName(), value)));
         return sb.build();
     }
 }
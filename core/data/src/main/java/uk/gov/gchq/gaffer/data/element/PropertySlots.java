@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code PropertySlots} is an immutable, ordered table of property names,
+ * mapping each name to a fixed slot index. It is used by
+ * {@link CompactProperties} to store property values in an array rather than
+ * a hash table.
+ * <p>
+ * A single instance should be shared between all the elements of a group,
+ * the schema provides one per element definition so the slot indices match
+ * the order the properties are defined in the schema.
+ * </p>
+ */
+public final class PropertySlots implements Serializable {
+    public static final PropertySlots EMPTY = new PropertySlots(Collections.emptyList());
+
+    private static final long serialVersionUID = -1874407209317542567L;
+
+    private final String[] names;
+    private final Map<String, Integer> indices;
+
+    public PropertySlots(final Collection<String> names) {
+        this.names = names.toArray(new String[names.size()]);
+        this.indices = new HashMap<>(this.names.length * 2);
+        for (int i = 0; i < this.names.length; i++) {
+            if (null == this.names[i]) {
+                throw new IllegalArgumentException("Property names cannot be null");
+            }
+            if (null != indices.put(this.names[i], i)) {
+                throw new IllegalArgumentException("Duplicate property name: " + this.names[i]);
+            }
+        }
+    }
+
+    /**
+     * @param name the property name
+     * @return the slot index for the property, or -1 if the property does not
+     * have a slot.
+     */
+    public int getIndex(final Object name) {
+        final Integer index = indices.get(name);
+        return null != index ? index : -1;
+    }
+
+    /**
+     * @param index the slot index
+     * @return the name of the property in the slot
+     */
+    public String getName(final int index) {
+        return names[index];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj
+                || (null != obj && getClass().equals(obj.getClass()) && Arrays.equals(names, ((PropertySlots) obj).names));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(names);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("names", names)
+                .build();
+    }
+}
@@ -32,11 +32,9 @@ import java.util.function.Function;
  * transformations to an {@link Element}.
  */
 public class ElementTransformer extends TupleAdaptedFunctionComposite<String> {
-    private final ElementTuple elementTuple = new ElementTuple();
-
     public Element apply(final Element element) {
-        elementTuple.setElement(element);
-        apply(elementTuple);
+        // A new tuple is used for each element so a transformer can be shared between threads
+        apply(new ElementTuple(element));
         return element;
     }
 
@@ -54,7 +52,6 @@ public class ElementTransformer extends TupleAdaptedFunctionComposite<String> {
 
         return new EqualsBuilder()
                 .appendSuper(super.equals(obj))
-                .append(elementTuple, that.elementTuple)
                 .isEquals();
     }
 
@@ -62,14 +59,13 @@ public class ElementTransformer extends TupleAdaptedFunctionComposite<String> {
     public int hashCode() {
         return new HashCodeBuilder(47, 17)
                 .appendSuper(super.hashCode())
-                .append(elementTuple)
                 .toHashCode();
     }
 
     @Override
     public String toString() {
         return new ToStringBuilder(this)
-                .append("elementTuple", elementTuple)
+                .appendSuper(super.toString())
                 .toString();
     }
 
@@ -74,7 +74,11 @@ public class GlobalViewElementDefinition extends ViewElementDefinition {
     @SuppressFBWarnings(value = "CN_IDIOM_NO_SUPER_CALL", justification = "Only inherits from Object")
     @Override
     public GlobalViewElementDefinition clone() {
-        return new GlobalViewElementDefinition.Builder().json(toJson(false)).build();
+        final GlobalViewElementDefinition clone = new GlobalViewElementDefinition();
+        copyInto(clone);
+        clone.groups = null != groups ? new LinkedHashSet<>(groups) : null;
+        clone.lock();
+        return clone;
     }
 
     public abstract static class BaseBuilder<CHILD_CLASS extends BaseBuilder<?>> extends ViewElementDefinition.BaseBuilder<CHILD_CLASS> {
@@ -148,7 +148,24 @@ public class View extends ElementDefinitions<ViewElementDefinition, ViewElementD
     @SuppressFBWarnings(value = "CN_IDIOM_NO_SUPER_CALL", justification = "Only inherits from Object")
     @Override
     public View clone() {
-        return fromJson(toJson(false));
+        final View clone = new View();
+        for (final Map.Entry<String, ViewElementDefinition> entry : getEntities().entrySet()) {
+            clone.getEntities().put(entry.getKey(), null != entry.getValue() ? entry.getValue().clone() : null);
+        }
+        for (final Map.Entry<String, ViewElementDefinition> entry : getEdges().entrySet()) {
+            clone.getEdges().put(entry.getKey(), null != entry.getValue() ? entry.getValue().clone() : null);
+        }
+        clone.globalElements = cloneGlobalDefinitions(globalElements);
+        clone.globalEntities = cloneGlobalDefinitions(globalEntities);
+        clone.globalEdges = cloneGlobalDefinitions(globalEdges);
+        clone.lock();
+        return clone;
+    }
+
+    public boolean hasGlobalDefinitions() {
+        return (null != globalElements && !globalElements.isEmpty())
+                || (null != globalEntities && !globalEntities.isEmpty())
+                || (null != globalEdges && !globalEdges.isEmpty());
     }
 
     @Override
@@ -214,7 +231,7 @@ public class View extends ElementDefinitions<ViewElementDefinition, ViewElementD
                 if (newElements.containsKey(group)) {
                     builder.merge(newElements.get(group));
                 }
-                builder.merge(globalElement.clone());
+                builder.merge(globalElement);
                 newElements.put(group, builder.build());
             }
         }
@@ -236,6 +253,18 @@ public class View extends ElementDefinitions<ViewElementDefinition, ViewElementD
         return Collections.unmodifiableMap(newElements);
     }
 
+    private static List<GlobalViewElementDefinition> cloneGlobalDefinitions(final List<GlobalViewElementDefinition> globalDefinitions) {
+        if (null == globalDefinitions) {
+            return null;
+        }
+
+        final List<GlobalViewElementDefinition> clones = new ArrayList<>(globalDefinitions.size());
+        for (final GlobalViewElementDefinition globalDefinition : globalDefinitions) {
+            clones.add(globalDefinition.clone());
+        }
+        return clones;
+    }
+
     private boolean hasFilters(final Function<ViewElementDefinition, Boolean> hasFilters) {
         return hasEdgeFilters(hasFilters) || hasEntityFilters(hasFilters);
     }
@@ -40,6 +40,7 @@ import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -210,7 +211,31 @@ public class ViewElementDefinition implements ElementDefinition {
     @SuppressFBWarnings(value = "CN_IDIOM_NO_SUPER_CALL", justification = "Only inherits from Object")
     @Override
     public ViewElementDefinition clone() {
-        return new ViewElementDefinition.Builder().json(toJson(false)).build();
+        final ViewElementDefinition clone = new ViewElementDefinition();
+        copyInto(clone);
+        clone.lock();
+        return clone;
+    }
+
+    /**
+     * Copies the fields of this element definition into the provided element
+     * definition, without serialising to json. The filters, aggregator and
+     * transformer are copied into new instances so they can be merged
+     * independently, the functions within them are shared as they are not
+     * modified once constructed.
+     *
+     * @param clone the element definition to copy the fields into
+     */
+    protected void copyInto(final ViewElementDefinition clone) {
+        clone.preAggregationFilter = copy(preAggregationFilter);
+        clone.postAggregationFilter = copy(postAggregationFilter);
+        clone.postTransformFilter = copy(postTransformFilter);
+        clone.transformer = copy(transformer);
+        clone.aggregator = copy(aggregator);
+        clone.groupBy = null != groupBy ? new LinkedHashSet<>(groupBy) : null;
+        clone.properties = null != properties ? new HashSet<>(properties) : null;
+        clone.excludeProperties = null != excludeProperties ? new HashSet<>(excludeProperties) : null;
+        clone.transientProperties = new LinkedHashMap<>(transientProperties);
     }
 
     public byte[] toJson(final boolean prettyPrint, final String... fieldsToExclude) throws SchemaException {
@@ -242,7 +267,10 @@ public class ViewElementDefinition implements ElementDefinition {
                 .append(preAggregationFilter, that.preAggregationFilter)
                 .append(postAggregationFilter, that.postAggregationFilter)
                 .append(postTransformFilter, that.postTransformFilter)
+                .append(aggregator, that.aggregator)
                 .append(groupBy, that.groupBy)
+                .append(properties, that.properties)
+                .append(excludeProperties, that.excludeProperties)
                 .append(transientProperties, that.transientProperties)
                 .isEquals();
     }
@@ -254,7 +282,10 @@ public class ViewElementDefinition implements ElementDefinition {
                 .append(preAggregationFilter)
                 .append(postAggregationFilter)
                 .append(postTransformFilter)
+                .append(aggregator)
                 .append(groupBy)
+                .append(properties)
+                .append(excludeProperties)
                 .append(transientProperties)
                 .toHashCode();
     }
@@ -280,6 +311,36 @@ public class ViewElementDefinition implements ElementDefinition {
         transientProperties = Collections.unmodifiableMap(transientProperties);
     }
 
+    private static ElementFilter copy(final ElementFilter filter) {
+        if (null == filter) {
+            return null;
+        }
+
+        final ElementFilter copy = new ElementFilter();
+        copy.getComponents().addAll(filter.getComponents());
+        return copy;
+    }
+
+    private static ElementTransformer copy(final ElementTransformer transformer) {
+        if (null == transformer) {
+            return null;
+        }
+
+        final ElementTransformer copy = new ElementTransformer();
+        copy.getComponents().addAll(transformer.getComponents());
+        return copy;
+    }
+
+    private static ElementAggregator copy(final ElementAggregator aggregator) {
+        if (null == aggregator) {
+            return null;
+        }
+
+        final ElementAggregator copy = new ElementAggregator();
+        copy.getComponents().addAll(aggregator.getComponents());
+        return copy;
+    }
+
     public abstract static class BaseBuilder<CHILD_CLASS extends BaseBuilder<?>> {
         private final ViewElementDefinition elDef;
 
@@ -474,25 +535,25 @@ public class ViewElementDefinition implements ElementDefinition {
                 }
 
                 if (null == getElementDef().preAggregationFilter) {
-                    getElementDef().preAggregationFilter = elementDef.preAggregationFilter;
+                    getElementDef().preAggregationFilter = copy(elementDef.preAggregationFilter);
                 } else if (null != elementDef.preAggregationFilter) {
                     getElementDef().preAggregationFilter.getComponents().addAll(elementDef.preAggregationFilter.getComponents());
                 }
 
                 if (null == getElementDef().postAggregationFilter) {
-                    getElementDef().postAggregationFilter = elementDef.postAggregationFilter;
+                    getElementDef().postAggregationFilter = copy(elementDef.postAggregationFilter);
                 } else if (null != elementDef.postAggregationFilter) {
                     getElementDef().postAggregationFilter.getComponents().addAll(elementDef.postAggregationFilter.getComponents());
                 }
 
                 if (null == getElementDef().postTransformFilter) {
-                    getElementDef().postTransformFilter = elementDef.postTransformFilter;
+                    getElementDef().postTransformFilter = copy(elementDef.postTransformFilter);
                 } else if (null != elementDef.postTransformFilter) {
                     getElementDef().postTransformFilter.getComponents().addAll(elementDef.postTransformFilter.getComponents());
                 }
 
                 if (null == getElementDef().transformer) {
-                    getElementDef().transformer = elementDef.transformer;
+                    getElementDef().transformer = copy(elementDef.transformer);
                 } else if (null != elementDef.transformer) {
                     getElementDef().transformer.getComponents().addAll(elementDef.transformer.getComponents());
                 }
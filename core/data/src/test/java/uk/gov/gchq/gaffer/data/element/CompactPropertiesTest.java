@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPropertiesTest {
+    private static final PropertySlots SLOTS = new PropertySlots(Arrays.asList("count", "name", "flag"));
+
+    @Test
+    public void shouldStoreSlotPropertiesByIndex() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+
+        // When
+        properties.put("name", "value");
+        properties.put(0, 5L);
+
+        // Then
+        assertEquals(2, properties.size());
+        assertEquals(5L, properties.get("count"));
+        assertEquals("value", properties.get(1));
+        assertNull(properties.get(2));
+        assertTrue(properties.containsKey("name"));
+        assertFalse(properties.containsKey("flag"));
+        assertTrue(properties.containsValue(5L));
+    }
+
+    @Test
+    public void shouldStorePropertiesWithoutASlot() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+
+        // When
+        properties.put("count", 1L);
+        properties.put("other", "other value");
+
+        // Then
+        assertEquals(2, properties.size());
+        assertEquals("other value", properties.get("other"));
+        assertEquals(Sets.newHashSet("count", "other"), properties.keySet());
+    }
+
+    @Test
+    public void shouldIgnoreNullNamesAndValues() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+
+        // When
+        properties.put("count", null);
+        properties.put(1, null);
+        properties.put(null, "value");
+
+        // Then
+        assertTrue(properties.isEmpty());
+    }
+
+    @Test
+    public void shouldRemovePropertiesAndKeepOnly() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+        properties.put("name", "value");
+        properties.put("flag", true);
+        properties.put("other", "other value");
+
+        // When
+        properties.remove("count");
+        properties.keepOnly(Sets.newHashSet("name", "other"));
+
+        // Then
+        assertEquals(2, properties.size());
+        assertEquals(Sets.newHashSet("name", "other"), properties.keySet());
+        assertNull(properties.get(0));
+        assertNull(properties.get(2));
+    }
+
+    @Test
+    public void shouldRemovePropertiesWithIterator() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+        properties.put("other", "other value");
+
+        // When
+        final Iterator<String> itr = properties.keySet().iterator();
+        while (itr.hasNext()) {
+            itr.next();
+            itr.remove();
+        }
+
+        // Then
+        assertTrue(properties.isEmpty());
+    }
+
+    @Test
+    public void shouldUpdateSlotPropertiesWithMapDefaultMethods() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+
+        // When
+        properties.merge("count", 2L, (a, b) -> (Long) a + (Long) b);
+        properties.computeIfAbsent("name", name -> "computed");
+        properties.putIfAbsent("name", "ignored");
+        properties.computeIfPresent("flag", (name, value) -> false);
+        properties.entrySet().iterator().next().setValue(10L);
+
+        // Then
+        assertEquals(10L, properties.get("count"));
+        assertEquals("computed", properties.get("name"));
+        assertFalse(properties.containsKey("flag"));
+
+        // When
+        properties.compute("count", (name, value) -> null);
+
+        // Then
+        assertFalse(properties.containsKey("count"));
+        assertEquals(1, properties.size());
+    }
+
+    @Test
+    public void shouldBeEqualToPropertiesWithTheSameValues() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+        properties.put("other", "other value");
+
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("count", 1L);
+        expected.put("other", "other value");
+
+        // When / Then
+        assertEquals(new Properties(expected), properties);
+        assertEquals(properties, new Properties(expected));
+        assertEquals(new Properties(expected).hashCode(), properties.hashCode());
+    }
+
+    @Test
+    public void shouldCloneProperties() {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+        properties.put("other", "other value");
+
+        // When
+        final CompactProperties clone = properties.clone();
+        clone.put("count", 2L);
+
+        // Then
+        assertNotSame(properties, clone);
+        assertSame(SLOTS, clone.getSlots());
+        assertEquals(1L, properties.get("count"));
+        assertEquals(2L, clone.get("count"));
+        assertEquals("other value", clone.get("other"));
+    }
+
+    @Test
+    public void shouldJavaSerialiseAsProperties() throws IOException, ClassNotFoundException {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+        properties.put("other", "other value");
+
+        // When
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(properties);
+        }
+        final Object deserialised;
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialised = in.readObject();
+        }
+
+        // Then
+        assertEquals(Properties.class, deserialised.getClass());
+        assertEquals(properties, deserialised);
+    }
+
+    @Test
+    public void shouldJsonSerialiseElementWithCompactPropertiesAsProperties() throws SerialisationException {
+        // Given
+        final CompactProperties properties = new CompactProperties(SLOTS);
+        properties.put("count", 1L);
+        final Entity entity = new Entity("group", "vertex", properties);
+        final Entity expected = new Entity("group", "vertex", new Properties("count", 1L));
+
+        // When
+        final byte[] json = JSONSerialiser.serialise(entity);
+
+        // Then
+        assertEquals(new String(JSONSerialiser.serialise(expected)), new String(json));
+        assertEquals(expected, JSONSerialiser.deserialise(json, Entity.class));
+    }
+}
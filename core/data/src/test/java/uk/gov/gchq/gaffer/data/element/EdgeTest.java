@@ -680,6 +680,104 @@ public class EdgeTest extends ElementTest {
         }
     }
 
+    @Test
+    public void shouldHaveEqualIdentityWhenOnlyPropertiesAreDifferent() {
+        // Given
+        final Edge edge1 = new Edge.Builder()
+                .group("group")
+                .source("source vertex")
+                .dest("dest vertex")
+                .directed(true)
+                .property("some property", "some value")
+                .build();
+
+        final Edge edge2 = cloneCoreFields(edge1);
+        edge2.putProperty("some property", "some other value");
+
+        // When
+        final boolean isEqual = edge1.identityEquals(edge2);
+
+        // Then
+        assertTrue(isEqual);
+        assertEquals(edge1.identityHashCode(), edge2.identityHashCode());
+        assertNotEquals(edge1, edge2);
+    }
+
+    @Test
+    public void shouldNotHaveEqualIdentityWhenDirectedIsDifferent() {
+        // Given
+        final Edge edge1 = new Edge.Builder()
+                .group("group")
+                .source("source vertex")
+                .dest("dest vertex")
+                .directed(true)
+                .build();
+
+        final Edge edge2 = cloneCoreFields(edge1);
+        edge2.setIdentifiers(edge1.getSource(), edge1.getDestination(), false);
+
+        // When
+        final boolean isEqual = edge1.identityEquals(edge2);
+
+        // Then
+        assertFalse(isEqual);
+        assertNotEquals(edge1.identityHashCode(), edge2.identityHashCode());
+    }
+
+    @Test
+    public void shouldUpdateHashCodeWhenIdentifiersAreChanged() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group("group")
+                .source("source vertex")
+                .dest("dest vertex")
+                .directed(true)
+                .build();
+        final int hashCode = edge.hashCode();
+
+        // When
+        edge.setIdentifiers("source vertex", "different dest vertex", true);
+
+        // Then
+        assertNotEquals(hashCode, edge.hashCode());
+        assertEquals(new Edge.Builder()
+                .group("group")
+                .source("source vertex")
+                .dest("different dest vertex")
+                .directed(true)
+                .build()
+                .hashCode(), edge.hashCode());
+    }
+
+    @Test
+    public void shouldCompareAndHashArrayVerticesByContent() {
+        // Given
+        final byte[] source = {1, 2};
+        final Edge edge1 = new Edge.Builder()
+                .group("group")
+                .source(source)
+                .dest(new byte[]{3})
+                .directed(true)
+                .build();
+        final Edge edge2 = new Edge.Builder()
+                .group("group")
+                .source(new byte[]{1, 2})
+                .dest(new byte[]{3})
+                .directed(true)
+                .build();
+        final int hashCode = edge1.hashCode();
+
+        // When
+        final boolean isEqual = edge1.equals(edge2);
+        source[0] = 5;
+
+        // Then
+        assertTrue(isEqual);
+        assertEquals(hashCode, edge2.hashCode());
+        assertNotEquals(hashCode, edge1.hashCode());
+        assertNotEquals(edge1, edge2);
+    }
+
     private Edge cloneCoreFields(final Edge edge) {
         return new Edge.Builder()
                 .group(edge.getGroup())
@@ -184,6 +184,61 @@ public class EntityTest extends ElementTest {
         assertFalse(entity1.hashCode() == entity2.hashCode());
     }
 
+    @Test
+    public void shouldHaveEqualIdentityWhenOnlyPropertiesAreDifferent() {
+        // Given
+        final Entity entity1 = new Entity("group");
+        entity1.setVertex("identifier");
+        entity1.putProperty("some property", "some value");
+
+        final Entity entity2 = cloneCoreFields(entity1);
+        entity2.putProperty("some property", "some other value");
+
+        // When
+        final boolean isEqual = entity1.identityEquals(entity2);
+
+        // Then
+        assertTrue(isEqual);
+        assertEquals(entity1.identityHashCode(), entity2.identityHashCode());
+        assertFalse(entity1.identityEquals(new Edge("group", "identifier", "identifier", true)));
+    }
+
+    @Test
+    public void shouldUpdateHashCodeWhenVertexIsChanged() {
+        // Given
+        final Entity entity = new Entity("group", "vertex");
+        final int hashCode = entity.hashCode();
+
+        // When
+        entity.setVertex("different vertex");
+
+        // Then
+        assertNotEquals(hashCode, entity.hashCode());
+        assertEquals(new Entity("group", "different vertex").hashCode(), entity.hashCode());
+    }
+
+    @Test
+    public void shouldCompareAndHashArrayVerticesOfAnyTypeByContent() {
+        // Given
+        final Object[][] vertices = {
+                {new long[]{1L, 2L}, new long[]{1L, 2L}},
+                {new int[]{1, 2}, new int[]{1, 2}},
+                {new char[]{'a', 'b'}, new char[]{'a', 'b'}},
+                {new double[]{1.5, 2.5}, new double[]{1.5, 2.5}},
+                {new Object[]{"a", new byte[]{1}}, new Object[]{"a", new byte[]{1}}}
+        };
+
+        for (final Object[] vertexPair : vertices) {
+            // When
+            final Entity entity1 = new Entity("group", vertexPair[0]);
+            final Entity entity2 = new Entity("group", vertexPair[1]);
+
+            // Then
+            assertEquals(entity1, entity2);
+            assertEquals(entity1.hashCode(), entity2.hashCode());
+        }
+    }
+
     @Override
     @Test
     public void shouldSerialiseAndDeserialiseIdentifiers() throws SerialisationException {
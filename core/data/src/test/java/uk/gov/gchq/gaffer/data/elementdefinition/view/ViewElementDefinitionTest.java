@@ -19,6 +19,7 @@ package uk.gov.gchq.gaffer.data.elementdefinition.view;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 
+import uk.gov.gchq.gaffer.commonutil.JsonAssert;
 import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
@@ -38,6 +39,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -225,4 +227,60 @@ public class ViewElementDefinitionTest {
             assertEquals("You cannot set both properties and excludeProperties", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCloneElementDefinitionWithoutSharingFunctionComposites() {
+        // Given
+        final ViewElementDefinition elementDef = new ViewElementDefinition.Builder()
+                .transientProperty(TestPropertyNames.PROP_3, String.class)
+                .preAggregationFilter(new ElementFilter.Builder()
+                        .select(TestPropertyNames.PROP_1)
+                        .execute(new IsMoreThan(1))
+                        .build())
+                .aggregator(new ElementAggregator.Builder()
+                        .select(TestPropertyNames.PROP_1)
+                        .execute(new Max())
+                        .build())
+                .groupBy(TestPropertyNames.PROP_2)
+                .properties(TestPropertyNames.PROP_1, TestPropertyNames.PROP_2)
+                .build();
+
+        // When
+        final ViewElementDefinition clone = elementDef.clone();
+
+        // Then
+        assertEquals(elementDef, clone);
+        JsonAssert.assertEquals(elementDef.toJson(false), clone.toJson(false));
+        assertNotSame(elementDef.getPreAggregationFilter(), clone.getPreAggregationFilter());
+        assertNotSame(elementDef.getAggregator(), clone.getAggregator());
+        assertNotSame(elementDef.getGroupBy(), clone.getGroupBy());
+    }
+
+    @Test
+    public void shouldNotModifyElementDefinitionsWhenMerged() {
+        // Given
+        final ViewElementDefinition elementDef1 = new ViewElementDefinition.Builder()
+                .preAggregationFilter(new ElementFilter.Builder()
+                        .select(TestPropertyNames.PROP_1)
+                        .execute(new IsMoreThan(1))
+                        .build())
+                .build();
+        final ViewElementDefinition elementDef2 = new ViewElementDefinition.Builder()
+                .preAggregationFilter(new ElementFilter.Builder()
+                        .select(TestPropertyNames.PROP_2)
+                        .execute(new IsLessThan(10))
+                        .build())
+                .build();
+
+        // When
+        final ViewElementDefinition mergedElementDef = new ViewElementDefinition.Builder()
+                .merge(elementDef1)
+                .merge(elementDef2)
+                .build();
+
+        // Then
+        assertEquals(2, mergedElementDef.getPreAggregationFilter().getComponents().size());
+        assertEquals(1, elementDef1.getPreAggregationFilter().getComponents().size());
+        assertEquals(1, elementDef2.getPreAggregationFilter().getComponents().size());
+    }
+}
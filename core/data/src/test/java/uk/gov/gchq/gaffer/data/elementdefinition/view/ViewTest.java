@@ -38,6 +38,7 @@ import java.util.Set;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -405,6 +406,42 @@ public class ViewTest {
         assertEquals(cloneFromJson, clone);
     }
 
+    @Test
+    public void shouldCloneViewWithGlobalDefinitionsWithoutSharingElementDefinitions() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.PROP_1)
+                                .execute(new ExampleFilterFunction())
+                                .build())
+                        .build())
+                .edge(TestGroups.EDGE)
+                .globalElements(new GlobalViewElementDefinition.Builder()
+                        .groups(TestGroups.ENTITY)
+                        .groupBy()
+                        .build())
+                .globalEdges(new GlobalViewElementDefinition.Builder()
+                        .transientProperty(TestPropertyNames.PROP_3, String.class)
+                        .build())
+                .build();
+
+        // When
+        final View clone = view.clone();
+
+        // Then
+        assertEquals(view, clone);
+        JsonAssert.assertEquals(view.toJson(false), clone.toJson(false));
+        assertNotSame(view.getEntity(TestGroups.ENTITY), clone.getEntity(TestGroups.ENTITY));
+        assertNotSame(view.getEntity(TestGroups.ENTITY).getPreAggregationFilter(), clone.getEntity(TestGroups.ENTITY).getPreAggregationFilter());
+        assertNotSame(view.getGlobalElements().get(0), clone.getGlobalElements().get(0));
+
+        clone.expandGlobalDefinitions();
+        assertTrue(view.hasGlobalDefinitions());
+        assertFalse(clone.hasGlobalDefinitions());
+        assertNull(view.getEntity(TestGroups.ENTITY).getGroupBy());
+    }
+
     @Test
     public void shouldSerialiseToCompactJson() {
         // Given
@@ -54,7 +54,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -85,6 +87,13 @@ import java.util.stream.Collectors;
  * @see uk.gov.gchq.gaffer.graph.Graph.Builder
  */
 public final class Graph {
+    /**
+     * System property for the maximum number of expanded operation views
+     * cached by each graph. Set to 0 to disable the cache.
+     */
+    public static final String VIEW_CACHE_MAX_SIZE = "gaffer.graph.view-cache.max-size";
+    public static final String VIEW_CACHE_MAX_SIZE_DEFAULT = "100";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(Graph.class);
 
     /**
@@ -94,6 +103,12 @@ public final class Graph {
 
     private GraphConfig config;
 
+    /**
+     * Operation views merged with the graph view and with their global
+     * definitions expanded, keyed on the original operation view.
+     */
+    private final Map<ViewCacheKey, View> viewCache = createViewCache();
+
     /**
      * Constructs a {@code Graph} with the given {@link uk.gov.gchq.gaffer.store.Store}
      * and
@@ -239,21 +254,70 @@ public final class Graph {
                 final View opView;
                 if (null == operationView.getView()) {
                     opView = config.getView();
-                } else if (!operationView.getView().hasGroups()) {
-                    opView = new View.Builder()
-                            .merge(config.getView())
-                            .merge(operationView.getView())
-                            .build();
+                    opView.expandGlobalDefinitions();
+                } else if (!operationView.getView().hasGroups()
+                        || operationView.getView().hasGlobalDefinitions()) {
+                    opView = getExpandedView(operationView.getView());
                 } else {
                     opView = operationView.getView();
                 }
 
-                opView.expandGlobalDefinitions();
                 operationView.setView(opView);
             }
         }
     }
 
+    // Each operation is given its own structural copy of the cached view, so
+    // operations never share a mutable View. The key holds a copy of the
+    // operation view in case the operation's view is modified later.
+    private View getExpandedView(final View opView) {
+        final View graphView = config.getView();
+        View expandedView;
+        synchronized (viewCache) {
+            expandedView = viewCache.get(new ViewCacheKey(opView, graphView));
+        }
+        if (null != expandedView) {
+            return expandedView.clone();
+        }
+
+        if (opView.hasGroups()) {
+            expandedView = opView.clone();
+        } else {
+            expandedView = new View.Builder()
+                    .merge(graphView)
+                    .merge(opView)
+                    .build();
+        }
+        expandedView.expandGlobalDefinitions();
+
+        final ViewCacheKey key = new ViewCacheKey(opView.clone(), graphView);
+        final View cachedView = expandedView.clone();
+        synchronized (viewCache) {
+            viewCache.put(key, cachedView);
+        }
+        return expandedView;
+    }
+
+    private static Map<ViewCacheKey, View> createViewCache() {
+        int maxSize;
+        try {
+            maxSize = Integer.parseInt(System.getProperty(VIEW_CACHE_MAX_SIZE, VIEW_CACHE_MAX_SIZE_DEFAULT).trim());
+        } catch (final NumberFormatException e) {
+            LOGGER.warn("Invalid value for {}, using the default of {}", VIEW_CACHE_MAX_SIZE, VIEW_CACHE_MAX_SIZE_DEFAULT);
+            maxSize = Integer.parseInt(VIEW_CACHE_MAX_SIZE_DEFAULT);
+        }
+
+        final int cacheMaxSize = maxSize;
+        return new LinkedHashMap<ViewCacheKey, View>(16, 0.75f, true) {
+            private static final long serialVersionUID = 4137683213957429475L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ViewCacheKey, View> eldest) {
+                return size() > cacheMaxSize;
+            }
+        };
+    }
+
     /**
      * @param operationClass the operation class to check
      * @return true if the provided operation is supported.
@@ -355,6 +419,44 @@ public final class Graph {
         O execute(final OperationChain<O> operation, final Context context) throws OperationException;
     }
 
+    /**
+     * Key for the view cache. The operation view is compared by value and the
+     * graph view by reference, so a new graph view is never matched with
+     * stale entries.
+     */
+    private static final class ViewCacheKey {
+        private final View opView;
+        private final View graphView;
+        private final int hashCode;
+
+        private ViewCacheKey(final View opView, final View graphView) {
+            this.opView = opView;
+            this.graphView = graphView;
+            this.hashCode = 31 * opView.hashCode() + System.identityHashCode(graphView);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (null == obj || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            final ViewCacheKey that = (ViewCacheKey) obj;
+            return hashCode == that.hashCode
+                    && graphView == that.graphView
+                    && opView.equals(that.opView);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     /**
      * <p>
      * Builder for {@link Graph}.
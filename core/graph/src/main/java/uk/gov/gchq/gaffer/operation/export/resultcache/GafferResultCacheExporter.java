@@ -19,10 +19,11 @@ package uk.gov.gchq.gaffer.operation.export.resultcache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
 import uk.gov.gchq.gaffer.commonutil.CommonConstants;
-import uk.gov.gchq.gaffer.commonutil.iterable.AlwaysValid;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.iterable.TransformIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Edge;
@@ -42,7 +43,12 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.koryphe.impl.predicate.AreIn;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -51,6 +57,12 @@ import java.util.TreeSet;
  * a Gaffer query to a {@link Graph}-backed results cache.
  */
 public class GafferResultCacheExporter implements Exporter {
+    /**
+     * The resultClass property value used for edges holding a chunk of
+     * results serialised by a {@link ResultChunkSerialiser}.
+     */
+    public static final String CHUNKED_RESULT_CLASS = ResultChunkSerialiser.class.getName();
+
     private static final Logger LOGGER = LoggerFactory.getLogger(GafferResultCacheExporter.class);
     private final String jobId;
     private final Context context;
@@ -58,12 +70,40 @@ public class GafferResultCacheExporter implements Exporter {
     private final String visibility;
     private final TreeSet<String> requiredOpAuths;
     private final Set<String> userOpAuths;
+    private final Integer resultsPerEdge;
+    private final ResultChunkSerialiser chunkSerialiser;
 
     public GafferResultCacheExporter(final Context context,
                                      final String jobId,
                                      final Graph resultCache,
                                      final String visibility,
                                      final Set<String> requiredOpAuths) {
+        this(context, jobId, resultCache, visibility, requiredOpAuths, null, false);
+    }
+
+    /**
+     * @param context         the context
+     * @param jobId           the job id to store the results against
+     * @param resultCache     the graph to store the results in
+     * @param visibility      the visibility of the results
+     * @param requiredOpAuths the operation authorisations required to get the results
+     * @param resultsPerEdge  the maximum number of results to pack into a
+     *                        single binary chunk per edge. If null, each result
+     *                        is stored as JSON on its own edge.
+     * @param compressResults if true the binary chunks are compressed
+     */
+    public GafferResultCacheExporter(final Context context,
+                                     final String jobId,
+                                     final Graph resultCache,
+                                     final String visibility,
+                                     final Set<String> requiredOpAuths,
+                                     final Integer resultsPerEdge,
+                                     final boolean compressResults) {
+        if (null != resultsPerEdge && resultsPerEdge < 1) {
+            throw new IllegalArgumentException("resultsPerEdge must be at least 1");
+        }
+        this.resultsPerEdge = resultsPerEdge;
+        this.chunkSerialiser = new ResultChunkSerialiser(compressResults);
         this.context = context;
         this.jobId = jobId;
         this.resultCache = resultCache;
@@ -85,36 +125,31 @@ public class GafferResultCacheExporter implements Exporter {
         }
 
         final long timestamp = System.currentTimeMillis();
-        final Iterable<Element> elements = new TransformIterable<Object, Element>((Iterable) values) {
-            @Override
-            protected Element transform(final Object value) {
-                try {
-                    final Class<?> valueClass;
-                    final byte[] valueJson;
-                    if (null == value) {
-                        valueClass = Object.class;
-                        valueJson = null;
-                    } else {
-                        valueClass = value.getClass();
-                        valueJson = JSONSerialiser.serialise(value);
-                    }
+        final Iterable<Element> elements;
+        if (null == resultsPerEdge) {
+            elements = new TransformIterable<Object, Element>((Iterable) values) {
+                @Override
+                protected Element transform(final Object value) {
+                    try {
+                        final Class<?> valueClass;
+                        final byte[] valueJson;
+                        if (null == value) {
+                            valueClass = Object.class;
+                            valueJson = null;
+                        } else {
+                            valueClass = value.getClass();
+                            valueJson = JSONSerialiser.serialise(value);
+                        }
 
-                    return new Edge.Builder()
-                            .group("result")
-                            .source(jobId)
-                            .dest(key)
-                            .directed(true)
-                            .property("opAuths", requiredOpAuths)
-                            .property("timestamp", timestamp)
-                            .property("visibility", visibility)
-                            .property("resultClass", valueClass.getName())
-                            .property("result", valueJson)
-                            .build();
-                } catch (final SerialisationException e) {
-                    throw new RuntimeException("Unable to serialise results to json", e);
+                        return createResultEdge(key, timestamp, valueClass.getName(), valueJson);
+                    } catch (final SerialisationException e) {
+                        throw new RuntimeException("Unable to serialise results to json", e);
+                    }
                 }
-            }
-        };
+            };
+        } else {
+            elements = () -> new ChunkedResultsIterator(key, timestamp, values.iterator());
+        }
 
         resultCache.execute(new AddElements.Builder()
                 .input(elements)
@@ -142,17 +177,117 @@ public class GafferResultCacheExporter implements Exporter {
         return new TransformJsonResult(edges);
     }
 
-    private static class TransformJsonResult extends TransformIterable<Element, Object> {
-        TransformJsonResult(final Iterable<? extends Element> input) {
-            super(input, new AlwaysValid<>(), false, true);
+    private Edge createResultEdge(final String key, final long timestamp, final String resultClass, final byte[] result) {
+        return new Edge.Builder()
+                .group("result")
+                .source(jobId)
+                .dest(key)
+                .directed(true)
+                .property("opAuths", requiredOpAuths)
+                .property("timestamp", timestamp)
+                .property("visibility", visibility)
+                .property("resultClass", resultClass)
+                .property("result", result)
+                .build();
+    }
+
+    /**
+     * Packs the results into chunks of up to {@link #resultsPerEdge} results,
+     * creating one result edge per chunk.
+     */
+    private class ChunkedResultsIterator implements Iterator<Element> {
+        private final String key;
+        private final long timestamp;
+        private final Iterator<?> values;
+        private final List<Object> chunk = new ArrayList<>();
+
+        ChunkedResultsIterator(final String key, final long timestamp, final Iterator<?> values) {
+            this.key = key;
+            this.timestamp = timestamp;
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return values.hasNext();
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            chunk.clear();
+            while (chunk.size() < resultsPerEdge && values.hasNext()) {
+                chunk.add(values.next());
+            }
+            try {
+                return createResultEdge(key, timestamp, CHUNKED_RESULT_CLASS, chunkSerialiser.serialise(chunk));
+            } catch (final SerialisationException e) {
+                throw new RuntimeException("Unable to serialise results", e);
+            }
+        }
+    }
+
+    /**
+     * Lazily converts result edges back into results. Edges may either hold
+     * a single JSON serialised result or a chunk of results serialised by a
+     * {@link ResultChunkSerialiser}.
+     */
+    private static class TransformJsonResult implements CloseableIterable<Object> {
+        private final CloseableIterable<? extends Element> edges;
+
+        TransformJsonResult(final CloseableIterable<? extends Element> edges) {
+            this.edges = edges;
         }
 
         @Override
-        protected Object transform(final Element edge) {
+        public void close() {
+            edges.close();
+        }
+
+        @Override
+        public CloseableIterator<Object> iterator() {
+            return new CloseableIterator<Object>() {
+                private final CloseableIterator<? extends Element> edgeItr = edges.iterator();
+                private Iterator<Object> chunkItr = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!chunkItr.hasNext()) {
+                        if (!edgeItr.hasNext()) {
+                            return false;
+                        }
+                        chunkItr = transform(edgeItr.next());
+                    }
+                    return true;
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return chunkItr.next();
+                }
+
+                @Override
+                public void close() {
+                    CloseableUtil.close(chunkItr);
+                    edgeItr.close();
+                }
+            };
+        }
+
+        private static Iterator<Object> transform(final Element edge) {
             final String resultClassName = (String) edge.getProperty("resultClass");
             final byte[] resultBytes = (byte[]) edge.getProperty("result");
             if (null == resultClassName || null == resultBytes) {
-                return null;
+                return Collections.singletonList(null).iterator();
+            }
+
+            if (CHUNKED_RESULT_CLASS.equals(resultClassName)) {
+                return ResultChunkSerialiser.deserialise(resultBytes);
             }
 
             final Class<?> resultClass;
@@ -164,7 +299,7 @@ public class GafferResultCacheExporter implements Exporter {
             }
 
             try {
-                return JSONSerialiser.deserialise(resultBytes, resultClass);
+                return Collections.<Object>singletonList(JSONSerialiser.deserialise(resultBytes, resultClass)).iterator();
             } catch (final SerialisationException e) {
                 try {
                     LOGGER.error("Unable to deserialise result: {}", new String(resultBytes, CommonConstants.UTF_8), e);
@@ -199,4 +334,12 @@ public class GafferResultCacheExporter implements Exporter {
     protected Set<String> getUserOpAuths() {
         return userOpAuths;
     }
+
+    protected Integer getResultsPerEdge() {
+        return resultsPerEdge;
+    }
+
+    protected boolean isCompressResults() {
+        return chunkSerialiser.isCompressed();
+    }
 }
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.operation.export.resultcache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.serialisation.FreqMapSerialiser;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.TypeSubTypeValueSerialiser;
+import uk.gov.gchq.gaffer.serialisation.TypeValueSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.BooleanSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.BytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedDateSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedDoubleSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedFloatSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawIntegerSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+import uk.gov.gchq.gaffer.types.FreqMap;
+import uk.gov.gchq.gaffer.types.TypeSubTypeValue;
+import uk.gov.gchq.gaffer.types.TypeValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A {@code ResultChunkSerialiser} packs many results into a single byte array
+ * so they can be stored on one result cache edge.
+ * <p>
+ * Each result is written with a tag that says how it was serialised. Results
+ * of simple classes, such as {@link String}s, numbers and {@link Date}s, are
+ * serialised with a {@link ToBytesSerialiser} from a fixed list of
+ * serialisers for exactly those classes, and the tag is the position of the
+ * serialiser in that list. No class or serialiser names are read from the
+ * chunk.
+ * </p>
+ * <p>
+ * All other results, including subclasses of those classes, are serialised
+ * as JSON within a wrapper that records their classes with
+ * {@link JsonTypeInfo}. The values in {@link Collection}s and {@link Map}s
+ * are written with their classes, so that, for example, a
+ * {@code TreeSet<Long>} is not deserialised as a {@code TreeSet<Integer>}.
+ * Collections and maps are deserialised as an {@link ArrayList},
+ * {@link LinkedHashSet}, {@link TreeSet}, {@link LinkedHashMap} or
+ * {@link TreeMap}, depending on whether they are lists, sets or maps and
+ * whether they are sorted. The chunk can optionally be compressed with
+ * DEFLATE.
+ * </p>
+ * <p>
+ * Results are deserialised lazily, so only one result at a time is held
+ * in memory in addition to the chunk itself.
+ * </p>
+ */
+public class ResultChunkSerialiser {
+    private static final int COMPRESSED_FLAG = 1;
+    private static final int END_TAG = 0;
+    private static final int NULL_TAG = 1;
+    private static final int JSON_TAG = 2;
+    private static final int LIST_TAG = 3;
+    private static final int SET_TAG = 4;
+    private static final int SORTED_SET_TAG = 5;
+    private static final int MAP_TAG = 6;
+    private static final int SORTED_MAP_TAG = 7;
+    private static final int FIRST_SERIALISER_TAG = 8;
+
+    /**
+     * The classes that are serialised with a {@link ToBytesSerialiser} and
+     * their serialisers. The tag of each serialiser is based on its position,
+     * so new serialisers must only be added to the end. Serialisers are only
+     * used for classes they deserialise to exactly. Serialisers for generic
+     * types, e.g. TreeSetStringSerialiser, are not used as they can only
+     * serialise some of the values of those types.
+     */
+    private static final List<Class<?>> SERIALISED_CLASSES = Collections.unmodifiableList(Arrays.asList(
+            String.class, Integer.class, Long.class, Double.class, Float.class, Boolean.class, byte[].class,
+            Date.class, TypeValue.class, TypeSubTypeValue.class, FreqMap.class));
+    private static final List<ToBytesSerialiser> SERIALISERS = Collections.unmodifiableList(Arrays.asList(
+            new StringSerialiser(), new CompactRawIntegerSerialiser(), new CompactRawLongSerialiser(),
+            new OrderedDoubleSerialiser(), new OrderedFloatSerialiser(), new BooleanSerialiser(), new BytesSerialiser(),
+            new OrderedDateSerialiser(), new TypeValueSerialiser(), new TypeSubTypeValueSerialiser(), new FreqMapSerialiser()));
+    private static final Map<Class<?>, Integer> SERIALISER_TAGS = createSerialiserTags();
+
+    private final boolean compressed;
+
+    public ResultChunkSerialiser() {
+        this(false);
+    }
+
+    public ResultChunkSerialiser(final boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Serialises the results into a single chunk.
+     *
+     * @param results the results to serialise
+     * @return the serialised chunk
+     * @throws SerialisationException if a result could not be serialised
+     */
+    public byte[] serialise(final Iterable<?> results) throws SerialisationException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(compressed ? COMPRESSED_FLAG : 0);
+        try (final DataOutputStream output = new DataOutputStream(compressed ? new DeflaterOutputStream(bytes) : bytes)) {
+            for (final Object result : results) {
+                if (null == result) {
+                    CompactRawSerialisationUtils.write(NULL_TAG, output);
+                    continue;
+                }
+
+                final int tag = getTag(result);
+                final byte[] resultBytes = serialiseResult(tag, result);
+                CompactRawSerialisationUtils.write(tag, output);
+                CompactRawSerialisationUtils.write(resultBytes.length, output);
+                output.write(resultBytes);
+            }
+            CompactRawSerialisationUtils.write(END_TAG, output);
+        } catch (final IOException e) {
+            throw new SerialisationException("Unable to serialise results", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lazily deserialises the results in a chunk.
+     *
+     * @param chunk the serialised chunk
+     * @return an iterator of the results in the chunk
+     */
+    public static CloseableIterator<Object> deserialise(final byte[] chunk) {
+        return new ChunkIterator(chunk);
+    }
+
+    private static int getTag(final Object result) {
+        final Integer serialiserTag = SERIALISER_TAGS.get(result.getClass());
+        if (null != serialiserTag) {
+            return serialiserTag;
+        }
+        if (result instanceof SortedSet) {
+            return SORTED_SET_TAG;
+        }
+        if (result instanceof Set) {
+            return SET_TAG;
+        }
+        if (result instanceof Collection) {
+            return LIST_TAG;
+        }
+        if (result instanceof SortedMap) {
+            return SORTED_MAP_TAG;
+        }
+        if (result instanceof Map) {
+            return MAP_TAG;
+        }
+        return JSON_TAG;
+    }
+
+    private static byte[] serialiseResult(final int tag, final Object result) throws SerialisationException {
+        if (tag >= FIRST_SERIALISER_TAG) {
+            return SERIALISERS.get(tag - FIRST_SERIALISER_TAG).serialise(result);
+        }
+        switch (tag) {
+            case JSON_TAG:
+                return JSONSerialiser.serialise(new JsonResult(result));
+            case MAP_TAG:
+            case SORTED_MAP_TAG:
+                return JSONSerialiser.serialise(new JsonMap((Map<?, ?>) result));
+            default:
+                return JSONSerialiser.serialise(new JsonCollection((Collection<?>) result));
+        }
+    }
+
+    private static Object deserialiseResult(final long tag, final byte[] resultBytes) throws SerialisationException {
+        if (tag < JSON_TAG || tag >= FIRST_SERIALISER_TAG + SERIALISERS.size()) {
+            throw new SerialisationException("Invalid result chunk - unknown tag " + tag);
+        }
+        if (tag >= FIRST_SERIALISER_TAG) {
+            return SERIALISERS.get((int) tag - FIRST_SERIALISER_TAG).deserialise(resultBytes);
+        }
+        switch ((int) tag) {
+            case JSON_TAG:
+                return JSONSerialiser.deserialise(resultBytes, JsonResult.class).getResult();
+            case LIST_TAG:
+                return new ArrayList<>(JSONSerialiser.deserialise(resultBytes, JsonCollection.class).getValues());
+            case SET_TAG:
+                return new LinkedHashSet<>(JSONSerialiser.deserialise(resultBytes, JsonCollection.class).getValues());
+            case SORTED_SET_TAG:
+                return new TreeSet<>(JSONSerialiser.deserialise(resultBytes, JsonCollection.class).getValues());
+            case MAP_TAG:
+                return JSONSerialiser.deserialise(resultBytes, JsonMap.class).toMap(new LinkedHashMap<>());
+            case SORTED_MAP_TAG:
+                return JSONSerialiser.deserialise(resultBytes, JsonMap.class).toMap(new TreeMap<>());
+            default:
+                throw new SerialisationException("Invalid result chunk - unknown tag " + tag);
+        }
+    }
+
+    private static Map<Class<?>, Integer> createSerialiserTags() {
+        final Map<Class<?>, Integer> tags = new HashMap<>();
+        for (int i = 0; i < SERIALISED_CLASSES.size(); i++) {
+            tags.put(SERIALISED_CLASSES.get(i), FIRST_SERIALISER_TAG + i);
+        }
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * Wraps a result that is serialised as JSON, so its class is written
+     * with it.
+     */
+    private static final class JsonResult {
+        private Object result;
+
+        // Required for deserialisation
+        private JsonResult() {
+        }
+
+        private JsonResult(final Object result) {
+            this.result = result;
+        }
+
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.WRAPPER_OBJECT, property = "class")
+        public Object getResult() {
+            return result;
+        }
+
+        public void setResult(final Object result) {
+            this.result = result;
+        }
+    }
+
+    /**
+     * Wraps the values of a collection, so the class of each value is
+     * written with it.
+     */
+    private static final class JsonCollection {
+        private List<Object> values;
+
+        // Required for deserialisation
+        private JsonCollection() {
+        }
+
+        private JsonCollection(final Collection<?> values) {
+            this.values = new ArrayList<>(values);
+        }
+
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.WRAPPER_OBJECT, property = "class")
+        public List<Object> getValues() {
+            return values;
+        }
+
+        public void setValues(final List<Object> values) {
+            this.values = values;
+        }
+    }
+
+    /**
+     * Wraps the keys and values of a map, so the class of each key and
+     * value is written with it.
+     */
+    private static final class JsonMap {
+        private List<Object> keys;
+        private List<Object> values;
+
+        // Required for deserialisation
+        private JsonMap() {
+        }
+
+        private JsonMap(final Map<?, ?> map) {
+            this.keys = new ArrayList<>(map.keySet());
+            this.values = new ArrayList<>(map.values());
+        }
+
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.WRAPPER_OBJECT, property = "class")
+        public List<Object> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(final List<Object> keys) {
+            this.keys = keys;
+        }
+
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.WRAPPER_OBJECT, property = "class")
+        public List<Object> getValues() {
+            return values;
+        }
+
+        public void setValues(final List<Object> values) {
+            this.values = values;
+        }
+
+        private Map<Object, Object> toMap(final Map<Object, Object> map) throws SerialisationException {
+            if (null == keys || null == values || keys.size() != values.size()) {
+                throw new SerialisationException("Invalid result chunk - the map keys and values do not match");
+            }
+            final Iterator<Object> valuesItr = values.iterator();
+            for (final Object key : keys) {
+                map.put(key, valuesItr.next());
+            }
+            return map;
+        }
+    }
+
+    private static final class ChunkIterator implements CloseableIterator<Object> {
+        private final DataInputStream input;
+        private boolean hasNext;
+        private Object next;
+
+        private ChunkIterator(final byte[] chunk) {
+            if (null == chunk || 0 == chunk.length) {
+                throw new IllegalArgumentException("Result chunk is empty");
+            }
+            final InputStream bytes = new ByteArrayInputStream(chunk, 1, chunk.length - 1);
+            input = new DataInputStream(COMPRESSED_FLAG == (chunk[0] & COMPRESSED_FLAG) ? new InflaterInputStream(bytes) : bytes);
+            readNext();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            final Object result = next;
+            readNext();
+            return result;
+        }
+
+        @Override
+        public void close() {
+            hasNext = false;
+            next = null;
+            try {
+                input.close();
+            } catch (final IOException e) {
+                // ignore - the chunk is held in memory
+            }
+        }
+
+        private void readNext() {
+            try {
+                final long tag = CompactRawSerialisationUtils.read(input);
+                if (END_TAG == tag) {
+                    close();
+                    return;
+                }
+
+                hasNext = true;
+                if (NULL_TAG == tag) {
+                    next = null;
+                    return;
+                }
+
+                final byte[] resultBytes = new byte[(int) CompactRawSerialisationUtils.read(input)];
+                input.readFully(resultBytes);
+                next = deserialiseResult(tag, resultBytes);
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to deserialise result chunk", e);
+            }
+        }
+    }
+}
@@ -40,6 +40,15 @@ public class ExportToGafferResultCacheHandler extends ExportToHandler<ExportToGa
 
     private String cacheStorePropertiesPath;
 
+    /**
+     * The maximum number of results to pack into a single binary chunk on
+     * each result edge. If null, each result is stored as JSON on its own
+     * edge.
+     */
+    private Integer resultsPerEdge;
+
+    private boolean compressResults;
+
     @Override
     protected Class<GafferResultCacheExporter> getExporterClass() {
         return GafferResultCacheExporter.class;
@@ -49,7 +58,7 @@ public class ExportToGafferResultCacheHandler extends ExportToHandler<ExportToGa
     protected GafferResultCacheExporter createExporter(final ExportToGafferResultCache export, final Context context, final Store store) {
         return new GafferResultCacheExporter(
                 context, context.getJobId(), createGraph(store),
-                visibility, export.getOpAuths());
+                visibility, export.getOpAuths(), resultsPerEdge, compressResults);
     }
 
     protected Graph createGraph(final Store store) {
@@ -87,4 +96,20 @@ public class ExportToGafferResultCacheHandler extends ExportToHandler<ExportToGa
     public void setStorePropertiesPath(final String cacheStorePropertiesPath) {
         this.cacheStorePropertiesPath = cacheStorePropertiesPath;
     }
+
+    public Integer getResultsPerEdge() {
+        return resultsPerEdge;
+    }
+
+    public void setResultsPerEdge(final Integer resultsPerEdge) {
+        this.resultsPerEdge = resultsPerEdge;
+    }
+
+    public boolean isCompressResults() {
+        return compressResults;
+    }
+
+    public void setCompressResults(final boolean compressResults) {
+        this.compressResults = compressResults;
+    }
 }
@@ -1117,6 +1117,63 @@ public class GraphTest {
         verify(store).execute(clonedOpChain, context);
     }
 
+    @Test
+    public void shouldGiveEachOperationItsOwnCopyOfCachedExpandedView() throws OperationException {
+        // Given
+        final Store store = mock(Store.class);
+        given(store.getSchema()).willReturn(new Schema());
+        given(store.getProperties()).willReturn(new StoreProperties());
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId(GRAPH_ID)
+                        .view(new View.Builder()
+                                .entity(TestGroups.ENTITY)
+                                .build())
+                        .build())
+                .store(store)
+                .build();
+        final User user = new User();
+        final Context context = mock(Context.class);
+        given(context.getUser()).willReturn(user);
+        given(store.createContext(user)).willReturn(context);
+
+        final View opView = new View.Builder()
+                .globalElements(new GlobalViewElementDefinition.Builder()
+                        .groupBy()
+                        .build())
+                .build();
+        final GetElements operation1 = new GetElements.Builder()
+                .view(opView)
+                .build();
+        final GetElements operation2 = new GetElements.Builder()
+                .view(opView.clone())
+                .build();
+
+        final OperationChain<Integer> opChain1 = mock(OperationChain.class);
+        final OperationChain<Integer> clonedOpChain1 = mock(OperationChain.class);
+        given(opChain1.shallowClone()).willReturn(clonedOpChain1);
+        given(clonedOpChain1.getOperations()).willReturn(Lists.newArrayList(operation1));
+        final OperationChain<Integer> opChain2 = mock(OperationChain.class);
+        final OperationChain<Integer> clonedOpChain2 = mock(OperationChain.class);
+        given(opChain2.shallowClone()).willReturn(clonedOpChain2);
+        given(clonedOpChain2.getOperations()).willReturn(Lists.newArrayList(operation2));
+
+        // When
+        graph.execute(opChain1, user);
+        graph.execute(opChain2, user);
+
+        // Then
+        assertEquals(new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .groupBy()
+                        .build())
+                .build(), operation1.getView());
+        assertEquals(operation1.getView(), operation2.getView());
+        assertNotSame(operation1.getView(), operation2.getView());
+        assertNotSame(operation1.getView().getEntity(TestGroups.ENTITY), operation2.getView().getEntity(TestGroups.ENTITY));
+        assertTrue(opView.hasGlobalDefinitions());
+    }
+
     @Test
     public void shouldThrowExceptionIfStoreClassPropertyIsNotSet() throws OperationException {
         try {
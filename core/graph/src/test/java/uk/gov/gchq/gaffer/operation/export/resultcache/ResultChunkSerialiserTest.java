@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.operation.export.resultcache;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResultChunkSerialiserTest {
+    private final List<Object> results = Arrays.asList(
+            1, "2", null, 3L, "4",
+            new Entity(TestGroups.ENTITY, "vertex"),
+            new Edge.Builder()
+                    .group(TestGroups.EDGE)
+                    .source("source")
+                    .dest("dest")
+                    .directed(true)
+                    .build(),
+            Collections.singletonMap("key", "value"));
+
+    @Test
+    public void shouldSerialiseAndDeserialiseResults() throws SerialisationException {
+        // Given
+        final ResultChunkSerialiser serialiser = new ResultChunkSerialiser();
+
+        // When
+        final byte[] chunk = serialiser.serialise(results);
+
+        // Then
+        assertEquals(results, Lists.newArrayList(ResultChunkSerialiser.deserialise(chunk)));
+    }
+
+    @Test
+    public void shouldSerialiseAndDeserialiseCompressedResults() throws SerialisationException {
+        // Given
+        final ResultChunkSerialiser serialiser = new ResultChunkSerialiser(true);
+
+        // When
+        final byte[] chunk = serialiser.serialise(results);
+
+        // Then
+        assertEquals(results, Lists.newArrayList(ResultChunkSerialiser.deserialise(chunk)));
+    }
+
+    @Test
+    public void shouldSerialiseAndDeserialiseCollectionsWithTheirValueTypes() throws SerialisationException {
+        // Given
+        final List<Object> collections = Arrays.asList(
+                new TreeSet<>(Arrays.asList(1L, 2L, 20000000000L)),
+                new TreeSet<>(Arrays.asList("a\\,b", "c,d")),
+                Arrays.asList(new Entity(TestGroups.ENTITY, "vertex"), 1L, 2));
+
+        // When
+        final List<Object> result = Lists.newArrayList(ResultChunkSerialiser.deserialise(new ResultChunkSerialiser().serialise(collections)));
+
+        // Then
+        assertEquals(collections, result);
+        for (final Object value : (TreeSet<?>) result.get(0)) {
+            assertEquals(Long.class, value.getClass());
+        }
+    }
+
+    @Test
+    public void shouldSerialiseAndDeserialiseMapsWithTheirKeyAndValueTypes() throws SerialisationException {
+        // Given
+        final Map<Object, Object> map = new LinkedHashMap<>();
+        map.put(1L, new Entity(TestGroups.ENTITY, "vertex"));
+        map.put("key", 2L);
+        final TreeMap<Long, Integer> sortedMap = new TreeMap<>();
+        sortedMap.put(20000000000L, 1);
+        sortedMap.put(1L, 2);
+        final List<Object> maps = Arrays.asList(map, sortedMap);
+
+        // When
+        final List<Object> result = Lists.newArrayList(ResultChunkSerialiser.deserialise(new ResultChunkSerialiser().serialise(maps)));
+
+        // Then
+        assertEquals(maps, result);
+        assertEquals(Arrays.asList(1L, "key"), new ArrayList<>(((Map<?, ?>) result.get(0)).keySet()));
+        assertEquals(TreeMap.class, result.get(1).getClass());
+        assertEquals(Long.class, ((TreeMap<?, ?>) result.get(1)).firstKey().getClass());
+    }
+
+    @Test
+    public void shouldSerialiseAndDeserialiseSubclassesOfSimpleClasses() throws SerialisationException {
+        // Given
+        final List<Object> dates = Arrays.asList(new Timestamp(1234567L), new Date(1234567L));
+
+        // When
+        final List<Object> result = Lists.newArrayList(ResultChunkSerialiser.deserialise(new ResultChunkSerialiser().serialise(dates)));
+
+        // Then
+        assertEquals(dates, result);
+        assertEquals(Timestamp.class, result.get(0).getClass());
+        assertEquals(Date.class, result.get(1).getClass());
+    }
+
+    @Test
+    public void shouldSerialiseAndDeserialiseEmptyResults() throws SerialisationException {
+        // Given
+        final ResultChunkSerialiser serialiser = new ResultChunkSerialiser(true);
+
+        // When
+        final byte[] chunk = serialiser.serialise(Collections.emptyList());
+
+        // Then
+        assertFalse(ResultChunkSerialiser.deserialise(chunk).hasNext());
+    }
+
+    @Test
+    public void shouldCompressRepetitiveResults() throws SerialisationException {
+        // Given
+        final List<String> repetitiveResults = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            repetitiveResults.add("a repetitive result " + (i % 10));
+        }
+
+        // When
+        final byte[] chunk = new ResultChunkSerialiser(false).serialise(repetitiveResults);
+        final byte[] compressedChunk = new ResultChunkSerialiser(true).serialise(repetitiveResults);
+
+        // Then
+        assertTrue(compressedChunk.length < chunk.length / 10);
+        assertEquals(repetitiveResults, Lists.newArrayList(ResultChunkSerialiser.deserialise(compressedChunk)));
+    }
+
+    @Test
+    public void shouldStopIteratingWhenClosed() throws SerialisationException {
+        // Given
+        final byte[] chunk = new ResultChunkSerialiser().serialise(results);
+        final CloseableIterator<Object> itr = ResultChunkSerialiser.deserialise(chunk);
+        itr.next();
+
+        // When
+        itr.close();
+
+        // Then
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void shouldRejectUnknownTags() throws SerialisationException {
+        // Given
+        final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        chunk.write(0);
+        CompactRawSerialisationUtils.write(1000, chunk);
+        CompactRawSerialisationUtils.write(1, chunk);
+        chunk.write(0);
+
+        // When / Then
+        try {
+            ResultChunkSerialiser.deserialise(chunk.toByteArray());
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause().getMessage().contains("unknown tag 1000"));
+        }
+    }
+}
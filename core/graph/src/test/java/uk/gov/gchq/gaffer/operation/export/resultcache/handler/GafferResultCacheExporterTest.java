@@ -16,6 +16,7 @@
 
 package uk.gov.gchq.gaffer.operation.export.resultcache.handler;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,6 +35,7 @@ import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.export.resultcache.GafferResultCacheExporter;
+import uk.gov.gchq.gaffer.operation.export.resultcache.ResultChunkSerialiser;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
@@ -41,6 +43,7 @@ import uk.gov.gchq.gaffer.store.StoreProperties;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -159,6 +162,63 @@ public class GafferResultCacheExporterTest {
         assertEquals(Collections.emptyList(), Lists.newArrayList(cachedResults));
     }
 
+    @Test
+    public void shouldAddResultsInCompressedChunks() throws OperationException, SerialisationException {
+        // Given
+        final GafferResultCacheExporter exporter = new GafferResultCacheExporter(
+                context, jobId, resultCache, visibility, requiredOpAuths, 2, true
+        );
+
+        // When
+        exporter.add(key, results);
+
+        // Then
+        final ArgumentCaptor<OperationChain> opChain = ArgumentCaptor.forClass(OperationChain.class);
+        verify(store).execute(opChain.capture(), Mockito.any(Context.class));
+        final AddElements addElements = (AddElements) opChain.getValue().getOperations().get(0);
+        final List<Element> elements = Lists.newArrayList(addElements.getInput());
+        assertEquals(2, elements.size());
+        final List<Object> chunkedResults = new ArrayList<>();
+        for (final Element element : elements) {
+            assertEquals(GafferResultCacheExporter.CHUNKED_RESULT_CLASS, element.getProperty("resultClass"));
+            assertEquals(requiredOpAuths, element.getProperty("opAuths"));
+            assertEquals(visibility, element.getProperty("visibility"));
+            Iterators.addAll(chunkedResults, ResultChunkSerialiser.deserialise((byte[]) element.getProperty("result")));
+        }
+        assertEquals(results, chunkedResults);
+    }
+
+    @Test
+    public void shouldGetChunkedAndJsonResults() throws OperationException, SerialisationException {
+        // Given
+        final long timestamp = System.currentTimeMillis();
+        final List<Element> cachedEdges = new ArrayList<>(createCachedEdges(timestamp, serialisedResults));
+        cachedEdges.add(new Edge.Builder()
+                .group("result")
+                .source(jobId)
+                .dest(key)
+                .directed(true)
+                .property("opAuths", requiredOpAuths)
+                .property("timestamp", timestamp)
+                .property("visibility", visibility)
+                .property("resultClass", GafferResultCacheExporter.CHUNKED_RESULT_CLASS)
+                .property("result", new ResultChunkSerialiser(true).serialise(results))
+                .build());
+        given(store.execute(Mockito.any(OperationChain.class), Mockito.any())).willReturn(new WrappedCloseableIterable<>(cachedEdges));
+
+        final GafferResultCacheExporter exporter = new GafferResultCacheExporter(
+                context, jobId, resultCache, visibility, requiredOpAuths
+        );
+
+        // When
+        final CloseableIterable<?> cachedResults = exporter.get(key);
+
+        // Then
+        final List<Object> expectedResults = new ArrayList<>(results);
+        expectedResults.addAll(results);
+        assertEquals(expectedResults, Lists.newArrayList(cachedResults));
+    }
+
     private List<Element> createCachedEdges(final Object timestamp, final Object... values) {
         return Arrays.asList(
                 new Edge.Builder()
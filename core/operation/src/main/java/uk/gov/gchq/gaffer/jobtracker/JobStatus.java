@@ -33,5 +33,16 @@ public enum JobStatus {
     /**
      * An error occured while executing the Gaffer job.
      */
-    FAILED
+    FAILED,
+
+    /**
+     * The Gaffer job was not run, as the store had too many jobs queued or
+     * the user had too many jobs queued or running.
+     */
+    REJECTED,
+
+    /**
+     * The Gaffer job was cancelled before it completed.
+     */
+    CANCELLED
 }
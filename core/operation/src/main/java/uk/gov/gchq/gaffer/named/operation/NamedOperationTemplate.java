@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.named.operation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.OperationChainDAO;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@code NamedOperationTemplate} is the compiled form of the operation
+ * chain of a {@link NamedOperationDetail}.
+ * <p>
+ * The operation chain json is parsed into a tree once, when the template is
+ * created, and each {@code "${paramName}"} value for a declared parameter is
+ * recorded as a parameter slot. The default value of each parameter is
+ * converted to a json node up front. Binding parameters converts each
+ * provided value to the declared value class, copies only the parts of the
+ * tree which contain parameter slots, fills in the slots and binds the tree to
+ * an {@link OperationChain}. No string substitution or json text parsing is
+ * done when the template is bound.
+ * </p>
+ */
+public class NamedOperationTemplate {
+    private final String operations;
+    private final Map<String, ParameterDetail> parameters;
+    private final boolean hasParameters;
+    private final JsonNode template;
+    private final Map<String, JsonNode> defaultValues;
+
+    // The container nodes which contain a parameter slot, directly or indirectly
+    private final Set<JsonNode> containsSlot = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public NamedOperationTemplate(final String operations, final Map<String, ParameterDetail> parameters) {
+        if (null == operations) {
+            throw new IllegalArgumentException("Operation Chain must not be empty");
+        }
+        this.operations = operations;
+        this.parameters = null != parameters ? parameters : Collections.emptyMap();
+        this.hasParameters = null != parameters;
+
+        try {
+            template = JSONSerialiser.getJsonNodeFromString(operations);
+        } catch (final SerialisationException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        findSlots(template);
+
+        defaultValues = new HashMap<>(this.parameters.size());
+        for (final Map.Entry<String, ParameterDetail> entry : this.parameters.entrySet()) {
+            defaultValues.put(entry.getKey(), toNode(entry.getValue().getDefaultValue()));
+        }
+    }
+
+    /**
+     * @param operations the operation chain json
+     * @param parameters the parameter details
+     * @return true if this template was compiled from the provided operation
+     * chain json and parameter details
+     */
+    public boolean isCompiledFrom(final String operations, final Map<String, ParameterDetail> parameters) {
+        return this.operations.equals(operations)
+                && (hasParameters ? this.parameters.equals(parameters) : null == parameters);
+    }
+
+    /**
+     * Binds the default value of every parameter into the template. If a
+     * parameter does not have a default, null is used.
+     *
+     * @return the {@link OperationChain}
+     * @throws IllegalArgumentException if binding the parameters fails
+     */
+    public OperationChain bindDefaults() {
+        return toOperationChain(defaultValues);
+    }
+
+    /**
+     * Binds the provided parameter values into the template, using the
+     * default value for any parameter that has not been provided.
+     *
+     * @param executionParams the parameters for the {@link uk.gov.gchq.gaffer.operation.Operation} to be executed
+     * @return the {@link OperationChain}
+     * @throws IllegalArgumentException if a parameter is not recognised, a
+     *                                  required parameter is missing or
+     *                                  binding the parameters fails
+     */
+    public OperationChain bind(final Map<String, Object> executionParams) {
+        if (!hasParameters) {
+            return toOperationChain(defaultValues);
+        }
+
+        if (null == executionParams || executionParams.isEmpty()) {
+            for (final Map.Entry<String, ParameterDetail> entry : parameters.entrySet()) {
+                if (entry.getValue().isRequired()) {
+                    throw new IllegalArgumentException("Missing parameter " + entry.getKey() + " with no default");
+                }
+            }
+            return toOperationChain(defaultValues);
+        }
+
+        if (!parameters.keySet().containsAll(executionParams.keySet())) {
+            throw new IllegalArgumentException("Unexpected parameter name in NamedOperation");
+        }
+
+        final ObjectMapper mapper = JSONSerialiser.getMapper();
+        final Map<String, JsonNode> values = new HashMap<>(defaultValues);
+        for (final Map.Entry<String, ParameterDetail> entry : parameters.entrySet()) {
+            final String paramKey = entry.getKey();
+            if (executionParams.containsKey(paramKey)) {
+                final Object paramObj = mapper.convertValue(executionParams.get(paramKey), entry.getValue().getValueClass());
+                values.put(paramKey, toNode(paramObj));
+            } else if (entry.getValue().isRequired()) {
+                throw new IllegalArgumentException("Missing parameter " + paramKey + " with no default");
+            }
+        }
+        return toOperationChain(values);
+    }
+
+    private OperationChain toOperationChain(final Map<String, JsonNode> values) {
+        try {
+            return JSONSerialiser.getMapper().treeToValue(bindSlots(template, values), OperationChainDAO.class);
+        } catch (final Exception e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    // Returns true if the node is, or contains, a parameter slot
+    private boolean findSlots(final JsonNode node) {
+        if (node.isContainerNode()) {
+            boolean found = false;
+            for (final JsonNode child : node) {
+                found = findSlots(child) || found;
+            }
+            if (found) {
+                containsSlot.add(node);
+            }
+            return found;
+        }
+        return null != getParamName(node);
+    }
+
+    // Copies the containers that contain slots and shares everything else, which is never modified
+    private JsonNode bindSlots(final JsonNode node, final Map<String, JsonNode> values) {
+        if (!containsSlot.contains(node)) {
+            final String paramName = getParamName(node);
+            return null != paramName ? values.get(paramName) : node;
+        }
+
+        if (node.isArray()) {
+            final ArrayNode copy = ((ArrayNode) node).arrayNode();
+            for (final JsonNode child : node) {
+                copy.add(bindSlots(child, values));
+            }
+            return copy;
+        }
+
+        final ObjectNode copy = ((ObjectNode) node).objectNode();
+        final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            copy.set(field.getKey(), bindSlots(field.getValue(), values));
+        }
+        return copy;
+    }
+
+    private String getParamName(final JsonNode node) {
+        if (node.isTextual()) {
+            final String text = node.textValue();
+            if (text.startsWith("${") && text.endsWith("}")) {
+                final String paramName = text.substring(2, text.length() - 1);
+                if (parameters.containsKey(paramName)) {
+                    return paramName;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static JsonNode toNode(final Object value) {
+        final JsonNode node = JSONSerialiser.getMapper().valueToTree(value);
+        return null != node ? node : NullNode.getInstance();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.named.operation;
+
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.impl.Limit;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NamedOperationTemplateTest {
+    private static final String OPERATIONS = "{ \"operations\": [ { \"class\":\"uk.gov.gchq.gaffer.operation.impl.get.GetAllElements\" }, "
+            + "{ \"class\":\"uk.gov.gchq.gaffer.operation.impl.Limit\", \"resultLimit\": \"${limit}\", \"truncate\": \"${truncate}\" } ] }";
+
+    @Test
+    public void shouldBindProvidedParametersConvertedToTheirValueClass() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, createParameters(false));
+        final Map<String, Object> params = Maps.newHashMap();
+        params.put("limit", 5L);
+        params.put("truncate", "false");
+
+        // When
+        final OperationChain<?> opChain = template.bind(params);
+
+        // Then
+        assertEquals(2, opChain.getOperations().size());
+        assertEquals(GetAllElements.class, opChain.getOperations().get(0).getClass());
+        final Limit limit = (Limit) opChain.getOperations().get(1);
+        assertEquals(5, (int) limit.getResultLimit());
+        assertFalse(limit.getTruncate());
+    }
+
+    @Test
+    public void shouldBindDefaultsForParametersNotProvided() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, createParameters(false));
+
+        // When
+        final Limit limit = (Limit) template.bind(null).getOperations().get(1);
+
+        // Then
+        assertEquals(10, (int) limit.getResultLimit());
+        assertTrue(limit.getTruncate());
+    }
+
+    @Test
+    public void shouldCreateNewOperationsEachTimeTheTemplateIsBound() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, createParameters(false));
+        final Map<String, Object> params = Maps.newHashMap();
+        params.put("limit", 1);
+
+        // When
+        final OperationChain<?> opChain1 = template.bind(params);
+        params.put("limit", 2);
+        final OperationChain<?> opChain2 = template.bind(params);
+
+        // Then
+        assertNotSame(opChain1.getOperations().get(0), opChain2.getOperations().get(0));
+        assertEquals(1, (int) ((Limit) opChain1.getOperations().get(1)).getResultLimit());
+        assertEquals(2, (int) ((Limit) opChain2.getOperations().get(1)).getResultLimit());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfRequiredParameterIsMissing() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, createParameters(true));
+
+        // When / Then
+        try {
+            template.bind(Maps.newHashMap());
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("limit"));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfParameterIsNotRecognised() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, createParameters(false));
+        final Map<String, Object> params = Maps.newHashMap();
+        params.put("unknown", 1L);
+
+        // When / Then
+        try {
+            template.bind(params);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Unexpected parameter name in NamedOperation", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfParameterHasTheWrongType() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, createParameters(false));
+        final Map<String, Object> params = Maps.newHashMap();
+        params.put("limit", new ArrayList<>());
+
+        // When / Then
+        try {
+            template.bind(params);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void shouldOnlyBeCompiledFromTheSameOperationsAndParameters() {
+        // Given
+        final Map<String, ParameterDetail> parameters = createParameters(false);
+        final NamedOperationTemplate template = new NamedOperationTemplate(OPERATIONS, parameters);
+
+        // When / Then
+        assertTrue(template.isCompiledFrom(OPERATIONS, createParameters(false)));
+        assertFalse(template.isCompiledFrom(OPERATIONS, createParameters(true)));
+        assertFalse(template.isCompiledFrom(OPERATIONS.replace("truncate", "other"), parameters));
+        assertFalse(template.isCompiledFrom(OPERATIONS, null));
+    }
+
+    private static Map<String, ParameterDetail> createParameters(final boolean limitRequired) {
+        final Map<String, ParameterDetail> parameters = Maps.newHashMap();
+        parameters.put("limit", new ParameterDetail.Builder()
+                .description("Limit param")
+                .valueClass(Long.class)
+                .defaultValue(limitRequired ? null : 10L)
+                .required(limitRequired)
+                .build());
+        parameters.put("truncate", new ParameterDetail.Builder()
+                .description("Truncate param")
+                .valueClass(Boolean.class)
+                .defaultValue(true)
+                .build());
+        return parameters;
+    }
+}
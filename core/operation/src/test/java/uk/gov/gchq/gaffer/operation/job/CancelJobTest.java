@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.operation.job;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jobtracker.JobDetail;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationTest;
+import uk.gov.gchq.gaffer.operation.impl.job.CancelJob;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class CancelJobTest extends OperationTest<CancelJob> {
+    @Test
+    public void shouldJSONSerialiseAndDeserialise() throws SerialisationException {
+        // Given
+        final CancelJob operation = new CancelJob.Builder()
+                .jobId("jobId")
+                .build();
+
+        // When
+        byte[] json = JSONSerialiser.serialise(operation, true);
+        final CancelJob deserialisedOp = JSONSerialiser.deserialise(json, CancelJob.class);
+
+        // Then
+        assertEquals("jobId", deserialisedOp.getJobId());
+    }
+
+    @Test
+    @Override
+    public void builderShouldCreatePopulatedOperation() {
+        // When
+        final CancelJob op = new CancelJob.Builder()
+                .jobId("jobId")
+                .build();
+
+        // Then
+        assertEquals("jobId", op.getJobId());
+    }
+
+    @Test
+    @Override
+    public void shouldShallowCloneOperation() {
+        // Given
+        final CancelJob cancelJob = new CancelJob.Builder()
+                .jobId("jobId")
+                .build();
+
+        // When
+        final CancelJob clone = cancelJob.shallowClone();
+
+        // Then
+        assertNotSame(cancelJob, clone);
+        assertEquals("jobId", clone.getJobId());
+    }
+
+    @Test
+    public void shouldGetOutputClass() {
+        // When
+        final Class<?> outputClass = getTestObject().getOutputClass();
+
+        // Then
+        assertEquals(JobDetail.class, outputClass);
+    }
+
+    @Override
+    protected Set<String> getRequiredFields() {
+        return Sets.newHashSet("jobId");
+    }
+
+    @Override
+    protected CancelJob getTestObject() {
+        return new CancelJob();
+    }
+}
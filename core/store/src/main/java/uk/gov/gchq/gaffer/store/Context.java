@@ -51,6 +51,18 @@ public class Context {
         this(user, new HashMap<>(), createJobId());
     }
 
+    /**
+     * Creates a new context with the same user, job id and config as the
+     * provided context. The exporters and original operation chain are not
+     * copied, so the new context can be used independently of the provided
+     * context, for example by an execution on another thread.
+     *
+     * @param context the context to copy
+     */
+    public Context(final Context context) {
+        this(context.user, new HashMap<>(context.config), context.jobId);
+    }
+
     private Context(final User user, final Map<String, Object> config, final String jobId) {
         this.user = user;
         if (null == config) {
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.core.exception.Status;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.IdentifierType;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
@@ -61,6 +62,7 @@ import uk.gov.gchq.gaffer.operation.impl.generate.GenerateObjects;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.impl.job.CancelJob;
 import uk.gov.gchq.gaffer.operation.impl.job.GetAllJobDetails;
 import uk.gov.gchq.gaffer.operation.impl.job.GetJobDetails;
 import uk.gov.gchq.gaffer.operation.impl.job.GetJobResults;
@@ -102,6 +104,7 @@ import uk.gov.gchq.gaffer.store.operation.handler.function.FilterHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.function.TransformHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.generate.GenerateElementsHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.generate.GenerateObjectsHandler;
+import uk.gov.gchq.gaffer.store.operation.handler.job.CancelJobHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.job.GetAllJobDetailsHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.job.GetJobDetailsHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.job.GetJobResultsHandler;
@@ -123,6 +126,7 @@ import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.schema.SchemaOptimiser;
 import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
 import uk.gov.gchq.gaffer.store.schema.ViewValidator;
+import uk.gov.gchq.gaffer.store.util.JobExecutor;
 import uk.gov.gchq.gaffer.user.User;
 import uk.gov.gchq.koryphe.ValidationResult;
 
@@ -134,8 +138,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * A {@code Store} backs a Graph and is responsible for storing the {@link
@@ -175,7 +178,12 @@ public abstract class Store {
     private GraphLibrary library;
 
     private JobTracker jobTracker;
-    private ExecutorService executorService;
+    private JobExecutor jobExecutor;
+    /**
+     * Guards the checks and updates of job statuses, so a job that completes
+     * whilst it is being cancelled cannot overwrite its cancelled status.
+     */
+    private final Object jobStatusLock = new Object();
     private String graphId;
 
     public Store() {
@@ -232,7 +240,7 @@ public abstract class Store {
         optimiseSchema();
         validateSchemas();
         addOpHandlers();
-        addExecutorService();
+        addJobExecutor();
     }
 
     /**
@@ -343,13 +351,56 @@ public abstract class Store {
             }
         };
 
-        executorService.execute(runnable);
+        try {
+            jobExecutor.submitJob(context.getJobId(), context.getUser().getUserId(), runnable);
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Operation chain job {} was rejected: {}", context.getJobId(), e.getMessage());
+            return addOrUpdateJobDetail(operationChain, context, e.getMessage(), JobStatus.REJECTED);
+        }
 
         return initialJobDetail;
     }
 
+    /**
+     * Cancels a queued or running job. Running jobs are interrupted, so
+     * whether they stop straight away depends on the operation handlers. The
+     * job stays cancelled even if it then completes or fails.
+     *
+     * @param jobId   the id of the job to cancel
+     * @param context the context of the user cancelling the job
+     * @return the updated job detail, or null if the job is not queued or
+     * running
+     * @throws OperationException if the job tracker is not configured or the
+     *                            job belongs to another user
+     */
+    public JobDetail cancelJob(final String jobId, final Context context) throws OperationException {
+        if (null == jobTracker) {
+            throw new OperationException("The Job Tracker has not been configured", Status.SERVICE_UNAVAILABLE);
+        }
+
+        synchronized (jobStatusLock) {
+            final JobDetail jobDetail = jobTracker.getJob(jobId, context.getUser());
+            if (null == jobDetail || JobStatus.RUNNING != jobDetail.getStatus() || !jobExecutor.isActive(jobId)) {
+                return null;
+            }
+            if (!context.getUser().getUserId().equals(jobDetail.getUserId())) {
+                throw new OperationException("Jobs can only be cancelled by the user that submitted them", Status.FORBIDDEN);
+            }
+
+            // Record the cancellation before interrupting the job, so the job
+            // cannot record itself as finished or failed.
+            final JobDetail cancelled = new JobDetail();
+            cancelled.setStatus(JobStatus.CANCELLED);
+            cancelled.setDescription("Cancelled by user " + context.getUser().getUserId());
+            final JobDetail cancelledJobDetail = new JobDetail(jobDetail, cancelled);
+            jobTracker.addOrUpdateJob(cancelledJobDetail, context.getUser());
+            jobExecutor.cancelJob(jobId);
+            return cancelledJobDetail;
+        }
+    }
+
     public void runAsync(final Runnable runnable) {
-        executorService.execute(runnable);
+        jobExecutor.runAsync(runnable);
     }
 
     public JobTracker getJobTracker() {
@@ -691,18 +742,25 @@ public abstract class Store {
         return operationHandlers.get(opClass);
     }
 
+    // Records the status of a job. A cancelled job keeps its cancelled
+    // status, so nested or completing executions cannot overwrite it.
     private JobDetail addOrUpdateJobDetail(final OperationChain<?> operationChain, final Context context, final String msg, final JobStatus jobStatus) {
         final JobDetail newJobDetail = new JobDetail(context.getJobId(), context
                 .getUser()
                 .getUserId(), operationChain, jobStatus, msg);
         if (null != jobTracker) {
-            final JobDetail oldJobDetail = jobTracker.getJob(newJobDetail.getJobId(), context
-                    .getUser());
-            if (null == oldJobDetail) {
-                jobTracker.addOrUpdateJob(newJobDetail, context.getUser());
-            } else {
-                jobTracker.addOrUpdateJob(new JobDetail(oldJobDetail, newJobDetail), context
+            synchronized (jobStatusLock) {
+                final JobDetail oldJobDetail = jobTracker.getJob(newJobDetail.getJobId(), context
                         .getUser());
+                if (null == oldJobDetail) {
+                    jobTracker.addOrUpdateJob(newJobDetail, context.getUser());
+                } else if (JobStatus.CANCELLED == oldJobDetail.getStatus()) {
+                    LOGGER.debug("Job {} was cancelled, so its {} status has not been recorded", context.getJobId(), jobStatus);
+                    return oldJobDetail;
+                } else {
+                    jobTracker.addOrUpdateJob(new JobDetail(oldJobDetail, newJobDetail), context
+                            .getUser());
+                }
             }
         }
         return newJobDetail;
@@ -731,14 +789,20 @@ public abstract class Store {
         return result;
     }
 
-    private void addExecutorService() {
-        final Integer jobExecutorThreadCount = getProperties().getJobExecutorThreadCount();
-        LOGGER.debug("Initialising ExecutorService with " + jobExecutorThreadCount + " threads");
-        this.executorService = Executors.newFixedThreadPool(jobExecutorThreadCount, runnable -> {
-            final Thread thread = new Thread(runnable);
-            thread.setDaemon(true);
-            return thread;
-        });
+    private void addJobExecutor() {
+        if (null != jobExecutor) {
+            jobExecutor.shutdown();
+        }
+
+        final StoreProperties properties = getProperties();
+        final Integer jobThreads = properties.getJobExecutorThreadCount();
+        final Integer asyncThreads = properties.getAsyncExecutorThreadCount();
+        this.jobExecutor = new JobExecutor(
+                jobThreads,
+                properties.getJobExecutorQueueSize(),
+                null != asyncThreads ? asyncThreads : jobThreads,
+                properties.getAsyncExecutorQueueSize(),
+                properties.getMaxJobsPerUser());
     }
 
     private void addOpHandlers() {
@@ -770,6 +834,7 @@ public abstract class Store {
             addOperationHandler(GetJobDetails.class, new GetJobDetailsHandler());
             addOperationHandler(GetAllJobDetails.class, new GetAllJobDetailsHandler());
             addOperationHandler(GetJobResults.class, new GetJobResultsHandler());
+            addOperationHandler(CancelJob.class, new CancelJobHandler());
         }
 
         // Output
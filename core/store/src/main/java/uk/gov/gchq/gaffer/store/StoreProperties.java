@@ -67,6 +67,23 @@ public class StoreProperties implements Cloneable {
 
     public static final String EXECUTOR_SERVICE_THREAD_COUNT = "gaffer.store.job.executor.threads";
     public static final String EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT = "50";
+    public static final String EXECUTOR_SERVICE_QUEUE_SIZE = "gaffer.store.job.executor.queue.size";
+    public static final String EXECUTOR_SERVICE_QUEUE_SIZE_DEFAULT = "1000";
+
+    /**
+     * The maximum number of queued and running jobs per user. By default
+     * there is no limit.
+     */
+    public static final String EXECUTOR_SERVICE_MAX_JOBS_PER_USER = "gaffer.store.job.executor.max.jobs.per.user";
+
+    /**
+     * The number of threads used to run asynchronous tasks, such as the
+     * writes of a {@code GafferAdder}. By default this is the same as the
+     * number of job threads.
+     */
+    public static final String ASYNC_EXECUTOR_SERVICE_THREAD_COUNT = "gaffer.store.async.executor.threads";
+    public static final String ASYNC_EXECUTOR_SERVICE_QUEUE_SIZE = "gaffer.store.async.executor.queue.size";
+    public static final String ASYNC_EXECUTOR_SERVICE_QUEUE_SIZE_DEFAULT = "1000";
 
     public static final String JSON_SERIALISER_CLASS = JSONSerialiser.JSON_SERIALISER_CLASS_KEY;
     public static final String JSON_SERIALISER_MODULES = JSONSerialiser.JSON_SERIALISER_MODULES;
@@ -388,6 +405,40 @@ public class StoreProperties implements Cloneable {
         return Integer.parseInt(get(EXECUTOR_SERVICE_THREAD_COUNT, EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT));
     }
 
+    public Integer getJobExecutorQueueSize() {
+        return Integer.parseInt(get(EXECUTOR_SERVICE_QUEUE_SIZE, EXECUTOR_SERVICE_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setJobExecutorQueueSize(final Integer queueSize) {
+        set(EXECUTOR_SERVICE_QUEUE_SIZE, queueSize.toString());
+    }
+
+    public Integer getMaxJobsPerUser() {
+        final String maxJobsPerUser = get(EXECUTOR_SERVICE_MAX_JOBS_PER_USER);
+        return null != maxJobsPerUser ? Integer.parseInt(maxJobsPerUser) : null;
+    }
+
+    public void setMaxJobsPerUser(final Integer maxJobsPerUser) {
+        set(EXECUTOR_SERVICE_MAX_JOBS_PER_USER, null != maxJobsPerUser ? maxJobsPerUser.toString() : null);
+    }
+
+    public Integer getAsyncExecutorThreadCount() {
+        final String threadCount = get(ASYNC_EXECUTOR_SERVICE_THREAD_COUNT);
+        return null != threadCount ? Integer.parseInt(threadCount) : getJobExecutorThreadCount();
+    }
+
+    public void setAsyncExecutorThreadCount(final Integer threadCount) {
+        set(ASYNC_EXECUTOR_SERVICE_THREAD_COUNT, threadCount.toString());
+    }
+
+    public Integer getAsyncExecutorQueueSize() {
+        return Integer.parseInt(get(ASYNC_EXECUTOR_SERVICE_QUEUE_SIZE, ASYNC_EXECUTOR_SERVICE_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setAsyncExecutorQueueSize(final Integer queueSize) {
+        set(ASYNC_EXECUTOR_SERVICE_QUEUE_SIZE, queueSize.toString());
+    }
+
     public void addOperationDeclarationPaths(final String... newPaths) {
         final String newPathsCsv = StringUtils.join(newPaths, ",");
         String combinedPaths = getOperationDeclarationPaths();
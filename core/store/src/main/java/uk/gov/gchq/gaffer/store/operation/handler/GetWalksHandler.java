@@ -16,32 +16,42 @@
 
 package uk.gov.gchq.gaffer.store.operation.handler;
 
-import com.google.common.collect.Lists;
-
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
-import uk.gov.gchq.gaffer.commonutil.stream.Streams;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.graph.AdjacencyMap;
 import uk.gov.gchq.gaffer.data.graph.Walk;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.GetWalks;
 import uk.gov.gchq.gaffer.operation.impl.Limit;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
-import uk.gov.gchq.gaffer.operation.impl.output.ToEntitySeeds;
-import uk.gov.gchq.gaffer.operation.impl.output.ToVertices;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -52,16 +62,42 @@ import java.util.stream.Collectors;
  * Currently the handler only supports creating {@link Walk}s which contain
  * {@link Edge}s.
  * </p>
+ * <p>
+ * The results of each hop are streamed straight into an {@link AdjacencyMap}
+ * and the distinct vertices reached by a hop are used as the seeds for the
+ * next hop. The walks are then assembled lazily, one at a time, as the
+ * returned iterable is consumed. The total number of edges held in memory
+ * across all of the hops can be capped using {@code maxEdgesInMemory}.
+ * </p>
+ * <p>
+ * If {@code pipelineBatchSize} is set then the hops are pipelined: the seeds
+ * found by a hop are sent to the next hop in batches whilst the hop is still
+ * running. The walks returned are the same, but their order is not
+ * deterministic.
+ * </p>
  */
 public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterable<Walk>> {
 
-    private int hops;
-
     /**
      * Can be set by modifying operationsDeclarations.json.
      */
     private Integer maxHops = null;
 
+    /**
+     * The maximum number of edges that can be held in memory whilst
+     * constructing the walks. Can be set by modifying
+     * operationsDeclarations.json.
+     */
+    private Integer maxEdgesInMemory = null;
+
+    /**
+     * If set, the hops are pipelined. The seeds discovered by each hop are
+     * dispatched to the next hop in batches of this size, using the
+     * {@link Store}'s executor, whilst the hop is still running. Must be
+     * greater than 0. Can be set by modifying operationsDeclarations.json.
+     */
+    private Integer pipelineBatchSize = null;
+
     @Override
     public Iterable<Walk> doOperation(final GetWalks getWalks, final Context context, final Store store) throws OperationException {
 
@@ -71,6 +107,7 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         }
 
         // Check operations input
+        final int hops;
         if (null != getWalks.getOperations()) {
             hops = getWalks.getOperations().size();
         } else {
@@ -84,28 +121,59 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
             throw new OperationException("GetWalks operation contains " + hops + " hops. The maximum number of hops is: " + maxHops);
         }
 
-        final List<AdjacencyMap<Object, Edge>> adjacencyMaps = new ArrayList<>();
+        final List<AdjacencyMap<Object, Edge>> adjacencyMaps;
+        if (null != pipelineBatchSize) {
+            adjacencyMaps = new PipelinedHops(getWalks, context, store).execute();
+        } else {
+            adjacencyMaps = executeHops(getWalks, context, store);
+        }
+
+        // Track/recombine the edge objects and convert to return type
+        return new WalkIterable(getWalks.getInput(), adjacencyMaps);
+    }
 
-        List<Edge> results = null;
+    private List<AdjacencyMap<Object, Edge>> executeHops(final GetWalks getWalks,
+                                                         final Context context,
+                                                         final Store store) throws OperationException {
+        final List<AdjacencyMap<Object, Edge>> adjacencyMaps = new ArrayList<>(getWalks.getOperations().size());
+
+        Iterable<? extends EntityId> seeds = getWalks.getInput();
+        long edgesInMemory = 0;
 
         // Execute the GetElements operations
         for (final GetElements getElements : getWalks.getOperations()) {
-            results = executeGetElements(getElements, getWalks, context, store, results);
-
-            // Store results in an AdjacencyMap
             final AdjacencyMap<Object, Edge> adjacencyMap = new AdjacencyMap<>();
-            for (final Edge e : results) {
-                adjacencyMap.put(e.getMatchedVertexValue(), e.getAdjacentMatchedVertexValue(), e);
+            final Set<Object> nextVertices = new LinkedHashSet<>();
+
+            // Store results in an AdjacencyMap as they are retrieved
+            final Iterable<? extends Element> results = executeGetElements(getElements, getWalks.getResultsLimit(), context, store, seeds);
+            try {
+                for (final Element element : results) {
+                    final Edge e = (Edge) element;
+                    adjacencyMap.put(e.getMatchedVertexValue(), e.getAdjacentMatchedVertexValue(), e);
+                    nextVertices.add(e.getAdjacentMatchedVertexValue());
+                    edgesInMemory++;
+                    checkEdgesInMemory(edgesInMemory);
+                }
+            } finally {
+                CloseableUtil.close(results);
             }
 
             adjacencyMaps.add(adjacencyMap);
+
+            // The distinct vertices reached by this hop are the seeds for the next hop
+            seeds = nextVertices.stream()
+                    .map(EntitySeed::new)
+                    .collect(Collectors.toList());
         }
 
-        // Track/recombine the edge objects and convert to return type
-        return Streams.toStream(getWalks.getInput())
-                .map(seed -> walk(seed.getVertex(), null, adjacencyMaps, new LinkedList<>()))
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+        return adjacencyMaps;
+    }
+
+    private void checkEdgesInMemory(final long edgesInMemory) throws OperationException {
+        if (null != maxEdgesInMemory && edgesInMemory > maxEdgesInMemory) {
+            throw new OperationException("GetWalks operation exceeded the maximum number of edges that can be held in memory: " + maxEdgesInMemory);
+        }
     }
 
     public Integer getMaxHops() {
@@ -116,37 +184,48 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         this.maxHops = maxHops;
     }
 
-    private List<Edge> executeGetElements(final GetElements getElements,
-                                          final GetWalks getWalks,
-                                          final Context context,
-                                          final Store store,
-                                          final List<Edge> results) throws OperationException {
-        getElements.setView(new View.Builder()
+    public Integer getMaxEdgesInMemory() {
+        return maxEdgesInMemory;
+    }
+
+    public void setMaxEdgesInMemory(final Integer maxEdgesInMemory) {
+        this.maxEdgesInMemory = maxEdgesInMemory;
+    }
+
+    public Integer getPipelineBatchSize() {
+        return pipelineBatchSize;
+    }
+
+    public void setPipelineBatchSize(final Integer pipelineBatchSize) {
+        if (null != pipelineBatchSize && pipelineBatchSize < 1) {
+            throw new IllegalArgumentException("The pipeline batch size must be greater than 0, but was: " + pipelineBatchSize);
+        }
+        this.pipelineBatchSize = pipelineBatchSize;
+    }
+
+    private Iterable<? extends Element> executeGetElements(final GetElements getElements,
+                                                           final Integer resultsLimit,
+                                                           final Context context,
+                                                           final Store store,
+                                                           final Iterable<? extends EntityId> seeds) throws OperationException {
+        // The same GetElements operation may be used for several hops, so
+        // each hop is executed using its own copy.
+        final GetElements hop = getElements.shallowClone();
+        hop.setView(new View.Builder()
                 .merge(getElements.getView())
                 .entities(Collections.emptyMap())
                 .build());
+        hop.setInput(seeds);
 
-        final OperationChain.OutputBuilder<CloseableIterable<? extends Element>> opChainBuilder;
-        if (null == results) {
-            getElements.setInput(getWalks.getInput());
-            opChainBuilder = new OperationChain.Builder()
-                    .first(getElements);
-        } else {
-            opChainBuilder = new OperationChain.Builder()
-                    .first(new ToVertices.Builder()
-                            .input(results)
-                            .useMatchedVertex(ToVertices.UseMatchedVertex.OPPOSITE)
-                            .build())
-                    .then(new ToEntitySeeds())
-                    .then(getElements);
-        }
+        final OperationChain.OutputBuilder<CloseableIterable<? extends Element>> opChainBuilder = new OperationChain.Builder()
+                .first(hop);
 
         // Limit the number of results if required
         final Output<? extends Iterable<? extends Element>> opChain;
-        if (null != getWalks.getResultsLimit()) {
+        if (null != resultsLimit) {
             opChain = opChainBuilder
                     .then(new Limit.Builder<Element>()
-                            .resultLimit(getWalks.getResultsLimit())
+                            .resultLimit(resultsLimit)
                             .truncate(false)
                             .build())
                     .build();
@@ -154,35 +233,299 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
             opChain = opChainBuilder.build();
         }
 
-        // Execute an the operation chain on the supplied store and cache
-        // the results in memory using an ArrayList.
-        return Lists.newArrayList((Iterable<Edge>) store.execute(opChain, context));
+        // Execute the operation chain on the supplied store. The results are
+        // consumed lazily by the caller.
+        return store.execute(opChain, context);
     }
 
-    private List<Walk> walk(final Object curr, final Object prev, final List<AdjacencyMap<Object, Edge>> adjacencyMaps, final LinkedList<Set<Edge>> queue) {
-        final List<Walk> walks = new ArrayList<>();
+    /**
+     * {@code PipelinedHops} executes the hops of a {@link GetWalks} operation
+     * concurrently. Each hop streams its results into its {@link AdjacencyMap}
+     * and, as new vertices are discovered, dispatches them in batches as the
+     * seeds of the next hop. Each vertex is only used as a seed once per hop.
+     * <p>
+     * The batches are run on the {@link Store}'s executor. The calling thread
+     * also runs any batches which have not yet been picked up by the executor,
+     * so progress is made even if the executor is saturated.
+     * </p>
+     */
+    private final class PipelinedHops {
+        private final GetWalks getWalks;
+        private final Context context;
+        private final Store store;
+        private final int hops;
+        private final List<AdjacencyMap<Object, Edge>> adjacencyMaps;
+        private final List<Set<Object>> dispatchedVertices;
+        private final List<AtomicLong> resultCounts;
+        private final AtomicLong edgesInMemory = new AtomicLong();
+        private final Queue<HopBatch> pending = new ConcurrentLinkedQueue<>();
+        private final Object lock = new Object();
+        private int outstanding;
+        private volatile Exception failure;
+
+        private PipelinedHops(final GetWalks getWalks, final Context context, final Store store) {
+            this.getWalks = getWalks;
+            this.context = context;
+            this.store = store;
+            this.hops = getWalks.getOperations().size();
+            this.adjacencyMaps = new ArrayList<>(hops);
+            this.dispatchedVertices = new ArrayList<>(hops);
+            this.resultCounts = new ArrayList<>(hops);
+            for (int i = 0; i < hops; i++) {
+                adjacencyMaps.add(new AdjacencyMap<>());
+                dispatchedVertices.add(ConcurrentHashMap.newKeySet());
+                resultCounts.add(new AtomicLong());
+            }
+        }
+
+        private List<AdjacencyMap<Object, Edge>> execute() throws OperationException {
+            dispatch(new HopBatch(0, getWalks.getInput()));
+
+            while (true) {
+                // Run any batches which have not yet been picked up by the
+                // executor. Batches already claimed by the executor are skipped.
+                final HopBatch batch = pending.poll();
+                if (null != batch) {
+                    batch.run();
+                    continue;
+                }
+
+                synchronized (lock) {
+                    if (0 == outstanding || null != failure) {
+                        break;
+                    }
+                    if (pending.isEmpty()) {
+                        try {
+                            lock.wait();
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            failure = new OperationException("Interrupted whilst executing GetWalks hops", e);
+                        }
+                    }
+                }
+            }
 
-        if (null != prev && hops != queue.size()) { // if the walk is not at the maximum length
-            queue.offer(adjacencyMaps.get(queue.size()).get(prev, curr));
+            if (null != failure) {
+                if (failure instanceof OperationException) {
+                    throw (OperationException) failure;
+                }
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+                throw new OperationException("Failed to execute GetWalks hops: " + failure.getMessage(), failure);
+            }
+
+            return adjacencyMaps;
         }
 
-        if (hops == queue.size()) { // if the walk is at the maximum length
-            final Walk.Builder builder = new Walk.Builder();
-            for (final Set<Edge> edgeSet : queue) {
-                builder.edges(edgeSet);
+        private void dispatch(final HopBatch batch) {
+            synchronized (lock) {
+                outstanding++;
+                pending.add(batch);
+                lock.notifyAll();
             }
-            final Walk walk = builder.build();
-            walks.add(walk);
-        } else {
-            for (final Object obj : adjacencyMaps.get(queue.size()).getDestinations(curr)) {
-                walks.addAll(walk(obj, curr, adjacencyMaps, queue));
+            try {
+                store.runAsync(batch);
+            } catch (final RejectedExecutionException e) {
+                // The batch will be run by the calling thread instead
             }
         }
 
-        if (!queue.isEmpty()) {
-            queue.pollLast();
+        private void complete(final Exception e) {
+            synchronized (lock) {
+                if (null != e && null == failure) {
+                    failure = e;
+                }
+                outstanding--;
+                lock.notifyAll();
+            }
         }
 
-        return walks;
+        private final class HopBatch implements Runnable {
+            private final int hop;
+            private final Iterable<? extends EntityId> seeds;
+            private final AtomicBoolean claimed = new AtomicBoolean();
+
+            private HopBatch(final int hop, final Iterable<? extends EntityId> seeds) {
+                this.hop = hop;
+                this.seeds = seeds;
+            }
+
+            @Override
+            public void run() {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+
+                Exception exception = null;
+                try {
+                    if (null == failure) {
+                        executeHop();
+                    }
+                } catch (final Exception e) {
+                    exception = e;
+                } finally {
+                    complete(exception);
+                }
+            }
+
+            private void executeHop() throws OperationException {
+                final AdjacencyMap<Object, Edge> adjacencyMap = adjacencyMaps.get(hop);
+                final boolean isLastHop = hop == hops - 1;
+                List<EntityId> nextSeeds = new ArrayList<>(pipelineBatchSize);
+
+                final Iterable<? extends Element> results = executeGetElements(getWalks.getOperations().get(hop), null, context, store, seeds);
+                try {
+                    for (final Element element : results) {
+                        if (null != failure) {
+                            return;
+                        }
+
+                        checkResultsLimit(resultCounts.get(hop).incrementAndGet());
+                        checkEdgesInMemory(edgesInMemory.incrementAndGet());
+
+                        final Edge e = (Edge) element;
+                        final Object adjacentVertex = e.getAdjacentMatchedVertexValue();
+                        synchronized (adjacencyMap) {
+                            adjacencyMap.put(e.getMatchedVertexValue(), adjacentVertex, e);
+                        }
+
+                        if (!isLastHop && dispatchedVertices.get(hop + 1).add(adjacentVertex)) {
+                            nextSeeds.add(new EntitySeed(adjacentVertex));
+                            if (nextSeeds.size() >= pipelineBatchSize) {
+                                dispatch(new HopBatch(hop + 1, nextSeeds));
+                                nextSeeds = new ArrayList<>(pipelineBatchSize);
+                            }
+                        }
+                    }
+                } finally {
+                    CloseableUtil.close(results);
+                }
+
+                if (!nextSeeds.isEmpty()) {
+                    dispatch(new HopBatch(hop + 1, nextSeeds));
+                }
+            }
+
+            private void checkResultsLimit(final long resultCount) {
+                final Integer resultsLimit = getWalks.getResultsLimit();
+                if (null != resultsLimit && resultCount > resultsLimit) {
+                    throw new LimitExceededException("Limit of " + resultsLimit + " exceeded.");
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@code WalkIterable} lazily walks the {@link AdjacencyMap}s for each
+     * hop, depth first from each seed, returning each {@link Walk} as soon
+     * as it reaches the required length.
+     */
+    private static final class WalkIterable implements CloseableIterable<Walk> {
+        private final Iterable<? extends EntityId> seeds;
+        private final List<AdjacencyMap<Object, Edge>> adjacencyMaps;
+
+        private WalkIterable(final Iterable<? extends EntityId> seeds, final List<AdjacencyMap<Object, Edge>> adjacencyMaps) {
+            this.seeds = seeds;
+            this.adjacencyMaps = adjacencyMaps;
+        }
+
+        @Override
+        public void close() {
+            CloseableUtil.close(seeds);
+        }
+
+        @Override
+        public CloseableIterator<Walk> iterator() {
+            return new WalkIterator(seeds.iterator(), adjacencyMaps);
+        }
+    }
+
+    private static final class WalkIterator implements CloseableIterator<Walk> {
+        private final Iterator<? extends EntityId> seeds;
+        private final List<AdjacencyMap<Object, Edge>> adjacencyMaps;
+        private final int hops;
+
+        // The vertices on the current walk, each paired with an iterator of
+        // the vertices that can be reached from it in the next hop.
+        private final Deque<Object> vertices = new ArrayDeque<>();
+        private final Deque<Iterator<Object>> destinations = new ArrayDeque<>();
+
+        // The sets of edges between each pair of vertices on the current walk
+        private final Deque<Set<Edge>> edges = new ArrayDeque<>();
+
+        private Walk next;
+
+        private WalkIterator(final Iterator<? extends EntityId> seeds, final List<AdjacencyMap<Object, Edge>> adjacencyMaps) {
+            this.seeds = seeds;
+            this.adjacencyMaps = adjacencyMaps;
+            this.hops = adjacencyMaps.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (null == next) {
+                next = getNextWalk();
+            }
+            return null != next;
+        }
+
+        @Override
+        public Walk next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Walk walk = next;
+            next = null;
+            return walk;
+        }
+
+        @Override
+        public void close() {
+            CloseableUtil.close(seeds);
+        }
+
+        private Walk getNextWalk() {
+            while (true) {
+                if (destinations.isEmpty()) {
+                    if (!seeds.hasNext()) {
+                        close();
+                        return null;
+                    }
+                    push(seeds.next().getVertex());
+                    continue;
+                }
+
+                final int hop = destinations.size() - 1;
+                final Iterator<Object> itr = destinations.peekLast();
+                if (itr.hasNext()) {
+                    final Object destination = itr.next();
+                    final Set<Edge> edgeSet = adjacencyMaps.get(hop).get(vertices.peekLast(), destination);
+                    if (hops == hop + 1) {
+                        return buildWalk(edgeSet);
+                    }
+                    edges.offerLast(edgeSet);
+                    push(destination);
+                } else {
+                    destinations.pollLast();
+                    vertices.pollLast();
+                    edges.pollLast();
+                }
+            }
+        }
+
+        private void push(final Object vertex) {
+            vertices.offerLast(vertex);
+            destinations.offerLast(adjacencyMaps.get(destinations.size()).getDestinations(vertex).iterator());
+        }
+
+        private Walk buildWalk(final Set<Edge> lastEdgeSet) {
+            final Walk.Builder builder = new Walk.Builder();
+            for (final Set<Edge> edgeSet : edges) {
+                builder.edges(edgeSet);
+            }
+            builder.edges(lastEdgeSet);
+            return builder.build();
+        }
     }
 }
@@ -25,7 +25,10 @@ import uk.gov.gchq.gaffer.operation.impl.compare.Sort;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+import uk.gov.gchq.gaffer.store.util.ExternalSortedIterable;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -35,10 +38,28 @@ import java.util.stream.Stream;
  * in memory using the {@link uk.gov.gchq.gaffer.commonutil.iterable.LimitedInMemorySortedIterable}.
  * If the resultLimit is set to one that it just deletes the operation to the
  * {@link MaxHandler}.
+ * <p>
+ * If the resultLimit is not set and maxElementsInMemory has been configured,
+ * an external merge sort is used instead, spilling sorted runs of elements to
+ * disk using an {@link ExternalSortedIterable}. This requires all element
+ * properties to have serialisers defined in the schema.
+ * </p>
  */
 public class SortHandler implements OutputOperationHandler<Sort, Iterable<? extends Element>> {
     private static final MaxHandler MAX_HANDLER = new MaxHandler();
 
+    /**
+     * The maximum number of elements to sort in memory before spilling to
+     * disk. Can be set by modifying operationsDeclarations.json.
+     */
+    private Integer maxElementsInMemory = null;
+
+    /**
+     * The directory to spill to. If not set the default temporary directory
+     * is used. Can be set by modifying operationsDeclarations.json.
+     */
+    private String spillDirectory = null;
+
     @Override
     public Iterable<? extends Element> doOperation(final Sort operation, final Context context, final Store store) throws OperationException {
         // If there is no input or there are no comparators, we return null
@@ -60,6 +81,10 @@ public class SortHandler implements OutputOperationHandler<Sort, Iterable<? exte
             return Collections.singletonList(max);
         }
 
+        if (null == operation.getResultLimit() && null != maxElementsInMemory) {
+            return externalSort(operation, store);
+        }
+
         try (final Stream<? extends Element> stream =
                      Streams.toStream(operation.getInput())
                              .filter(Objects::nonNull)) {
@@ -74,4 +99,42 @@ public class SortHandler implements OutputOperationHandler<Sort, Iterable<? exte
             CloseableUtil.close(operation);
         }
     }
+
+    public Integer getMaxElementsInMemory() {
+        return maxElementsInMemory;
+    }
+
+    public void setMaxElementsInMemory(final Integer maxElementsInMemory) {
+        this.maxElementsInMemory = maxElementsInMemory;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(final String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    private Iterable<? extends Element> externalSort(final Sort operation, final Store store) {
+        final ExternalSortedIterable sorted = new ExternalSortedIterable(
+                operation.getCombinedComparator(),
+                operation.isDeduplicate(),
+                maxElementsInMemory,
+                new ElementSerialiser(store.getSchema()),
+                null != spillDirectory ? new File(spillDirectory) : null);
+        try {
+            for (final Element element : operation.getInput()) {
+                if (null != element) {
+                    sorted.add(element);
+                }
+            }
+        } catch (final RuntimeException e) {
+            sorted.close();
+            throw e;
+        } finally {
+            CloseableUtil.close(operation);
+        }
+        return sorted;
+    }
 }
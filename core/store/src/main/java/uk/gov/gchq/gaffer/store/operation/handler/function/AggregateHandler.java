@@ -30,12 +30,32 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 import uk.gov.gchq.koryphe.ValidationResult;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class AggregateHandler implements OutputOperationHandler<Aggregate, Iterable<? extends Element>> {
     private final FunctionValidator<Aggregate> validator = new AggregateValidator();
 
+    /**
+     * The maximum number of elements to aggregate in memory before spilling
+     * to disk. Can be set by modifying operationsDeclarations.json.
+     */
+    private Integer maxElementsInMemory = null;
+
+    /**
+     * The directory to spill to. If not set the default temporary directory
+     * is used. Can be set by modifying operationsDeclarations.json.
+     */
+    private String spillDirectory = null;
+
+    /**
+     * If true, in memory aggregation is partitioned across the common
+     * fork-join pool. Can be set by modifying operationsDeclarations.json.
+     */
+    private boolean parallel = false;
+
     @Override
     public Iterable<? extends Element> doOperation(final Aggregate operation, final Context context, final Store store) throws OperationException {
         return doOperation(operation, store.getSchema());
@@ -63,7 +83,36 @@ public class AggregateHandler implements OutputOperationHandler<Aggregate, Itera
             throw new OperationException("Aggregate operation is invalid. " + result.getErrorString());
         }
 
-        return AggregatorUtil.queryAggregate(operation.getInput(), schema, buildView(operation));
+        if (null != maxElementsInMemory) {
+            return AggregatorUtil.queryAggregate(operation.getInput(), schema, buildView(operation),
+                    maxElementsInMemory, null != spillDirectory ? new File(spillDirectory) : null);
+        }
+        return AggregatorUtil.queryAggregate(operation.getInput(), schema, buildView(operation),
+                parallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    public Integer getMaxElementsInMemory() {
+        return maxElementsInMemory;
+    }
+
+    public void setMaxElementsInMemory(final Integer maxElementsInMemory) {
+        this.maxElementsInMemory = maxElementsInMemory;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(final String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
     }
 
     private View buildView(final Aggregate operation) {
@@ -24,21 +24,32 @@ import uk.gov.gchq.gaffer.cache.exception.CacheOperationException;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.named.operation.NamedOperationDetail;
+import uk.gov.gchq.gaffer.named.operation.NamedOperationTemplate;
 import uk.gov.gchq.gaffer.named.operation.cache.exception.CacheOperationFailedException;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Wrapper around the {@link CacheServiceLoader} to provide an interface for handling
  * the {@link uk.gov.gchq.gaffer.named.operation.NamedOperation}s for a Gaffer graph.
+ * <p>
+ * The compiled {@link NamedOperationTemplate} of each named operation is held
+ * in memory, so named operations are compiled once rather than on every
+ * execution, even if the cache service returns a new copy of the
+ * {@link NamedOperationDetail} each time.
+ * </p>
  */
 public class NamedOperationCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NamedOperationCache.class);
     private static final String CACHE_NAME = "NamedOperation";
 
+    private final Map<String, NamedOperationTemplate> templates = new ConcurrentHashMap<>();
+
     /**
      * If the user is just adding to the cache, ie the overwrite flag is set to false, then no security is added.
      * However if the user is overwriting the named operation stored in the cache, then their opAuths must be checked
@@ -153,6 +164,7 @@ public class NamedOperationCache {
      * cache
      */
     public void clear() throws CacheOperationFailedException {
+        templates.clear();
         try {
             CacheServiceLoader.getService().clearCache(CACHE_NAME);
         } catch (final CacheOperationException e) {
@@ -169,6 +181,7 @@ public class NamedOperationCache {
      * operation from the cache
      */
     public void deleteFromCache(final String name) throws CacheOperationFailedException {
+        templates.remove(name);
         CacheServiceLoader.getService().removeFromCache(CACHE_NAME, name);
 
         if (null != CacheServiceLoader.getService().getFromCache(CACHE_NAME, name)) {
@@ -196,6 +209,7 @@ public class NamedOperationCache {
         } catch (final CacheOperationException e) {
             throw new CacheOperationFailedException(e);
         }
+        compile(name, operation);
     }
 
     /**
@@ -213,8 +227,21 @@ public class NamedOperationCache {
         final NamedOperationDetail op = CacheServiceLoader.getService().getFromCache(CACHE_NAME, name);
 
         if (null != op) {
+            // Reuse the existing template if the named operation has not changed, otherwise compile it again
+            op.setTemplate(templates.get(name));
+            compile(name, op);
             return op;
         }
         throw new CacheOperationFailedException("No named operation with the name " + name + " exists in the cache");
     }
+
+    private void compile(final String name, final NamedOperationDetail operation) {
+        try {
+            templates.put(name, operation.getTemplate());
+        } catch (final IllegalArgumentException e) {
+            // The error will be reported if the named operation is executed
+            LOGGER.warn("Unable to compile named operation {}: {}", name, e.getMessage());
+            templates.remove(name);
+        }
+    }
 }
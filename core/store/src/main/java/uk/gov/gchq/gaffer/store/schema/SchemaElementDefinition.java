@@ -31,6 +31,7 @@ import uk.gov.gchq.gaffer.commonutil.PropertiesUtil;
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.commonutil.iterable.TransformIterable;
 import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.data.element.PropertySlots;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
 import uk.gov.gchq.gaffer.data.elementdefinition.ElementDefinition;
@@ -92,7 +93,9 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
 
     protected ElementAggregator ingestAggregatorCache;
 
-    protected final Map<Set<String>, ElementAggregator> queryAggregatorCacheMap = new HashMap<>();
+    protected PropertySlots propertySlotsCache;
+
+    protected final Map<Set<String>, ElementAggregator> queryAggregatorCacheMap = Collections.synchronizedMap(new HashMap<>());
 
     protected Schema schemaReference;
 
@@ -130,6 +133,23 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
         return properties.containsKey(propertyName);
     }
 
+    /**
+     * Gets the slot table for this group's properties, with the slots in the
+     * same order as {@link #getProperties()}. The same instance is returned
+     * until the properties are changed, so it can be shared by the
+     * {@link uk.gov.gchq.gaffer.data.element.CompactProperties} of every
+     * element in the group.
+     *
+     * @return the property slots
+     */
+    @JsonIgnore
+    public PropertySlots getPropertySlots() {
+        if (null == propertySlotsCache) {
+            propertySlotsCache = new PropertySlots(getProperties());
+        }
+        return propertySlotsCache;
+    }
+
 
     @JsonGetter("properties")
     public Map<String, String> getPropertyMap() {
@@ -197,19 +217,21 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
     @JsonIgnore
     public ElementAggregator getFullAggregator() {
         if (null == fullAggregatorCache) {
-            fullAggregatorCache = new ElementAggregator();
+            // Build the aggregator before caching it, so other threads never see a partially built aggregator
+            final ElementAggregator fullAggregator = new ElementAggregator();
             if (aggregate) {
                 if (null != aggregator) {
-                    fullAggregatorCache.getComponents().addAll(aggregator.getComponents());
+                    fullAggregator.getComponents().addAll(aggregator.getComponents());
                 }
                 final Set<String> aggregatorProperties = getAggregatorProperties();
                 for (final Entry<String, String> entry : getPropertyMap().entrySet()) {
                     if (!aggregatorProperties.contains(entry.getKey())) {
-                        addTypeAggregateFunction(fullAggregatorCache, entry.getKey(), entry.getValue());
+                        addTypeAggregateFunction(fullAggregator, entry.getKey(), entry.getValue());
                     }
                 }
             }
-            fullAggregatorCache.lock();
+            fullAggregator.lock();
+            fullAggregatorCache = fullAggregator;
         }
 
         return fullAggregatorCache;
@@ -218,28 +240,29 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
     @JsonIgnore
     public ElementAggregator getIngestAggregator() {
         if (null == ingestAggregatorCache) {
-            ingestAggregatorCache = new ElementAggregator();
+            final ElementAggregator ingestAggregator = new ElementAggregator();
             if (aggregate) {
                 final Set<String> aggregatorProperties = getAggregatorProperties();
                 if (null != aggregator) {
                     for (final TupleAdaptedBinaryOperator<String, ?> component : aggregator.getComponents()) {
                         final String[] selection = component.getSelection();
                         if (selection.length == 1 && !groupBy.contains(selection[0]) && !selection[0].equals(schemaReference.getVisibilityProperty())) {
-                            ingestAggregatorCache.getComponents().add(component);
+                            ingestAggregator.getComponents().add(component);
                         } else if (!CollectionUtil.containsAny(groupBy, selection)) {
-                            ingestAggregatorCache.getComponents().add(component);
+                            ingestAggregator.getComponents().add(component);
                         }
                     }
                 }
                 for (final Entry<String, String> entry : getPropertyMap().entrySet()) {
                     if (!aggregatorProperties.contains(entry.getKey())) {
                         if (!groupBy.contains(entry.getKey()) && !entry.getKey().equals(schemaReference.getVisibilityProperty())) {
-                            addTypeAggregateFunction(ingestAggregatorCache, entry.getKey(), entry.getValue());
+                            addTypeAggregateFunction(ingestAggregator, entry.getKey(), entry.getValue());
                         }
                     }
                 }
             }
-            ingestAggregatorCache.lock();
+            ingestAggregator.lock();
+            ingestAggregatorCache = ingestAggregator;
         }
 
         return ingestAggregatorCache;
@@ -567,6 +590,7 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
 
         public CHILD_CLASS property(final String propertyName, final String typeName) {
             elDef.properties.put(propertyName, typeName);
+            elDef.propertySlotsCache = null;
             return self();
         }
 
@@ -578,6 +602,7 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
             } else {
                 elDef.properties.putAll(properties);
             }
+            elDef.propertySlotsCache = null;
             return self();
         }
 
@@ -689,6 +714,7 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
                         }
                     }
                 }
+                elDef.propertySlotsCache = null;
 
                 if (elDef.identifiers.isEmpty()) {
                     elDef.identifiers.putAll(elementDef.getIdentifierMap());
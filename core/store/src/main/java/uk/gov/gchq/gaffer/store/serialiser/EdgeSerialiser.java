@@ -96,7 +96,7 @@ public class EdgeSerialiser extends PropertiesSerialiser<Edge> {
             throw new SerialisationException("No SchemaElementDefinition found for group " + group + ", is this group in your schema?");
         }
 
-        final Edge edge = new Edge(group, source, dest, directed);
+        final Edge edge = new Edge(group, source, dest, directed, null, createProperties(elementDefinition));
         deserialiseProperties(bytes, edge.getProperties(), elementDefinition, lastDelimiter);
         return edge;
     }
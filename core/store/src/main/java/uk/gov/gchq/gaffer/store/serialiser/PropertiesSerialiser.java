@@ -16,7 +16,9 @@
 
 package uk.gov.gchq.gaffer.store.serialiser;
 
+import uk.gov.gchq.gaffer.data.element.CompactProperties;
 import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.data.element.PropertySlots;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
 import uk.gov.gchq.gaffer.serialisation.util.LengthValueBytesSerialiserUtil;
@@ -46,6 +48,10 @@ public abstract class PropertiesSerialiser<T> implements ToBytesSerialiser<T> {
         this.schema = schema;
     }
 
+    public Schema getSchema() {
+        return schema;
+    }
+
     @Override
     public boolean canHandle(final Class clazz) {
         return Properties.class.isAssignableFrom(clazz);
@@ -57,24 +63,57 @@ public abstract class PropertiesSerialiser<T> implements ToBytesSerialiser<T> {
     }
 
     protected void serialiseProperties(final Properties properties, final SchemaElementDefinition elementDefinition, final ByteArrayOutputStream out) throws SerialisationException {
+        final CompactProperties compactProperties = getCompactProperties(properties, elementDefinition);
+        int index = 0;
         for (final String propertyName : elementDefinition.getProperties()) {
             final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyName);
             final ToBytesSerialiser<Object> serialiser = (null != typeDefinition) ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
-            LengthValueBytesSerialiserUtil.serialise(serialiser, properties.get(propertyName), out);
+            final Object property = null != compactProperties ? compactProperties.get(index) : properties.get(propertyName);
+            LengthValueBytesSerialiserUtil.serialise(serialiser, property, out);
+            index++;
         }
     }
 
     protected void deserialiseProperties(final byte[] bytes, final Properties properties, final SchemaElementDefinition elementDefinition, final int[] delimiter) throws SerialisationException {
+        final CompactProperties compactProperties = getCompactProperties(properties, elementDefinition);
         final int arrayLength = bytes.length;
         final Iterator<String> propertyNames = elementDefinition.getProperties().iterator();
+        int index = 0;
         while (propertyNames.hasNext() && delimiter[0] < arrayLength) {
             final String propertyName = propertyNames.next();
             final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyName);
             final ToBytesSerialiser<Object> serialiser = (null != typeDefinition) ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
 
             final Object property = LengthValueBytesSerialiserUtil.deserialise(serialiser, bytes, delimiter);
-            properties.put(propertyName, property);
+            if (null != compactProperties) {
+                compactProperties.put(index, property);
+            } else {
+                properties.put(propertyName, property);
+            }
+            index++;
         }
     }
-}
 
+    /**
+     * Creates an empty {@link CompactProperties} with slots for the properties
+     * in the element definition.
+     *
+     * @param elementDefinition the element definition
+     * @return the new properties
+     */
+    protected Properties createProperties(final SchemaElementDefinition elementDefinition) {
+        return new CompactProperties(elementDefinition.getPropertySlots());
+    }
+
+    // Returns the properties as CompactProperties if their slots match the
+    // order of the element definition properties, so they can be accessed by index.
+    private CompactProperties getCompactProperties(final Properties properties, final SchemaElementDefinition elementDefinition) {
+        if (properties instanceof CompactProperties) {
+            final PropertySlots slots = ((CompactProperties) properties).getSlots();
+            if (slots.equals(elementDefinition.getPropertySlots())) {
+                return (CompactProperties) properties;
+            }
+        }
+        return null;
+    }
+}
@@ -15,27 +15,25 @@
  */
 package uk.gov.gchq.gaffer.store.util;
 
-import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
-import uk.gov.gchq.gaffer.commonutil.stream.Streams;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
 
-import java.util.ArrayList;
+import java.io.File;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * Utility methods to help with doing aggregation of elements. Aggregation differs
@@ -62,23 +60,28 @@ public final class AggregatorUtil {
         if (null == schema) {
             throw new IllegalArgumentException("Schema is required");
         }
-        final Collection<String> aggregatedGroups = schema.getAggregatedGroups();
-        final List<Element> aggregatableElements = new ArrayList<>();
-        final List<Element> nonAggregatedElements = new ArrayList<>();
-        for (final Element element : elements) {
-            if (null != element) {
-                if (aggregatedGroups.contains(element.getGroup())) {
-                    aggregatableElements.add(element);
-                } else {
-                    nonAggregatedElements.add(element);
-                }
-            }
-        }
+        return new HashAggregator(schema).aggregate(elements);
+    }
 
-        final Iterable<Element> aggregatedElements = Streams.toStream(aggregatableElements)
-                .collect(Collectors.groupingBy(new ToIngestElementKey(schema), Collectors.reducing(null, new IngestElementBinaryOperator(schema))))
-                .values();
-        return new ChainedIterable<>(aggregatedElements, nonAggregatedElements);
+    /**
+     * Applies ingest aggregation to the provided iterable of {@link Element}s,
+     * partitioning the work across the provided {@link ForkJoinPool}.
+     * This uses the groupBy properties in the provided {@link Schema} to group
+     * the elements prior to aggregating them.
+     * <p>
+     * NOTE - this is done in memory so the size of the iterable should be limited.
+     *
+     * @param elements the elements to be aggregated
+     * @param schema   the schema containing the aggregators and groupBy properties to use
+     * @param pool     the pool to aggregate the elements in, or null to aggregate on the calling thread
+     * @return the aggregated elements.
+     * @see HashAggregator
+     */
+    public static CloseableIterable<Element> ingestAggregate(final Iterable<? extends Element> elements, final Schema schema, final ForkJoinPool pool) {
+        if (null == schema) {
+            throw new IllegalArgumentException("Schema is required");
+        }
+        return new HashAggregator(schema).aggregate(elements, pool);
     }
 
     /**
@@ -100,22 +103,74 @@ public final class AggregatorUtil {
         if (null == view) {
             throw new IllegalArgumentException("View is required");
         }
-        final Collection<String> aggregatedGroups = schema.getAggregatedGroups();
-        final List<Element> aggregatableElements = new ArrayList<>();
-        final List<Element> nonAggregatedElements = new ArrayList<>();
-        for (final Element element : elements) {
-            if (null != element) {
-                if (aggregatedGroups.contains(element.getGroup())) {
-                    aggregatableElements.add(element);
-                } else {
-                    nonAggregatedElements.add(element);
-                }
-            }
+        return new HashAggregator(schema, view).aggregate(elements);
+    }
+
+    /**
+     * Applies query time aggregation to the provided iterable of {@link Element}s,
+     * partitioning the work across the provided {@link ForkJoinPool}.
+     * This uses the groupBy properties in the provided {@link View} or {@link Schema} to group
+     * the elements prior to aggregating them.
+     * <p>
+     * NOTE - this is done in memory so the size of the iterable should be limited.
+     *
+     * @param elements the elements to be aggregated
+     * @param schema   the schema containing the aggregators and groupBy properties to use
+     * @param view     the view containing the aggregators and groupBy properties to use
+     * @param pool     the pool to aggregate the elements in, or null to aggregate on the calling thread
+     * @return the aggregated elements.
+     * @see HashAggregator
+     */
+    public static CloseableIterable<Element> queryAggregate(final Iterable<? extends Element> elements, final Schema schema, final View view,
+                                                            final ForkJoinPool pool) {
+        if (null == schema) {
+            throw new IllegalArgumentException("Schema is required");
+        }
+        if (null == view) {
+            throw new IllegalArgumentException("View is required");
+        }
+        return new HashAggregator(schema, view).aggregate(elements, pool);
+    }
+
+    /**
+     * Applies query time aggregation to the provided iterable of {@link Element}s,
+     * spilling the elements to disk if there are more than can be held in memory.
+     * This uses the groupBy properties in the provided {@link View} or {@link Schema} to group
+     * the elements prior to aggregating them.
+     * <p>
+     * The elements are spilled to disk using an {@link ElementSerialiser}, so all
+     * of their properties must have serialisers defined in the schema.
+     *
+     * @param elements            the elements to be aggregated
+     * @param schema              the schema containing the aggregators and groupBy properties to use
+     * @param view                the view containing the aggregators and groupBy properties to use
+     * @param maxElementsInMemory the maximum number of elements to hold in memory before spilling to disk
+     * @param spillDirectory      the directory to spill to, or null to use the default temporary directory
+     * @return the aggregated elements.
+     * @see ExternalAggregatedIterable
+     */
+    public static CloseableIterable<Element> queryAggregate(final Iterable<? extends Element> elements, final Schema schema, final View view,
+                                                            final int maxElementsInMemory, final File spillDirectory) {
+        if (null == schema) {
+            throw new IllegalArgumentException("Schema is required");
+        }
+        if (null == view) {
+            throw new IllegalArgumentException("View is required");
+        }
+        final ExternalAggregatedIterable aggregatedElements = new ExternalAggregatedIterable(
+                new ToQueryElementKey(schema, view),
+                new QueryElementBinaryOperator(schema, view),
+                new IsElementAggregated(schema),
+                maxElementsInMemory,
+                new ElementSerialiser(schema),
+                spillDirectory);
+        try {
+            aggregatedElements.addAll(elements);
+        } catch (final RuntimeException e) {
+            aggregatedElements.close();
+            throw e;
         }
-        final Iterable<Element> aggregatedElements = Streams.toStream(aggregatableElements)
-                .collect(Collectors.groupingBy(new ToQueryElementKey(schema, view), Collectors.reducing(null, new QueryElementBinaryOperator(schema, view))))
-                .values();
-        return new ChainedIterable<>(aggregatedElements, nonAggregatedElements);
+        return aggregatedElements;
     }
 
     /**
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.store.util;
+
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@code DeserialisedJsonCache} is a bounded, least recently used cache of
+ * objects deserialised from json, keyed on a SHA-256 hash of the json bytes.
+ * <p>
+ * It allows server side components that are repeatedly given the same json,
+ * such as Accumulo iterators and HBase coprocessors, to reuse a deserialised
+ * instance rather than parsing the json every time. There is a single cache
+ * for each type, shared by all threads, so cached objects are shared between
+ * threads and must be treated as immutable. {@link Schema}s are compiled
+ * before they are cached, so that the caches they would otherwise build
+ * lazily are not modified once they are shared.
+ * </p>
+ * <p>
+ * Each cache holds at most {@code maxSize} objects in total, however many
+ * threads use it, evicting the least recently used object when it is full.
+ * The maximum size of the {@link Schema} and {@link View} caches defaults to
+ * {@value #MAX_SIZE_DEFAULT} and can be set using the {@value #MAX_SIZE}
+ * system property.
+ * </p>
+ *
+ * @param <T> the type of the deserialised objects
+ */
+public class DeserialisedJsonCache<T> {
+    public static final String MAX_SIZE = "gaffer.cache.deserialised-json.max-size";
+    public static final String MAX_SIZE_DEFAULT = "100";
+
+    private static final DeserialisedJsonCache<Schema> SCHEMA_CACHE = new DeserialisedJsonCache<>(
+            Schema::fromJson, DeserialisedJsonCache::compileSchema, getMaxSizeFromSystemProperties());
+    private static final DeserialisedJsonCache<View> VIEW_CACHE = new DeserialisedJsonCache<>(
+            View::fromJson, null, getMaxSizeFromSystemProperties());
+
+    private final Function<byte[], T> deserialiser;
+    private final Consumer<T> compiler;
+    private final int maxSize;
+    private final Map<ByteBuffer, T> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DeserialisedJsonCache(final Function<byte[], T> deserialiser, final Consumer<T> compiler, final int maxSize) {
+        if (null == deserialiser) {
+            throw new IllegalArgumentException("A deserialiser is required");
+        }
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("The maximum size must not be negative");
+        }
+        this.deserialiser = deserialiser;
+        this.compiler = compiler;
+        this.maxSize = maxSize;
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    /**
+     * @return the shared cache of {@link Schema}s
+     */
+    public static DeserialisedJsonCache<Schema> schemaCache() {
+        return SCHEMA_CACHE;
+    }
+
+    /**
+     * @return the shared cache of {@link View}s
+     */
+    public static DeserialisedJsonCache<View> viewCache() {
+        return VIEW_CACHE;
+    }
+
+    /**
+     * Gets the {@link Schema} for the json from the shared schema cache,
+     * deserialising it if it is not already cached.
+     *
+     * @param json the schema json
+     * @return the schema
+     */
+    public static Schema getSchema(final byte[] json) {
+        return SCHEMA_CACHE.get(json);
+    }
+
+    /**
+     * Gets the {@link View} for the json from the shared view cache,
+     * deserialising it if it is not already cached.
+     *
+     * @param json the view json
+     * @return the view
+     */
+    public static View getView(final byte[] json) {
+        return VIEW_CACHE.get(json);
+    }
+
+    /**
+     * Gets the object deserialised from the json, deserialising it if it is
+     * not already cached.
+     *
+     * @param json the json to deserialise
+     * @return the deserialised object, or null if the json is null
+     */
+    public T get(final byte[] json) {
+        if (null == json) {
+            return null;
+        }
+        if (0 == maxSize) {
+            misses.incrementAndGet();
+            return deserialise(json);
+        }
+
+        final ByteBuffer key = hash(json);
+        T value;
+        synchronized (cache) {
+            value = cache.get(key);
+        }
+        if (null != value) {
+            hits.incrementAndGet();
+            return value;
+        }
+
+        // Deserialise outside the lock. If another thread cached the same
+        // json in the meantime, its object is used so there is only one copy.
+        misses.incrementAndGet();
+        value = deserialise(json);
+        if (null != value) {
+            synchronized (cache) {
+                final T existing = cache.putIfAbsent(key, value);
+                if (null != existing) {
+                    return existing;
+                }
+            }
+        }
+        return value;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of cached objects
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Removes all the cached objects and resets the hit and miss counters.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private T deserialise(final byte[] json) {
+        final T value = deserialiser.apply(json);
+        if (null != compiler && null != value) {
+            compiler.accept(value);
+        }
+        return value;
+    }
+
+    private static ByteBuffer hash(final byte[] json) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    // Build the lazily created aggregators, validators and property slots up
+    // front, rather than when the first element is processed.
+    private static void compileSchema(final Schema schema) {
+        for (final String group : schema.getGroups()) {
+            final SchemaElementDefinition elementDef = schema.getElement(group);
+            elementDef.getPropertySlots();
+            elementDef.getFullAggregator();
+            elementDef.getIngestAggregator();
+            elementDef.getQueryAggregator(null, null);
+            elementDef.getValidator(true);
+            elementDef.getValidator(false);
+        }
+    }
+
+    private static int getMaxSizeFromSystemProperties() {
+        try {
+            return Integer.parseInt(System.getProperty(MAX_SIZE, MAX_SIZE_DEFAULT).trim());
+        } catch (final NumberFormatException e) {
+            return Integer.parseInt(MAX_SIZE_DEFAULT);
+        }
+    }
+
+    /**
+     * A least recently used map holding at most {@code maxSize} entries. It
+     * is not thread safe, so access must be synchronised on the map.
+     */
+    private static final class LruCache<V> extends LinkedHashMap<ByteBuffer, V> {
+        private static final long serialVersionUID = -2398164398561870392L;
+        private final int maxSize;
+
+        private LruCache(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
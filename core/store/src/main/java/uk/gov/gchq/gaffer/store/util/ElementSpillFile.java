@@ -0,0 +1,294 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId.MatchedVertex;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@code ElementSpillFile} is a temporary file used to hold {@link Element}s
+ * on disk when there are too many of them to be held in memory.
+ * <p>
+ * Elements are serialised using an {@link ElementSerialiser}, so all of the
+ * properties defined in the schema must have a serialiser. Any other
+ * properties, e.g. transient properties added by a view, are written after
+ * the serialised element as JSON. Elements are appended to the file and can
+ * then be read back, in the order they were written, any number of times.
+ * The file is deleted when it is closed.
+ * </p>
+ */
+public class ElementSpillFile implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte NO_MATCHED_VERTEX = 0;
+    private static final byte[] NO_OVERFLOW_PROPERTIES = new byte[0];
+
+    private final ElementSerialiser serialiser;
+    private final File file;
+    private final List<Closeable> readers = new ArrayList<>();
+    private DataOutputStream output;
+    private long size;
+
+    /**
+     * Creates a new, empty, spill file.
+     *
+     * @param serialiser the serialiser to use to convert elements to bytes
+     * @param directory  the directory to create the file in. If null, the
+     *                   default temporary directory is used.
+     */
+    public ElementSpillFile(final ElementSerialiser serialiser, final File directory) {
+        if (null == serialiser) {
+            throw new IllegalArgumentException("Element serialiser is required");
+        }
+        this.serialiser = serialiser;
+        try {
+            file = File.createTempFile("gaffer-spill-", ".tmp", directory);
+            file.deleteOnExit();
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        } catch (final IOException e) {
+            throw new RuntimeException("Unable to create spill file in directory: " + directory, e);
+        }
+    }
+
+    /**
+     * Appends an element to the file.
+     *
+     * @param element the element to write
+     */
+    public void write(final Element element) {
+        if (null == output) {
+            throw new IllegalStateException("Elements cannot be written to a spill file once it has been read");
+        }
+        try {
+            final byte[] bytes = serialiser.serialise(element);
+            final byte[] overflowBytes = serialiseOverflowProperties(element);
+            output.writeInt(bytes.length);
+            // The serialised form of an Edge does not include the matched vertex
+            output.writeByte(element instanceof Edge && null != ((Edge) element).getMatchedVertex()
+                    ? ((Edge) element).getMatchedVertex().ordinal() + 1 : NO_MATCHED_VERTEX);
+            output.write(bytes);
+            output.writeInt(overflowBytes.length);
+            output.write(overflowBytes);
+            size++;
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to serialise element for spilling to disk: " + element, e);
+        } catch (final IOException e) {
+            throw new RuntimeException("Unable to write to spill file: " + file, e);
+        }
+    }
+
+    /**
+     * @return the number of elements in the file
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Finishes writing to the file and returns an iterator over its elements.
+     * No more elements can be written to the file once it has been read.
+     *
+     * @return an iterator over the elements in the file
+     */
+    public CloseableIterator<Element> read() {
+        finishWriting();
+        final SpillFileIterator iterator = new SpillFileIterator();
+        readers.add(iterator);
+        return iterator;
+    }
+
+    @Override
+    public void close() {
+        for (final Closeable reader : readers) {
+            closeQuietly(reader);
+        }
+        readers.clear();
+        closeQuietly(output);
+        output = null;
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (final IOException e) {
+            // The file has been marked to be deleted on exit
+        }
+    }
+
+    // The element serialiser only writes the properties in the schema, so any
+    // other properties are written separately as JSON.
+    private byte[] serialiseOverflowProperties(final Element element) throws SerialisationException {
+        final SchemaElementDefinition elementDef = serialiser.getSchema().getElement(element.getGroup());
+        Properties overflowProperties = null;
+        for (final String propertyName : element.getProperties().keySet()) {
+            if (null == elementDef || !elementDef.containsProperty(propertyName)) {
+                if (null == overflowProperties) {
+                    overflowProperties = new Properties();
+                }
+                overflowProperties.put(propertyName, element.getProperty(propertyName));
+            }
+        }
+
+        if (null == overflowProperties) {
+            return NO_OVERFLOW_PROPERTIES;
+        }
+        return JSONSerialiser.serialise(new OverflowProperties(overflowProperties));
+    }
+
+    private void finishWriting() {
+        if (null != output) {
+            try {
+                output.close();
+            } catch (final IOException e) {
+                throw new RuntimeException("Unable to write to spill file: " + file, e);
+            } finally {
+                output = null;
+            }
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (null != closeable) {
+            try {
+                closeable.close();
+            } catch (final IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private final class SpillFileIterator implements CloseableIterator<Element> {
+        private final DataInputStream input;
+        private Element next;
+        private boolean finished;
+
+        private SpillFileIterator() {
+            try {
+                input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            } catch (final IOException e) {
+                throw new RuntimeException("Unable to read spill file: " + file, e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (null == next && !finished) {
+                next = readNext();
+            }
+            return null != next;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Element element = next;
+            next = null;
+            return element;
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+            closeQuietly(input);
+        }
+
+        private Element readNext() {
+            final int length;
+            try {
+                length = input.readInt();
+            } catch (final EOFException e) {
+                close();
+                return null;
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to read spill file: " + file, e);
+            }
+
+            try {
+                final byte matchedVertex = input.readByte();
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                final Element element = serialiser.deserialise(bytes);
+                if (NO_MATCHED_VERTEX != matchedVertex) {
+                    final Edge edge = (Edge) element;
+                    edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), MatchedVertex.values()[matchedVertex - 1]);
+                }
+                final int overflowLength = input.readInt();
+                if (overflowLength > 0) {
+                    final byte[] overflowBytes = new byte[overflowLength];
+                    input.readFully(overflowBytes);
+                    element.copyProperties(JSONSerialiser.deserialise(overflowBytes, OverflowProperties.class).getProperties());
+                }
+                return element;
+            } catch (final SerialisationException e) {
+                close();
+                throw new RuntimeException("Unable to deserialise element from spill file: " + file, e);
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to read spill file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Holds the properties of an element that are not in the schema. The
+     * property values are written with their classes so they can be
+     * deserialised to the same types.
+     */
+    private static final class OverflowProperties {
+        private Properties properties;
+
+        // Required for deserialisation
+        private OverflowProperties() {
+        }
+
+        private OverflowProperties(final Properties properties) {
+            this.properties = properties;
+        }
+
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.WRAPPER_OBJECT, property = "class")
+        public Properties getProperties() {
+            return properties;
+        }
+
+        public void setProperties(final Properties properties) {
+            this.properties = properties;
+        }
+    }
+}
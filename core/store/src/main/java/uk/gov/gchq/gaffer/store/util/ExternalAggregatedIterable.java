@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ * An {@code ExternalAggregatedIterable} aggregates {@link Element}s which may
+ * not all fit in memory.
+ * </p>
+ * <p>
+ * Elements are aggregated in an in-memory hash map until the number of
+ * elements held in memory exceeds the configured maximum. At that point the
+ * partially aggregated elements, and all subsequent elements, are
+ * hash-partitioned by their element key into {@link ElementSpillFile}s. When
+ * iterated, each partition is read back and aggregated in memory in turn, so
+ * only one partition needs to fit in memory at a time. If a partition has
+ * more keys than the configured maximum, it is re-partitioned into further
+ * spill files using a different hash of the element keys. Elements which are
+ * not aggregated are passed through unchanged. The spill files are deleted
+ * when the iterable is closed.
+ * </p>
+ */
+public class ExternalAggregatedIterable implements CloseableIterable<Element> {
+    public static final int DEFAULT_NUM_PARTITIONS = 64;
+
+    /**
+     * The maximum number of times a partition is re-partitioned. Beyond this
+     * a partition is aggregated in memory however many keys it has, e.g. if
+     * the keys have equal hash codes.
+     */
+    private static final int MAX_PARTITION_DEPTH = 8;
+
+    private final Function<Element, Element> toKey;
+    private final BinaryOperator<Element> aggregator;
+    private final Predicate<Element> isAggregated;
+    private final int maxElementsInMemory;
+    private final int numPartitions;
+    private final ElementSerialiser serialiser;
+    private final File spillDirectory;
+    private final int depth;
+
+    private final Map<Element, Element> aggregatedElements = new HashMap<>();
+    private final List<Element> nonAggregatedElements = new ArrayList<>();
+    private List<ElementSpillFile> partitions;
+    private ElementSpillFile nonAggregatedFile;
+
+    public ExternalAggregatedIterable(final Function<Element, Element> toKey,
+                                      final BinaryOperator<Element> aggregator,
+                                      final Predicate<Element> isAggregated,
+                                      final int maxElementsInMemory,
+                                      final ElementSerialiser serialiser,
+                                      final File spillDirectory) {
+        this(toKey, aggregator, isAggregated, maxElementsInMemory, DEFAULT_NUM_PARTITIONS, serialiser, spillDirectory);
+    }
+
+    public ExternalAggregatedIterable(final Function<Element, Element> toKey,
+                                      final BinaryOperator<Element> aggregator,
+                                      final Predicate<Element> isAggregated,
+                                      final int maxElementsInMemory,
+                                      final int numPartitions,
+                                      final ElementSerialiser serialiser,
+                                      final File spillDirectory) {
+        this(toKey, aggregator, isAggregated, maxElementsInMemory, numPartitions, serialiser, spillDirectory, 0);
+    }
+
+    private ExternalAggregatedIterable(final Function<Element, Element> toKey,
+                                       final BinaryOperator<Element> aggregator,
+                                       final Predicate<Element> isAggregated,
+                                       final int maxElementsInMemory,
+                                       final int numPartitions,
+                                       final ElementSerialiser serialiser,
+                                       final File spillDirectory,
+                                       final int depth) {
+        if (null == toKey) {
+            throw new IllegalArgumentException("Element key function is required");
+        }
+        if (null == aggregator) {
+            throw new IllegalArgumentException("Aggregator is required");
+        }
+        if (null == isAggregated) {
+            throw new IllegalArgumentException("Aggregated element predicate is required");
+        }
+        if (1 > maxElementsInMemory) {
+            throw new IllegalArgumentException("The maximum number of elements in memory must be at least 1");
+        }
+        if (1 > numPartitions) {
+            throw new IllegalArgumentException("The number of partitions must be at least 1");
+        }
+        if (null == serialiser) {
+            throw new IllegalArgumentException("Element serialiser is required");
+        }
+        this.toKey = toKey;
+        this.aggregator = aggregator;
+        this.isAggregated = isAggregated;
+        this.maxElementsInMemory = maxElementsInMemory;
+        this.numPartitions = numPartitions;
+        this.serialiser = serialiser;
+        this.spillDirectory = spillDirectory;
+        this.depth = depth;
+    }
+
+    public void add(final Element element) {
+        if (null == element) {
+            return;
+        }
+
+        if (isAggregated.test(element)) {
+            if (isSpilled()) {
+                final Element key = toKey.apply(element);
+                partitions.get(getPartition(key)).write(element);
+            } else {
+                aggregatedElements.merge(toKey.apply(element), element, aggregator);
+            }
+        } else if (isSpilled()) {
+            nonAggregatedFile.write(element);
+        } else {
+            nonAggregatedElements.add(element);
+        }
+
+        if (!isSpilled() && aggregatedElements.size() + nonAggregatedElements.size() > maxElementsInMemory) {
+            spill();
+        }
+    }
+
+    public void addAll(final Iterable<? extends Element> elements) {
+        for (final Element element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * @return true if the elements have been spilled to disk
+     */
+    public boolean isSpilled() {
+        return null != partitions;
+    }
+
+    @Override
+    public CloseableIterator<Element> iterator() {
+        if (!isSpilled()) {
+            return new ChainedIterable<Element>(aggregatedElements.values(), nonAggregatedElements).iterator();
+        }
+        final ElementSpillFile nonAggregated = nonAggregatedFile;
+        return new ChainedIterable<Element>((Iterable<Element>) PartitionIterator::new, (Iterable<Element>) nonAggregated::read).iterator();
+    }
+
+    @Override
+    public void close() {
+        if (isSpilled()) {
+            for (final ElementSpillFile partition : partitions) {
+                partition.close();
+            }
+            nonAggregatedFile.close();
+            partitions = null;
+            nonAggregatedFile = null;
+        }
+        aggregatedElements.clear();
+        nonAggregatedElements.clear();
+    }
+
+    // The hash is mixed with a seed for each level of partitioning, so the
+    // keys of a partition that is re-partitioned are spread out again
+    private int getPartition(final Element key) {
+        int hash = key.hashCode() + depth * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+
+    private void spill() {
+        partitions = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            partitions.add(new ElementSpillFile(serialiser, spillDirectory));
+        }
+        nonAggregatedFile = new ElementSpillFile(serialiser, spillDirectory);
+
+        for (final Map.Entry<Element, Element> entry : aggregatedElements.entrySet()) {
+            partitions.get(getPartition(entry.getKey())).write(entry.getValue());
+        }
+        for (final Element element : nonAggregatedElements) {
+            nonAggregatedFile.write(element);
+        }
+        aggregatedElements.clear();
+        nonAggregatedElements.clear();
+    }
+
+    /**
+     * Reads each partition in turn, aggregating all of the elements in the
+     * partition in memory before returning them. A partition with more keys
+     * than fit in memory is re-partitioned and aggregated in the same way.
+     */
+    private final class PartitionIterator implements CloseableIterator<Element> {
+        private int partitionIndex;
+        private Iterator<Element> current;
+        private ExternalAggregatedIterable repartitioned;
+
+        @Override
+        public boolean hasNext() {
+            while (null == current || !current.hasNext()) {
+                closeCurrent();
+                if (null == partitions || partitionIndex >= partitions.size()) {
+                    return false;
+                }
+                current = aggregatePartition(partitions.get(partitionIndex++));
+            }
+            return true;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            closeCurrent();
+            partitionIndex = null != partitions ? partitions.size() : 0;
+        }
+
+        private Iterator<Element> aggregatePartition(final ElementSpillFile partition) {
+            final Map<Element, Element> aggregatedPartition = new HashMap<>();
+            final CloseableIterator<Element> itr = partition.read();
+            try {
+                while (itr.hasNext()) {
+                    final Element element = itr.next();
+                    if (null != repartitioned) {
+                        repartitioned.add(element);
+                    } else {
+                        aggregatedPartition.merge(toKey.apply(element), element, aggregator);
+                        if (aggregatedPartition.size() > maxElementsInMemory && depth < MAX_PARTITION_DEPTH) {
+                            repartitioned = new ExternalAggregatedIterable(toKey, aggregator, isAggregated,
+                                    maxElementsInMemory, numPartitions, serialiser, spillDirectory, depth + 1);
+                            repartitioned.addAll(aggregatedPartition.values());
+                            aggregatedPartition.clear();
+                        }
+                    }
+                }
+            } finally {
+                itr.close();
+            }
+            return null != repartitioned ? repartitioned.iterator() : aggregatedPartition.values().iterator();
+        }
+
+        private void closeCurrent() {
+            CloseableUtil.close(current);
+            current = null;
+            if (null != repartitioned) {
+                repartitioned.close();
+                repartitioned = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.LimitedInMemorySortedIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * <p>
+ * An {@code ExternalSortedIterable} sorts, and optionally deduplicates,
+ * {@link Element}s which may not all fit in memory.
+ * </p>
+ * <p>
+ * Elements are added to a {@link LimitedInMemorySortedIterable}. Once it holds
+ * the maximum number of elements allowed in memory, its contents are written
+ * out as a sorted run to an {@link ElementSpillFile}. When the iterable is
+ * iterated, the runs on disk and the elements still held in memory are merged
+ * together. The spill files are deleted when the iterable is closed.
+ * </p>
+ */
+public class ExternalSortedIterable implements CloseableIterable<Element> {
+    private final Comparator<Element> comparator;
+    private final boolean deduplicate;
+    private final int maxElementsInMemory;
+    private final ElementSerialiser serialiser;
+    private final File spillDirectory;
+    private final List<ElementSpillFile> runs = new ArrayList<>();
+    private LimitedInMemorySortedIterable<Element> buffer;
+
+    public ExternalSortedIterable(final Comparator<Element> comparator,
+                                  final boolean deduplicate,
+                                  final int maxElementsInMemory,
+                                  final ElementSerialiser serialiser,
+                                  final File spillDirectory) {
+        if (null == comparator) {
+            throw new IllegalArgumentException("Comparator is required");
+        }
+        if (1 > maxElementsInMemory) {
+            throw new IllegalArgumentException("The maximum number of elements in memory must be at least 1");
+        }
+        if (null == serialiser) {
+            throw new IllegalArgumentException("Element serialiser is required");
+        }
+        this.comparator = comparator;
+        this.deduplicate = deduplicate;
+        this.maxElementsInMemory = maxElementsInMemory;
+        this.serialiser = serialiser;
+        this.spillDirectory = spillDirectory;
+        this.buffer = createBuffer();
+    }
+
+    public void add(final Element element) {
+        buffer.add(element);
+        if (buffer.size() >= maxElementsInMemory) {
+            spill();
+        }
+    }
+
+    public void addAll(final Iterable<? extends Element> elements) {
+        for (final Element element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * @return the number of sorted runs that have been spilled to disk
+     */
+    public int getNumberOfRuns() {
+        return runs.size();
+    }
+
+    @Override
+    public CloseableIterator<Element> iterator() {
+        final List<Iterator<Element>> sources = new ArrayList<>(runs.size() + 1);
+        for (final ElementSpillFile run : runs) {
+            sources.add(run.read());
+        }
+        sources.add(buffer.iterator());
+        return new MergeIterator(sources);
+    }
+
+    @Override
+    public void close() {
+        for (final ElementSpillFile run : runs) {
+            run.close();
+        }
+        runs.clear();
+        buffer = createBuffer();
+    }
+
+    private LimitedInMemorySortedIterable<Element> createBuffer() {
+        return new LimitedInMemorySortedIterable<>(comparator, null, deduplicate);
+    }
+
+    private void spill() {
+        final ElementSpillFile run = new ElementSpillFile(serialiser, spillDirectory);
+        runs.add(run);
+        for (final Element element : buffer) {
+            run.write(element);
+        }
+        buffer = createBuffer();
+    }
+
+    /**
+     * Merges sorted sources of elements. Ties are broken by the order of the
+     * sources, so the merge is stable. When deduplicating, elements which are
+     * equal to an element already returned are skipped; as equal elements
+     * always compare as equal, only the current run of elements with the same
+     * sort order needs to be remembered.
+     */
+    private final class MergeIterator implements CloseableIterator<Element> {
+        private final List<Iterator<Element>> sources;
+        private final PriorityQueue<Head> heads;
+        private final Set<Element> previousTies = new HashSet<>();
+        private Element firstTie;
+        private Element next;
+
+        private MergeIterator(final List<Iterator<Element>> sources) {
+            this.sources = sources;
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+                final int result = comparator.compare(a.element, b.element);
+                return 0 != result ? result : Integer.compare(a.sourceIndex, b.sourceIndex);
+            });
+            for (int i = 0; i < sources.size(); i++) {
+                advance(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == next && !heads.isEmpty()) {
+                final Head head = heads.poll();
+                advance(head.sourceIndex);
+                if (!deduplicate || !isDuplicate(head.element)) {
+                    next = head.element;
+                }
+            }
+            if (null == next) {
+                close();
+            }
+            return null != next;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Element element = next;
+            next = null;
+            return element;
+        }
+
+        @Override
+        public void close() {
+            for (final Iterator<Element> source : sources) {
+                CloseableUtil.close(source);
+            }
+            heads.clear();
+        }
+
+        private void advance(final int sourceIndex) {
+            final Iterator<Element> source = sources.get(sourceIndex);
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), sourceIndex));
+            }
+        }
+
+        private boolean isDuplicate(final Element element) {
+            if (null == firstTie || 0 != comparator.compare(firstTie, element)) {
+                previousTies.clear();
+                firstTie = element;
+            }
+            return !previousTies.add(element);
+        }
+    }
+
+    private static final class Head {
+        private final Element element;
+        private final int sourceIndex;
+
+        private Head(final Element element, final int sourceIndex) {
+            this.element = element;
+            this.sourceIndex = sourceIndex;
+        }
+    }
+}
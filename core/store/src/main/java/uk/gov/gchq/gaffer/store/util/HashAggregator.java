@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.store.util;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * A {@code HashAggregator} aggregates {@link Element}s in a single pass over
+ * the input using a hash table.
+ * </p>
+ * <p>
+ * Elements are grouped on a compact {@link Key} made up of the group, the
+ * identifiers and the group-by property values, rather than on a cloned
+ * {@link Element}. The first element seen for each key is kept and each
+ * subsequent element with the same key is aggregated into its properties in
+ * place. Elements of groups that are not aggregated are passed through
+ * unchanged. The group-by properties and aggregator for each group are
+ * resolved once, when the {@code HashAggregator} is created.
+ * </p>
+ * <p>
+ * Aggregation can optionally be partitioned across a {@link ForkJoinPool}.
+ * The input is split into chunks which are pre-aggregated concurrently into
+ * hash partitions of the key space, then each partition is merged
+ * concurrently. This relies on the aggregate functions being associative,
+ * which is already required by Gaffer.
+ * </p>
+ */
+public class HashAggregator {
+    /**
+     * The minimum number of elements each partition must be given before
+     * aggregation is done concurrently.
+     */
+    public static final int MIN_ELEMENTS_PER_PARTITION = 1000;
+
+    private final Map<String, GroupAggregator> groupAggregators = new HashMap<>();
+
+    /**
+     * Creates a {@code HashAggregator} for ingest aggregation, using the
+     * groupBy properties and aggregators in the {@link Schema}.
+     *
+     * @param schema the schema containing the aggregators and groupBy properties to use
+     */
+    public HashAggregator(final Schema schema) {
+        if (null == schema) {
+            throw new IllegalArgumentException("Schema is required");
+        }
+        for (final String group : schema.getAggregatedGroups()) {
+            groupAggregators.put(group, new GroupAggregator(
+                    AggregatorUtil.getIngestGroupBy(group, schema),
+                    schema.getElement(group).getIngestAggregator()));
+        }
+    }
+
+    /**
+     * Creates a {@code HashAggregator} for query time aggregation, using the
+     * groupBy properties and aggregators in the {@link View}, falling back
+     * to those in the {@link Schema}.
+     *
+     * @param schema the schema containing the aggregators and groupBy properties to use
+     * @param view   the view containing the aggregators and groupBy properties to use
+     */
+    public HashAggregator(final Schema schema, final View view) {
+        if (null == schema) {
+            throw new IllegalArgumentException("Schema is required");
+        }
+        if (null == view) {
+            throw new IllegalArgumentException("View is required");
+        }
+        for (final String group : schema.getAggregatedGroups()) {
+            final SchemaElementDefinition schemaElDef = schema.getElement(group);
+            final ViewElementDefinition viewElDef = view.getElement(group);
+            final ElementAggregator aggregator = null == viewElDef
+                    ? schemaElDef.getQueryAggregator(null, null)
+                    : schemaElDef.getQueryAggregator(viewElDef.getGroupBy(), viewElDef.getAggregator());
+            groupAggregators.put(group, new GroupAggregator(
+                    AggregatorUtil.getQueryGroupBy(group, schema, view), aggregator));
+        }
+    }
+
+    /**
+     * Aggregates the provided elements on the calling thread.
+     *
+     * @param elements the elements to aggregate
+     * @return the aggregated elements, followed by the elements that are not aggregated
+     */
+    public CloseableIterable<Element> aggregate(final Iterable<? extends Element> elements) {
+        final Map<Key, Element> aggregatedElements = new HashMap<>();
+        final List<Element> nonAggregatedElements = new ArrayList<>();
+        for (final Element element : elements) {
+            add(element, aggregatedElements, nonAggregatedElements);
+        }
+        return new ChainedIterable<>(aggregatedElements.values(), nonAggregatedElements);
+    }
+
+    /**
+     * Aggregates the provided elements, partitioning the work across the
+     * provided {@link ForkJoinPool}. If no pool is provided, or there are too
+     * few elements to be worth partitioning, the elements are aggregated on
+     * the calling thread.
+     *
+     * @param elements the elements to aggregate
+     * @param pool     the pool to aggregate the elements in, may be null
+     * @return the aggregated elements, followed by the elements that are not aggregated
+     */
+    public CloseableIterable<Element> aggregate(final Iterable<? extends Element> elements, final ForkJoinPool pool) {
+        if (null == pool || pool.getParallelism() < 2) {
+            return aggregate(elements);
+        }
+
+        final List<? extends Element> input = toList(elements);
+        final int numPartitions = Math.min(pool.getParallelism(), input.size() / MIN_ELEMENTS_PER_PARTITION);
+        if (numPartitions < 2) {
+            return aggregate(input);
+        }
+
+        // Pre-aggregate each chunk of the input into its own set of partitions
+        final int chunkSize = (input.size() + numPartitions - 1) / numPartitions;
+        final List<Callable<Chunk>> chunkTasks = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            final List<? extends Element> chunk = input.subList(
+                    Math.min(i * chunkSize, input.size()), Math.min((i + 1) * chunkSize, input.size()));
+            chunkTasks.add(() -> aggregateChunk(chunk, numPartitions));
+        }
+        final List<Chunk> chunks = invokeAll(pool, chunkTasks);
+
+        // Merge each partition across the chunks, in chunk order
+        final List<Callable<Map<Key, Element>>> mergeTasks = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            final int partition = i;
+            mergeTasks.add(() -> mergePartition(chunks, partition));
+        }
+        final List<Map<Key, Element>> partitions = invokeAll(pool, mergeTasks);
+
+        final List<Iterable<? extends Element>> results = new ArrayList<>(numPartitions * 2);
+        for (final Map<Key, Element> partition : partitions) {
+            results.add(partition.values());
+        }
+        for (final Chunk chunk : chunks) {
+            results.add(chunk.nonAggregatedElements);
+        }
+        return new ChainedIterable<>(results.toArray(new Iterable[results.size()]));
+    }
+
+    /**
+     * @param element the element to create a key for
+     * @return the key for the element, or null if the element's group is not aggregated.
+     */
+    public Key toKey(final Element element) {
+        final GroupAggregator groupAggregator = groupAggregators.get(element.getGroup());
+        return null == groupAggregator ? null : groupAggregator.toKey(element);
+    }
+
+    private void add(final Element element, final Map<Key, Element> aggregatedElements, final List<Element> nonAggregatedElements) {
+        if (null == element) {
+            return;
+        }
+
+        final GroupAggregator groupAggregator = groupAggregators.get(element.getGroup());
+        if (null == groupAggregator) {
+            nonAggregatedElements.add(element);
+            return;
+        }
+
+        final Key key = groupAggregator.toKey(element);
+        final Element state = aggregatedElements.putIfAbsent(key, element);
+        if (null != state) {
+            groupAggregator.aggregator.apply(state, element);
+        }
+    }
+
+    private Chunk aggregateChunk(final List<? extends Element> elements, final int numPartitions) {
+        final Chunk chunk = new Chunk(numPartitions);
+        for (final Element element : elements) {
+            if (null == element) {
+                continue;
+            }
+            final GroupAggregator groupAggregator = groupAggregators.get(element.getGroup());
+            if (null == groupAggregator) {
+                chunk.nonAggregatedElements.add(element);
+                continue;
+            }
+
+            final Key key = groupAggregator.toKey(element);
+            final Element state = chunk.partitions.get(key.partition(numPartitions)).putIfAbsent(key, element);
+            if (null != state) {
+                groupAggregator.aggregator.apply(state, element);
+            }
+        }
+        return chunk;
+    }
+
+    private Map<Key, Element> mergePartition(final List<Chunk> chunks, final int partition) {
+        final Map<Key, Element> merged = chunks.get(0).partitions.get(partition);
+        for (int i = 1; i < chunks.size(); i++) {
+            for (final Map.Entry<Key, Element> entry : chunks.get(i).partitions.get(partition).entrySet()) {
+                final Element state = merged.putIfAbsent(entry.getKey(), entry.getValue());
+                if (null != state) {
+                    groupAggregators.get(state.getGroup()).aggregator.apply(state, entry.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static List<? extends Element> toList(final Iterable<? extends Element> elements) {
+        if (elements instanceof List) {
+            return (List<? extends Element>) elements;
+        }
+
+        final List<Element> list = elements instanceof Collection
+                ? new ArrayList<>(((Collection<?>) elements).size())
+                : new ArrayList<>();
+        for (final Element element : elements) {
+            list.add(element);
+        }
+        return list;
+    }
+
+    private static <T> List<T> invokeAll(final ForkJoinPool pool, final List<Callable<T>> tasks) {
+        final List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (final Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted whilst aggregating elements", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * A {@code Key} identifies the elements that should be aggregated
+     * together. It consists of the group, the identifiers and the values of
+     * the group-by properties of an element. The group and identifiers are
+     * compared using {@link Element#identityEquals(Element)}, so they are not
+     * copied out of the element.
+     */
+    public static final class Key {
+        private final Element element;
+        private final Object[] groupByValues;
+        private final int hash;
+
+        Key(final Element element, final Object[] groupByValues) {
+            this.element = element;
+            this.groupByValues = groupByValues;
+            this.hash = 31 * element.identityHashCode() + Arrays.deepHashCode(groupByValues);
+        }
+
+        int partition(final int numPartitions) {
+            // Spread the high bits so they contribute to the partition
+            final int h = hash ^ (hash >>> 16);
+            return (h & Integer.MAX_VALUE) % numPartitions;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (null == obj || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            final Key key = (Key) obj;
+            return hash == key.hash
+                    && element.identityEquals(key.element)
+                    && Arrays.deepEquals(groupByValues, key.groupByValues);
+        }
+
+        @Override
+        public String toString() {
+            return element.getGroup() + Arrays.deepToString(groupByValues);
+        }
+    }
+
+    private static final class GroupAggregator {
+        private static final Object[] NO_GROUP_BY_VALUES = new Object[0];
+
+        private final String[] groupBy;
+        private final ElementAggregator aggregator;
+
+        private GroupAggregator(final Set<String> groupBy, final ElementAggregator aggregator) {
+            this.groupBy = null == groupBy ? new String[0] : groupBy.toArray(new String[groupBy.size()]);
+            this.aggregator = aggregator;
+        }
+
+        private Key toKey(final Element element) {
+            if (0 == groupBy.length) {
+                return new Key(element, NO_GROUP_BY_VALUES);
+            }
+
+            final Object[] groupByValues = new Object[groupBy.length];
+            for (int i = 0; i < groupBy.length; i++) {
+                groupByValues[i] = element.getProperty(groupBy[i]);
+            }
+            return new Key(element, groupByValues);
+        }
+    }
+
+    private static final class Chunk {
+        private final List<Map<Key, Element>> partitions;
+        private final List<Element> nonAggregatedElements = new ArrayList<>();
+
+        private Chunk(final int numPartitions) {
+            partitions = new ArrayList<>(numPartitions);
+            for (int i = 0; i < numPartitions; i++) {
+                partitions.add(new HashMap<>());
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@code JobExecutor} runs the jobs and asynchronous tasks of a
+ * {@link uk.gov.gchq.gaffer.store.Store} in two separate thread pools, so
+ * long running jobs cannot hold up short asynchronous tasks.
+ * <p>
+ * Jobs are queued in a bounded queue and an optional limit can be set on the
+ * number of queued and running jobs per user. Jobs that would exceed either
+ * limit are rejected with a {@link RejectedExecutionException}. Queued or
+ * running jobs can be cancelled using their job id.
+ * </p>
+ * <p>
+ * Asynchronous tasks are also queued in a bounded queue. If that queue is
+ * full, the task is run on the submitting thread instead.
+ * </p>
+ */
+public class JobExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobExecutor.class);
+
+    private final ThreadPoolExecutor jobPool;
+    private final ThreadPoolExecutor asyncPool;
+    private final Integer maxJobsPerUser;
+    private final Map<String, JobTask> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> jobsPerUser = new ConcurrentHashMap<>();
+
+    /**
+     * @param jobThreads     the number of threads used to run jobs
+     * @param jobQueueSize   the maximum number of queued jobs, or null for
+     *                       an unbounded queue
+     * @param asyncThreads   the number of threads used to run asynchronous
+     *                       tasks
+     * @param asyncQueueSize the maximum number of queued asynchronous tasks,
+     *                       or null for an unbounded queue
+     * @param maxJobsPerUser the maximum number of queued and running jobs per
+     *                       user, or null for no limit
+     */
+    public JobExecutor(final int jobThreads, final Integer jobQueueSize,
+                       final int asyncThreads, final Integer asyncQueueSize,
+                       final Integer maxJobsPerUser) {
+        LOGGER.debug("Initialising JobExecutor with {} job threads and {} async threads", jobThreads, asyncThreads);
+        this.jobPool = createPool("gaffer-job-", jobThreads, jobQueueSize, new ThreadPoolExecutor.AbortPolicy());
+        this.asyncPool = createPool("gaffer-async-", asyncThreads, asyncQueueSize, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.maxJobsPerUser = null != maxJobsPerUser && maxJobsPerUser > 0 ? maxJobsPerUser : null;
+    }
+
+    /**
+     * Submits a job to be run.
+     *
+     * @param jobId  the id of the job
+     * @param userId the id of the user running the job
+     * @param job    the job to run
+     * @throws RejectedExecutionException if the job queue is full or the user
+     *                                    already has the maximum number of jobs
+     */
+    public void submitJob(final String jobId, final String userId, final Runnable job) {
+        final String userKey = String.valueOf(userId);
+        jobsPerUser.compute(userKey, (k, count) -> {
+            final int activeJobs = null != count ? count : 0;
+            if (null != maxJobsPerUser && activeJobs >= maxJobsPerUser) {
+                throw new RejectedExecutionException("User " + userId + " already has the maximum of " + maxJobsPerUser + " jobs queued or running");
+            }
+            return activeJobs + 1;
+        });
+
+        final JobTask task = new JobTask(jobId, userKey, job);
+        jobs.put(jobId, task);
+        try {
+            jobPool.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.release();
+            throw new RejectedExecutionException("The job queue is full", e);
+        }
+    }
+
+    /**
+     * Runs a task asynchronously.
+     *
+     * @param task the task to run
+     */
+    public void runAsync(final Runnable task) {
+        asyncPool.execute(task);
+    }
+
+    /**
+     * Cancels a queued or running job. Running jobs are interrupted.
+     *
+     * @param jobId the id of the job to cancel
+     * @return true if the job was cancelled, false if it was not found or has
+     * already completed
+     */
+    public boolean cancelJob(final String jobId) {
+        final JobTask task = jobs.get(jobId);
+        if (null == task || !task.cancel(true)) {
+            return false;
+        }
+        jobPool.remove(task);
+        return true;
+    }
+
+    /**
+     * @param jobId the id of the job
+     * @return true if the job is queued or running
+     */
+    public boolean isActive(final String jobId) {
+        return jobs.containsKey(jobId);
+    }
+
+    /**
+     * @param userId the id of the user
+     * @return the number of queued and running jobs for the user
+     */
+    public int getActiveJobCount(final String userId) {
+        final Integer count = jobsPerUser.get(String.valueOf(userId));
+        return null != count ? count : 0;
+    }
+
+    /**
+     * @return the number of users with queued or running jobs
+     */
+    public int getActiveUserCount() {
+        return jobsPerUser.size();
+    }
+
+    /**
+     * Shuts down the executor. Queued jobs and tasks are discarded and running
+     * jobs and tasks are interrupted.
+     */
+    public void shutdown() {
+        jobPool.shutdownNow();
+        asyncPool.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor createPool(final String threadNamePrefix, final int threads,
+                                                 final Integer queueSize, final RejectedExecutionHandler rejectionHandler) {
+        final BlockingQueue<Runnable> queue = null != queueSize && queueSize > 0
+                ? new ArrayBlockingQueue<>(queueSize)
+                : new LinkedBlockingQueue<>();
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, queue,
+                runnable -> {
+                    final Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectionHandler);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private final class JobTask extends FutureTask<Void> {
+        private final String jobId;
+        private final String userKey;
+        private boolean released;
+
+        private JobTask(final String jobId, final String userKey, final Runnable job) {
+            super(job, null);
+            this.jobId = jobId;
+            this.userKey = userKey;
+        }
+
+        @Override
+        protected void done() {
+            release();
+        }
+
+        // Called once the job has completed, been cancelled or been rejected
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                // Users are removed once they have no jobs, so the map only
+                // holds users with queued or running jobs
+                jobsPerUser.computeIfPresent(userKey, (k, count) -> count > 1 ? count - 1 : null);
+                jobs.remove(jobId, this);
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import uk.gov.gchq.gaffer.user.User;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -100,4 +101,28 @@ public class ContextTest {
         // Then
         assertSame(opChain, context.getOriginalOpChain());
     }
+
+    @Test
+    public void shouldCopyUserJobIdAndConfigButNotExportersOrOriginalOpChain() {
+        // Given
+        final Context context = new Context.Builder()
+                .user(new User("user"))
+                .jobId("jobId")
+                .config("key", "value")
+                .build();
+        context.addExporter(mock(Exporter.class));
+        context.setOriginalOpChain(mock(OperationChain.class));
+
+        // When
+        final Context copy = new Context(context);
+        copy.setConfig("key", "new value");
+
+        // Then
+        assertSame(context.getUser(), copy.getUser());
+        assertEquals("jobId", copy.getJobId());
+        assertEquals("value", context.getConfig("key"));
+        assertEquals("new value", copy.getConfig("key"));
+        assertTrue(copy.getExporters().isEmpty());
+        assertNull(copy.getOriginalOpChain());
+    }
 }
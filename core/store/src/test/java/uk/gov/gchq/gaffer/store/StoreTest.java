@@ -114,18 +114,25 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -720,6 +727,95 @@ public class StoreTest {
         assertSame(user, contextCaptor.getValue().getUser());
     }
 
+    @Test
+    public void shouldNotOverwriteCancelledStatusWhenCancelledJobCompletes() throws Exception {
+        // Given
+        final Map<String, JobDetail> jobDetails = new ConcurrentHashMap<>();
+        willAnswer(invocation -> {
+            final JobDetail jobDetail = (JobDetail) invocation.getArguments()[0];
+            jobDetails.put(jobDetail.getJobId(), jobDetail);
+            return null;
+        }).given(jobTracker).addOrUpdateJob(any(JobDetail.class), eq(user));
+        given(jobTracker.getJob(anyString(), eq(user))).willAnswer(invocation -> jobDetails.get(invocation.getArguments()[0]));
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        given(exportToGafferResultCacheHandler.doOperation(any(ExportToGafferResultCache.class), any(Context.class), any(Store.class)))
+                .willAnswer(invocation -> {
+                    started.countDown();
+                    try {
+                        // A handler that swallows the interrupt and completes
+                        Thread.sleep(10000);
+                    } catch (final InterruptedException e) {
+                        completed.countDown();
+                    }
+                    return null;
+                });
+
+        final StoreProperties properties = mock(StoreProperties.class);
+        given(properties.getJobExecutorThreadCount()).willReturn(1);
+        given(properties.getJobTrackerEnabled()).willReturn(true);
+        final Store store = new StoreImpl();
+        store.initialise("graphId", new Schema(), properties);
+        final Context jobContext = store.createContext(user);
+        final JobDetail jobDetail = store.executeJob(new OperationChain<>(new ExportToGafferResultCache()), jobContext);
+        started.await();
+
+        // When
+        final JobDetail cancelledJobDetail = store.cancelJob(jobDetail.getJobId(), jobContext);
+
+        // Then
+        assertEquals(JobStatus.CANCELLED, cancelledJobDetail.getStatus());
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        assertEquals(JobStatus.CANCELLED, jobDetails.get(jobDetail.getJobId()).getStatus());
+        assertNull(store.cancelJob(jobDetail.getJobId(), jobContext));
+    }
+
+    @Test
+    public void shouldNotOverwriteCancelledStatusWhenCancelledJobRunsNestedOperations() throws Exception {
+        // Given
+        final Map<String, JobDetail> jobDetails = new ConcurrentHashMap<>();
+        willAnswer(invocation -> {
+            final JobDetail jobDetail = (JobDetail) invocation.getArguments()[0];
+            jobDetails.put(jobDetail.getJobId(), jobDetail);
+            return null;
+        }).given(jobTracker).addOrUpdateJob(any(JobDetail.class), eq(user));
+        given(jobTracker.getJob(anyString(), eq(user))).willAnswer(invocation -> jobDetails.get(invocation.getArguments()[0]));
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        given(exportToGafferResultCacheHandler.doOperation(any(ExportToGafferResultCache.class), any(Context.class), any(Store.class)))
+                .willAnswer(invocation -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (final InterruptedException e) {
+                        // A handler that ignores the interrupt and runs a nested operation
+                        ((Store) invocation.getArguments()[2]).execute(new GetAllElements(), (Context) invocation.getArguments()[1]);
+                        completed.countDown();
+                    }
+                    return null;
+                });
+
+        final StoreProperties properties = mock(StoreProperties.class);
+        given(properties.getJobExecutorThreadCount()).willReturn(1);
+        given(properties.getJobTrackerEnabled()).willReturn(true);
+        final Store store = new StoreImpl();
+        store.initialise("graphId", new Schema(), properties);
+        final Context jobContext = store.createContext(user);
+        final JobDetail jobDetail = store.executeJob(new OperationChain<>(new ExportToGafferResultCache()), jobContext);
+        started.await();
+
+        // When
+        store.cancelJob(jobDetail.getJobId(), jobContext);
+
+        // Then
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        assertEquals(JobStatus.CANCELLED, jobDetails.get(jobDetail.getJobId()).getStatus());
+    }
+
     @Test
     public void shouldGetJobTracker() throws OperationException, ExecutionException, InterruptedException, StoreException {
         // Given
@@ -16,19 +16,39 @@
 
 package uk.gov.gchq.gaffer.store.operation.handler;
 
+import com.google.common.collect.Lists;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.graph.Walk;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.GetWalks;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
 
 public class GetWalksHandlerTest {
 
@@ -72,4 +92,149 @@ public class GetWalksHandlerTest {
         assertThat(result, is(new EmptyClosableIterable<>()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldUseDistinctVerticesFromPreviousHopAsSeeds() throws Exception {
+        // Given
+        final Store store = mock(Store.class);
+        final Context context = new Context(new User());
+        final List<List<?>> seedsPerHop = new ArrayList<>();
+        given(store.execute(any(Output.class), any(Context.class))).willAnswer(invocation -> {
+            final GetElements getElements = (GetElements) ((OperationChain<?>) invocation.getArguments()[0]).getOperations().get(0);
+            seedsPerHop.add(Lists.newArrayList(getElements.getInput()));
+            if (1 == seedsPerHop.size()) {
+                return new WrappedCloseableIterable<>(Lists.newArrayList(
+                        createEdge("A", "B"), createEdge("A", "C"), createEdge("A", "B")));
+            }
+            return new WrappedCloseableIterable<>(Lists.newArrayList(
+                    createEdge("B", "D"), createEdge("C", "D")));
+        });
+
+        final GetElements getElements = new GetElements.Builder()
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .build();
+        final GetWalks operation = new GetWalks.Builder()
+                .input(new EntitySeed("A"))
+                .operations(getElements, getElements)
+                .build();
+
+        final GetWalksHandler handler = new GetWalksHandler();
+
+        // When
+        final List<Walk> result = Lists.newArrayList(handler.doOperation(operation, context, store));
+
+        // Then
+        assertEquals(Lists.newArrayList(new EntitySeed("B"), new EntitySeed("C")), seedsPerHop.get(1));
+        assertEquals(2, result.size());
+        assertEquals(Lists.newArrayList("A", "B", "D"), result.get(0).getVerticesOrdered());
+        assertEquals(Lists.newArrayList("A", "C", "D"), result.get(1).getVerticesOrdered());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfMaxEdgesInMemoryExceeded() throws Exception {
+        // Given
+        final Store store = mock(Store.class);
+        final Context context = new Context(new User());
+        given(store.execute(any(Output.class), any(Context.class))).willReturn(
+                new WrappedCloseableIterable<>(Lists.newArrayList(
+                        createEdge("A", "B"), createEdge("A", "C"), createEdge("A", "D"))));
+
+        final GetElements getElements = new GetElements.Builder()
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .build();
+        final GetWalks operation = new GetWalks.Builder()
+                .input(new EntitySeed("A"))
+                .operations(getElements)
+                .build();
+
+        final GetWalksHandler handler = new GetWalksHandler();
+        handler.setMaxEdgesInMemory(2);
+
+        // When / Then
+        try {
+            handler.doOperation(operation, context, store);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertEquals("GetWalks operation exceeded the maximum number of edges that can be held in memory: 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldGetWalksWhenHopsArePipelined() throws Exception {
+        // Given
+        final Store store = mock(Store.class);
+        final Context context = new Context(new User());
+        final List<Element> edges = Lists.newArrayList(
+                createEdge("A", "B"), createEdge("A", "C"), createEdge("B", "D"), createEdge("C", "D"));
+        given(store.execute(any(Output.class), any(Context.class))).willAnswer(invocation -> {
+            final GetElements getElements = (GetElements) ((OperationChain<?>) invocation.getArguments()[0]).getOperations().get(0);
+            final List<Object> vertices = new ArrayList<>();
+            for (final Object seed : getElements.getInput()) {
+                vertices.add(((EntitySeed) seed).getVertex());
+            }
+            final List<Element> results = new ArrayList<>();
+            for (final Element edge : edges) {
+                if (vertices.contains(((Edge) edge).getSource())) {
+                    results.add(edge);
+                }
+            }
+            return new WrappedCloseableIterable<>(results);
+        });
+
+        final GetElements getElements = new GetElements.Builder()
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .build();
+        final GetWalks operation = new GetWalks.Builder()
+                .input(new EntitySeed("A"))
+                .operations(getElements, getElements)
+                .build();
+
+        // The mocked store does not run anything asynchronously, so every
+        // batch has to be run on the calling thread
+        final GetWalksHandler handler = new GetWalksHandler();
+        handler.setPipelineBatchSize(1);
+
+        // When
+        final List<List<Object>> result = new ArrayList<>();
+        for (final Walk walk : handler.doOperation(operation, context, store)) {
+            result.add(walk.getVerticesOrdered());
+        }
+
+        // Then
+        assertEquals(2, result.size());
+        assertTrue(result.contains(Lists.newArrayList("A", "B", "D")));
+        assertTrue(result.contains(Lists.newArrayList("A", "C", "D")));
+    }
+
+    @Test
+    public void shouldNotAllowNonPositivePipelineBatchSize() {
+        // Given
+        final GetWalksHandler handler = new GetWalksHandler();
+
+        // When / Then
+        for (final int pipelineBatchSize : new int[]{0, -1}) {
+            try {
+                handler.setPipelineBatchSize(pipelineBatchSize);
+                fail("Exception expected");
+            } catch (final IllegalArgumentException e) {
+                assertEquals("The pipeline batch size must be greater than 0, but was: " + pipelineBatchSize, e.getMessage());
+            }
+        }
+        assertThat(handler.getPipelineBatchSize(), is(nullValue()));
+    }
+
+    private Element createEdge(final String source, final String destination) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(true)
+                .matchedVertex(EdgeId.MatchedVertex.SOURCE)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.job;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.jobtracker.JobDetail;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.job.CancelJob;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.user.User;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class CancelJobHandlerTest {
+    @Test
+    public void shouldCancelJobByDelegatingToStore() throws OperationException {
+        // Given
+        final String jobId = "jobId";
+        final CancelJobHandler handler = new CancelJobHandler();
+        final CancelJob operation = new CancelJob.Builder()
+                .jobId(jobId)
+                .build();
+        final Store store = mock(Store.class);
+        final User user = mock(User.class);
+        final JobDetail jobDetail = mock(JobDetail.class);
+        final Context context = new Context(user);
+
+        given(store.cancelJob(jobId, context)).willReturn(jobDetail);
+
+        // When
+        final JobDetail result = handler.doOperation(operation, context, store);
+
+        // Then
+        assertSame(jobDetail, result);
+    }
+}
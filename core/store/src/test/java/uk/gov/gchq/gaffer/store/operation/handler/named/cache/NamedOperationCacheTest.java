@@ -15,6 +15,7 @@ import uk.gov.gchq.gaffer.cache.util.CacheProperties;
 import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.named.operation.NamedOperationDetail;
+import uk.gov.gchq.gaffer.named.operation.NamedOperationTemplate;
 import uk.gov.gchq.gaffer.named.operation.cache.exception.CacheOperationFailedException;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
@@ -28,6 +29,8 @@ import java.util.Properties;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class NamedOperationCacheTest {
 
@@ -246,4 +249,26 @@ public class NamedOperationCacheTest {
         assert (actual.contains(alt));
         assert (actual.size() == 2);
     }
+
+    @Test
+    public void shouldReuseCompiledTemplateForNamedOperation() throws CacheOperationFailedException {
+        cache.addNamedOperation(standard, false, standardUser);
+
+        final NamedOperationDetail first = cache.getNamedOperation(OPERATION_NAME, standardUser);
+        final NamedOperationDetail second = cache.getNamedOperation(OPERATION_NAME, standardUser);
+
+        assertSame(first.getTemplate(), second.getTemplate());
+    }
+
+    @Test
+    public void shouldRecompileTemplateWhenNamedOperationIsOverwritten() throws CacheOperationFailedException {
+        cache.addNamedOperation(standard, false, standardUser);
+        final NamedOperationTemplate original = cache.getNamedOperation(OPERATION_NAME, standardUser).getTemplate();
+
+        cache.addNamedOperation(alternative, true, advancedUser);
+        final NamedOperationDetail updated = cache.getNamedOperation(OPERATION_NAME, advancedUser);
+
+        assertNotSame(original, updated.getTemplate());
+        assertEquals(GetElements.class, updated.getOperationChainWithDefaultParams().getOperations().get(0).getClass());
+    }
 }
@@ -20,14 +20,18 @@ import org.junit.Before;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.CompactProperties;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -76,6 +80,38 @@ public class EntitySerialiserTest {
         assertEquals(entity, deserialisedEntity);
     }
 
+    @Test
+    public void testCanSerialiseEntityWithPropertiesIntoCompactProperties() throws SerialisationException {
+        // Given
+        final Schema schemaWithProperties = new Schema.Builder()
+                .vertexSerialiser(new StringSerialiser())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property(TestPropertyNames.PROP_1, "string")
+                        .property(TestPropertyNames.PROP_2, "string")
+                        .build())
+                .build();
+        serialiser = new EntitySerialiser(schemaWithProperties);
+        final Entity entity = new Entity(TestGroups.ENTITY, "testVertex");
+        entity.putProperty(TestPropertyNames.PROP_1, "value1");
+        entity.putProperty(TestPropertyNames.PROP_2, "value2");
+
+        // When
+        final byte[] serialisedEntity = serialiser.serialise(entity);
+        final Entity deserialisedEntity = serialiser.deserialise(serialisedEntity);
+
+        // Then
+        assertEquals(entity, deserialisedEntity);
+        final CompactProperties properties = (CompactProperties) deserialisedEntity.getProperties();
+        assertSame(schemaWithProperties.getEntity(TestGroups.ENTITY).getPropertySlots(), properties.getSlots());
+        assertEquals("value2", properties.get(1));
+        assertEquals(serialisedEntity.length, serialiser.serialise(deserialisedEntity).length);
+    }
+
     @Test
     public void testCantSerialiseIntegerClass() throws SerialisationException {
         assertFalse(serialiser.canHandle(Integer.class));
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.store.util;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class DeserialisedJsonCacheTest {
+    @Test
+    public void shouldDeserialiseOnceAndReturnSameInstanceForSameJson() {
+        // Given
+        final AtomicInteger deserialiseCount = new AtomicInteger();
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(json -> {
+            deserialiseCount.incrementAndGet();
+            return StringUtil.toString(json);
+        }, null, 10);
+
+        // When
+        final String first = cache.get(StringUtil.toBytes("{\"a\": 1}"));
+        final String second = cache.get(StringUtil.toBytes("{\"a\": 1}"));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, deserialiseCount.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedJsonWhenFull() {
+        // Given
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(StringUtil::toString, null, 2);
+        final String first = cache.get(StringUtil.toBytes("1"));
+        cache.get(StringUtil.toBytes("2"));
+        cache.get(StringUtil.toBytes("1"));
+
+        // When
+        cache.get(StringUtil.toBytes("3"));
+
+        // Then
+        assertEquals(2, cache.size());
+        assertSame(first, cache.get(StringUtil.toBytes("1")));
+        assertEquals(3, cache.getMisses());
+        cache.get(StringUtil.toBytes("2"));
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void shouldNotCacheWhenMaxSizeIsZero() {
+        // Given
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(StringUtil::toString, null, 0);
+
+        // When
+        final String first = cache.get(StringUtil.toBytes("json"));
+        final String second = cache.get(StringUtil.toBytes("json"));
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void shouldReturnNullForNullJson() {
+        // Given
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(StringUtil::toString, null, 10);
+
+        // When / Then
+        assertNull(cache.get(null));
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void shouldResetCacheAndCountersOnClear() {
+        // Given
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(StringUtil::toString, null, 10);
+        cache.get(StringUtil.toBytes("json"));
+        cache.get(StringUtil.toBytes("json"));
+
+        // When
+        cache.clear();
+
+        // Then
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void shouldShareCachedObjectsBetweenThreads() throws Exception {
+        // Given
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(StringUtil::toString, null, 10);
+        final byte[] json = StringUtil.toBytes("json");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // When
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> cache.get(json)));
+            }
+
+            // Then
+            final String first = cache.get(json);
+            for (final Future<String> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, cache.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldBoundTheTotalSizeAcrossAllThreads() throws Exception {
+        // Given
+        final DeserialisedJsonCache<String> cache = new DeserialisedJsonCache<>(StringUtil::toString, null, 5);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // When
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final byte[] json = StringUtil.toBytes("json" + i);
+                results.add(executor.submit(() -> cache.get(json)));
+            }
+            for (final Future<String> result : results) {
+                result.get();
+            }
+
+            // Then
+            assertEquals(5, cache.size());
+            assertEquals(100, cache.getMisses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNoDeserialiserProvided() {
+        try {
+            new DeserialisedJsonCache<String>(null, null, 10);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("A deserialiser is required", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldCacheSchemasAndViews() {
+        // Given
+        final byte[] schemaJson = new Schema.Builder()
+                .entity("BasicEntity", new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .build())
+                .type("string", String.class)
+                .build()
+                .toJson(false);
+        final byte[] viewJson = new View.Builder()
+                .entity("BasicEntity")
+                .build()
+                .toJson(false);
+
+        // When
+        final Schema schema = DeserialisedJsonCache.getSchema(schemaJson);
+        final View view = DeserialisedJsonCache.getView(viewJson);
+
+        // Then
+        assertSame(schema, DeserialisedJsonCache.getSchema(schemaJson.clone()));
+        assertSame(view, DeserialisedJsonCache.getView(viewJson.clone()));
+        assertArrayEquals(schemaJson, schema.toJson(false));
+        assertArrayEquals(viewJson, view.toJson(false));
+    }
+}
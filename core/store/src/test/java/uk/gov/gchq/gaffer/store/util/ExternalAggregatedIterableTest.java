@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil.IngestElementBinaryOperator;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil.IsElementAggregated;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil.ToIngestElementKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalAggregatedIterableTest {
+    private static final int NUM_VERTICES = 50;
+    private static final int NUM_DUPLICATES = 20;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldAggregateElementsInMemoryWhenUnderTheLimit() throws Exception {
+        // Given
+        final ExternalAggregatedIterable aggregated = createIterable(1000);
+
+        // When
+        aggregated.addAll(getElements());
+
+        // Then
+        assertFalse(aggregated.isSpilled());
+        assertEquals(getExpectedElements(), new HashSet<>(Lists.newArrayList(aggregated)));
+    }
+
+    @Test
+    public void shouldAggregateElementsUsingPartitionsSpilledToDisk() throws Exception {
+        // Given
+        final ExternalAggregatedIterable aggregated = createIterable(10);
+
+        // When
+        aggregated.addAll(getElements());
+        final List<Element> results = Lists.newArrayList(aggregated);
+
+        // Then
+        assertTrue(aggregated.isSpilled());
+        assertEquals(NUM_VERTICES + NUM_DUPLICATES, results.size());
+        assertEquals(getExpectedElements(), new HashSet<>(results));
+        aggregated.close();
+        assertEquals(0, tempFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void shouldRepartitionPartitionsThatDoNotFitInMemory() throws Exception {
+        // Given
+        final ExternalAggregatedIterable aggregated = createIterable(5, 2);
+        aggregated.addAll(getElements());
+
+        // When
+        final List<Element> results = new ArrayList<>();
+        try (final CloseableIterator<Element> itr = aggregated.iterator()) {
+            results.add(itr.next());
+            // The partition being read has been split into further spill files
+            assertTrue(tempFolder.getRoot().listFiles().length > 3);
+            while (itr.hasNext()) {
+                results.add(itr.next());
+            }
+        }
+
+        // Then
+        assertEquals(NUM_VERTICES + NUM_DUPLICATES, results.size());
+        assertEquals(getExpectedElements(), new HashSet<>(results));
+        aggregated.close();
+        assertEquals(0, tempFolder.getRoot().listFiles().length);
+    }
+
+    private ExternalAggregatedIterable createIterable(final int maxElementsInMemory) {
+        return createIterable(maxElementsInMemory, 4);
+    }
+
+    private ExternalAggregatedIterable createIterable(final int maxElementsInMemory, final int numPartitions) {
+        final Schema schema = ExternalSortedIterableTest.getSchema();
+        return new ExternalAggregatedIterable(
+                new ToIngestElementKey(schema),
+                new IngestElementBinaryOperator(schema),
+                new IsElementAggregated(schema),
+                maxElementsInMemory,
+                numPartitions,
+                new ElementSerialiser(schema),
+                tempFolder.getRoot());
+    }
+
+    private static List<Element> getElements() {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_DUPLICATES; i++) {
+            for (int j = 0; j < NUM_VERTICES; j++) {
+                elements.add(createEntity(TestGroups.ENTITY, "vertex" + j, 1L));
+            }
+            elements.add(createEntity(TestGroups.NON_AGG_ENTITY, "vertex" + i, 1L));
+        }
+        return elements;
+    }
+
+    private static Set<Element> getExpectedElements() {
+        final Set<Element> expected = new HashSet<>();
+        for (int j = 0; j < NUM_VERTICES; j++) {
+            expected.add(createEntity(TestGroups.ENTITY, "vertex" + j, (long) NUM_DUPLICATES));
+        }
+        for (int i = 0; i < NUM_DUPLICATES; i++) {
+            expected.add(createEntity(TestGroups.NON_AGG_ENTITY, "vertex" + i, 1L));
+        }
+        return expected;
+    }
+
+    private static Entity createEntity(final String group, final String vertex, final Long count) {
+        return new Entity.Builder()
+                .group(group)
+                .vertex(vertex)
+                .property("count", count)
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalSortedIterableTest {
+    private static final Comparator<Element> COUNT_COMPARATOR = Comparator.comparing(e -> (Long) e.getProperty("count"));
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldSortElementsInMemoryWhenUnderTheLimit() throws Exception {
+        // Given
+        final ExternalSortedIterable sorted = createIterable(false, 10);
+
+        // When
+        sorted.addAll(Lists.newArrayList(createEntity("a", 3L), createEntity("b", 1L), createEntity("c", 2L)));
+
+        // Then
+        assertEquals(0, sorted.getNumberOfRuns());
+        assertEquals(Lists.newArrayList(createEntity("b", 1L), createEntity("c", 2L), createEntity("a", 3L)),
+                Lists.newArrayList(sorted));
+    }
+
+    @Test
+    public void shouldSortElementsUsingRunsSpilledToDisk() throws Exception {
+        // Given
+        final ExternalSortedIterable sorted = createIterable(false, 10);
+        final Random random = new Random(1);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            elements.add(createEntity("vertex" + i, (long) random.nextInt(100)));
+        }
+
+        // When
+        sorted.addAll(elements);
+        final List<Element> results = Lists.newArrayList(sorted);
+
+        // Then
+        assertTrue(sorted.getNumberOfRuns() > 0);
+        assertEquals(elements.size(), results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(COUNT_COMPARATOR.compare(results.get(i - 1), results.get(i)) <= 0);
+        }
+        assertEquals(results, Lists.newArrayList(sorted));
+        sorted.close();
+        assertEquals(0, tempFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void shouldDeduplicateElementsAcrossRuns() throws Exception {
+        // Given
+        final ExternalSortedIterable sorted = createIterable(true, 2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            sorted.add(createEntity("a", 1L));
+            sorted.add(createEntity("b", 1L));
+            sorted.add(createEntity("c", 0L));
+        }
+
+        // Then
+        assertTrue(sorted.getNumberOfRuns() > 0);
+        final List<Element> results = Lists.newArrayList(sorted);
+        assertEquals(3, results.size());
+        assertEquals(createEntity("c", 0L), results.get(0));
+        assertTrue(results.contains(createEntity("a", 1L)));
+        assertTrue(results.contains(createEntity("b", 1L)));
+    }
+
+    @Test
+    public void shouldRetainMatchedVertexWhenSpillingEdges() throws Exception {
+        // Given
+        final ExternalSortedIterable sorted = createIterable(false, 1);
+        final Edge edge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("a")
+                .dest("b")
+                .directed(true)
+                .matchedVertex(EdgeId.MatchedVertex.DESTINATION)
+                .property("count", 1L)
+                .build();
+
+        // When
+        sorted.add(edge);
+        final Edge result = (Edge) sorted.iterator().next();
+
+        // Then
+        assertEquals(1, sorted.getNumberOfRuns());
+        assertEquals(edge, result);
+        assertEquals(EdgeId.MatchedVertex.DESTINATION, result.getMatchedVertex());
+    }
+
+    @Test
+    public void shouldRetainTransientPropertiesWhenSpilling() throws Exception {
+        // Given
+        final ExternalSortedIterable sorted = createIterable(false, 1);
+        final Entity entity1 = createEntity("a", 2L);
+        entity1.putProperty("transientLong", 10L);
+        entity1.putProperty("transientString", "value");
+        final Entity entity2 = createEntity("b", 1L);
+
+        // When
+        sorted.add(entity1);
+        sorted.add(entity2);
+        final List<Element> results = Lists.newArrayList(sorted);
+
+        // Then
+        assertTrue(sorted.getNumberOfRuns() > 0);
+        assertEquals(Lists.newArrayList(entity2, entity1), results);
+        assertEquals(10L, results.get(1).getProperty("transientLong"));
+        assertEquals("value", results.get(1).getProperty("transientString"));
+        assertEquals(1, results.get(0).getProperties().size());
+    }
+
+    private ExternalSortedIterable createIterable(final boolean deduplicate, final int maxElementsInMemory) {
+        return new ExternalSortedIterable(COUNT_COMPARATOR, deduplicate, maxElementsInMemory,
+                new ElementSerialiser(getSchema()), tempFolder.getRoot());
+    }
+
+    private static Entity createEntity(final String vertex, final Long count) {
+        return new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex(vertex)
+                .property("count", count)
+                .build();
+    }
+
+    static Schema getSchema() {
+        return new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property("count", "long")
+                        .build())
+                .entity(TestGroups.NON_AGG_ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property("count", "long")
+                        .aggregate(false)
+                        .build())
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source("string")
+                        .destination("string")
+                        .directed("true")
+                        .property("count", "long")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .type("long", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .serialiser(new CompactRawLongSerialiser())
+                        .aggregateFunction(new Sum())
+                        .build())
+                .type("true", Boolean.class)
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.store.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class HashAggregatorTest {
+    private static final int NUM_VERTICES = 500;
+    private static final int NUM_DUPLICATES = 20;
+
+    @Test
+    public void shouldAggregateIntoFirstElementWithSameKey() {
+        // Given
+        final Entity first = createEntity(TestGroups.ENTITY, "vertex1", 1L, "value1");
+        final List<Element> elements = Lists.newArrayList(
+                first,
+                createEntity(TestGroups.ENTITY, "vertex1", 2L, "value1"),
+                createEntity(TestGroups.ENTITY, "vertex1", 3L, "value2"),
+                createEntity(TestGroups.NON_AGG_ENTITY, "vertex1", 4L, "value1"),
+                createEntity(TestGroups.NON_AGG_ENTITY, "vertex1", 5L, "value1"),
+                null
+        );
+
+        // When
+        final List<Element> results = Lists.newArrayList(new HashAggregator(getSchema()).aggregate(elements));
+
+        // Then
+        assertEquals(4, results.size());
+        final Element aggregated = results.stream()
+                .filter(e -> TestGroups.ENTITY.equals(e.getGroup()) && "value1".equals(e.getProperty("property2")))
+                .findFirst()
+                .get();
+        assertSame(first, aggregated);
+        assertEquals(3L, aggregated.getProperty("count"));
+    }
+
+    @Test
+    public void shouldCreateEqualKeysForElementsWithSameIdentifiersAndGroupBy() {
+        // Given
+        final HashAggregator aggregator = new HashAggregator(getSchema());
+
+        // When
+        final HashAggregator.Key key1 = aggregator.toKey(createEdge("source", "dest", true, 1L, "value1"));
+        final HashAggregator.Key key2 = aggregator.toKey(createEdge("source", "dest", true, 2L, "value1"));
+        final HashAggregator.Key key3 = aggregator.toKey(createEdge("source", "dest", false, 1L, "value1"));
+        final HashAggregator.Key key4 = aggregator.toKey(createEdge("source", "dest", true, 1L, "value2"));
+        final HashAggregator.Key key5 = aggregator.toKey(createEntity(TestGroups.NON_AGG_ENTITY, "vertex1", 1L, "value1"));
+
+        // Then
+        assertEquals(key1, key2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+        assertNotEquals(key1, key3);
+        assertNotEquals(key1, key4);
+        assertNull(key5);
+    }
+
+    @Test
+    public void shouldQueryAggregateUsingViewGroupBy() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .groupBy()
+                        .build())
+                .build();
+        final List<Element> elements = Lists.newArrayList(
+                createEntity(TestGroups.ENTITY, "vertex1", 1L, "value1"),
+                createEntity(TestGroups.ENTITY, "vertex1", 2L, "value2")
+        );
+
+        // When
+        final List<Element> results = Lists.newArrayList(new HashAggregator(getSchema(), view).aggregate(elements));
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(3L, results.get(0).getProperty("count"));
+    }
+
+    @Test
+    public void shouldAggregateTheSameInParallelAsSequentially() {
+        // Given
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // When
+            final Set<Element> sequential = new HashSet<>(Lists.newArrayList(new HashAggregator(getSchema()).aggregate(getElements())));
+            final Set<Element> parallel = new HashSet<>(Lists.newArrayList(new HashAggregator(getSchema()).aggregate(getElements(), pool)));
+
+            // Then
+            assertEquals(NUM_VERTICES * (2 + NUM_DUPLICATES), sequential.size());
+            assertEquals(sequential, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Schema getSchema() {
+        return Schema.fromJson(StreamUtil.openStreams(HashAggregatorTest.class, "schema-groupby"));
+    }
+
+    private static List<Element> getElements() {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_DUPLICATES; i++) {
+            for (int j = 0; j < NUM_VERTICES; j++) {
+                elements.add(createEntity(TestGroups.ENTITY, "vertex" + j, 1L, "value1"));
+                elements.add(createEdge("vertex" + j, "dest", true, 1L, "value1"));
+                elements.add(createEntity(TestGroups.NON_AGG_ENTITY, "vertex" + j + "-" + i, 1L, "value1"));
+            }
+        }
+        return elements;
+    }
+
+    private static Entity createEntity(final String group, final String vertex, final Long count, final String property2) {
+        return new Entity.Builder()
+                .group(group)
+                .vertex(vertex)
+                .property("count", count)
+                .property("property2", property2)
+                .build();
+    }
+
+    private static Edge createEdge(final String source, final String dest, final boolean directed, final Long count, final String property2) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(dest)
+                .directed(directed)
+                .property("count", count)
+                .property("property2", property2)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JobExecutorTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private JobExecutor executor;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (null != executor) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRunJobsAndReleaseUserQuota() throws InterruptedException {
+        // Given
+        executor = new JobExecutor(1, 10, 1, 10, 1);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        // When
+        executor.submitJob("job1", "user1", finished::countDown);
+
+        // Then
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        waitUntilInactive("job1");
+        assertEquals(0, executor.getActiveJobCount("user1"));
+        assertEquals(0, executor.getActiveUserCount());
+    }
+
+    @Test
+    public void shouldRejectJobsOverTheUserQuota() {
+        // Given
+        executor = new JobExecutor(2, 10, 1, 10, 1);
+        executor.submitJob("job1", "user1", this::awaitRelease);
+
+        // When / Then
+        try {
+            executor.submitJob("job2", "user1", this::awaitRelease);
+            fail("Exception expected");
+        } catch (final RejectedExecutionException e) {
+            assertTrue(e.getMessage().contains("user1"));
+        }
+        executor.submitJob("job3", "user2", this::awaitRelease);
+        assertEquals(1, executor.getActiveJobCount("user1"));
+        assertEquals(1, executor.getActiveJobCount("user2"));
+        assertEquals(2, executor.getActiveUserCount());
+    }
+
+    @Test
+    public void shouldRejectJobsWhenTheQueueIsFull() {
+        // Given
+        executor = new JobExecutor(1, 1, 1, 10, null);
+        executor.submitJob("job1", "user1", this::awaitRelease);
+        executor.submitJob("job2", "user1", this::awaitRelease);
+
+        // When / Then
+        try {
+            executor.submitJob("job3", "user1", this::awaitRelease);
+            fail("Exception expected");
+        } catch (final RejectedExecutionException e) {
+            assertEquals("The job queue is full", e.getMessage());
+        }
+        assertFalse(executor.isActive("job3"));
+        assertEquals(2, executor.getActiveJobCount("user1"));
+    }
+
+    @Test
+    public void shouldCancelQueuedJob() {
+        // Given
+        executor = new JobExecutor(1, 10, 1, 10, null);
+        executor.submitJob("job1", "user1", this::awaitRelease);
+        final boolean[] ran = {false};
+        executor.submitJob("job2", "user1", () -> ran[0] = true);
+
+        // When
+        final boolean cancelled = executor.cancelJob("job2");
+
+        // Then
+        assertTrue(cancelled);
+        assertFalse(executor.isActive("job2"));
+        assertEquals(1, executor.getActiveJobCount("user1"));
+        assertFalse(executor.cancelJob("job2"));
+        release.countDown();
+        waitUntilInactive("job1");
+        assertFalse(ran[0]);
+        assertEquals(0, executor.getActiveUserCount());
+    }
+
+    @Test
+    public void shouldInterruptCancelledRunningJob() throws InterruptedException {
+        // Given
+        executor = new JobExecutor(1, 10, 1, 10, null);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        executor.submitJob("job1", "user1", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        final boolean cancelled = executor.cancelJob("job1");
+
+        // Then
+        assertTrue(cancelled);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(executor.isActive("job1"));
+    }
+
+    @Test
+    public void shouldRunAsyncTasksOnSeparatePool() throws InterruptedException {
+        // Given
+        executor = new JobExecutor(1, 10, 1, 10, null);
+        executor.submitJob("job1", "user1", this::awaitRelease);
+        final CountDownLatch asyncFinished = new CountDownLatch(1);
+
+        // When
+        executor.runAsync(asyncFinished::countDown);
+
+        // Then
+        assertTrue(asyncFinished.await(5, TimeUnit.SECONDS));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitUntilInactive(final String jobId) {
+        final long end = System.currentTimeMillis() + 5000;
+        while (executor.isActive(jobId) && System.currentTimeMillis() < end) {
+            Thread.yield();
+        }
+        assertFalse(executor.isActive(jobId));
+    }
+}
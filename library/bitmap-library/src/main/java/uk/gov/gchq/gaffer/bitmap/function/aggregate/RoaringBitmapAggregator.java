@@ -15,14 +15,26 @@
  */
 package uk.gov.gchq.gaffer.bitmap.function.aggregate;
 
+import org.roaringbitmap.FastAggregation;
 import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 import uk.gov.gchq.koryphe.binaryoperator.KorypheBinaryOperator;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Aggregator for {@link RoaringBitmap} objects.
  *
  * Bitmaps are aggregated using a bitwise OR operation.
+ *
+ * When all of the bitmaps for a key are available up front, such as when a
+ * scan has gathered them, {@link #aggregate(Iterable)} and
+ * {@link #aggregateImmutable(Iterable)} OR them all at once using a wide OR,
+ * rather than OR-ing them into the first bitmap one pair at a time.
  */
 public class RoaringBitmapAggregator extends KorypheBinaryOperator<RoaringBitmap> {
     @Override
@@ -30,4 +42,53 @@ public class RoaringBitmapAggregator extends KorypheBinaryOperator<RoaringBitmap
         a.or(b);
         return a;
     }
+
+    /**
+     * Aggregates all of the provided bitmaps using a wide OR. The provided
+     * bitmaps are not modified.
+     *
+     * @param bitmaps the bitmaps to aggregate, null bitmaps are skipped
+     * @return a new bitmap containing the union of the bitmaps, or null if
+     * there are no bitmaps
+     */
+    public RoaringBitmap aggregate(final Iterable<RoaringBitmap> bitmaps) {
+        final List<RoaringBitmap> inputs = new ArrayList<>();
+        for (final RoaringBitmap bitmap : bitmaps) {
+            if (null != bitmap) {
+                inputs.add(bitmap);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            return null;
+        }
+        if (1 == inputs.size()) {
+            return inputs.get(0).clone();
+        }
+        return FastAggregation.or(inputs.toArray(new RoaringBitmap[inputs.size()]));
+    }
+
+    /**
+     * Aggregates all of the provided immutable bitmaps using a wide OR. This
+     * can be used with bitmaps from
+     * {@link uk.gov.gchq.gaffer.bitmap.serialisation.RoaringBitmapSerialiser#deserialiseImmutable(byte[], int, int)},
+     * so the inputs are read directly from their serialised form.
+     *
+     * @param bitmaps the bitmaps to aggregate, null bitmaps are skipped
+     * @return a new bitmap containing the union of the bitmaps, or null if
+     * there are no bitmaps
+     */
+    public MutableRoaringBitmap aggregateImmutable(final Iterable<? extends ImmutableRoaringBitmap> bitmaps) {
+        final List<ImmutableRoaringBitmap> inputs = new ArrayList<>();
+        for (final ImmutableRoaringBitmap bitmap : bitmaps) {
+            if (null != bitmap) {
+                inputs.add(bitmap);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            return null;
+        }
+        return BufferFastAggregation.or(inputs.toArray(new ImmutableRoaringBitmap[inputs.size()]));
+    }
 }
@@ -16,20 +16,29 @@
 package uk.gov.gchq.gaffer.bitmap.serialisation;
 
 import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 import uk.gov.gchq.gaffer.bitmap.serialisation.utils.RoaringBitmapUtils;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * A {@link uk.gov.gchq.gaffer.serialisation.Serialiser} implementation for {@link RoaringBitmap}
  * instances.
+ * <p>
+ * Bitmaps are serialised straight into an array of their exact serialised
+ * size. Bitmaps in the current serialised form are deserialised directly from
+ * the provided array, only bitmaps written by old RoaringBitmap versions are
+ * converted first. {@link #deserialiseImmutable(byte[], int, int)} provides a
+ * read only view of a serialised bitmap without copying it.
+ * </p>
  */
 public class RoaringBitmapSerialiser implements ToBytesSerialiser<RoaringBitmap> {
 
@@ -42,10 +51,9 @@ public class RoaringBitmapSerialiser implements ToBytesSerialiser<RoaringBitmap>
 
     @Override
     public byte[] serialise(final RoaringBitmap object) throws SerialisationException {
-        final ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        final DataOutputStream out = new DataOutputStream(byteOut);
+        final FixedSizeOutputStream byteOut = new FixedSizeOutputStream(object.serializedSizeInBytes());
         try {
-            object.serialize(out);
+            object.serialize(new DataOutputStream(byteOut));
         } catch (final IOException e) {
             throw new SerialisationException(e.getMessage(), e);
         }
@@ -55,8 +63,12 @@ public class RoaringBitmapSerialiser implements ToBytesSerialiser<RoaringBitmap>
     @Override
     public RoaringBitmap deserialise(final byte[] allBytes, final int offset, final int length) throws SerialisationException {
         final RoaringBitmap value = new RoaringBitmap();
-        final byte[] convertedBytes = RoaringBitmapUtils.upConvertSerialisedForm(allBytes, offset, length);
-        final ByteArrayInputStream byteIn = new ByteArrayInputStream(convertedBytes);
+        final ByteArrayInputStream byteIn;
+        if (RoaringBitmapUtils.isCurrentSerialisedForm(allBytes, offset, length)) {
+            byteIn = new ByteArrayInputStream(allBytes, offset, length);
+        } else {
+            byteIn = new ByteArrayInputStream(RoaringBitmapUtils.upConvertSerialisedForm(allBytes, offset, length));
+        }
         final DataInputStream in = new DataInputStream(byteIn);
         try {
             value.deserialize(in);
@@ -66,6 +78,36 @@ public class RoaringBitmapSerialiser implements ToBytesSerialiser<RoaringBitmap>
         return value;
     }
 
+    /**
+     * Deserialises a bitmap as an {@link ImmutableRoaringBitmap} backed by
+     * the provided array. If the bitmap is in the current serialised form the
+     * array is wrapped rather than copied, so it must not be modified whilst
+     * the bitmap is in use.
+     *
+     * @param allBytes the array containing the serialised bitmap
+     * @param offset   the offset of the bitmap in the array
+     * @param length   the length of the serialised bitmap
+     * @return an immutable bitmap
+     * @throws SerialisationException if the bitmap cannot be read
+     */
+    public ImmutableRoaringBitmap deserialiseImmutable(final byte[] allBytes, final int offset, final int length) throws SerialisationException {
+        final ByteBuffer buffer;
+        if (RoaringBitmapUtils.isCurrentSerialisedForm(allBytes, offset, length)) {
+            buffer = ByteBuffer.wrap(allBytes, offset, length);
+        } else {
+            buffer = ByteBuffer.wrap(RoaringBitmapUtils.upConvertSerialisedForm(allBytes, offset, length));
+        }
+        try {
+            return new ImmutableRoaringBitmap(buffer);
+        } catch (final RuntimeException e) {
+            throw new SerialisationException(e.getMessage(), e);
+        }
+    }
+
+    public ImmutableRoaringBitmap deserialiseImmutable(final byte[] bytes) throws SerialisationException {
+        return deserialiseImmutable(bytes, 0, bytes.length);
+    }
+
     @Override
     public RoaringBitmap deserialise(final byte[] bytes) throws SerialisationException {
         return deserialise(bytes, 0, bytes.length);
@@ -91,4 +133,39 @@ public class RoaringBitmapSerialiser implements ToBytesSerialiser<RoaringBitmap>
         return new byte[0];
     }
 
+    // Writes into an array of a known size, so it never needs to be resized or copied.
+    private static final class FixedSizeOutputStream extends OutputStream {
+        private final byte[] bytes;
+        private int position;
+
+        private FixedSizeOutputStream(final int size) {
+            this.bytes = new byte[size];
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            checkCapacity(1);
+            bytes[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            checkCapacity(len);
+            System.arraycopy(b, off, bytes, position, len);
+            position += len;
+        }
+
+        private byte[] toByteArray() throws SerialisationException {
+            if (position != bytes.length) {
+                throw new SerialisationException("Serialised bitmap was " + position + " bytes, expected " + bytes.length);
+            }
+            return bytes;
+        }
+
+        private void checkCapacity(final int length) throws IOException {
+            if (position + length > bytes.length) {
+                throw new IOException("Serialised bitmap is larger than its expected size of " + bytes.length + " bytes");
+            }
+        }
+    }
 }
@@ -40,6 +40,29 @@ public final class RoaringBitmapUtils {
 
     }
 
+    /**
+     * Checks whether a serialised bitmap is already in a form supported by
+     * the current RoaringBitmap version, in which case it can be read
+     * directly without being converted or copied.
+     *
+     * @param serialisedBitmap the array containing the serialised bitmap
+     * @param offset           the offset of the bitmap in the array
+     * @param length           the length of the serialised bitmap
+     * @return true if the bitmap does not need up converting
+     */
+    public static boolean isCurrentSerialisedForm(final byte[] serialisedBitmap, final int offset, final int length) {
+        if (length < 4) {
+            return false;
+        }
+
+        // The cookie is written little endian
+        final int cookie = (serialisedBitmap[offset] & 0xFF)
+                | (serialisedBitmap[offset + 1] & 0xFF) << 8
+                | (serialisedBitmap[offset + 2] & 0xFF) << 16
+                | (serialisedBitmap[offset + 3] & 0xFF) << 24;
+        return cookie == VERSION_ZERO_FOUR_ZERO_TO_SIX_THRIRTY_FIVE_NO_RUNCONTAINER_COOKIE || (cookie & 0xFFFF) == VERSION_ZERO_FIVE_ZERO_TO_SIX_THIRTY_FIVE_COOKIE;
+    }
+
     public static byte[] upConvertSerialisedForm(final byte[] serialisedBitmap, final int offset, final int length) throws SerialisationException {
         try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(serialisedBitmap, offset, length))) {
             int cookie;
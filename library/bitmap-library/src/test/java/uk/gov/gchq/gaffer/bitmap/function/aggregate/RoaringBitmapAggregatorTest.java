@@ -19,11 +19,19 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import uk.gov.gchq.gaffer.bitmap.serialisation.RoaringBitmapSerialiser;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
 
 import uk.gov.gchq.koryphe.binaryoperator.BinaryOperatorTest;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.BinaryOperator;
 
 import static org.junit.Assert.assertEquals;
@@ -107,6 +115,56 @@ public class RoaringBitmapAggregatorTest extends BinaryOperatorTest {
         }
     }
 
+    @Test
+    public void shouldAggregateManyBitmapsWithWideOr() {
+        // Given
+        final List<RoaringBitmap> bitmaps = new ArrayList<>();
+        final RoaringBitmap expected = new RoaringBitmap();
+        for (int i = 0; i < 200; i++) {
+            final RoaringBitmap bitmap = new RoaringBitmap();
+            bitmap.add(i * 1000);
+            bitmap.add(i * 70000 + 5);
+            bitmaps.add(bitmap);
+            expected.or(bitmap);
+        }
+        bitmaps.add(null);
+        final RoaringBitmap firstCopy = bitmaps.get(0).clone();
+
+        // When
+        final RoaringBitmap result = new RoaringBitmapAggregator().aggregate(bitmaps);
+
+        // Then
+        assertEquals(expected, result);
+        assertEquals(firstCopy, bitmaps.get(0));
+    }
+
+    @Test
+    public void shouldReturnNullWhenAggregatingNoBitmaps() {
+        assertNull(new RoaringBitmapAggregator().aggregate(Collections.singletonList(null)));
+    }
+
+    @Test
+    public void shouldAggregateSerialisedBitmapsWithWideOr() throws SerialisationException {
+        // Given
+        final RoaringBitmapSerialiser serialiser = new RoaringBitmapSerialiser();
+        final List<ImmutableRoaringBitmap> bitmaps = new ArrayList<>();
+        final MutableRoaringBitmap expected = new MutableRoaringBitmap();
+        for (int i = 0; i < 50; i++) {
+            final RoaringBitmap bitmap = new RoaringBitmap();
+            bitmap.add(i);
+            bitmap.add(i * 100000);
+            bitmaps.add(serialiser.deserialiseImmutable(serialiser.serialise(bitmap)));
+            expected.add(i);
+            expected.add(i * 100000);
+        }
+
+        // When
+        final MutableRoaringBitmap result = new RoaringBitmapAggregator().aggregateImmutable(bitmaps);
+
+        // Then
+        assertEquals(expected, result);
+    }
+
     @Override
     protected RoaringBitmapAggregator getInstance() {
         return new RoaringBitmapAggregator();
@@ -17,6 +17,7 @@ package uk.gov.gchq.gaffer.bitmap.serialisation;
 
 import org.junit.Test;
 import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
@@ -24,6 +25,8 @@ import uk.gov.gchq.gaffer.serialisation.Serialiser;
 import uk.gov.gchq.gaffer.serialisation.ToBytesSerialisationTest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class RoaringBitmapSerialiserTest extends ToBytesSerialisationTest<RoaringBitmap> {
 
@@ -43,6 +46,56 @@ public class RoaringBitmapSerialiserTest extends ToBytesSerialisationTest<Roarin
         assertEquals(testBitmap, o);
     }
 
+    @Test
+    public void shouldSerialiseToExactSize() throws SerialisationException {
+        // Given
+        final RoaringBitmap testBitmap = getExampleValue();
+        testBitmap.add(70000, 140000);
+
+        // When
+        final byte[] b = SERIALISER.serialise(testBitmap);
+
+        // Then
+        assertEquals(testBitmap.serializedSizeInBytes(), b.length);
+        assertEquals(testBitmap, SERIALISER.deserialise(b));
+    }
+
+    @Test
+    public void shouldDeserialiseFromPartOfAnArray() throws SerialisationException {
+        // Given
+        final RoaringBitmap testBitmap = getExampleValue();
+        final byte[] b = SERIALISER.serialise(testBitmap);
+        final byte[] allBytes = new byte[b.length + 10];
+        System.arraycopy(b, 0, allBytes, 5, b.length);
+
+        // When
+        final RoaringBitmap bitmap = SERIALISER.deserialise(allBytes, 5, b.length);
+        final ImmutableRoaringBitmap immutableBitmap = SERIALISER.deserialiseImmutable(allBytes, 5, b.length);
+
+        // Then
+        assertEquals(testBitmap, bitmap);
+        assertEquals(testBitmap.getCardinality(), immutableBitmap.getCardinality());
+        for (final int value : testBitmap) {
+            assertTrue(immutableBitmap.contains(value));
+        }
+    }
+
+    @Test
+    public void shouldDeserialiseImmutableBitmapWithoutCopying() throws SerialisationException {
+        // Given
+        final RoaringBitmap testBitmap = getExampleValue();
+        final byte[] b = SERIALISER.serialise(testBitmap);
+        final ImmutableRoaringBitmap immutableBitmap = SERIALISER.deserialiseImmutable(b);
+        assertTrue(immutableBitmap.contains(3000));
+
+        // When - change the value 3000 to 3001 in the serialised bytes
+        b[b.length - 4]++;
+
+        // Then
+        assertFalse(immutableBitmap.contains(3000));
+        assertTrue(immutableBitmap.contains(3001));
+    }
+
     private RoaringBitmap getExampleValue() {
         RoaringBitmap testBitmap = new RoaringBitmap();
         testBitmap.add(2);
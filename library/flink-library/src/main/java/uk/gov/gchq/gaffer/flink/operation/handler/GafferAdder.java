@@ -15,10 +15,12 @@
  */
 package uk.gov.gchq.gaffer.flink.operation.handler;
 
-import com.google.common.collect.Iterables;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
 
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.Validatable;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
@@ -30,24 +32,60 @@ import uk.gov.gchq.gaffer.user.User;
 
 import java.io.Serializable;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Helper class to add {@link Element}s to a Gaffer store.
+ * <p>
+ * Elements are buffered in a bounded queue which is drained by
+ * {@link AddElements} operations run asynchronously on the store. When the
+ * queue is full, calls to {@link #add(Iterable)} block until there is space,
+ * applying backpressure to the Flink source. The buffer can be configured
+ * using the following operation options:
+ * </p>
+ * <ul>
+ * <li>{@value #MAX_QUEUE_SIZE_OPTION} - the maximum number of elements to
+ * buffer, defaults to {@value #DEFAULT_MAX_QUEUE_SIZE}</li>
+ * <li>{@value #FLUSH_INTERVAL_OPTION} - the maximum number of milliseconds
+ * each {@link AddElements} operation should run for before it is completed
+ * and a new one started, allowing the store to flush the elements it has
+ * received. By default, operations run until the queue is empty.</li>
+ * <li>{@value #MAX_WRITERS_OPTION} - the maximum number of {@link AddElements}
+ * operations that can drain the queue concurrently, defaults to
+ * {@value #DEFAULT_MAX_WRITERS}. Additional writers are only started when
+ * the queue is over half full. Only increase this for stores that support
+ * concurrent {@link AddElements} operations.</li>
+ * </ul>
  */
 @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "There are null checks that will initialise the fields")
 public class GafferAdder implements Serializable {
+    public static final String MAX_QUEUE_SIZE_OPTION = "gaffer.flink.operation.handler.max-queue-size";
+    public static final String FLUSH_INTERVAL_OPTION = "gaffer.flink.operation.handler.flush-interval";
+    public static final String MAX_WRITERS_OPTION = "gaffer.flink.operation.handler.max-writers";
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 1000000;
+    public static final int DEFAULT_MAX_WRITERS = 1;
+
     private static final long serialVersionUID = -3418606107861031989L;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
 
     private final String graphId;
     private final byte[] schema;
     private final Properties properties;
     private final boolean validate;
     private final boolean skipInvalid;
+    private final int maxQueueSize;
+    private final Long flushInterval;
+    private final int maxWriters;
 
     private transient Store store;
-    private transient ConcurrentLinkedQueue<Element> queue;
-    private transient boolean restart;
+    private transient BlockingQueue<Element> queue;
+    private transient AtomicInteger activeWriters;
+    private transient AtomicLong elementsQueued;
+    private transient volatile RuntimeException failure;
 
     public GafferAdder(final Validatable validatable, final Store store) {
         this.store = store;
@@ -56,39 +94,199 @@ public class GafferAdder implements Serializable {
         graphId = store.getGraphId();
         schema = store.getSchema().toCompactJson();
         properties = store.getProperties().getProperties();
+
+        if (validatable instanceof Operation) {
+            final Operation operation = (Operation) validatable;
+            maxQueueSize = Integer.parseInt(operation.getOption(MAX_QUEUE_SIZE_OPTION, String.valueOf(DEFAULT_MAX_QUEUE_SIZE)));
+            final String flushIntervalOption = operation.getOption(FLUSH_INTERVAL_OPTION);
+            flushInterval = null != flushIntervalOption ? Long.parseLong(flushIntervalOption) : null;
+            maxWriters = Integer.parseInt(operation.getOption(MAX_WRITERS_OPTION, String.valueOf(DEFAULT_MAX_WRITERS)));
+        } else {
+            maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+            flushInterval = null;
+            maxWriters = DEFAULT_MAX_WRITERS;
+        }
+
+        if (maxQueueSize < 1) {
+            throw new IllegalArgumentException(MAX_QUEUE_SIZE_OPTION + " must be at least 1");
+        }
+        if (maxWriters < 1) {
+            throw new IllegalArgumentException(MAX_WRITERS_OPTION + " must be at least 1");
+        }
     }
 
     public void initialise() {
         if (null == store) {
             store = Store.createStore(graphId, Schema.fromJson(schema), StoreProperties.loadStoreProperties(properties));
         }
+        initialiseQueue();
     }
 
+    /**
+     * Adds the elements to the queue, blocking whilst the queue is full.
+     *
+     * @param elements the elements to add
+     */
     public void add(final Iterable<? extends Element> elements) {
-        if (null == queue) {
-            queue = new ConcurrentLinkedQueue<>();
-            restart = true;
+        initialiseQueue();
+        if (null != failure) {
+            throw failure;
         }
 
         if (null != elements) {
-            Iterables.addAll(queue, elements);
+            for (final Element element : elements) {
+                if (null != element) {
+                    enqueue(element);
+                }
+            }
+        }
+
+        startWriters();
+    }
+
+    /**
+     * Registers gauges for the queue depth and the number of elements
+     * queued and consumed. Flink metric reporters can derive the ingest
+     * throughput from the element counts.
+     *
+     * @param metricGroup the metric group to register the gauges with
+     */
+    public void registerMetrics(final MetricGroup metricGroup) {
+        initialiseQueue();
+        metricGroup.gauge("gafferQueueSize", (Gauge<Integer>) this::getQueueSize);
+        metricGroup.gauge("gafferElementsQueued", (Gauge<Long>) this::getElementsQueued);
+        metricGroup.gauge("gafferElementsConsumed", (Gauge<Long>) this::getElementsConsumed);
+        metricGroup.gauge("gafferActiveWriters", (Gauge<Integer>) this::getActiveWriters);
+    }
+
+    public int getQueueSize() {
+        return null != queue ? queue.size() : 0;
+    }
+
+    public long getElementsQueued() {
+        return null != elementsQueued ? elementsQueued.get() : 0;
+    }
+
+    public long getElementsConsumed() {
+        return getElementsQueued() - getQueueSize();
+    }
+
+    public int getActiveWriters() {
+        return null != activeWriters ? activeWriters.get() : 0;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public Long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getMaxWriters() {
+        return maxWriters;
+    }
+
+    private synchronized void initialiseQueue() {
+        if (null == queue) {
+            queue = new LinkedBlockingQueue<>(maxQueueSize);
+            activeWriters = new AtomicInteger();
+            elementsQueued = new AtomicLong();
+        }
+    }
+
+    private void enqueue(final Element element) {
+        try {
+            while (!queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // The queue is full - make sure it is being consumed.
+                if (null != failure) {
+                    throw failure;
+                }
+                startWriters();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted whilst waiting to add elements to the queue", e);
+        }
+        elementsQueued.incrementAndGet();
+    }
+
+    private void startWriters() {
+        if (queue.isEmpty()) {
+            return;
         }
+        if (0 == activeWriters.get()) {
+            startWriter();
+        }
+        while (queue.size() > maxQueueSize / 2 && startWriter()) {
+            // keep starting writers until the limit is reached
+        }
+    }
+
+    private boolean startWriter() {
+        if (!acquireWriter()) {
+            return false;
+        }
+        store.runAsync(new Writer());
+        return true;
+    }
 
-        if (restart && !queue.isEmpty()) {
-            restart = false;
-            store.runAsync(() -> {
-                try {
-                    store.execute(new AddElements.Builder()
-                                    .input(new GafferQueue<>(queue))
-                                    .validate(validate)
-                                    .skipInvalidElements(skipInvalid)
-                                    .build(),
-                            new Context(new User()));
-                    restart = true;
-                } catch (final OperationException e) {
-                    throw new RuntimeException(e);
+    private boolean acquireWriter() {
+        int writers = activeWriters.get();
+        while (writers < maxWriters) {
+            if (activeWriters.compareAndSet(writers, writers + 1)) {
+                return true;
+            }
+            writers = activeWriters.get();
+        }
+        return false;
+    }
+
+    /**
+     * Drains the queue with a single {@link AddElements} operation. A writer
+     * releases its slot when it finds the queue empty and only carries on if
+     * it can reacquire a slot, so an element added concurrently is always
+     * picked up either by this writer or by a new one started by
+     * {@link #add(Iterable)}.
+     */
+    private class Writer implements Runnable {
+        private boolean active = true;
+
+        @Override
+        public void run() {
+            try {
+                store.execute(new AddElements.Builder()
+                                .input(new GafferQueue<>(queue, this::isFinished, flushInterval))
+                                .validate(validate)
+                                .skipInvalidElements(skipInvalid)
+                                .build(),
+                        new Context(new User()));
+            } catch (final OperationException | RuntimeException e) {
+                failure = new RuntimeException("Failed to add elements to the store: " + e.getMessage(), e);
+                throw failure;
+            } finally {
+                if (active) {
+                    active = false;
+                    activeWriters.decrementAndGet();
+                    // The flush interval was reached before the queue was
+                    // emptied so start another writer to carry on.
+                    if (null != flushInterval && null == failure) {
+                        startWriters();
+                    }
                 }
-            });
+            }
+        }
+
+        private boolean isFinished() {
+            if (active) {
+                active = false;
+                activeWriters.decrementAndGet();
+            }
+            if (!queue.isEmpty() && acquireWriter()) {
+                active = true;
+                return false;
+            }
+            return true;
         }
     }
 }
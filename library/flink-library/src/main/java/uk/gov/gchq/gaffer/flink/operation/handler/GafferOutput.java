@@ -16,6 +16,7 @@
 package uk.gov.gchq.gaffer.flink.operation.handler;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.api.common.io.RichOutputFormat;
 import org.apache.flink.configuration.Configuration;
 
@@ -55,10 +56,22 @@ public class GafferOutput extends RichOutputFormat<Iterable<? extends Element>>
     @Override
     public void open(final int taskNumber, final int numTasks) throws IOException {
         adder.initialise();
+        registerMetrics();
     }
 
     @Override
     public void close() throws IOException {
         // no action required
     }
+
+    private void registerMetrics() {
+        final RuntimeContext runtimeContext;
+        try {
+            runtimeContext = getRuntimeContext();
+        } catch (final IllegalStateException e) {
+            // No runtime context has been set so metrics cannot be registered
+            return;
+        }
+        adder.registerMetrics(runtimeContext.getMetricGroup());
+    }
 }
@@ -24,20 +24,44 @@ import javax.annotation.Nonnull;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
 
 /**
- * Wrapper class around {@link ConcurrentLinkedQueue} to prevent consumers from
+ * Wrapper class around a concurrent {@link Queue} to prevent consumers from
  * being able to iterate over the queue more than once.
+ * <p>
+ * Items are removed from the queue as they are iterated over. Iteration
+ * finishes when the queue is empty, unless the optional onEmpty callback
+ * returns false, or when the optional maximum iteration time has passed.
+ * The callback and time limit are not included in the equality checks.
+ * </p>
  *
  * @param <T> the type of object in the queue
  */
 public class GafferQueue<T> implements Iterable<T> {
-    private final ConcurrentLinkedQueue<T> queue;
+    private final Queue<T> queue;
+    private final BooleanSupplier onEmpty;
+    private final Long maxIterationMillis;
     private boolean iteratorAvailable = true;
 
-    public GafferQueue(final ConcurrentLinkedQueue<T> queue) {
+    public GafferQueue(final Queue<T> queue) {
+        this(queue, null, null);
+    }
+
+    /**
+     * @param queue              the queue to consume
+     * @param onEmpty            called when the queue is found to be empty.
+     *                           If it returns true iteration finishes,
+     *                           otherwise the queue is checked again. May be
+     *                           null.
+     * @param maxIterationMillis the maximum time in milliseconds to iterate
+     *                           over the queue for, or null for no limit.
+     */
+    public GafferQueue(final Queue<T> queue, final BooleanSupplier onEmpty, final Long maxIterationMillis) {
         this.queue = queue;
+        this.onEmpty = onEmpty;
+        this.maxIterationMillis = maxIterationMillis;
     }
 
     @Override
@@ -48,10 +72,28 @@ public class GafferQueue<T> implements Iterable<T> {
         }
 
         iteratorAvailable = false;
+        final long endTime = null != maxIterationMillis ? System.currentTimeMillis() + maxIterationMillis : Long.MAX_VALUE;
         return new Iterator<T>() {
+            // Items are polled in hasNext so that the queue can be safely
+            // consumed by more than one iterator at a time.
+            private T next;
+
             @Override
             public boolean hasNext() {
-                return !queue.isEmpty();
+                if (null != next) {
+                    return true;
+                }
+                if (System.currentTimeMillis() >= endTime) {
+                    return false;
+                }
+                next = queue.poll();
+                while (null == next) {
+                    if (null == onEmpty || onEmpty.getAsBoolean()) {
+                        return false;
+                    }
+                    next = queue.poll();
+                }
+                return true;
             }
 
             @Override
@@ -59,7 +101,9 @@ public class GafferQueue<T> implements Iterable<T> {
                 if (!hasNext()) {
                     throw new NoSuchElementException("No more elements");
                 }
-                return queue.poll();
+                final T item = next;
+                next = null;
+                return item;
             }
         };
     }
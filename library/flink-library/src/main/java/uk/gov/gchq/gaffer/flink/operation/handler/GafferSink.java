@@ -16,6 +16,7 @@
 package uk.gov.gchq.gaffer.flink.operation.handler;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
 
@@ -40,10 +41,22 @@ public class GafferSink extends RichSinkFunction<Iterable<? extends Element>> {
     public void open(final Configuration parameters) throws Exception {
         super.open(parameters);
         adder.initialise();
+        registerMetrics();
     }
 
     @Override
     public void invoke(final Iterable<? extends Element> elements) throws Exception {
         adder.add(elements);
     }
+
+    private void registerMetrics() {
+        final RuntimeContext runtimeContext;
+        try {
+            runtimeContext = getRuntimeContext();
+        } catch (final IllegalStateException e) {
+            // No runtime context has been set so metrics cannot be registered
+            return;
+        }
+        adder.registerMetrics(runtimeContext.getMetricGroup());
+    }
 }
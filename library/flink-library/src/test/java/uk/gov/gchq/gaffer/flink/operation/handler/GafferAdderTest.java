@@ -24,14 +24,21 @@ import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.flink.operation.FlinkTest;
 import uk.gov.gchq.gaffer.operation.Validatable;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElementsFromSocket;
+import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.StoreProperties;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -138,4 +145,79 @@ public class GafferAdderTest {
                 .skipInvalidElements(false)
                 .build()), Mockito.any());
     }
+
+    @Test
+    public void shouldReadQueueOptionsFromOperation() {
+        // Given
+        final AddElementsFromSocket op = new AddElementsFromSocket.Builder()
+                .option(GafferAdder.MAX_QUEUE_SIZE_OPTION, "10")
+                .option(GafferAdder.FLUSH_INTERVAL_OPTION, "1000")
+                .option(GafferAdder.MAX_WRITERS_OPTION, "2")
+                .build();
+        final Store store = mock(Store.class);
+        given(store.getProperties()).willReturn(new StoreProperties());
+        given(store.getSchema()).willReturn(new Schema());
+
+        // When
+        final GafferAdder adder = new GafferAdder(op, store);
+
+        // Then
+        assertEquals(10, adder.getMaxQueueSize());
+        assertEquals(1000L, (long) adder.getFlushInterval());
+        assertEquals(2, adder.getMaxWriters());
+    }
+
+    @Test
+    public void shouldUseDefaultQueueOptions() {
+        // Given
+        final Validatable op = mock(Validatable.class);
+        final Store store = mock(Store.class);
+        given(store.getProperties()).willReturn(new StoreProperties());
+        given(store.getSchema()).willReturn(new Schema());
+
+        // When
+        final GafferAdder adder = new GafferAdder(op, store);
+
+        // Then
+        assertEquals(GafferAdder.DEFAULT_MAX_QUEUE_SIZE, adder.getMaxQueueSize());
+        assertNull(adder.getFlushInterval());
+        assertEquals(GafferAdder.DEFAULT_MAX_WRITERS, adder.getMaxWriters());
+    }
+
+    @Test
+    public void shouldBlockWhenQueueIsFullUntilElementsAreConsumed() throws Exception {
+        // Given
+        final AddElementsFromSocket op = new AddElementsFromSocket.Builder()
+                .option(GafferAdder.MAX_QUEUE_SIZE_OPTION, "1")
+                .build();
+        final Store store = mock(Store.class);
+        given(store.getProperties()).willReturn(new StoreProperties());
+        given(store.getSchema()).willReturn(new Schema());
+        willAnswer(invocation -> {
+            new Thread((Runnable) invocation.getArguments()[0]).start();
+            return null;
+        }).given(store).runAsync(Mockito.any(Runnable.class));
+        final List<Element> consumed = Collections.synchronizedList(new ArrayList<>());
+        willAnswer(invocation -> {
+            for (final Element element : ((AddElements) invocation.getArguments()[0]).getInput()) {
+                consumed.add(element);
+            }
+            return null;
+        }).given(store).execute(Mockito.any(AddElements.class), Mockito.any(Context.class));
+
+        final GafferAdder adder = new GafferAdder(op, store);
+        final List<Element> elements = new ArrayList<>(FlinkTest.EXPECTED_ELEMENTS);
+        elements.addAll(FlinkTest.EXPECTED_ELEMENTS_2);
+
+        // When
+        adder.add(elements);
+
+        // Then
+        while (adder.getQueueSize() > 0 || adder.getActiveWriters() > 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(elements, consumed);
+        assertEquals(elements.size(), adder.getElementsQueued());
+        assertEquals(elements.size(), adder.getElementsConsumed());
+    }
 }
@@ -27,6 +27,7 @@ import uk.gov.gchq.gaffer.commonutil.CommonTimeUtil.TimeBucket;
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -50,6 +51,11 @@ import static uk.gov.gchq.gaffer.commonutil.CommonTimeUtil.TimeBucket.YEAR;
  * <code>MINUTE</code> is specified, and a timestamp of January 1st 2017, 12:34:56
  * is added then the seconds are removed so that the value is associated to
  * 12:34.
+ * <p>
+ * The time series is stored as a pair of sorted parallel {@code long} arrays
+ * of buckets and values, rather than a map of boxed values, so large time
+ * series are compact and series can be merged in a single pass.
+ * </p>
  */
 public class LongTimeSeries implements TimeSeries<Long> {
     private static final Set<TimeBucket> VALID_TIME_BUCKETS = Sets.newHashSet(
@@ -63,8 +69,18 @@ public class LongTimeSeries implements TimeSeries<Long> {
             YEAR
     );
 
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long[] EMPTY = new long[0];
+
     private final TimeBucket timeBucket;
-    private final SortedMap<Long, Long> timeSeries = new TreeMap<>();
+
+    /**
+     * The buckets in ascending order, with the value for each bucket at the
+     * same index of {@code values}. Only the first {@code size} entries are used.
+     */
+    private long[] buckets = EMPTY;
+    private long[] values = EMPTY;
+    private int size;
 
     public LongTimeSeries(final TimeBucket timeBucket) {
         if (!VALID_TIME_BUCKETS.contains(timeBucket)) {
@@ -91,7 +107,16 @@ public class LongTimeSeries implements TimeSeries<Long> {
     @Override
     public void put(final Instant instant, final Long value) {
         final long bucket = toLong(timeBucket, instant.toEpochMilli());
-        timeSeries.put(bucket, value);
+        final int index = indexOf(bucket);
+        if (null == value) {
+            if (index > -1) {
+                remove(index);
+            }
+        } else if (index > -1) {
+            values[index] = value;
+        } else {
+            insert(-(index + 1), bucket, value);
+        }
     }
 
     /**
@@ -104,7 +129,8 @@ public class LongTimeSeries implements TimeSeries<Long> {
     @JsonIgnore
     @Override
     public Long get(final Instant instant) {
-        return timeSeries.get(toLong(timeBucket, instant.toEpochMilli()));
+        final int index = indexOf(toLong(timeBucket, instant.toEpochMilli()));
+        return index > -1 ? values[index] : null;
     }
 
     /**
@@ -118,8 +144,142 @@ public class LongTimeSeries implements TimeSeries<Long> {
      * @param count   The value observed at the instant.
      */
     public void upsert(final Instant instant, final long count) {
-        final long bucket = toLong(timeBucket, instant.toEpochMilli());
-        timeSeries.merge(bucket, count, (x, y) -> x + y);
+        upsert(instant.toEpochMilli(), count);
+    }
+
+    /**
+     * Adds the given <code>count</code> to the current value associated to the
+     * given timestamp, as {@link #upsert(Instant, long)}. Adding timestamps in
+     * ascending order is the most efficient.
+     *
+     * @param timestamp The timestamp, in milliseconds since the epoch, at which the value was observed.
+     * @param count     The value observed at the timestamp.
+     */
+    public void upsert(final long timestamp, final long count) {
+        final long bucket = toLong(timeBucket, timestamp);
+        if (0 == size || bucket > buckets[size - 1]) {
+            insert(size, bucket, count);
+        } else {
+            final int index = indexOf(bucket);
+            if (index > -1) {
+                values[index] += count;
+            } else {
+                insert(-(index + 1), bucket, count);
+            }
+        }
+    }
+
+    /**
+     * Adds all of the values in the given time series to this time series,
+     * summing the values of any buckets in both. The two series are merged in
+     * a single pass over their sorted buckets.
+     *
+     * @param timeSeries The time series to add, it must have the same {@link TimeBucket}.
+     */
+    public void upsertAll(final LongTimeSeries timeSeries) {
+        if (timeBucket != timeSeries.timeBucket) {
+            throw new IllegalArgumentException("Can't add a LongTimeSeries with a time bucket of "
+                    + timeSeries.timeBucket + " to one with a time bucket of " + timeBucket);
+        }
+        if (0 == timeSeries.size) {
+            return;
+        }
+
+        if (0 == size || timeSeries.buckets[0] > buckets[size - 1]) {
+            ensureCapacity(size + timeSeries.size);
+            System.arraycopy(timeSeries.buckets, 0, buckets, size, timeSeries.size);
+            System.arraycopy(timeSeries.values, 0, values, size, timeSeries.size);
+            size += timeSeries.size;
+            return;
+        }
+
+        final long[] mergedBuckets = new long[size + timeSeries.size];
+        final long[] mergedValues = new long[size + timeSeries.size];
+        int i = 0;
+        int j = 0;
+        int merged = 0;
+        while (i < size && j < timeSeries.size) {
+            final long bucket = buckets[i];
+            final long otherBucket = timeSeries.buckets[j];
+            if (bucket < otherBucket) {
+                mergedBuckets[merged] = bucket;
+                mergedValues[merged] = values[i++];
+            } else if (bucket > otherBucket) {
+                mergedBuckets[merged] = otherBucket;
+                mergedValues[merged] = timeSeries.values[j++];
+            } else {
+                mergedBuckets[merged] = bucket;
+                mergedValues[merged] = values[i++] + timeSeries.values[j++];
+            }
+            merged++;
+        }
+        final int remaining = size - i;
+        System.arraycopy(buckets, i, mergedBuckets, merged, remaining);
+        System.arraycopy(values, i, mergedValues, merged, remaining);
+        merged += remaining;
+        final int otherRemaining = timeSeries.size - j;
+        System.arraycopy(timeSeries.buckets, j, mergedBuckets, merged, otherRemaining);
+        System.arraycopy(timeSeries.values, j, mergedValues, merged, otherRemaining);
+        merged += otherRemaining;
+
+        buckets = mergedBuckets;
+        values = mergedValues;
+        size = merged;
+    }
+
+    /**
+     * Returns the number of instants in the time series from <code>start</code>
+     * (inclusive) to <code>end</code> (exclusive).
+     *
+     * @param start The start of the time window.
+     * @param end   The end of the time window.
+     * @return The number of instants in the time window.
+     */
+    public int count(final Instant start, final Instant end) {
+        return Math.max(0, firstIndexAtOrAfter(end.toEpochMilli()) - firstIndexAtOrAfter(start.toEpochMilli()));
+    }
+
+    /**
+     * Returns the sum of the values in the time series from <code>start</code>
+     * (inclusive) to <code>end</code> (exclusive). Note that the caller is
+     * responsible for dealing with the case where the sum would overflow.
+     *
+     * @param start The start of the time window.
+     * @param end   The end of the time window.
+     * @return The sum of the values in the time window.
+     */
+    public long sum(final Instant start, final Instant end) {
+        final int endIndex = firstIndexAtOrAfter(end.toEpochMilli());
+        long sum = 0;
+        for (int i = firstIndexAtOrAfter(start.toEpochMilli()); i < endIndex; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the timestamp of the bucket at the given position in the time
+     * series. Together with {@link #getValue(int)} and
+     * {@link #getNumberOfInstants()} this allows the time series to be
+     * iterated in order without creating {@link Instant}s.
+     *
+     * @param index The position in the time series.
+     * @return The start of the bucket, in milliseconds since the epoch.
+     */
+    public long getTimestamp(final int index) {
+        checkIndex(index);
+        return fromLong(timeBucket, buckets[index]);
+    }
+
+    /**
+     * Returns the value at the given position in the time series.
+     *
+     * @param index The position in the time series.
+     * @return The value.
+     */
+    public long getValue(final int index) {
+        checkIndex(index);
+        return values[index];
     }
 
     /**
@@ -130,11 +290,9 @@ public class LongTimeSeries implements TimeSeries<Long> {
     @JsonIgnore
     public SortedSet<Instant> getInstants() {
         final SortedSet<Instant> instants = new TreeSet<>();
-        timeSeries
-                .keySet()
-                .stream()
-                .map(l -> getInstantFromLong(timeBucket, l))
-                .forEach(instants::add);
+        for (int i = 0; i < size; i++) {
+            instants.add(getInstantFromLong(timeBucket, buckets[i]));
+        }
         return instants;
     }
 
@@ -145,7 +303,7 @@ public class LongTimeSeries implements TimeSeries<Long> {
      */
     @JsonIgnore
     public int getNumberOfInstants() {
-        return timeSeries.size();
+        return size;
     }
 
     /**
@@ -157,7 +315,9 @@ public class LongTimeSeries implements TimeSeries<Long> {
      */
     public SortedMap<Instant, Long> getTimeSeries() {
         final SortedMap<Instant, Long> map = new TreeMap<>();
-        timeSeries.forEach((k, v) -> map.put(getInstantFromLong(timeBucket, k), v));
+        for (int i = 0; i < size; i++) {
+            map.put(getInstantFromLong(timeBucket, buckets[i]), values[i]);
+        }
         return map;
     }
 
@@ -170,7 +330,7 @@ public class LongTimeSeries implements TimeSeries<Long> {
         if (null == timeBucket) {
             throw new IllegalArgumentException("timeBucket should be configured before setting a timeSeries");
         }
-        this.timeSeries.clear();
+        size = 0;
         if (null != timeSeries) {
             timeSeries.forEach(this::put);
         }
@@ -191,28 +351,90 @@ public class LongTimeSeries implements TimeSeries<Long> {
 
         final LongTimeSeries that = (LongTimeSeries) obj;
 
-        return new EqualsBuilder()
+        final EqualsBuilder equalsBuilder = new EqualsBuilder()
                 .append(timeBucket, that.timeBucket)
-                .append(timeSeries, that.timeSeries)
-                .isEquals();
+                .append(size, that.size);
+        for (int i = 0; i < size && equalsBuilder.isEquals(); i++) {
+            equalsBuilder.append(buckets[i], that.buckets[i])
+                    .append(values[i], that.values[i]);
+        }
+        return equalsBuilder.isEquals();
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(21, 3)
-                .append(timeBucket)
-                .append(timeSeries)
-                .toHashCode();
+        final HashCodeBuilder hashCodeBuilder = new HashCodeBuilder(21, 3)
+                .append(timeBucket);
+        for (int i = 0; i < size; i++) {
+            hashCodeBuilder.append(buckets[i])
+                    .append(values[i]);
+        }
+        return hashCodeBuilder.toHashCode();
     }
 
     @Override
     public String toString() {
+        final SortedMap<Long, Long> timeSeries = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            timeSeries.put(buckets[i], values[i]);
+        }
         return new ToStringBuilder(this)
                 .append("timeBucket", timeBucket)
                 .append("timeSeries", timeSeries)
                 .build();
     }
 
+    private int indexOf(final long bucket) {
+        return Arrays.binarySearch(buckets, 0, size, bucket);
+    }
+
+    // Finds the index of the first bucket starting at or after the timestamp,
+    // or size if there is no such bucket.
+    private int firstIndexAtOrAfter(final long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (fromLong(timeBucket, buckets[mid]) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void insert(final int index, final long bucket, final long value) {
+        ensureCapacity(size + 1);
+        if (index < size) {
+            System.arraycopy(buckets, index, buckets, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+        buckets[index] = bucket;
+        values[index] = value;
+        size++;
+    }
+
+    private void remove(final int index) {
+        System.arraycopy(buckets, index + 1, buckets, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > buckets.length) {
+            final int newCapacity = Math.max(capacity, Math.max(INITIAL_CAPACITY, buckets.length + (buckets.length >> 1)));
+            buckets = Arrays.copyOf(buckets, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", number of instants: " + size);
+        }
+    }
+
     private static long toLong(final TimeBucket timeBucket, final long time) {
         final long timeTruncatedToBucket = CommonTimeUtil.timeToBucket(time, timeBucket);
         switch (timeBucket) {
@@ -21,14 +21,11 @@ import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
 import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
 import uk.gov.gchq.gaffer.time.LongTimeSeries;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.time.Instant;
-import java.util.Map;
-import java.util.SortedMap;
+import java.util.function.LongConsumer;
 
 /**
  * Serialises a {@link LongTimeSeries} by writing out the deltas between
@@ -40,6 +37,11 @@ import java.util.SortedMap;
  * <code>Long.MAX_VALUE</code> in absolute size, then the deltas might overflow.
  * In this case, a simpler serialisation is used where the timestamps and values
  * are simply written out directly.
+ *
+ * <p>The number of instants, and counts and sums over a time window, can be
+ * read directly from the serialised form, without deserialising the time
+ * series. As the entries are written in time order, a window query stops
+ * decoding once it passes the end of the window.
  */
 public class DeltaLongTimeSeriesSerialiser implements ToBytesSerialiser<LongTimeSeries> {
     private static final long HALF_MAX_VALUE = Long.MAX_VALUE / 2;
@@ -58,16 +60,15 @@ public class DeltaLongTimeSeriesSerialiser implements ToBytesSerialiser<LongTime
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         final DataOutputStream dos = new DataOutputStream(baos);
         final Mode mode = calculateMode(timeSeries);
-        final SortedMap<Instant, Long> timeseriesMap = timeSeries.getTimeSeries();
         try {
             dos.write(CompactRawSerialisationUtils.writeLong(timeSeries.getTimeBucket().ordinal()));
-            dos.write(CompactRawSerialisationUtils.writeLong(timeseriesMap.size()));
+            dos.write(CompactRawSerialisationUtils.writeLong(timeSeries.getNumberOfInstants()));
             boolean deltaMode = mode == Mode.DELTA;
             dos.writeBoolean(deltaMode);
             if (deltaMode) {
-                deltaSerialise(timeseriesMap, dos);
+                deltaSerialise(timeSeries, dos);
             } else {
-                defaultSerialise(timeseriesMap, dos);
+                defaultSerialise(timeSeries, dos);
             }
         } catch (final IOException e) {
             throw new SerialisationException("Exception writing serialised LongTimeSeries to ByteArrayOutputStream",
@@ -81,22 +82,12 @@ public class DeltaLongTimeSeriesSerialiser implements ToBytesSerialiser<LongTime
         if (allBytes.length == 0 || length == 0) {
             return null;
         }
-        final ByteArrayInputStream bais = new ByteArrayInputStream(allBytes, offset, length);
-        final DataInputStream dis = new DataInputStream(bais);
-        final int bucketInt = (int) CompactRawSerialisationUtils.read(dis);
-        final TimeBucket bucket = TimeBucket.values()[bucketInt];
-        final int numEntries = (int) CompactRawSerialisationUtils.read(dis);
-        final LongTimeSeries timeSeries = new LongTimeSeries(bucket);
-        try {
-            final boolean deltaMode = dis.readBoolean();
-            if (deltaMode) {
-                deltaDeserialise(timeSeries, numEntries, dis);
-            } else {
-                defaultDeserialise(timeSeries, numEntries, dis);
-            }
-        } catch (final IOException e) {
-            throw new SerialisationException("IOException reading boolean", e);
-        }
+        final SerialisedTimeSeries serialised = new SerialisedTimeSeries(allBytes, offset, length);
+        final LongTimeSeries timeSeries = new LongTimeSeries(serialised.bucket);
+        serialised.forEachEntry((time, value) -> {
+            timeSeries.upsert(time, value);
+            return true;
+        });
         return timeSeries;
     }
 
@@ -120,67 +111,173 @@ public class DeltaLongTimeSeriesSerialiser implements ToBytesSerialiser<LongTime
         return true;
     }
 
+    /**
+     * Reads the number of instants in a serialised time series, without
+     * deserialising it.
+     *
+     * @param allBytes the array containing the serialised time series
+     * @param offset   the offset of the time series in the array
+     * @param length   the length of the serialised time series
+     * @return the number of instants, or 0 for a null time series
+     * @throws SerialisationException if the time series cannot be read
+     */
+    public int getNumberOfInstants(final byte[] allBytes, final int offset, final int length) throws SerialisationException {
+        if (allBytes.length == 0 || length == 0) {
+            return 0;
+        }
+        return new SerialisedTimeSeries(allBytes, offset, length).numEntries;
+    }
+
+    /**
+     * Counts the instants in a serialised time series from <code>start</code>
+     * (inclusive) to <code>end</code> (exclusive), without deserialising it.
+     * This gives the same result as {@link LongTimeSeries#count(Instant, Instant)}.
+     *
+     * @param allBytes the array containing the serialised time series
+     * @param offset   the offset of the time series in the array
+     * @param length   the length of the serialised time series
+     * @param start    the start of the time window
+     * @param end      the end of the time window
+     * @return the number of instants in the time window
+     * @throws SerialisationException if the time series cannot be read
+     */
+    public int count(final byte[] allBytes, final int offset, final int length, final Instant start, final Instant end) throws SerialisationException {
+        final long[] count = {0};
+        forEachEntryInWindow(allBytes, offset, length, start, end, value -> count[0]++);
+        return (int) count[0];
+    }
+
+    /**
+     * Sums the values in a serialised time series from <code>start</code>
+     * (inclusive) to <code>end</code> (exclusive), without deserialising it.
+     * This gives the same result as {@link LongTimeSeries#sum(Instant, Instant)}.
+     *
+     * @param allBytes the array containing the serialised time series
+     * @param offset   the offset of the time series in the array
+     * @param length   the length of the serialised time series
+     * @param start    the start of the time window
+     * @param end      the end of the time window
+     * @return the sum of the values in the time window
+     * @throws SerialisationException if the time series cannot be read
+     */
+    public long sum(final byte[] allBytes, final int offset, final int length, final Instant start, final Instant end) throws SerialisationException {
+        final long[] sum = {0};
+        forEachEntryInWindow(allBytes, offset, length, start, end, value -> sum[0] += value);
+        return sum[0];
+    }
+
     private enum Mode {
         DELTA, LITERAL
     }
 
-    private void deltaSerialise(final SortedMap<Instant, Long> timeSeriesMap, final DataOutputStream dos) throws SerialisationException {
+    private void forEachEntryInWindow(final byte[] allBytes, final int offset, final int length,
+                                      final Instant start, final Instant end,
+                                      final LongConsumer consumer) throws SerialisationException {
+        if (allBytes.length == 0 || length == 0) {
+            return;
+        }
+        final long startTime = start.toEpochMilli();
+        final long endTime = end.toEpochMilli();
+        new SerialisedTimeSeries(allBytes, offset, length).forEachEntry((time, value) -> {
+            if (time >= endTime) {
+                return false;
+            }
+            if (time >= startTime) {
+                consumer.accept(value);
+            }
+            return true;
+        });
+    }
+
+    private void deltaSerialise(final LongTimeSeries timeSeries, final DataOutputStream dos) throws SerialisationException {
         long previousKey = 0L;
         long previousValue = 0L;
-        for (final Map.Entry<Instant, Long> entry : timeSeriesMap.entrySet()) {
-            final long currentKey = entry.getKey().toEpochMilli();
+        for (int i = 0; i < timeSeries.getNumberOfInstants(); i++) {
+            final long currentKey = timeSeries.getTimestamp(i);
             CompactRawSerialisationUtils.write(currentKey - previousKey, dos);
             previousKey = currentKey;
-            final long currentValue = entry.getValue();
+            final long currentValue = timeSeries.getValue(i);
             CompactRawSerialisationUtils.write(currentValue - previousValue, dos);
             previousValue = currentValue;
         }
     }
 
-    private void deltaDeserialise(final LongTimeSeries timeSeries,
-                                  final int numEntries,
-                                  final DataInputStream dis) throws SerialisationException {
-        long previousKey = 0L;
-        long previousValue = 0L;
-        for (int i = 0; i < numEntries; i++) {
-            final long currentKey = CompactRawSerialisationUtils.read(dis);
-            final long time = currentKey + previousKey;
-            final long currentValue = CompactRawSerialisationUtils.read(dis);
-            final long value = currentValue + previousValue;
-            timeSeries.upsert(Instant.ofEpochMilli(time), value);
-            previousKey = time;
-            previousValue = value;
+    private void defaultSerialise(final LongTimeSeries timeSeries, final DataOutputStream dos) throws SerialisationException {
+        for (int i = 0; i < timeSeries.getNumberOfInstants(); i++) {
+            CompactRawSerialisationUtils.write(timeSeries.getTimestamp(i), dos);
+            CompactRawSerialisationUtils.write(timeSeries.getValue(i), dos);
         }
     }
 
-    private void defaultSerialise(final Map<Instant, Long> timeSeriesMap, final DataOutputStream dos) throws SerialisationException {
-        for (final Map.Entry<Instant, Long> entry : timeSeriesMap.entrySet()) {
-            final long currentKey = entry.getKey().toEpochMilli();
-            CompactRawSerialisationUtils.write(currentKey, dos);
-            final long currentValue = entry.getValue();
-            CompactRawSerialisationUtils.write(currentValue, dos);
+    private static Mode calculateMode(final LongTimeSeries timeSeries) {
+        for (int i = 0; i < timeSeries.getNumberOfInstants(); i++) {
+            final long key = timeSeries.getTimestamp(i);
+            final long value = timeSeries.getValue(i);
+            if (key < -HALF_MAX_VALUE || key > HALF_MAX_VALUE
+                    || value < -HALF_MAX_VALUE || value > HALF_MAX_VALUE) {
+                return Mode.LITERAL;
+            }
         }
+        return Mode.DELTA;
     }
 
-    private void defaultDeserialise(final LongTimeSeries timeSeries,
-                                    final int numEntries,
-                                    final DataInputStream dis) throws SerialisationException {
-        for (int i = 0; i < numEntries; i++) {
-            final long currentKey = CompactRawSerialisationUtils.read(dis);
-            final long currentValue = CompactRawSerialisationUtils.read(dis);
-            timeSeries.upsert(Instant.ofEpochMilli(currentKey), currentValue);
-        }
+    private interface EntryVisitor {
+        /**
+         * @param time  the timestamp of the entry
+         * @param value the value of the entry
+         * @return true to continue reading entries, false to stop.
+         */
+        boolean visit(long time, long value);
     }
 
-    private static Mode calculateMode(final LongTimeSeries timeSeries) {
-        final boolean noneMatch = timeSeries
-                .getTimeSeries()
-                .entrySet()
-                .stream()
-                .noneMatch(e -> e.getKey().toEpochMilli() < -HALF_MAX_VALUE
-                        || e.getKey().toEpochMilli() > HALF_MAX_VALUE
-                        || e.getValue() < -HALF_MAX_VALUE
-                        || e.getValue() > HALF_MAX_VALUE);
-        return noneMatch ? Mode.DELTA : Mode.LITERAL;
+    /**
+     * Reads a serialised time series directly from a byte array.
+     */
+    private static final class SerialisedTimeSeries {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+        private final TimeBucket bucket;
+        private final int numEntries;
+        private final boolean deltaMode;
+
+        private SerialisedTimeSeries(final byte[] allBytes, final int offset, final int length) throws SerialisationException {
+            this.bytes = allBytes;
+            this.end = offset + length;
+            this.position = offset;
+            this.bucket = TimeBucket.values()[(int) readLong()];
+            this.numEntries = (int) readLong();
+            if (position >= end) {
+                throw new SerialisationException("IOException reading boolean");
+            }
+            this.deltaMode = 0 != bytes[position++];
+        }
+
+        private void forEachEntry(final EntryVisitor visitor) throws SerialisationException {
+            long previousKey = 0L;
+            long previousValue = 0L;
+            for (int i = 0; i < numEntries; i++) {
+                long time = readLong();
+                long value = readLong();
+                if (deltaMode) {
+                    time += previousKey;
+                    value += previousValue;
+                    previousKey = time;
+                    previousValue = value;
+                }
+                if (!visitor.visit(time, value)) {
+                    return;
+                }
+            }
+        }
+
+        private long readLong() throws SerialisationException {
+            if (position >= end) {
+                throw new SerialisationException("Unexpected end of serialised LongTimeSeries");
+            }
+            final long value = CompactRawSerialisationUtils.readLong(bytes, position);
+            position += CompactRawSerialisationUtils.decodeVIntSize(bytes[position]);
+            return value;
+        }
     }
 }
@@ -32,6 +32,7 @@ import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -53,6 +54,65 @@ public class LongTimeSeriesTest extends JSONSerialisationTest<LongTimeSeries> {
         assertEquals(100L, (long) timeSeries.get(instant2));
     }
 
+    @Test
+    public void shouldKeepInstantsSortedWhenAddedOutOfOrder() {
+        // Given
+        final LongTimeSeries timeSeries = new LongTimeSeries(TimeBucket.SECOND);
+
+        // When
+        timeSeries.upsert(Instant.ofEpochMilli(5_000L), 5L);
+        timeSeries.upsert(Instant.ofEpochMilli(1_000L), 1L);
+        timeSeries.upsert(Instant.ofEpochMilli(3_000L), 3L);
+        timeSeries.put(Instant.ofEpochMilli(3_000L), 30L);
+        timeSeries.put(Instant.ofEpochMilli(5_000L), null);
+
+        // Then
+        assertEquals(2, timeSeries.getNumberOfInstants());
+        assertEquals(1_000L, timeSeries.getTimestamp(0));
+        assertEquals(1L, timeSeries.getValue(0));
+        assertEquals(3_000L, timeSeries.getTimestamp(1));
+        assertEquals(30L, timeSeries.getValue(1));
+        assertNull(timeSeries.get(Instant.ofEpochMilli(5_000L)));
+    }
+
+    @Test
+    public void shouldMergeTimeSeries() {
+        // Given
+        final LongTimeSeries timeSeries1 = new LongTimeSeries(TimeBucket.SECOND);
+        final LongTimeSeries timeSeries2 = new LongTimeSeries(TimeBucket.SECOND);
+        final LongTimeSeries expected = new LongTimeSeries(TimeBucket.SECOND);
+        IntStream.range(0, 100).forEach(i -> {
+            timeSeries1.upsert(Instant.ofEpochMilli(i * 2_000L), i);
+            timeSeries2.upsert(Instant.ofEpochMilli(i * 3_000L), i);
+            expected.upsert(Instant.ofEpochMilli(i * 2_000L), i);
+            expected.upsert(Instant.ofEpochMilli(i * 3_000L), i);
+        });
+
+        // When
+        timeSeries1.upsertAll(timeSeries2);
+
+        // Then
+        assertEquals(expected, timeSeries1);
+        assertEquals(expected.getTimeSeries(), timeSeries1.getTimeSeries());
+    }
+
+    @Test
+    public void shouldCountAndSumInTimeWindow() {
+        // Given
+        final LongTimeSeries timeSeries = new LongTimeSeries(TimeBucket.MINUTE);
+        IntStream.range(0, 60).forEach(i -> timeSeries.upsert(Instant.ofEpochMilli(i * 60_000L), i));
+
+        // When
+        final int count = timeSeries.count(Instant.ofEpochMilli(10 * 60_000L), Instant.ofEpochMilli(20 * 60_000L));
+        final long sum = timeSeries.sum(Instant.ofEpochMilli(10 * 60_000L - 1), Instant.ofEpochMilli(20 * 60_000L + 1));
+
+        // Then
+        assertEquals(10, count);
+        assertEquals(IntStream.rangeClosed(10, 20).sum(), sum);
+        assertEquals(0, timeSeries.count(Instant.ofEpochMilli(100 * 60_000L), Instant.ofEpochMilli(200 * 60_000L)));
+        assertEquals(0, timeSeries.count(Instant.ofEpochMilli(20 * 60_000L), Instant.ofEpochMilli(10 * 60_000L)));
+    }
+
     @Test
     public void testUpsert() {
         // Given
@@ -52,6 +52,30 @@ public class LongTimeSeriesAggregatorTest {
         assertEquals(expected, aggregated);
     }
 
+    @Test
+    public void testAggregateInterleavedTimeSeries() {
+        // Given
+        final LongTimeSeries timeSeries1 = new LongTimeSeries(CommonTimeUtil.TimeBucket.SECOND);
+        timeSeries1.put(Instant.ofEpochMilli(2_000L), 2L);
+        timeSeries1.put(Instant.ofEpochMilli(4_000L), 4L);
+        final LongTimeSeries timeSeries2 = new LongTimeSeries(CommonTimeUtil.TimeBucket.SECOND);
+        timeSeries2.put(Instant.ofEpochMilli(1_000L), 1L);
+        timeSeries2.put(Instant.ofEpochMilli(4_000L), 40L);
+        timeSeries2.put(Instant.ofEpochMilli(5_000L), 5L);
+
+        // When
+        final LongTimeSeries aggregated = LONG_TIME_SERIES_AGGREGATOR
+                ._apply(timeSeries1, timeSeries2);
+        final LongTimeSeries expected = new LongTimeSeries(CommonTimeUtil.TimeBucket.SECOND);
+        expected.put(Instant.ofEpochMilli(1_000L), 1L);
+        expected.put(Instant.ofEpochMilli(2_000L), 2L);
+        expected.put(Instant.ofEpochMilli(4_000L), 44L);
+        expected.put(Instant.ofEpochMilli(5_000L), 5L);
+
+        // Then
+        assertEquals(expected, aggregated);
+    }
+
     @Test
     public void testCantMergeIfDifferentTimeBucket() {
         try {
@@ -87,6 +87,33 @@ public class DeltaLongTimeSeriesSerialiserTest extends ToBytesSerialisationTest<
         assertEquals(Long.MAX_VALUE, (long) deserialised.get(Instant.ofEpochMilli(1000L)));
     }
 
+    @Test
+    public void shouldCountAndSumInTimeWindowOnSerialisedForm() throws SerialisationException {
+        // Given
+        final LongTimeSeries deltaTimeSeries = getExampleValueSecond();
+        final LongTimeSeries literalTimeSeries = getExampleValueSecond();
+        literalTimeSeries.upsert(Instant.ofEpochMilli(Long.MAX_VALUE), Long.MAX_VALUE);
+        final Instant start = Instant.ofEpochMilli(200_000L);
+        final Instant end = Instant.ofEpochMilli(700_000L);
+
+        for (final LongTimeSeries timeSeries : new LongTimeSeries[]{deltaTimeSeries, literalTimeSeries}) {
+            final byte[] serialised = serialiser.serialise(timeSeries);
+            final byte[] allBytes = new byte[serialised.length + 4];
+            System.arraycopy(serialised, 0, allBytes, 2, serialised.length);
+
+            // When
+            final int numberOfInstants = serialiser.getNumberOfInstants(allBytes, 2, serialised.length);
+            final int count = serialiser.count(allBytes, 2, serialised.length, start, end);
+            final long sum = serialiser.sum(allBytes, 2, serialised.length, start, end);
+
+            // Then
+            assertEquals(timeSeries.getNumberOfInstants(), numberOfInstants);
+            assertEquals(timeSeries.count(start, end), count);
+            assertEquals(timeSeries.sum(start, end), sum);
+        }
+        assertEquals(0, serialiser.count(new byte[0], 0, 0, start, end));
+    }
+
     @Test
     public void testCanHandle() throws SerialisationException {
         assertTrue(serialiser.canHandle(LongTimeSeries.class));
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest;
+
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.core.exception.Status;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.gov.gchq.gaffer.rest.ServiceConstants.CHUNKED_SERVICE_UNAVAILABLE;
+
+/**
+ * A {@code ChunkedExecutor} is a bounded pool of daemon threads used to write
+ * the results of the chunked REST endpoints. The number of threads and the
+ * number of requests that can wait for a thread are set by the
+ * {@link SystemProperty#CHUNKED_THREADS} and {@link SystemProperty#CHUNKED_QUEUE_SIZE}
+ * system properties. When the pool is saturated, further chunked requests
+ * are rejected with a 503 status rather than creating new threads.
+ * <p>
+ * Chunks written with {@link #write(ChunkedOutput, Object)} are timed out
+ * after {@link SystemProperty#CHUNKED_WRITE_TIMEOUT} milliseconds, so a
+ * client that stops reading cannot hold on to a thread, and the operation
+ * it is reading from, indefinitely. A timed out write interrupts the
+ * writing thread and closes the chunked output.
+ * </p>
+ */
+public final class ChunkedExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedExecutor.class);
+    private static final long MAX_WATCHDOG_PERIOD_MILLIS = 1000L;
+    private static final Map<Thread, PendingWrite> PENDING_WRITES = new ConcurrentHashMap<>();
+    private static ThreadPoolExecutor executor;
+    private static ScheduledExecutorService watchdog;
+    private static long writeTimeout = -1;
+
+    private ChunkedExecutor() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * Submits a task to write a chunked result.
+     *
+     * @param task the task to run
+     * @throws GafferRuntimeException with a {@link Status#SERVICE_UNAVAILABLE}
+     *                                status if the executor is saturated
+     */
+    public static void submit(final Runnable task) {
+        try {
+            getExecutor().execute(task);
+        } catch (final RejectedExecutionException e) {
+            throw new GafferRuntimeException(CHUNKED_SERVICE_UNAVAILABLE, e, Status.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Writes a chunk to the chunked output, failing if the chunk has not been
+     * written within the chunked write timeout.
+     *
+     * @param output the chunked output to write to
+     * @param chunk  the chunk to write
+     * @param <T>    the type of chunk
+     * @throws IOException if the chunk could not be written or the write
+     *                     timed out
+     */
+    public static <T> void write(final ChunkedOutput<T> output, final T chunk) throws IOException {
+        final long timeout = getWriteTimeout();
+        if (timeout <= 0) {
+            output.write(chunk);
+            return;
+        }
+
+        final Thread thread = Thread.currentThread();
+        final PendingWrite pendingWrite = new PendingWrite(thread, output, System.currentTimeMillis() + timeout);
+        PENDING_WRITES.put(thread, pendingWrite);
+        try {
+            output.write(chunk);
+        } finally {
+            PENDING_WRITES.remove(thread);
+            if (!pendingWrite.complete()) {
+                throw new InterruptedIOException("Timed out after " + timeout + "ms writing a chunked result");
+            }
+        }
+    }
+
+    /**
+     * Shuts down the executor. Chunked results that are already being
+     * written are interrupted.
+     */
+    public static synchronized void shutdown() {
+        if (null != executor) {
+            LOGGER.info("Shutting down the chunked executor");
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (null != watchdog) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+        writeTimeout = -1;
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (null == executor) {
+            final int threads = Integer.parseInt(System.getProperty(SystemProperty.CHUNKED_THREADS, SystemProperty.CHUNKED_THREADS_DEFAULT));
+            final int queueSize = Integer.parseInt(System.getProperty(SystemProperty.CHUNKED_QUEUE_SIZE, SystemProperty.CHUNKED_QUEUE_SIZE_DEFAULT));
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    r -> {
+                        final Thread thread = new Thread(r, "gaffer-chunked-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    // Reads the write timeout and, if it is enabled, starts the watchdog
+    // that times out the pending writes
+    private static synchronized long getWriteTimeout() {
+        if (writeTimeout < 0) {
+            writeTimeout = Long.parseLong(System.getProperty(SystemProperty.CHUNKED_WRITE_TIMEOUT, SystemProperty.CHUNKED_WRITE_TIMEOUT_DEFAULT));
+            if (writeTimeout > 0) {
+                final long period = Math.max(1L, Math.min(writeTimeout, MAX_WATCHDOG_PERIOD_MILLIS));
+                watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+                    final Thread thread = new Thread(r, "gaffer-chunked-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                watchdog.scheduleAtFixedRate(ChunkedExecutor::timeOutPendingWrites, period, period, TimeUnit.MILLISECONDS);
+            } else {
+                writeTimeout = 0;
+            }
+        }
+        return writeTimeout;
+    }
+
+    private static void timeOutPendingWrites() {
+        final long now = System.currentTimeMillis();
+        for (final PendingWrite pendingWrite : PENDING_WRITES.values()) {
+            if (now >= pendingWrite.deadline && pendingWrite.timeOut()) {
+                LOGGER.warn("Timed out writing a chunked result on thread {}, closing the chunked output", pendingWrite.thread.getName());
+                CloseableUtil.close(pendingWrite.output);
+            }
+        }
+    }
+
+    /**
+     * A chunk that is being written. Exactly one of {@link #complete()} and
+     * {@link #timeOut()} succeeds, and the writing thread is only interrupted
+     * while the chunk is still being written.
+     */
+    private static final class PendingWrite {
+        private final Thread thread;
+        private final ChunkedOutput<?> output;
+        private final long deadline;
+        private boolean finished;
+        private boolean timedOut;
+
+        private PendingWrite(final Thread thread, final ChunkedOutput<?> output, final long deadline) {
+            this.thread = thread;
+            this.output = output;
+            this.deadline = deadline;
+        }
+
+        // Called by the writing thread once the write has returned. Returns
+        // false, and clears the interrupt, if the write timed out.
+        private synchronized boolean complete() {
+            finished = true;
+            if (timedOut) {
+                Thread.interrupted();
+                return false;
+            }
+            return true;
+        }
+
+        // Called by the watchdog. Returns true if the write was still in
+        // progress and has now been interrupted.
+        private synchronized boolean timeOut() {
+            if (finished || timedOut) {
+                return false;
+            }
+            timedOut = true;
+            thread.interrupt();
+            return true;
+        }
+    }
+}
@@ -24,6 +24,10 @@ public final class ServiceConstants {
     public static final String GAFFER_MEDIA_TYPE_HEADER = "X-Gaffer-Media-Type";
     public static final String GAFFER_MEDIA_TYPE;
 
+    // Streaming media types
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
     // REST status error messages
     public static final String OK = "OK";
     public static final String BAD_REQUEST = "Error while processing request body";
@@ -41,6 +45,8 @@ public final class ServiceConstants {
     public static final String JOB_NOT_FOUND = "Job was not found";
     public static final String JOB_SERVICE_UNAVAILABLE = "The job service is not available";
 
+    public static final String CHUNKED_SERVICE_UNAVAILABLE = "Too many chunked requests are in progress";
+
     static {
         final String apiVersion = System.getProperty(SystemProperty.REST_API_VERSION, SystemProperty.CORE_VERSION);
         GAFFER_MEDIA_TYPE = "gaffer.v" + apiVersion.charAt(0) + "; format=json";
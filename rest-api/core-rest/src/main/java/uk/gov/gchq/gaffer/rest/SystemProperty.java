@@ -39,6 +39,20 @@ public abstract class SystemProperty {
     public static final String JSON_SERIALISER_CLASS = JSONSerialiser.JSON_SERIALISER_CLASS_KEY;
     public static final String JSON_SERIALISER_MODULES = JSONSerialiser.JSON_SERIALISER_MODULES;
     public static final String REST_DEBUG = DebugUtil.DEBUG;
+    /**
+     * The number of threads used to write the results of chunked requests.
+     */
+    public static final String CHUNKED_THREADS = "gaffer.rest-api.chunked.threads";
+    /**
+     * The number of chunked requests that can wait for a thread before
+     * further requests are rejected.
+     */
+    public static final String CHUNKED_QUEUE_SIZE = "gaffer.rest-api.chunked.queueSize";
+    /**
+     * The number of milliseconds a chunk may take to be written to the client
+     * before the chunked request is abandoned. A value of 0 disables the timeout.
+     */
+    public static final String CHUNKED_WRITE_TIMEOUT = "gaffer.rest-api.chunked.writeTimeout";
 
     // Exposed Property Keys
     /**
@@ -89,6 +103,9 @@ public abstract class SystemProperty {
     public static final String APP_TITLE_DEFAULT = "Gaffer REST";
     public static final String APP_DESCRIPTION_DEFAULT = "The Gaffer REST service.";
     public static final String APP_DOCUMENTATION_URL_DEFAULT = "https://gchq.github.io/gaffer-doc/";
+    public static final String CHUNKED_THREADS_DEFAULT = "20";
+    public static final String CHUNKED_QUEUE_SIZE_DEFAULT = "100";
+    public static final String CHUNKED_WRITE_TIMEOUT_DEFAULT = "60000";
 
     private SystemProperty() {
         // Private constructor to prevent instantiation.
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest.serialisation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@code StreamingResultWriter} writes the result of an operation directly
+ * to an {@link OutputStream} using a single Jackson {@link JsonGenerator}.
+ * If the result is an {@link Iterable} each item is written as a separate
+ * root level value, otherwise the result is written as a single value.
+ * <p>
+ * The {@link #ndJson()} writer separates the values with new lines, so each
+ * line of the output is a complete json object. The {@link #smile()} writer
+ * uses the binary Smile encoding of json, which is self delimiting.
+ * </p>
+ * <p>
+ * Iterable results are closed once they have been written.
+ * </p>
+ */
+public final class StreamingResultWriter {
+    private static final StreamingResultWriter NDJSON = new StreamingResultWriter(new JsonFactory().setRootValueSeparator(null), true);
+    private static final StreamingResultWriter SMILE = new StreamingResultWriter(new SmileFactory(), false);
+
+    private final JsonFactory factory;
+    private final boolean newLineDelimited;
+
+    private StreamingResultWriter(final JsonFactory factory, final boolean newLineDelimited) {
+        this.factory = factory;
+        this.newLineDelimited = newLineDelimited;
+    }
+
+    public static StreamingResultWriter ndJson() {
+        return NDJSON;
+    }
+
+    public static StreamingResultWriter smile() {
+        return SMILE;
+    }
+
+    /**
+     * Writes the result to the output stream. The output stream is flushed
+     * but not closed.
+     *
+     * @param result the result to write
+     * @param output the stream to write the result to
+     * @throws IOException if the result could not be written
+     */
+    public void write(final Object result, final OutputStream output) throws IOException {
+        // The generator is only flushed at the end, or when its buffer is full
+        final ObjectWriter writer = JSONSerialiser.getMapper()
+                .writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final JsonGenerator generator = factory.createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            if (result instanceof Iterable) {
+                try {
+                    for (final Object item : (Iterable) result) {
+                        writeValue(writer, generator, item);
+                    }
+                } finally {
+                    CloseableUtil.close(result);
+                }
+            } else if (null != result) {
+                writeValue(writer, generator, result);
+            }
+        } finally {
+            generator.close();
+        }
+    }
+
+    private void writeValue(final ObjectWriter writer, final JsonGenerator generator, final Object value) throws IOException {
+        writer.writeValue(generator, value);
+        if (newLineDelimited) {
+            generator.writeRaw('\n');
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.operation.Operation;
@@ -36,6 +37,7 @@ import uk.gov.gchq.gaffer.operation.impl.generate.GenerateObjects;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.rest.ChunkedExecutor;
 import uk.gov.gchq.gaffer.rest.factory.GraphFactory;
 import uk.gov.gchq.gaffer.rest.factory.UserFactory;
 import uk.gov.gchq.gaffer.store.Context;
@@ -80,15 +82,21 @@ public class OperationService implements IOperationService {
         final ChunkedOutput<String> output = new ChunkedOutput<>(String.class, "\r\n");
 
         // write chunks to the chunked output object
-        new Thread(() -> {
-            try {
-                final Object result = _execute(opChain);
-                chunkResult(result, output);
-            } finally {
-                CloseableUtil.close(output);
-                CloseableUtil.close(opChain);
-            }
-        }).start();
+        try {
+            ChunkedExecutor.submit(() -> {
+                try {
+                    final Object result = _execute(opChain);
+                    chunkResult(result, output);
+                } finally {
+                    CloseableUtil.close(output);
+                    CloseableUtil.close(opChain);
+                }
+            });
+        } catch (final GafferRuntimeException e) {
+            CloseableUtil.close(output);
+            CloseableUtil.close(opChain);
+            throw e;
+        }
 
         return output;
     }
@@ -175,7 +183,7 @@ public class OperationService implements IOperationService {
             final Iterable itr = (Iterable) result;
             try {
                 for (final Object item : itr) {
-                    output.write(mapper.writeValueAsString(item));
+                    ChunkedExecutor.write(output, mapper.writeValueAsString(item));
                 }
             } catch (final IOException ioe) {
                 LOGGER.warn("IOException (chunks)", ioe);
@@ -184,7 +192,7 @@ public class OperationService implements IOperationService {
             }
         } else {
             try {
-                output.write(mapper.writeValueAsString(result));
+                ChunkedExecutor.write(output, mapper.writeValueAsString(result));
             } catch (final IOException ioe) {
                 LOGGER.warn("IOException (chunks)", ioe);
             }
@@ -36,6 +36,8 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static uk.gov.gchq.gaffer.rest.ServiceConstants.APPLICATION_NDJSON;
+import static uk.gov.gchq.gaffer.rest.ServiceConstants.APPLICATION_SMILE;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.BAD_REQUEST;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.FORBIDDEN;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.INTERNAL_SERVER_ERROR;
@@ -78,6 +80,28 @@ public interface IOperationServiceV2 {
             @ApiResponse(code = 501, message = OPERATION_NOT_IMPLEMENTED)})
     ChunkedOutput<String> executeChunked(final Operation operation);
 
+    @POST
+    @Path("/execute/chunked")
+    @Produces(APPLICATION_NDJSON + ";qs=0.5")
+    @ApiOperation(value = "Performs the given operation on the graph, streaming the results as new line delimited json. NOTE - does not work in Swagger.", response = Object.class, produces = APPLICATION_NDJSON)
+    @ApiResponses(value = {@ApiResponse(code = 200, message = OK),
+            @ApiResponse(code = 400, message = BAD_REQUEST),
+            @ApiResponse(code = 403, message = FORBIDDEN),
+            @ApiResponse(code = 500, message = INTERNAL_SERVER_ERROR),
+            @ApiResponse(code = 501, message = OPERATION_NOT_IMPLEMENTED)})
+    Response executeChunkedNdJson(final Operation operation);
+
+    @POST
+    @Path("/execute/chunked")
+    @Produces(APPLICATION_SMILE + ";qs=0.5")
+    @ApiOperation(value = "Performs the given operation on the graph, streaming the results as binary Smile encoded json. NOTE - does not work in Swagger.", response = Object.class, produces = APPLICATION_SMILE)
+    @ApiResponses(value = {@ApiResponse(code = 200, message = OK),
+            @ApiResponse(code = 400, message = BAD_REQUEST),
+            @ApiResponse(code = 403, message = FORBIDDEN),
+            @ApiResponse(code = 500, message = INTERNAL_SERVER_ERROR),
+            @ApiResponse(code = 501, message = OPERATION_NOT_IMPLEMENTED)})
+    Response executeChunkedSmile(final Operation operation);
+
     @SuppressFBWarnings
     ChunkedOutput<String> executeChunkedChain(final OperationChain opChain);
 
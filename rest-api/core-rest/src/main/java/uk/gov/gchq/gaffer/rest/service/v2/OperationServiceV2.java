@@ -30,13 +30,16 @@ import uk.gov.gchq.gaffer.core.exception.Status;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.rest.ChunkedExecutor;
 import uk.gov.gchq.gaffer.rest.factory.GraphFactory;
 import uk.gov.gchq.gaffer.rest.factory.UserFactory;
+import uk.gov.gchq.gaffer.rest.serialisation.StreamingResultWriter;
 import uk.gov.gchq.gaffer.rest.service.v2.example.ExamplesFactory;
 import uk.gov.gchq.gaffer.store.Context;
 
 import javax.inject.Inject;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -45,6 +48,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static uk.gov.gchq.gaffer.rest.ServiceConstants.APPLICATION_NDJSON;
+import static uk.gov.gchq.gaffer.rest.ServiceConstants.APPLICATION_SMILE;
 import static uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser.createDefaultMapper;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE_HEADER;
@@ -96,19 +101,35 @@ public class OperationServiceV2 implements IOperationServiceV2 {
         final ChunkedOutput<String> output = new ChunkedOutput<>(String.class, "\r\n");
 
         // write chunks to the chunked output object
-        new Thread(() -> {
-            try {
-                final Object result = _execute(opChain);
-                chunkResult(result, output);
-            } finally {
-                CloseableUtil.close(output);
-                CloseableUtil.close(opChain);
-            }
-        }).start();
+        try {
+            ChunkedExecutor.submit(() -> {
+                try {
+                    final Object result = _execute(opChain);
+                    chunkResult(result, output);
+                } finally {
+                    CloseableUtil.close(output);
+                    CloseableUtil.close(opChain);
+                }
+            });
+        } catch (final GafferRuntimeException e) {
+            CloseableUtil.close(output);
+            CloseableUtil.close(opChain);
+            throw e;
+        }
 
         return output;
     }
 
+    @Override
+    public Response executeChunkedNdJson(final Operation operation) {
+        return executeStreamed(operation, StreamingResultWriter.ndJson(), APPLICATION_NDJSON);
+    }
+
+    @Override
+    public Response executeChunkedSmile(final Operation operation) {
+        return executeStreamed(operation, StreamingResultWriter.smile(), APPLICATION_SMILE);
+    }
+
     @Override
     public Response operationDetails(final String className) throws InstantiationException, IllegalAccessException {
         try {
@@ -220,7 +241,7 @@ public class OperationServiceV2 implements IOperationServiceV2 {
             final Iterable itr = (Iterable) result;
             try {
                 for (final Object item : itr) {
-                    output.write(mapper.writeValueAsString(item));
+                    ChunkedExecutor.write(output, mapper.writeValueAsString(item));
                 }
             } catch (final IOException ioe) {
                 LOGGER.warn("IOException (chunks)", ioe);
@@ -229,13 +250,39 @@ public class OperationServiceV2 implements IOperationServiceV2 {
             }
         } else {
             try {
-                output.write(mapper.writeValueAsString(result));
+                ChunkedExecutor.write(output, mapper.writeValueAsString(result));
             } catch (final IOException ioe) {
                 LOGGER.warn("IOException (chunks)", ioe);
             }
         }
     }
 
+    protected Response executeStreamed(final Operation operation, final StreamingResultWriter writer, final String mediaType) {
+        // The operation is executed on the request thread so errors are
+        // reported with the usual status codes. The results are then
+        // consumed lazily as they are written to the response.
+        boolean executed = false;
+        final Object result;
+        try {
+            result = _execute(operation);
+            executed = true;
+        } finally {
+            if (!executed) {
+                CloseableUtil.close(operation);
+            }
+        }
+        final StreamingOutput output = outputStream -> {
+            try {
+                writer.write(result, outputStream);
+            } finally {
+                CloseableUtil.close(operation);
+            }
+        };
+        return Response.ok(output, mediaType)
+                .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
+                .build();
+    }
+
     private Operation getExampleJson(final Class<? extends Operation> opClass) throws ClassNotFoundException,
             IllegalAccessException, InstantiationException {
         return examplesFactory.generateExample(opClass);
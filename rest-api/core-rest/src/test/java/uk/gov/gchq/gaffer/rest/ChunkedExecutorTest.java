@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest;
+
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkedExecutorTest {
+    @Before
+    @After
+    public void resetExecutor() {
+        ChunkedExecutor.shutdown();
+        System.clearProperty(SystemProperty.CHUNKED_WRITE_TIMEOUT);
+    }
+
+    @Test
+    public void shouldWriteChunk() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_WRITE_TIMEOUT, "1000");
+        final TestChunkedOutput output = new TestChunkedOutput(null);
+
+        // When
+        ChunkedExecutor.write(output, "chunk");
+
+        // Then
+        assertEquals(Collections.singletonList("chunk"), output.chunks);
+        assertFalse(output.closed);
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void shouldTimeOutAndCloseOutputWhenWriteBlocks() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_WRITE_TIMEOUT, "100");
+        final TestChunkedOutput output = new TestChunkedOutput(new CountDownLatch(1));
+
+        // When / Then
+        try {
+            ChunkedExecutor.write(output, "chunk");
+            fail("Exception expected");
+        } catch (final InterruptedIOException e) {
+            assertTrue(e.getMessage().contains("Timed out"));
+        }
+        assertTrue(output.closed);
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void shouldNotTimeOutWhenWriteTimeoutIsDisabled() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_WRITE_TIMEOUT, "0");
+        final TestChunkedOutput output = new TestChunkedOutput(null);
+
+        // When
+        ChunkedExecutor.write(output, "chunk");
+
+        // Then
+        assertEquals(Collections.singletonList("chunk"), output.chunks);
+    }
+
+    private static final class TestChunkedOutput extends ChunkedOutput<String> {
+        private final List<String> chunks = new ArrayList<>();
+        private final CountDownLatch block;
+        private volatile boolean closed;
+
+        private TestChunkedOutput(final CountDownLatch block) {
+            super(String.class);
+            this.block = block;
+        }
+
+        @Override
+        public void write(final String chunk) throws IOException {
+            if (null != block) {
+                try {
+                    block.await();
+                } catch (final InterruptedException e) {
+                    throw new InterruptedIOException("interrupted");
+                }
+            }
+            chunks.add(chunk);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest.serialisation;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingResultWriterTest {
+    private static final List<Element> ELEMENTS = Lists.newArrayList(
+            new Entity.Builder()
+                    .group("entity")
+                    .vertex("vertex1")
+                    .property("count", 1)
+                    .build(),
+            new Edge.Builder()
+                    .group("edge")
+                    .source("vertex1")
+                    .dest("vertex2")
+                    .directed(true)
+                    .property("count", 2)
+                    .build());
+
+    @Test
+    public void shouldWriteEachItemOnANewLineAsNdJson() throws IOException {
+        // Given
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        StreamingResultWriter.ndJson().write(ELEMENTS, output);
+
+        // Then
+        final String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(ELEMENTS.get(0), JSONSerialiser.deserialise(lines[0].getBytes(StandardCharsets.UTF_8), Element.class));
+        assertEquals(ELEMENTS.get(1), JSONSerialiser.deserialise(lines[1].getBytes(StandardCharsets.UTF_8), Element.class));
+    }
+
+    @Test
+    public void shouldWriteSingleResultAsNdJson() throws IOException {
+        // Given
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        StreamingResultWriter.ndJson().write(5L, output);
+
+        // Then
+        assertEquals("5\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldWriteNothingForNullResult() throws IOException {
+        // Given
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        StreamingResultWriter.ndJson().write(null, output);
+
+        // Then
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    public void shouldWriteItemsAsSmile() throws IOException {
+        // Given
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        StreamingResultWriter.smile().write(ELEMENTS, output);
+
+        // Then
+        final MappingIterator<Element> itr = JSONSerialiser.getMapper()
+                .reader(Element.class)
+                .readValues(new SmileFactory().createParser(output.toByteArray()));
+        assertEquals(ELEMENTS, itr.readAll());
+    }
+
+    @Test
+    public void shouldCloseIterableResult() throws IOException {
+        // Given
+        final boolean[] closed = {false};
+        final CloseableIterable<Element> result = new CloseableIterable<Element>() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+
+            @Override
+            public CloseableIterator<Element> iterator() {
+                return new WrappedCloseableIterator<>(ELEMENTS.iterator());
+            }
+        };
+
+        // When
+        StreamingResultWriter.ndJson().write(result, new ByteArrayOutputStream());
+
+        // Then
+        assertTrue(closed[0]);
+    }
+}
@@ -50,11 +50,21 @@ public class AccumuloProperties extends StoreProperties {
     public static final String MAX_BUFFER_SIZE_FOR_BATCH_WRITER = "accumulo.maxBufferSizeForBatchWriterInBytes";
     public static final String MAX_TIME_OUT_FOR_BATCH_WRITER = "accumulo.maxTimeOutForBatchWriterInMilliseconds";
     public static final String NUM_THREADS_FOR_BATCH_WRITER = "accumulo.numThreadsForBatchWriter";
+    public static final String NUM_THREADS_FOR_ELEMENT_CONVERSION = "accumulo.numThreadsForElementConversion";
+    public static final String ELEMENT_CONVERSION_BATCH_SIZE = "accumulo.elementConversionBatchSize";
+    public static final String SHARED_BATCH_WRITER = "accumulo.sharedBatchWriter";
+    public static final String FLUSH_SHARED_BATCH_WRITER_AFTER_ADD = "accumulo.flushSharedBatchWriterAfterAdd";
+    public static final String COLUMN_VISIBILITY_CACHE_SIZE = "accumulo.columnVisibilityCacheSize";
     public static final String TABLE_REPLICATION_FACTOR = "accumulo.file.replication";
     public static final String ENABLE_VALIDATOR_ITERATOR = "gaffer.store.accumulo.enable.validator.iterator";
 
     // default values
     private static final String NUM_THREADS_FOR_BATCH_WRITER_DEFAULT = "10";
+    private static final String NUM_THREADS_FOR_ELEMENT_CONVERSION_DEFAULT = "1";
+    private static final String ELEMENT_CONVERSION_BATCH_SIZE_DEFAULT = "1000";
+    private static final String SHARED_BATCH_WRITER_DEFAULT = "false";
+    private static final String FLUSH_SHARED_BATCH_WRITER_AFTER_ADD_DEFAULT = "true";
+    private static final String COLUMN_VISIBILITY_CACHE_SIZE_DEFAULT = "1000";
     private static final String MAX_ENTRIES_FOR_BATCH_SCANNER_DEFAULT = "50000";
     private static final String CLIENT_SIDE_BLOOM_FILTER_SIZE_DEFAULT = "838860800";
     private static final String FALSE_POSITIVE_RATE_DEFAULT = "0.0002";
@@ -149,6 +159,110 @@ public class AccumuloProperties extends StoreProperties {
         return Long.parseLong(get(MAX_BUFFER_SIZE_FOR_BATCH_WRITER, MAX_BUFFER_SIZE_FOR_BATCH_WRITER_DEFAULT));
     }
 
+    /**
+     * Sets the number of threads that should be used to convert elements into
+     * Accumulo mutations when adding elements. If this is 1 the elements are
+     * converted on the thread adding them.
+     *
+     * @param numThreadsForElementConversion The number of threads to use to convert elements.
+     */
+    public void setNumThreadsForElementConversion(final String numThreadsForElementConversion) {
+        set(NUM_THREADS_FOR_ELEMENT_CONVERSION, numThreadsForElementConversion);
+    }
+
+    /**
+     * Gets the number of threads that should be used to convert elements into
+     * Accumulo mutations when adding elements.
+     *
+     * @return The number of threads to use to convert elements.
+     */
+    public int getNumThreadsForElementConversion() {
+        return Integer.parseInt(get(NUM_THREADS_FOR_ELEMENT_CONVERSION, NUM_THREADS_FOR_ELEMENT_CONVERSION_DEFAULT));
+    }
+
+    /**
+     * Sets the number of elements handed to each element conversion thread at
+     * a time.
+     *
+     * @param elementConversionBatchSize The number of elements in each conversion batch.
+     */
+    public void setElementConversionBatchSize(final String elementConversionBatchSize) {
+        set(ELEMENT_CONVERSION_BATCH_SIZE, elementConversionBatchSize);
+    }
+
+    /**
+     * Gets the number of elements handed to each element conversion thread at
+     * a time.
+     *
+     * @return The number of elements in each conversion batch.
+     */
+    public int getElementConversionBatchSize() {
+        return Integer.parseInt(get(ELEMENT_CONVERSION_BATCH_SIZE, ELEMENT_CONVERSION_BATCH_SIZE_DEFAULT));
+    }
+
+    /**
+     * Sets whether a single long lived Accumulo batch writer should be shared
+     * by all add elements operations, rather than creating a new batch writer
+     * for each operation.
+     *
+     * @param sharedBatchWriter true if the batch writer should be shared.
+     */
+    public void setSharedBatchWriter(final String sharedBatchWriter) {
+        set(SHARED_BATCH_WRITER, sharedBatchWriter);
+    }
+
+    /**
+     * Gets whether a single long lived Accumulo batch writer should be shared
+     * by all add elements operations.
+     *
+     * @return true if the batch writer should be shared.
+     */
+    public boolean getSharedBatchWriter() {
+        return Boolean.parseBoolean(get(SHARED_BATCH_WRITER, SHARED_BATCH_WRITER_DEFAULT));
+    }
+
+    /**
+     * Sets whether the shared batch writer should be flushed at the end of
+     * each add elements operation. If false, elements are written once the
+     * batch writer buffer is full or the batch writer time out is reached, so
+     * they may not be visible as soon as the operation completes.
+     *
+     * @param flushSharedBatchWriterAfterAdd true if the shared batch writer should be flushed after each add.
+     */
+    public void setFlushSharedBatchWriterAfterAdd(final String flushSharedBatchWriterAfterAdd) {
+        set(FLUSH_SHARED_BATCH_WRITER_AFTER_ADD, flushSharedBatchWriterAfterAdd);
+    }
+
+    /**
+     * Gets whether the shared batch writer should be flushed at the end of
+     * each add elements operation.
+     *
+     * @return true if the shared batch writer should be flushed after each add.
+     */
+    public boolean getFlushSharedBatchWriterAfterAdd() {
+        return Boolean.parseBoolean(get(FLUSH_SHARED_BATCH_WRITER_AFTER_ADD, FLUSH_SHARED_BATCH_WRITER_AFTER_ADD_DEFAULT));
+    }
+
+    /**
+     * Sets the maximum number of parsed column visibilities to cache when
+     * adding elements.
+     *
+     * @param columnVisibilityCacheSize The maximum number of column visibilities to cache.
+     */
+    public void setColumnVisibilityCacheSize(final String columnVisibilityCacheSize) {
+        set(COLUMN_VISIBILITY_CACHE_SIZE, columnVisibilityCacheSize);
+    }
+
+    /**
+     * Gets the maximum number of parsed column visibilities to cache when
+     * adding elements.
+     *
+     * @return The maximum number of column visibilities to cache.
+     */
+    public int getColumnVisibilityCacheSize() {
+        return Integer.parseInt(get(COLUMN_VISIBILITY_CACHE_SIZE, COLUMN_VISIBILITY_CACHE_SIZE_DEFAULT));
+    }
+
     /**
      * Gets the list of Zookeeper servers.
      *
@@ -39,6 +39,7 @@ import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.store.ElementValidator;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.util.DeserialisedJsonCache;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -92,7 +93,7 @@ public abstract class AbstractElementFilter extends Filter {
                      final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
 
-        schema = Schema.fromJson(StringUtil.toBytes(options.get(AccumuloStoreConstants.SCHEMA)));
+        schema = DeserialisedJsonCache.getSchema(StringUtil.toBytes(options.get(AccumuloStoreConstants.SCHEMA)));
 
         try {
             elementConverter = Class
@@ -114,7 +115,7 @@ public abstract class AbstractElementFilter extends Filter {
             if (null == viewJson) {
                 throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.VIEW);
             }
-            final View view = View.fromJson(StringUtil.toBytes(viewJson));
+            final View view = DeserialisedJsonCache.getView(StringUtil.toBytes(viewJson));
             if (filterType == ElementValidator.FilterType.PRE_AGGREGATION_FILTER) {
                 updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPreAggregationFilters);
                 elementPredicate = new ElementValidator(view)::validateInput;
@@ -16,6 +16,7 @@
 package uk.gov.gchq.gaffer.accumulostore.key.core;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 
@@ -26,11 +27,13 @@ import uk.gov.gchq.gaffer.accumulostore.utils.BytesAndRange;
 import uk.gov.gchq.gaffer.commonutil.ByteArrayEscapeUtils;
 import uk.gov.gchq.gaffer.commonutil.CommonConstants;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.CompactProperties;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.EdgeDirection;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.data.element.PropertySlots;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
@@ -45,12 +48,32 @@ import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.Iterator;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code AbstractCoreKeyAccumuloElementConverter} contains the key and value
+ * encoding shared by the core key packages.
+ * <p>
+ * To keep allocations down when converting large numbers of elements, the
+ * property serialisers for each group are resolved once and cached, column
+ * qualifiers and values are encoded into a reusable thread local buffer and
+ * properties are decoded directly from the backing arrays of the {@link Key}
+ * and {@link Value} into the element being created. Elements and properties
+ * are created with {@link CompactProperties} using the group's schema
+ * property slots, so decoded properties are stored by slot index.
+ * </p>
+ */
 @SuppressWarnings("unchecked")
 public abstract class AbstractCoreKeyAccumuloElementConverter implements AccumuloElementConverter {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
     protected final Schema schema;
 
+    private final Map<String, GroupSerialisers> groupSerialisers = new ConcurrentHashMap<>();
+    private final ThreadLocal<ByteArrayOutputStream> buffers = ThreadLocal.withInitial(() -> new ByteArrayOutputStream(INITIAL_BUFFER_SIZE));
+
     public AbstractCoreKeyAccumuloElementConverter(final Schema schema) {
         this.schema = schema;
     }
@@ -109,19 +132,10 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         return new Key(rowKey, columnFamily, columnQualifier, columnVisibility, timeStamp);
     }
 
-    @SuppressWarnings("Convert2streamapi")
     @Override
     public Value getValueFromProperties(final String group, final Properties properties) {
-        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
-
-        for (final String propertyName : elementDefinition.getProperties()) {
-            if (isStoredInValue(propertyName, elementDefinition)) {
-                serialiseSizeAndPropertyValue(propertyName, elementDefinition, properties, stream);
-            }
-        }
-
-        return new Value(stream.toByteArray());
+        final GroupSerialisers serialisers = getGroupSerialisers(group);
+        return new Value(serialiseSizesAndPropertyValues(serialisers.valuePropertyNames, serialisers.valueSerialisers, properties));
     }
 
     @Override
@@ -131,25 +145,26 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
 
     @Override
     public Properties getPropertiesFromValue(final String group, final Value value) {
-        final Properties properties = new Properties();
+        final Properties properties = createProperties(group);
+        addPropertiesFromValue(group, value, properties);
+        return properties;
+    }
+
+    /**
+     * Deserialises the properties stored in the {@link Value} and adds them
+     * to the provided {@link Properties}, reading directly from the value's
+     * backing array.
+     *
+     * @param group      the element group
+     * @param value      the value containing the serialised properties
+     * @param properties the properties to add the deserialised properties to
+     */
+    public void addPropertiesFromValue(final String group, final Value value, final Properties properties) {
         if (isNotEmpty(value)) {
             final byte[] bytes = value.get();
-            int delimiterPosition = 0;
-            final int arrayLength = bytes.length;
-            final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
-            final Iterator<String> propertyNames = elementDefinition.getProperties().iterator();
-            while (propertyNames.hasNext() && delimiterPosition < arrayLength) {
-                final String propertyName = propertyNames.next();
-                try {
-                    if (isStoredInValue(propertyName, elementDefinition)) {
-                        delimiterPosition = addDeserialisedProperty(bytes, delimiterPosition, properties, elementDefinition, propertyName);
-                    }
-                } catch (final SerialisationException e) {
-                    throw new AccumuloElementConversionException("Failed to deserialise property " + propertyName, e);
-                }
-            }
+            final GroupSerialisers serialisers = getGroupSerialisers(group);
+            deserialisePropertyValues(serialisers, serialisers.valuePropertyNames, serialisers.valuePropertySlots, serialisers.valueSerialisers, bytes, 0, bytes.length, properties);
         }
-        return properties;
     }
 
     @Override
@@ -165,7 +180,7 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
     @Override
     public Element getFullElement(final Key key, final Value value, final boolean includeMatchedVertex) {
         final Element element = getElementFromKey(key, includeMatchedVertex);
-        element.copyProperties(getPropertiesFromValue(element.getGroup(), value));
+        addPropertiesFromValue(element.getGroup(), value, element.getProperties());
         return element;
     }
 
@@ -200,12 +215,11 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
     @Override
     public byte[] buildColumnVisibility(final String group, final Properties properties) {
         byte[] rtn = AccumuloStoreConstants.EMPTY_BYTES;
-        final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
-        if (null != schema.getVisibilityProperty()) {
-            final TypeDefinition propertyDef = elementDefinition.getPropertyTypeDef(schema.getVisibilityProperty());
-            if (null != propertyDef) {
+        final GroupSerialisers serialisers = getGroupSerialisers(group);
+        if (serialisers.hasVisibilityProperty) {
+            final ToBytesSerialiser serialiser = serialisers.visibilitySerialiser;
+            if (null != serialiser) {
                 final Object property = properties.get(schema.getVisibilityProperty());
-                final ToBytesSerialiser serialiser = (ToBytesSerialiser) propertyDef.getSerialiser();
                 if (null != property) {
                     try {
                         rtn = serialiser.serialise(property);
@@ -222,42 +236,128 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
 
     @Override
     public Properties getPropertiesFromColumnVisibility(final String group, final byte[] columnVisibility) {
-        final Properties properties = new Properties();
-
-        final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
+        final Properties properties = createProperties(group);
+        final int length = null == columnVisibility ? 0 : columnVisibility.length;
+        addPropertiesFromColumnVisibility(group, columnVisibility, 0, length, properties);
+        return properties;
+    }
 
-        if (null != schema.getVisibilityProperty()) {
-            final TypeDefinition propertyDef = elementDefinition.getPropertyTypeDef(schema.getVisibilityProperty());
-            if (null != propertyDef) {
-                final ToBytesSerialiser serialiser = (ToBytesSerialiser) propertyDef.getSerialiser();
+    /**
+     * Deserialises the visibility property from a range of a column
+     * visibility byte array and adds it to the provided {@link Properties}.
+     *
+     * @param group      the element group
+     * @param bytes      the array containing the column visibility
+     * @param offset     the offset of the column visibility in the array
+     * @param length     the length of the column visibility
+     * @param properties the properties to add the visibility property to
+     */
+    public void addPropertiesFromColumnVisibility(final String group, final byte[] bytes, final int offset, final int length, final Properties properties) {
+        final GroupSerialisers serialisers = getGroupSerialisers(group);
+        if (serialisers.hasVisibilityProperty) {
+            final ToBytesSerialiser serialiser = serialisers.visibilitySerialiser;
+            if (null != serialiser) {
                 try {
-                    if (null == columnVisibility || columnVisibility.length == 0) {
+                    if (null == bytes || 0 == length) {
                         final Object value = serialiser.deserialiseEmpty();
                         if (null != value) {
                             properties.put(schema.getVisibilityProperty(), value);
                         }
+                    } else if (0 == offset && bytes.length == length) {
+                        properties.put(schema.getVisibilityProperty(), serialiser.deserialise(bytes));
                     } else {
-                        properties.put(schema.getVisibilityProperty(), serialiser.deserialise(columnVisibility));
+                        properties.put(schema.getVisibilityProperty(), serialiser.deserialise(bytes, offset, length));
                     }
                 } catch (final SerialisationException e) {
                     throw new AccumuloElementConversionException(e.getMessage(), e);
                 }
             }
         }
-
-        return properties;
     }
 
     @Override
     public byte[] buildColumnQualifier(final String group, final Properties properties) {
-        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
+        final GroupSerialisers serialisers = getGroupSerialisers(group);
+        return serialiseSizesAndPropertyValues(serialisers.groupByPropertyNames, serialisers.groupBySerialisers, properties);
+    }
 
-        for (final String groupByPropertyName : elementDefinition.getGroupBy()) {
-            serialiseSizeAndPropertyValue(groupByPropertyName, elementDefinition, properties, stream);
+    /**
+     * Creates empty {@link Properties} for an element of the given group, with
+     * slots for the properties defined in the schema.
+     *
+     * @param group the element group
+     * @return the new properties
+     */
+    protected Properties createProperties(final String group) {
+        return new CompactProperties(getGroupSerialisers(group).propertySlots);
+    }
+
+    private GroupSerialisers getGroupSerialisers(final String group) {
+        GroupSerialisers serialisers = groupSerialisers.get(group);
+        if (null == serialisers) {
+            serialisers = new GroupSerialisers(getSchemaElementDefinition(group));
+            groupSerialisers.put(group, serialisers);
+        }
+        return serialisers;
+    }
+
+    private byte[] serialiseSizesAndPropertyValues(final String[] propertyNames, final ToBytesSerialiser[] serialisers, final Properties properties) {
+        final ByteArrayOutputStream buffer = buffers.get();
+        buffer.reset();
+        for (int i = 0; i < propertyNames.length; i++) {
+            final ToBytesSerialiser serialiser = serialisers[i];
+            try {
+                final byte[] bytes;
+                if (null == serialiser) {
+                    bytes = AccumuloStoreConstants.EMPTY_BYTES;
+                } else {
+                    final Object value = properties.get(propertyNames[i]);
+                    //serialiseNull could be different to AccumuloStoreConstants.EMPTY_BYTES
+                    bytes = (null == value) ? serialiser.serialiseNull() : serialiser.serialise(value);
+                }
+                CompactRawSerialisationUtils.write(bytes.length, buffer);
+                buffer.write(bytes, 0, bytes.length);
+            } catch (final SerialisationException e) {
+                throw new AccumuloElementConversionException("Failed to write serialised property to ByteArrayOutputStream" + propertyNames[i], e);
+            }
         }
 
-        return stream.toByteArray();
+        final byte[] result = buffer.toByteArray();
+        if (result.length > MAX_RETAINED_BUFFER_SIZE) {
+            // Don't hold on to unusually large buffers
+            buffers.remove();
+        }
+        return result;
+    }
+
+    private void deserialisePropertyValues(final GroupSerialisers groupSerialisers, final String[] propertyNames, final int[] propertySlots,
+                                           final ToBytesSerialiser[] serialisers, final byte[] bytes, final int offset, final int length,
+                                           final Properties properties) {
+        // Put the properties by slot index if they share the group's slot layout
+        final CompactProperties compactProperties = properties instanceof CompactProperties
+                && groupSerialisers.propertySlots.equals(((CompactProperties) properties).getSlots())
+                ? (CompactProperties) properties : null;
+        int delimiterPosition = offset;
+        final int end = offset + length;
+        for (int i = 0; i < propertyNames.length && delimiterPosition < end; i++) {
+            final ToBytesSerialiser serialiser = serialisers[i];
+            if (null != serialiser) {
+                try {
+                    final int numBytesForLength = CompactRawSerialisationUtils.decodeVIntSize(bytes[delimiterPosition]);
+                    final int currentPropLength = getCurrentPropLength(bytes, delimiterPosition);
+                    final int from = delimiterPosition + numBytesForLength;
+                    delimiterPosition = from + currentPropLength;
+                    final Object value = getDeserialisedObject(serialiser, bytes, from, currentPropLength);
+                    if (null != compactProperties) {
+                        compactProperties.put(propertySlots[i], value);
+                    } else {
+                        properties.put(propertyNames[i], value);
+                    }
+                } catch (final SerialisationException e) {
+                    throw new AccumuloElementConversionException("Failed to deserialise property " + propertyNames[i], e);
+                }
+            }
+        }
     }
 
     private SchemaElementDefinition getSchemaElementDefinition(final String group) {
@@ -288,45 +388,35 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
 
     @Override
     public Properties getPropertiesFromColumnQualifier(final String group, final byte[] bytes) {
-        final Properties properties = new Properties();
-        if (null != bytes && bytes.length != 0) {
-            int delimiterPosition = 0;
-            final int arrayLength = bytes.length;
-            final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
-            final Iterator<String> propertyNames = elementDefinition.getGroupBy().iterator();
-            while (propertyNames.hasNext() && delimiterPosition < arrayLength) {
-                final String propertyName = propertyNames.next();
-                try {
-                    delimiterPosition = addDeserialisedProperty(bytes, delimiterPosition, properties, elementDefinition, propertyName);
-                } catch (final SerialisationException e) {
-                    throw new AccumuloElementConversionException("Failed to deserialise property " + propertyName, e);
-                }
-            }
+        final Properties properties = createProperties(group);
+        if (null != bytes) {
+            addPropertiesFromColumnQualifier(group, bytes, 0, bytes.length, properties);
         }
         return properties;
     }
 
-    private int addDeserialisedProperty(final byte[] bytes, final int carriage, final Properties properties, final SchemaElementDefinition elementDefinition, final String propertyName) throws SerialisationException {
-        int rtn = carriage;
-        final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyName);
-        final ToBytesSerialiser serialiser = (null != typeDefinition) ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
-        if (null != serialiser) {
-            final int numBytesForLength = CompactRawSerialisationUtils.decodeVIntSize(bytes[rtn]);
-            final int currentPropLength = getCurrentPropLength(bytes, rtn);
-            int from = rtn += numBytesForLength;
-            rtn += currentPropLength;
-            Object deserialisedObject = getDeserialisedObject(serialiser, bytes, from, currentPropLength);
-            properties.put(propertyName, deserialisedObject);
+    /**
+     * Deserialises the group by properties from a range of a column qualifier
+     * byte array and adds them to the provided {@link Properties}.
+     *
+     * @param group      the element group
+     * @param bytes      the array containing the column qualifier
+     * @param offset     the offset of the column qualifier in the array
+     * @param length     the length of the column qualifier
+     * @param properties the properties to add the group by properties to
+     */
+    public void addPropertiesFromColumnQualifier(final String group, final byte[] bytes, final int offset, final int length, final Properties properties) {
+        if (null != bytes && 0 != length) {
+            final GroupSerialisers serialisers = getGroupSerialisers(group);
+            deserialisePropertyValues(serialisers, serialisers.groupByPropertyNames, serialisers.groupByPropertySlots, serialisers.groupBySerialisers, bytes, offset, length, properties);
         }
-        return rtn;
     }
 
     @Override
     public BytesAndRange getPropertiesAsBytesFromColumnQualifier(final String group, final byte[] bytes, final int numProps) {
         BytesAndRange rtn = new BytesAndRange(bytes, 0, 0);
         if (isColumnQualifierBytesValid(bytes, numProps)) {
-            final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
-            if (numProps == elementDefinition.getProperties().size()) {
+            if (numProps == getGroupSerialisers(group).numProperties) {
                 rtn = new BytesAndRange(bytes, 0, bytes.length);
             } else {
                 int delimiterPosition = 0;
@@ -373,14 +463,24 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
      */
     @Override
     public Properties getPropertiesFromTimestamp(final String group, final long timestamp) {
-        final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
+        final Properties properties = createProperties(group);
+        addPropertiesFromTimestamp(group, timestamp, properties);
+        return properties;
+    }
 
-        final Properties properties = new Properties();
+    /**
+     * Adds the timestamp property to the provided {@link Properties}, if the
+     * element group requires one.
+     *
+     * @param group      the element group
+     * @param timestamp  the element timestamp property
+     * @param properties the properties to add the timestamp property to
+     */
+    public void addPropertiesFromTimestamp(final String group, final long timestamp, final Properties properties) {
         // If the element group requires a timestamp property then add it.
-        if (null != schema.getTimestampProperty() && elementDefinition.containsProperty(schema.getTimestampProperty())) {
+        if (getGroupSerialisers(group).hasTimestampProperty) {
             properties.put(schema.getTimestampProperty(), timestamp);
         }
-        return properties;
     }
 
     @Override
@@ -430,12 +530,12 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
     }
 
     protected void addPropertiesToElement(final Element element, final Key key) {
-        element.copyProperties(
-                getPropertiesFromColumnQualifier(element.getGroup(), key.getColumnQualifierData().getBackingArray()));
-        element.copyProperties(
-                getPropertiesFromColumnVisibility(element.getGroup(), key.getColumnVisibilityData().getBackingArray()));
-        element.copyProperties(
-                getPropertiesFromTimestamp(element.getGroup(), key.getTimestamp()));
+        final Properties properties = element.getProperties();
+        final ByteSequence columnQualifier = key.getColumnQualifierData();
+        addPropertiesFromColumnQualifier(element.getGroup(), columnQualifier.getBackingArray(), columnQualifier.offset(), columnQualifier.length(), properties);
+        final ByteSequence columnVisibility = key.getColumnVisibilityData();
+        addPropertiesFromColumnVisibility(element.getGroup(), columnVisibility.getBackingArray(), columnVisibility.offset(), columnVisibility.length(), properties);
+        addPropertiesFromTimestamp(element.getGroup(), key.getTimestamp(), properties);
     }
 
     @SuppressWarnings("WeakerAccess")
@@ -459,7 +559,7 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         }
         try {
             final Edge edge = new Edge(group, ((ToBytesSerialiser) schema.getVertexSerialiser()).deserialise(result[0]),
-                    ((ToBytesSerialiser) schema.getVertexSerialiser()).deserialise(result[1]), direction.isDirected(), matchedVertex, null);
+                    ((ToBytesSerialiser) schema.getVertexSerialiser()).deserialise(result[1]), direction.isDirected(), matchedVertex, createProperties(group));
             addPropertiesToElement(edge, key);
             return edge;
         } catch (final SerialisationException e) {
@@ -527,4 +627,60 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         }
     }
 
+    /**
+     * The property names and serialisers for a group, in the order they are
+     * serialised, resolved once from the schema.
+     */
+    private final class GroupSerialisers {
+        private final int numProperties;
+        private final PropertySlots propertySlots;
+        private final String[] groupByPropertyNames;
+        private final int[] groupByPropertySlots;
+        private final ToBytesSerialiser[] groupBySerialisers;
+        private final String[] valuePropertyNames;
+        private final int[] valuePropertySlots;
+        private final ToBytesSerialiser[] valueSerialisers;
+        private final boolean hasVisibilityProperty;
+        private final ToBytesSerialiser visibilitySerialiser;
+        private final boolean hasTimestampProperty;
+
+        private GroupSerialisers(final SchemaElementDefinition elementDefinition) {
+            numProperties = elementDefinition.getProperties().size();
+            propertySlots = elementDefinition.getPropertySlots();
+
+            groupByPropertyNames = elementDefinition.getGroupBy().toArray(new String[elementDefinition.getGroupBy().size()]);
+            groupByPropertySlots = getSlots(groupByPropertyNames);
+            groupBySerialisers = getSerialisers(groupByPropertyNames, elementDefinition);
+
+            valuePropertyNames = elementDefinition.getProperties()
+                    .stream()
+                    .filter(propertyName -> isStoredInValue(propertyName, elementDefinition))
+                    .toArray(String[]::new);
+            valuePropertySlots = getSlots(valuePropertyNames);
+            valueSerialisers = getSerialisers(valuePropertyNames, elementDefinition);
+
+            hasVisibilityProperty = null != schema.getVisibilityProperty();
+            final TypeDefinition visibilityTypeDef = hasVisibilityProperty ? elementDefinition.getPropertyTypeDef(schema.getVisibilityProperty()) : null;
+            visibilitySerialiser = null != visibilityTypeDef ? (ToBytesSerialiser) visibilityTypeDef.getSerialiser() : null;
+
+            hasTimestampProperty = null != schema.getTimestampProperty() && elementDefinition.containsProperty(schema.getTimestampProperty());
+        }
+
+        private int[] getSlots(final String[] propertyNames) {
+            final int[] slots = new int[propertyNames.length];
+            for (int i = 0; i < propertyNames.length; i++) {
+                slots[i] = propertySlots.getIndex(propertyNames[i]);
+            }
+            return slots;
+        }
+
+        private ToBytesSerialiser[] getSerialisers(final String[] propertyNames, final SchemaElementDefinition elementDefinition) {
+            final ToBytesSerialiser[] serialisers = new ToBytesSerialiser[propertyNames.length];
+            for (int i = 0; i < propertyNames.length; i++) {
+                final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyNames[i]);
+                serialisers[i] = null != typeDefinition ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
+            }
+            return serialisers;
+        }
+    }
 }
@@ -128,8 +128,9 @@ public class ByteEntityAccumuloElementConverter extends AbstractCoreKeyAccumuloE
     @Override
     protected Entity getEntityFromKey(final Key key, final byte[] row) {
         try {
-            final Entity entity = new Entity(getGroupFromKey(key), ((ToBytesSerialiser) schema.getVertexSerialiser())
-                    .deserialise(ByteArrayEscapeUtils.unEscape(row, 0, row.length - 2)));
+            final String group = getGroupFromKey(key);
+            final Entity entity = new Entity(group, ((ToBytesSerialiser) schema.getVertexSerialiser())
+                    .deserialise(ByteArrayEscapeUtils.unEscape(row, 0, row.length - 2)), createProperties(group));
             addPropertiesToElement(entity, key);
             return entity;
         } catch (final SerialisationException e) {
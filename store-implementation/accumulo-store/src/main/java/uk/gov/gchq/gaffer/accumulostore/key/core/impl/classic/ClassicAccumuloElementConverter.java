@@ -127,8 +127,9 @@ public class ClassicAccumuloElementConverter extends AbstractCoreKeyAccumuloElem
     @Override
     protected Entity getEntityFromKey(final Key key, final byte[] row) {
         try {
-            final Entity entity = new Entity(getGroupFromKey(key), ((ToBytesSerialiser) schema.getVertexSerialiser())
-                    .deserialise(ByteArrayEscapeUtils.unEscape(row)));
+            final String group = getGroupFromKey(key);
+            final Entity entity = new Entity(group, ((ToBytesSerialiser) schema.getVertexSerialiser())
+                    .deserialise(ByteArrayEscapeUtils.unEscape(row)), createProperties(group));
             addPropertiesToElement(entity, key);
             return entity;
         } catch (final SerialisationException e) {
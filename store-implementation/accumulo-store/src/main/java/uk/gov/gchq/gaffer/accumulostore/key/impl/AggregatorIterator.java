@@ -32,6 +32,7 @@ import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.DeserialisedJsonCache;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -93,7 +94,7 @@ public class AggregatorIterator extends Combiner {
                      final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
         try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
+            schema = DeserialisedJsonCache.getSchema(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
         } catch (final UnsupportedEncodingException e) {
             throw new SchemaException("Unable to deserialise the schema from json", e);
         }
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.store.StoreException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An {@code AccumuloElementWriter} converts {@link Element}s into Accumulo
+ * {@link Mutation}s and writes them to an {@link AccumuloStore}'s table.
+ * <p>
+ * The behaviour is configured using the store's
+ * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties}:
+ * </p>
+ * <ul>
+ * <li>If more than 1 element conversion thread is configured, batches of
+ * elements are converted into mutations on a pool of threads, with a bounded
+ * number of batches in flight.</li>
+ * <li>If the batch writer is shared, a single long lived {@link BatchWriter}
+ * is used for all writes, and is optionally flushed at the end of each write.
+ * If it rejects mutations a new shared batch writer is used for subsequent
+ * writes, and the old one is closed once the writes using it have finished.
+ * Otherwise a new batch writer is created and closed for each write.</li>
+ * <li>Parsed {@link ColumnVisibility}s are cached, as most elements
+ * share a small number of visibilities.</li>
+ * </ul>
+ * <p>
+ * Elements that cannot be converted and mutations rejected by Accumulo are
+ * counted rather than failing the whole write.
+ * </p>
+ */
+public class AccumuloElementWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccumuloElementWriter.class);
+    private static final ColumnVisibility EMPTY_VISIBILITY = new ColumnVisibility();
+
+    private final AccumuloStore store;
+    private final AccumuloElementConverter converter;
+    private final int numConversionThreads;
+    private final int conversionBatchSize;
+    private final boolean sharedBatchWriter;
+    private final boolean flushAfterWrite;
+    private final int visibilityCacheSize;
+    private final Map<ByteSequence, ColumnVisibility> visibilityCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong elementsWritten = new AtomicLong();
+    private final AtomicLong elementConversionFailures = new AtomicLong();
+    private final AtomicLong mutationsRejected = new AtomicLong();
+
+    private ExecutorService conversionExecutor;
+    private SharedBatchWriter writer;
+
+    public AccumuloElementWriter(final AccumuloStore store) {
+        this.store = store;
+        this.converter = store.getKeyPackage().getKeyConverter();
+        this.numConversionThreads = store.getProperties().getNumThreadsForElementConversion();
+        this.conversionBatchSize = store.getProperties().getElementConversionBatchSize();
+        this.sharedBatchWriter = store.getProperties().getSharedBatchWriter();
+        this.flushAfterWrite = store.getProperties().getFlushSharedBatchWriterAfterAdd();
+        this.visibilityCacheSize = store.getProperties().getColumnVisibilityCacheSize();
+        if (numConversionThreads < 1) {
+            throw new IllegalArgumentException("The number of element conversion threads must be at least 1");
+        }
+        if (conversionBatchSize < 1) {
+            throw new IllegalArgumentException("The element conversion batch size must be at least 1");
+        }
+    }
+
+    /**
+     * Converts the elements into mutations and writes them to Accumulo.
+     *
+     * @param elements the elements to write
+     * @throws StoreException if a batch writer could not be created
+     */
+    public void write(final Iterable<? extends Element> elements) throws StoreException {
+        if (sharedBatchWriter) {
+            final SharedBatchWriter shared = acquireSharedBatchWriter(true);
+            try {
+                write(elements, shared.batchWriter);
+            } finally {
+                if (flushAfterWrite) {
+                    flush(shared.batchWriter);
+                }
+                releaseSharedBatchWriter(shared);
+            }
+        } else {
+            final BatchWriter batchWriter = createBatchWriter();
+            try {
+                write(elements, batchWriter);
+            } finally {
+                try {
+                    batchWriter.close();
+                } catch (final MutationsRejectedException e) {
+                    recordRejection(e);
+                    LOGGER.warn("Accumulo batch writer failed to close", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes the shared batch writer, if there is one.
+     */
+    public void flush() {
+        final SharedBatchWriter shared;
+        try {
+            shared = acquireSharedBatchWriter(false);
+        } catch (final StoreException e) {
+            // A batch writer is never created when acquiring the existing one
+            throw new RuntimeException(e);
+        }
+        if (null != shared) {
+            try {
+                flush(shared.batchWriter);
+            } finally {
+                releaseSharedBatchWriter(shared);
+            }
+        }
+    }
+
+    /**
+     * Closes the shared batch writer, if there is one, and stops the element
+     * conversion threads. If the shared batch writer is still being used by a
+     * write, it is closed when that write finishes.
+     */
+    public synchronized void close() {
+        if (null != writer) {
+            retireSharedBatchWriter(writer);
+            writer = null;
+        }
+        if (null != conversionExecutor) {
+            conversionExecutor.shutdown();
+            conversionExecutor = null;
+        }
+    }
+
+    /**
+     * @return the number of elements converted and passed to the batch writer
+     */
+    public long getElementsWritten() {
+        return elementsWritten.get();
+    }
+
+    /**
+     * @return the number of elements that could not be converted into mutations
+     */
+    public long getElementConversionFailures() {
+        return elementConversionFailures.get();
+    }
+
+    /**
+     * @return the number of mutations rejected by Accumulo
+     */
+    public long getMutationsRejected() {
+        return mutationsRejected.get();
+    }
+
+    /**
+     * Creates a new batch writer for the store's table.
+     *
+     * @return the new batch writer
+     * @throws StoreException if the batch writer could not be created
+     */
+    protected BatchWriter createBatchWriter() throws StoreException {
+        return TableUtils.createBatchWriter(store);
+    }
+
+    private void write(final Iterable<? extends Element> elements, final BatchWriter batchWriter) {
+        if (numConversionThreads > 1) {
+            writeConcurrently(elements, batchWriter);
+        } else {
+            for (final Element element : elements) {
+                write(element, batchWriter);
+            }
+        }
+    }
+
+    private void flush(final BatchWriter batchWriter) {
+        try {
+            batchWriter.flush();
+        } catch (final MutationsRejectedException e) {
+            recordRejection(e);
+            discardSharedBatchWriter(batchWriter);
+            LOGGER.warn("Accumulo batch writer failed to flush", e);
+        }
+    }
+
+    private void writeConcurrently(final Iterable<? extends Element> elements, final BatchWriter batchWriter) {
+        final ExecutorService executor = getConversionExecutor();
+        // Limit the number of batches in memory at any one time
+        final int maxBatchesInFlight = 2 * numConversionThreads;
+        final Semaphore permits = new Semaphore(maxBatchesInFlight);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        try {
+            List<Element> batch = new ArrayList<>(conversionBatchSize);
+            for (final Element element : elements) {
+                if (null != failure.get()) {
+                    break;
+                }
+                batch.add(element);
+                if (batch.size() >= conversionBatchSize) {
+                    submit(batch, batchWriter, executor, permits, failure);
+                    batch = new ArrayList<>(conversionBatchSize);
+                }
+            }
+            if (!batch.isEmpty() && null == failure.get()) {
+                submit(batch, batchWriter, executor, permits, failure);
+            }
+        } finally {
+            // Wait for all batches to complete, even if reading the elements
+            // failed, so the batch writer is not closed whilst still in use
+            permits.acquireUninterruptibly(maxBatchesInFlight);
+            permits.release(maxBatchesInFlight);
+        }
+        if (null != failure.get()) {
+            throw failure.get();
+        }
+    }
+
+    private void submit(final List<Element> batch, final BatchWriter batchWriter, final ExecutorService executor,
+                        final Semaphore permits, final AtomicReference<RuntimeException> failure) {
+        permits.acquireUninterruptibly();
+        final Runnable task = () -> {
+            try {
+                for (final Element element : batch) {
+                    write(element, batchWriter);
+                }
+            } catch (final RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                permits.release();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void write(final Element element, final BatchWriter batchWriter) {
+        final Pair<Key, Key> keys;
+        try {
+            keys = converter.getKeysFromElement(element);
+        } catch (final AccumuloElementConversionException e) {
+            elementConversionFailures.incrementAndGet();
+            LOGGER.error(AccumuloStore.FAILED_TO_CREATE_AN_ACCUMULO_FROM_ELEMENT_OF_TYPE_WHEN_TRYING_TO_INSERT_ELEMENTS, "key", element.getGroup());
+            return;
+        }
+        final Value value;
+        try {
+            value = converter.getValueFromElement(element);
+        } catch (final AccumuloElementConversionException e) {
+            elementConversionFailures.incrementAndGet();
+            LOGGER.error(AccumuloStore.FAILED_TO_CREATE_AN_ACCUMULO_FROM_ELEMENT_OF_TYPE_WHEN_TRYING_TO_INSERT_ELEMENTS, "value", element.getGroup());
+            return;
+        }
+
+        addMutation(createMutation(keys.getFirst(), value), batchWriter);
+        // If the GraphElement is a Vertex then there will only be 1 key,
+        // and the second will be null.
+        // If the GraphElement is an Edge then there will be 2 keys.
+        if (null != keys.getSecond()) {
+            addMutation(createMutation(keys.getSecond(), value), batchWriter);
+        }
+        elementsWritten.incrementAndGet();
+    }
+
+    private Mutation createMutation(final Key key, final Value value) {
+        final Mutation mutation = new Mutation(key.getRow());
+        mutation.put(key.getColumnFamily(), key.getColumnQualifier(), getColumnVisibility(key), key.getTimestamp(), value);
+        return mutation;
+    }
+
+    private ColumnVisibility getColumnVisibility(final Key key) {
+        final ByteSequence visibility = key.getColumnVisibilityData();
+        if (0 == visibility.length()) {
+            return EMPTY_VISIBILITY;
+        }
+
+        ColumnVisibility columnVisibility = visibilityCache.get(visibility);
+        if (null == columnVisibility) {
+            columnVisibility = new ColumnVisibility(visibility.toArray());
+            if (visibilityCache.size() >= visibilityCacheSize) {
+                visibilityCache.clear();
+            }
+            visibilityCache.put(visibility, columnVisibility);
+        }
+        return columnVisibility;
+    }
+
+    private void addMutation(final Mutation mutation, final BatchWriter batchWriter) {
+        try {
+            batchWriter.addMutation(mutation);
+        } catch (final MutationsRejectedException e) {
+            recordRejection(e);
+            if (sharedBatchWriter) {
+                discardSharedBatchWriter(batchWriter);
+            }
+            LOGGER.error("Failed to create an accumulo key mutation");
+        }
+    }
+
+    private void recordRejection(final MutationsRejectedException e) {
+        final long rejected = mutationsRejected.addAndGet(Math.max(1, e.size()));
+        LOGGER.debug("Accumulo rejected mutations, {} mutations have been rejected in total", rejected, e);
+    }
+
+    // Returns the shared batch writer, creating it if required, and records
+    // that it is in use until it is released.
+    private synchronized SharedBatchWriter acquireSharedBatchWriter(final boolean create) throws StoreException {
+        if (null == writer) {
+            if (!create) {
+                return null;
+            }
+            writer = new SharedBatchWriter(createBatchWriter());
+        }
+        writer.users++;
+        return writer;
+    }
+
+    private synchronized void releaseSharedBatchWriter(final SharedBatchWriter shared) {
+        shared.users--;
+        if (shared.retired && 0 == shared.users) {
+            closeSharedBatchWriter(shared);
+        }
+    }
+
+    // Once a batch writer has rejected mutations it cannot be used again, so
+    // a new shared batch writer is created for the next write. Other writes
+    // may still be using the old batch writer, so it is only closed once they
+    // have released it.
+    private synchronized void discardSharedBatchWriter(final BatchWriter batchWriter) {
+        if (null != writer && batchWriter == writer.batchWriter) {
+            writer.rejected = true;
+            retireSharedBatchWriter(writer);
+            writer = null;
+        }
+    }
+
+    private synchronized void retireSharedBatchWriter(final SharedBatchWriter shared) {
+        shared.retired = true;
+        if (0 == shared.users) {
+            closeSharedBatchWriter(shared);
+        }
+    }
+
+    private void closeSharedBatchWriter(final SharedBatchWriter shared) {
+        try {
+            shared.batchWriter.close();
+        } catch (final MutationsRejectedException e) {
+            if (!shared.rejected) {
+                recordRejection(e);
+                LOGGER.warn("Accumulo batch writer failed to close", e);
+            }
+            // otherwise the rejections have already been recorded
+        }
+    }
+
+    private synchronized ExecutorService getConversionExecutor() {
+        if (null == conversionExecutor) {
+            conversionExecutor = Executors.newFixedThreadPool(numConversionThreads, runnable -> {
+                final Thread thread = new Thread(runnable, "AccumuloElementConversion-" + store.getGraphId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return conversionExecutor;
+    }
+
+    /**
+     * A shared {@link BatchWriter} and the number of writes using it.
+     */
+    private static final class SharedBatchWriter {
+        private final BatchWriter batchWriter;
+        private int users;
+        private boolean retired;
+        private boolean rejected;
+
+        private SharedBatchWriter(final BatchWriter batchWriter) {
+            this.batchWriter = batchWriter;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import uk.gov.gchq.gaffer.sketches.serialisation.json.SketchesJsonModules;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class AccumuloPropertiesTest {
@@ -69,6 +70,9 @@ public class AccumuloPropertiesTest {
         final String MAX_BLOOM_FILTER = "7864320";
         final String KEY_PACKAGE_CLASS = "gaffer.store.accumulo.keypackage.class";
         final String REPLICATION_FACTOR = "accumulo.file.replication";
+        final String NUM_THREADS_CONVERSION = "4";
+        final String CONVERSION_BATCH_SIZE = "500";
+        final String VISIBILITY_CACHE_SIZE = "50";
 
         // When
         props.setNumThreadsForBatchWriter(NUM_THREADS_WRITER);
@@ -83,6 +87,11 @@ public class AccumuloPropertiesTest {
         props.setKeyPackageClass(KEY_PACKAGE_CLASS);
         props.setTableFileReplicationFactor(REPLICATION_FACTOR);
         props.setEnableValidatorIterator(true);
+        props.setNumThreadsForElementConversion(NUM_THREADS_CONVERSION);
+        props.setElementConversionBatchSize(CONVERSION_BATCH_SIZE);
+        props.setSharedBatchWriter("true");
+        props.setFlushSharedBatchWriterAfterAdd("false");
+        props.setColumnVisibilityCacheSize(VISIBILITY_CACHE_SIZE);
 
         // Then
         assertEquals(Integer.parseInt(NUM_THREADS_WRITER), props.getNumThreadsForBatchWriter());
@@ -97,6 +106,11 @@ public class AccumuloPropertiesTest {
         assertEquals(KEY_PACKAGE_CLASS, props.getKeyPackageClass());
         assertEquals(REPLICATION_FACTOR, props.getTableFileReplicationFactor());
         assertTrue(props.getEnableValidatorIterator());
+        assertEquals(Integer.parseInt(NUM_THREADS_CONVERSION), props.getNumThreadsForElementConversion());
+        assertEquals(Integer.parseInt(CONVERSION_BATCH_SIZE), props.getElementConversionBatchSize());
+        assertTrue(props.getSharedBatchWriter());
+        assertFalse(props.getFlushSharedBatchWriterAfterAdd());
+        assertEquals(Integer.parseInt(VISIBILITY_CACHE_SIZE), props.getColumnVisibilityCacheSize());
 
     }
 
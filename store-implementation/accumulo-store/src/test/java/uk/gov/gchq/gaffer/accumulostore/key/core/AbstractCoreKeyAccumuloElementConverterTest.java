@@ -16,9 +16,11 @@
 package uk.gov.gchq.gaffer.accumulostore.key.core;
 
 import com.google.common.primitives.Bytes;
+import org.apache.accumulo.core.data.Value;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.accumulostore.key.AbstractAccumuloElementConverterTest;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloPropertyNames;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.EdgeDirection;
@@ -32,6 +34,7 @@ import java.io.ByteArrayOutputStream;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public abstract class AbstractCoreKeyAccumuloElementConverterTest extends AbstractAccumuloElementConverterTest<AbstractCoreKeyAccumuloElementConverter> {
 
@@ -127,6 +130,48 @@ public abstract class AbstractCoreKeyAccumuloElementConverterTest extends Abstra
         assertEquals(EdgeDirection.UNDIRECTED, direction);
     }
 
+    @Test
+    public void shouldDeserialiseColumnQualifierFromRangeOfByteArray() {
+        // Given
+        final Properties properties = new Properties();
+        properties.put(AccumuloPropertyNames.COLUMN_QUALIFIER, 1);
+        properties.put(AccumuloPropertyNames.COLUMN_QUALIFIER_2, 2);
+        properties.put(AccumuloPropertyNames.COLUMN_QUALIFIER_3, 3);
+        properties.put(AccumuloPropertyNames.COLUMN_QUALIFIER_4, 4);
+        final byte[] columnQualifier = converter.buildColumnQualifier(TestGroups.EDGE, properties);
+        final byte[] bytes = Bytes.concat(new byte[]{1, 2, 3}, columnQualifier, new byte[]{4, 5});
+
+        // When
+        final Properties deserialisedProperties = new Properties();
+        converter.addPropertiesFromColumnQualifier(TestGroups.EDGE, bytes, 3, columnQualifier.length, deserialisedProperties);
+
+        // Then
+        assertEquals(properties, deserialisedProperties);
+    }
+
+    @Test
+    public void shouldSerialiseValuesOfDifferentSizesWithTheSameConverter() {
+        // Given
+        final Properties largeProperties = new Properties();
+        largeProperties.put(AccumuloPropertyNames.PROP_1, Integer.MAX_VALUE);
+        largeProperties.put(AccumuloPropertyNames.PROP_2, Integer.MAX_VALUE);
+        largeProperties.put(AccumuloPropertyNames.PROP_3, Integer.MAX_VALUE);
+        largeProperties.put(AccumuloPropertyNames.PROP_4, Integer.MAX_VALUE);
+        largeProperties.put(AccumuloPropertyNames.COUNT, Integer.MAX_VALUE);
+        final Properties smallProperties = new Properties();
+        smallProperties.put(AccumuloPropertyNames.COUNT, 1);
+
+        // When
+        final Value largeValue = converter.getValueFromProperties(TestGroups.EDGE, largeProperties);
+        final Value smallValue = converter.getValueFromProperties(TestGroups.EDGE, smallProperties);
+
+        // Then
+        assertEquals(largeProperties, converter.getPropertiesFromValue(TestGroups.EDGE, largeValue));
+        assertEquals(smallProperties.get(AccumuloPropertyNames.COUNT),
+                converter.getPropertiesFromValue(TestGroups.EDGE, smallValue).get(AccumuloPropertyNames.COUNT));
+        assertTrue(smallValue.getSize() < largeValue.getSize());
+    }
+
     private class UnusualTestSerialiser extends StringSerialiser {
         @Override
         public byte[] serialiseNull() {
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.key.core;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.classic.ClassicAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloPropertyNames;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for encoding elements into Accumulo keys and values, and
+ * decoding them again, using the {@code ByteEntity} and {@code Classic} key
+ * packages.
+ * <p>
+ * Run it from the accumulo-store module test classpath using the main method,
+ * adding {@code -prof gc} to the JMH options to report allocation rates.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccumuloElementConverterBenchmark {
+    @Param({"byteEntity", "classic"})
+    public String keyPackage;
+
+    private AbstractCoreKeyAccumuloElementConverter converter;
+    private Edge edge;
+    private Entity entity;
+    private Key edgeKey;
+    private Value edgeValue;
+    private Key entityKey;
+    private Value entityValue;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccumuloElementConverterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup
+    public void setup() {
+        final Schema schema = createSchema();
+        if ("classic".equals(keyPackage)) {
+            converter = new ClassicAccumuloElementConverter(schema);
+        } else {
+            converter = new ByteEntityAccumuloElementConverter(schema);
+        }
+
+        edge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("source vertex")
+                .dest("destination vertex")
+                .directed(true)
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, "qualifier")
+                .property(TestPropertyNames.PROP_1, 100L)
+                .property(TestPropertyNames.PROP_2, "property value")
+                .property(TestPropertyNames.COUNT, 5L)
+                .property(TestPropertyNames.VISIBILITY, "public")
+                .property(TestPropertyNames.TIMESTAMP, 1500000000000L)
+                .build();
+        entity = new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex("entity vertex")
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, "qualifier")
+                .property(TestPropertyNames.PROP_1, 100L)
+                .property(TestPropertyNames.COUNT, 5L)
+                .property(TestPropertyNames.VISIBILITY, "public")
+                .property(TestPropertyNames.TIMESTAMP, 1500000000000L)
+                .build();
+
+        edgeKey = converter.getKeysFromEdge(edge).getFirst();
+        edgeValue = converter.getValueFromElement(edge);
+        entityKey = converter.getKeyFromEntity(entity);
+        entityValue = converter.getValueFromElement(entity);
+    }
+
+    @Benchmark
+    public void encodeEdge(final Blackhole blackhole) {
+        final Pair<Key, Key> keys = converter.getKeysFromEdge(edge);
+        blackhole.consume(keys);
+        blackhole.consume(converter.getValueFromElement(edge));
+    }
+
+    @Benchmark
+    public void encodeEntity(final Blackhole blackhole) {
+        blackhole.consume(converter.getKeyFromEntity(entity));
+        blackhole.consume(converter.getValueFromElement(entity));
+    }
+
+    @Benchmark
+    public Object decodeEdge() {
+        return converter.getFullElement(edgeKey, edgeValue, false);
+    }
+
+    @Benchmark
+    public Object decodeEntity() {
+        return converter.getFullElement(entityKey, entityValue, false);
+    }
+
+    private static Schema createSchema() {
+        return new Schema.Builder()
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source("string")
+                        .destination("string")
+                        .directed("true")
+                        .property(AccumuloPropertyNames.COLUMN_QUALIFIER, "string")
+                        .property(TestPropertyNames.PROP_1, "long")
+                        .property(TestPropertyNames.PROP_2, "string")
+                        .property(TestPropertyNames.COUNT, "long")
+                        .property(TestPropertyNames.VISIBILITY, "string")
+                        .property(TestPropertyNames.TIMESTAMP, "long")
+                        .groupBy(AccumuloPropertyNames.COLUMN_QUALIFIER)
+                        .build())
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property(AccumuloPropertyNames.COLUMN_QUALIFIER, "string")
+                        .property(TestPropertyNames.PROP_1, "long")
+                        .property(TestPropertyNames.COUNT, "long")
+                        .property(TestPropertyNames.VISIBILITY, "string")
+                        .property(TestPropertyNames.TIMESTAMP, "long")
+                        .groupBy(AccumuloPropertyNames.COLUMN_QUALIFIER)
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .type("long", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .serialiser(new CompactRawLongSerialiser())
+                        .build())
+                .type("true", Boolean.class)
+                .vertexSerialiser(new StringSerialiser())
+                .visibilityProperty(TestPropertyNames.VISIBILITY)
+                .timestampProperty(TestPropertyNames.TIMESTAMP)
+                .build();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import com.google.common.collect.Iterables;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.data.Mutation;
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class AccumuloElementWriterTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(AccumuloElementWriterTest.class));
+    private static final AccumuloProperties PROPERTIES = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(AccumuloElementWriterTest.class));
+
+    private AccumuloStore store;
+
+    @After
+    public void after() {
+        if (null != store) {
+            store.getElementWriter().close();
+        }
+    }
+
+    @Test
+    public void shouldWriteElementsSerially() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        store = createStore(properties);
+
+        // When / Then
+        shouldWriteAllElements(1000);
+    }
+
+    @Test
+    public void shouldWriteElementsUsingConversionThreads() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setNumThreadsForElementConversion("4");
+        properties.setElementConversionBatchSize("7");
+        store = createStore(properties);
+
+        // When / Then
+        shouldWriteAllElements(1000);
+    }
+
+    @Test
+    public void shouldWriteElementsUsingSharedBatchWriter() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setNumThreadsForElementConversion("2");
+        properties.setSharedBatchWriter("true");
+        store = createStore(properties);
+
+        // When
+        addElements(createElements(0, 100));
+        addElements(createElements(100, 100));
+
+        // Then
+        assertEquals(200, store.getElementWriter().getElementsWritten());
+        assertEquals(0, store.getElementWriter().getElementConversionFailures());
+        assertEquals(200, countElements());
+    }
+
+    @Test
+    public void shouldNotCloseSharedBatchWriterWhilstInUseAfterRejections() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setNumThreadsForElementConversion("4");
+        properties.setElementConversionBatchSize("1");
+        properties.setSharedBatchWriter("true");
+        store = createStore(properties);
+        final List<FakeBatchWriter> batchWriters = new ArrayList<>();
+        final AccumuloElementWriter elementWriter = new AccumuloElementWriter(store) {
+            @Override
+            protected BatchWriter createBatchWriter() {
+                // Only the first batch writer rejects mutations
+                final FakeBatchWriter batchWriter = new FakeBatchWriter(batchWriters.isEmpty());
+                batchWriters.add(batchWriter);
+                return batchWriter;
+            }
+        };
+
+        // When
+        elementWriter.write(createElements(0, 50));
+        elementWriter.write(createElements(50, 10));
+
+        // Then
+        assertEquals(2, batchWriters.size());
+        assertEquals(50, elementWriter.getMutationsRejected());
+        assertTrue(batchWriters.get(0).closed);
+        assertEquals(0, batchWriters.get(0).mutationsAddedAfterClose.get());
+        assertEquals(10, batchWriters.get(1).mutationsAdded.get());
+        assertFalse(batchWriters.get(1).closed);
+
+        elementWriter.close();
+        assertTrue(batchWriters.get(1).closed);
+    }
+
+    @Test
+    public void shouldWaitForConversionBatchesBeforeClosingBatchWriterWhenInputFails() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setNumThreadsForElementConversion("4");
+        properties.setElementConversionBatchSize("1");
+        store = createStore(properties);
+        final FakeBatchWriter batchWriter = new FakeBatchWriter(false);
+        final AccumuloElementWriter elementWriter = new AccumuloElementWriter(store) {
+            @Override
+            protected BatchWriter createBatchWriter() {
+                return batchWriter;
+            }
+        };
+        final List<Element> elements = createElements(0, 20);
+        final Iterable<Element> failingElements = () -> new Iterator<Element>() {
+            private final Iterator<Element> itr = elements.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Element next() {
+                if (!itr.hasNext()) {
+                    throw new IllegalStateException("Failed to read elements");
+                }
+                return itr.next();
+            }
+        };
+
+        // When
+        try {
+            elementWriter.write(failingElements);
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertEquals("Failed to read elements", e.getMessage());
+        } finally {
+            elementWriter.close();
+        }
+
+        // Then
+        assertTrue(batchWriter.closed);
+        assertEquals(20, batchWriter.mutationsAdded.get());
+        assertEquals(0, batchWriter.mutationsAddedAfterClose.get());
+    }
+
+    private void shouldWriteAllElements(final int numElements) throws Exception {
+        // When
+        addElements(createElements(0, numElements));
+
+        // Then
+        assertEquals(numElements, store.getElementWriter().getElementsWritten());
+        assertEquals(0, store.getElementWriter().getElementConversionFailures());
+        assertEquals(0, store.getElementWriter().getMutationsRejected());
+        assertEquals(numElements, countElements());
+    }
+
+    private AccumuloStore createStore(final AccumuloProperties properties) throws Exception {
+        final AccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("elementWriterGraph", SCHEMA, properties);
+        return store;
+    }
+
+    private void addElements(final List<Element> elements) throws Exception {
+        store.addElements(elements);
+    }
+
+    private int countElements() throws Exception {
+        final GetAllElements getAll = new GetAllElements.Builder()
+                .view(new View.Builder()
+                        .entity(TestGroups.ENTITY)
+                        .build())
+                .build();
+        return Iterables.size(store.execute(getAll, store.createContext(new User())));
+    }
+
+    private List<Element> createElements(final int start, final int numElements) {
+        final List<Element> elements = new ArrayList<>(numElements);
+        for (int i = start; i < start + numElements; i++) {
+            final Entity element = new Entity(TestGroups.ENTITY, "vertex" + i);
+            element.putProperty(TestPropertyNames.COUNT, 1);
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    private static final class FakeBatchWriter implements BatchWriter {
+        private final boolean rejectMutations;
+        private final AtomicInteger mutationsAdded = new AtomicInteger();
+        private final AtomicInteger mutationsAddedAfterClose = new AtomicInteger();
+        private volatile boolean closed;
+
+        private FakeBatchWriter(final boolean rejectMutations) {
+            this.rejectMutations = rejectMutations;
+        }
+
+        @Override
+        public void addMutation(final Mutation mutation) throws MutationsRejectedException {
+            addMutations(Collections.singletonList(mutation));
+        }
+
+        @Override
+        public void addMutations(final Iterable<Mutation> mutations) throws MutationsRejectedException {
+            if (closed) {
+                mutationsAddedAfterClose.incrementAndGet();
+            }
+            // Give other threads a chance to close the batch writer
+            try {
+                Thread.sleep(1);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (closed) {
+                mutationsAddedAfterClose.incrementAndGet();
+            }
+            mutationsAdded.addAndGet(Iterables.size(mutations));
+            if (rejectMutations) {
+                throw mock(MutationsRejectedException.class);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
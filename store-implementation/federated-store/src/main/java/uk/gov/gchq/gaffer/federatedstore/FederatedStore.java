@@ -18,6 +18,8 @@ package uk.gov.gchq.gaffer.federatedstore;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
@@ -71,6 +73,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreProperties.IS_PUBLIC_ACCESS_ALLOWED_DEFAULT;
 import static uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil.getCleanStrings;
@@ -89,9 +95,12 @@ import static uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil.getClean
  * @see Graph
  */
 public class FederatedStore extends Store {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedStore.class);
+    private static final long PARALLEL_EXECUTOR_KEEP_ALIVE_SECONDS = 60L;
     private FederatedGraphStorage graphStorage = new FederatedGraphStorage();
     private Set<String> customPropertiesAuths;
     private Boolean isPublicAccessAllowed = Boolean.valueOf(IS_PUBLIC_ACCESS_ALLOWED_DEFAULT);
+    private ExecutorService parallelExecutor;
 
     /**
      * Initialise this FederatedStore with any sub-graphs defined within the
@@ -108,6 +117,12 @@ public class FederatedStore extends Store {
         super.initialise(graphId, new Schema(), properties);
         customPropertiesAuths = getCustomPropertiesAuths();
         isPublicAccessAllowed = Boolean.valueOf(getProperties().getIsPublicAccessAllowed());
+        if (null != parallelExecutor) {
+            // Interrupt any sub-graph executions and result consumers still
+            // running against the previous configuration
+            parallelExecutor.shutdownNow();
+        }
+        parallelExecutor = createParallelExecutor();
     }
 
     @Override
@@ -273,6 +288,18 @@ public class FederatedStore extends Store {
         return graphStorage.get(user, getCleanStrings(graphIdsCsv));
     }
 
+    /**
+     * Gets the executor used to execute operations against the sub-graphs
+     * concurrently. The executor has a bounded number of threads and a
+     * bounded queue, tasks that are rejected should be run on the calling
+     * thread.
+     *
+     * @return the executor, or null if parallel execution is disabled.
+     */
+    public ExecutorService getParallelExecutor() {
+        return parallelExecutor;
+    }
+
     /**
      * The FederatedStore at time of initialisation, can set the auths required
      * to allow users to use custom {@link StoreProperties} outside the
@@ -285,6 +312,26 @@ public class FederatedStore extends Store {
         return (null != this.customPropertiesAuths) && Collections.disjoint(user.getOpAuths(), this.customPropertiesAuths);
     }
 
+    protected ExecutorService createParallelExecutor() {
+        final FederatedStoreProperties properties = getProperties();
+        if (!properties.isParallelExecution()) {
+            return null;
+        }
+
+        final int threads = properties.getParallelExecutionThreads();
+        final int queueSize = properties.getParallelExecutionQueueSize();
+        LOGGER.debug("Initialising parallel executor with {} threads and a queue size of {}", threads, queueSize);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, PARALLEL_EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Override
     protected Class<FederatedStoreProperties> getPropertiesClass() {
         return FederatedStoreProperties.class;
@@ -47,6 +47,59 @@ public class FederatedStoreProperties extends StoreProperties {
     public static final String CACHE_SERVICE_CLASS = CacheProperties.CACHE_SERVICE_CLASS;
     public static final String CACHE_SERVICE_CLASS_DEFAULT = null;
 
+    /**
+     * This is used to execute operations against the sub-graphs concurrently
+     * rather than one at a time.
+     * e.g gaffer.federatedstore.parallel.execution=true
+     */
+    public static final String IS_PARALLEL_EXECUTION = "gaffer.federatedstore.parallel.execution";
+    public static final String IS_PARALLEL_EXECUTION_DEFAULT = String.valueOf(false);
+
+    /**
+     * This is the number of threads used to execute operations against the
+     * sub-graphs when parallel execution is enabled.
+     * e.g gaffer.federatedstore.parallel.execution.threads=10
+     */
+    public static final String PARALLEL_EXECUTION_THREADS = "gaffer.federatedstore.parallel.execution.threads";
+    public static final String PARALLEL_EXECUTION_THREADS_DEFAULT = "10";
+
+    /**
+     * This is the maximum number of sub-graph executions that can be queued
+     * waiting for a thread. Executions that cannot be queued are run on the
+     * calling thread.
+     * e.g gaffer.federatedstore.parallel.execution.queue.size=100
+     */
+    public static final String PARALLEL_EXECUTION_QUEUE_SIZE = "gaffer.federatedstore.parallel.execution.queue.size";
+    public static final String PARALLEL_EXECUTION_QUEUE_SIZE_DEFAULT = "100";
+
+    /**
+     * This is the number of results buffered when merging the results of the
+     * sub-graphs as they are produced.
+     * e.g gaffer.federatedstore.parallel.execution.buffer.size=1000
+     */
+    public static final String PARALLEL_EXECUTION_BUFFER_SIZE = "gaffer.federatedstore.parallel.execution.buffer.size";
+    public static final String PARALLEL_EXECUTION_BUFFER_SIZE_DEFAULT = "1000";
+
+    /**
+     * This is the time in milliseconds each sub-graph has to execute an
+     * operation when parallel execution is enabled. A value of 0 means there
+     * is no timeout.
+     * e.g gaffer.federatedstore.graph.execution.timeout=30000
+     */
+    public static final String GRAPH_EXECUTION_TIMEOUT = "gaffer.federatedstore.graph.execution.timeout";
+    public static final String GRAPH_EXECUTION_TIMEOUT_DEFAULT = "0";
+
+    /**
+     * This is the time in milliseconds the merged results of the sub-graphs
+     * can go without an item being taken or produced. After this the
+     * executor threads consuming the sub-graph results are released, so
+     * results that are abandoned without being closed do not pin the
+     * threads. It must be greater than 0.
+     * e.g gaffer.federatedstore.parallel.execution.idle.timeout=300000
+     */
+    public static final String PARALLEL_EXECUTION_IDLE_TIMEOUT = "gaffer.federatedstore.parallel.execution.idle.timeout";
+    public static final String PARALLEL_EXECUTION_IDLE_TIMEOUT_DEFAULT = "300000";
+
     public FederatedStoreProperties() {
         super(FederatedStore.class);
     }
@@ -94,4 +147,52 @@ public class FederatedStoreProperties extends StoreProperties {
     public void setGraphsCanHavePublicAccess(final boolean b) {
         set(IS_PUBLIC_ACCESS_ALLOWED, Boolean.toString(b));
     }
+
+    public boolean isParallelExecution() {
+        return Boolean.valueOf(get(IS_PARALLEL_EXECUTION, IS_PARALLEL_EXECUTION_DEFAULT));
+    }
+
+    public void setParallelExecution(final boolean parallelExecution) {
+        set(IS_PARALLEL_EXECUTION, Boolean.toString(parallelExecution));
+    }
+
+    public int getParallelExecutionThreads() {
+        return Integer.parseInt(get(PARALLEL_EXECUTION_THREADS, PARALLEL_EXECUTION_THREADS_DEFAULT));
+    }
+
+    public void setParallelExecutionThreads(final int threads) {
+        set(PARALLEL_EXECUTION_THREADS, Integer.toString(threads));
+    }
+
+    public int getParallelExecutionQueueSize() {
+        return Integer.parseInt(get(PARALLEL_EXECUTION_QUEUE_SIZE, PARALLEL_EXECUTION_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setParallelExecutionQueueSize(final int queueSize) {
+        set(PARALLEL_EXECUTION_QUEUE_SIZE, Integer.toString(queueSize));
+    }
+
+    public int getParallelExecutionBufferSize() {
+        return Integer.parseInt(get(PARALLEL_EXECUTION_BUFFER_SIZE, PARALLEL_EXECUTION_BUFFER_SIZE_DEFAULT));
+    }
+
+    public void setParallelExecutionBufferSize(final int bufferSize) {
+        set(PARALLEL_EXECUTION_BUFFER_SIZE, Integer.toString(bufferSize));
+    }
+
+    public long getGraphExecutionTimeout() {
+        return Long.parseLong(get(GRAPH_EXECUTION_TIMEOUT, GRAPH_EXECUTION_TIMEOUT_DEFAULT));
+    }
+
+    public void setGraphExecutionTimeout(final long timeoutMillis) {
+        set(GRAPH_EXECUTION_TIMEOUT, Long.toString(timeoutMillis));
+    }
+
+    public long getParallelExecutionIdleTimeout() {
+        return Long.parseLong(get(PARALLEL_EXECUTION_IDLE_TIMEOUT, PARALLEL_EXECUTION_IDLE_TIMEOUT_DEFAULT));
+    }
+
+    public void setParallelExecutionIdleTimeout(final long timeoutMillis) {
+        set(PARALLEL_EXECUTION_IDLE_TIMEOUT, Long.toString(timeoutMillis));
+    }
 }
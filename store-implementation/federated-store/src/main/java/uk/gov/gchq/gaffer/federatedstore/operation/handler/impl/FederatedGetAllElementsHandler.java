@@ -16,11 +16,11 @@
 
 package uk.gov.gchq.gaffer.federatedstore.operation.handler.impl;
 
-import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
-import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
 import uk.gov.gchq.gaffer.federatedstore.operation.handler.FederatedOperationOutputHandler;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
@@ -41,7 +41,7 @@ public class FederatedGetAllElementsHandler extends FederatedOperationOutputHand
         if (results.isEmpty()) {
             throw new IllegalArgumentException(NO_RESULTS_TO_MERGE_ERROR);
         }
-        return new ChainedIterable<>(CollectionUtil.toIterableArray(results));
+        return FederatedStoreUtil.concatenateResults(results, (FederatedStore) store);
     }
 
 }
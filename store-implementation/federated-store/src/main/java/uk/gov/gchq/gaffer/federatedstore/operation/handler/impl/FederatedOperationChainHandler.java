@@ -15,8 +15,6 @@
  */
 package uk.gov.gchq.gaffer.federatedstore.operation.handler.impl;
 
-import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
-import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
@@ -29,35 +27,19 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
-import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE;
 
 public class FederatedOperationChainHandler<O_ITEM> implements OutputOperationHandler<FederatedOperationChain<O_ITEM>, CloseableIterable<O_ITEM>> {
     @Override
     public CloseableIterable<O_ITEM> doOperation(final FederatedOperationChain<O_ITEM> operation, final Context context, final Store store) throws OperationException {
-        final Collection<Graph> graphs = ((FederatedStore) store).getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS));
-        final List<Object> results = new ArrayList<>(graphs.size());
-        for (final Graph graph : graphs) {
-            final OperationChain updatedOp = FederatedStoreUtil.updateOperationForGraph(operation.getOperationChain(), graph);
-            if (null != updatedOp) {
-                Object result = null;
-                try {
-                    result = graph.execute(updatedOp, context.getUser());
-                } catch (final Exception e) {
-                    if (!Boolean.valueOf(updatedOp.getOption(KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE))) {
-                        throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
-                    }
-                }
-                if (null != result) {
-                    results.add(result);
-                }
-            }
-        }
+        final FederatedStore federatedStore = (FederatedStore) store;
+        final Collection<Graph> graphs = federatedStore.getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS));
+        final List<Object> results = FederatedStoreUtil.executeOnGraphs(operation.getOperationChain(), graphs, federatedStore,
+                (graph, updatedOp) -> graph.execute((OperationChain<?>) updatedOp, context.getUser()));
         return mergeResults(results, operation, context, store);
     }
 
@@ -79,7 +61,7 @@ public class FederatedOperationChainHandler<O_ITEM> implements OutputOperationHa
         }
 
         if (areIterable) {
-            return new ChainedIterable<>(CollectionUtil.toIterableArray((List) results));
+            return FederatedStoreUtil.concatenateResults((List) results, (FederatedStore) store);
         }
 
         return new WrappedCloseableIterable(results);
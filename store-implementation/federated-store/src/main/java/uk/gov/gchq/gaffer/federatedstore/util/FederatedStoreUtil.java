@@ -21,26 +21,43 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.ConcurrentChainedIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStoreProperties;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.graph.OperationView;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
+import static uk.gov.gchq.gaffer.commonutil.CollectionUtil.toIterableArray;
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE;
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
 
 public final class FederatedStoreUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(FederatedStoreUtil.class);
@@ -59,6 +76,141 @@ public final class FederatedStoreUtil {
                 operation.getClass().getSimpleName(), graphId, additionalInfo, e.getMessage());
     }
 
+    /**
+     * <p>
+     * Executes an {@link Operation} against each of the given graphs and
+     * returns the non null results in the same order as the graphs.
+     * </p>
+     * <p>
+     * If the {@link FederatedStore} has a parallel executor then the
+     * operation is executed against all the graphs concurrently, and each
+     * graph must complete within the store's graph execution timeout.
+     * Otherwise the graphs are executed one at a time.
+     * </p>
+     * <p>
+     * If the execution against a graph fails or times out then an
+     * {@link OperationException} is thrown, unless the skip failed federated
+     * store execute option is set on the operation.
+     * </p>
+     *
+     * @param operation the operation to execute
+     * @param graphs    the graphs to execute the operation against
+     * @param store     the federated store
+     * @param execution the function to execute the updated operation against a graph
+     * @param <OP>      the operation type
+     * @param <O>       the output type
+     * @return the results from each of the graphs
+     * @throws OperationException if the execution against a graph fails
+     */
+    public static <OP extends Operation, O> List<O> executeOnGraphs(final OP operation, final Collection<Graph> graphs, final FederatedStore store, final GraphExecution<OP, O> execution) throws OperationException {
+        final ExecutorService executor = store.getParallelExecutor();
+        if (null == executor || graphs.size() < 2) {
+            final List<O> results = new ArrayList<>(graphs.size());
+            for (final Graph graph : graphs) {
+                final OP updatedOp = updateOperationForGraph(operation, graph);
+                if (null != updatedOp) {
+                    O result = null;
+                    try {
+                        result = execution.execute(graph, updatedOp);
+                    } catch (final Exception e) {
+                        handleFailedExecution(operation, updatedOp, graph, e);
+                    }
+                    if (null != result) {
+                        results.add(result);
+                    }
+                }
+            }
+            return results;
+        }
+
+        return executeOnGraphsInParallel(operation, graphs, store, executor, execution);
+    }
+
+    private static <OP extends Operation, O> List<O> executeOnGraphsInParallel(final OP operation, final Collection<Graph> graphs, final FederatedStore store, final ExecutorService executor, final GraphExecution<OP, O> execution) throws OperationException {
+        final Map<Graph, OP> updatedOps = new LinkedHashMap<>(graphs.size());
+        final Map<Graph, Future<O>> futures = new LinkedHashMap<>(graphs.size());
+        for (final Graph graph : graphs) {
+            final OP updatedOp = updateOperationForGraph(operation, graph);
+            if (null != updatedOp) {
+                updatedOps.put(graph, updatedOp);
+                final FutureTask<O> task = new FutureTask<>(() -> execution.execute(graph, updatedOp));
+                try {
+                    executor.execute(task);
+                } catch (final RejectedExecutionException e) {
+                    LOGGER.debug("Parallel executor is full, executing operation against {} on the calling thread", graph.getGraphId());
+                    task.run();
+                }
+                futures.put(graph, task);
+            }
+        }
+
+        final long timeout = store.getProperties().getGraphExecutionTimeout();
+        final long deadline = System.currentTimeMillis() + timeout;
+        final List<O> results = new ArrayList<>(futures.size());
+        try {
+            for (final Map.Entry<Graph, Future<O>> entry : futures.entrySet()) {
+                final Graph graph = entry.getKey();
+                O result = null;
+                try {
+                    if (timeout > 0) {
+                        result = entry.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    } else {
+                        result = entry.getValue().get();
+                    }
+                } catch (final TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    handleFailedExecution(operation, updatedOps.get(graph), graph,
+                            new OperationException("Execution timed out after " + timeout + "ms", e));
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    handleFailedExecution(operation, updatedOps.get(graph), graph,
+                            cause instanceof Exception ? (Exception) cause : e);
+                }
+                if (null != result) {
+                    results.add(result);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationException("Interrupted whilst waiting for federated graphs to execute " + operation.getClass().getSimpleName(), e);
+        } finally {
+            for (final Future<O> future : futures.values()) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private static void handleFailedExecution(final Operation operation, final Operation updatedOp, final Graph graph, final Exception e) throws OperationException {
+        if (!Boolean.valueOf(getSkipFailedFederatedStoreExecute(updatedOp))) {
+            throw new OperationException(createOperationErrorMsg(operation, graph.getGraphId(), e), e);
+        }
+        LOGGER.debug("Skipping failed execution of {} on graph {}", operation.getClass().getSimpleName(), graph.getGraphId(), e);
+    }
+
+    /**
+     * Concatenates the iterable results of the sub-graphs into a single
+     * iterable. If the store has a parallel executor, the results are
+     * consumed concurrently and interleaved as they are produced. The
+     * consumers are stopped if no item is taken or produced within the
+     * store's parallel execution idle timeout. Otherwise the results are
+     * consumed one after another.
+     *
+     * @param results the results to concatenate
+     * @param store   the federated store
+     * @param <T>     the type of items in the results
+     * @return the concatenated results
+     */
+    public static <T> CloseableIterable<T> concatenateResults(final List<? extends Iterable<? extends T>> results, final FederatedStore store) {
+        final Iterable[] itrs = toIterableArray(results);
+        final ExecutorService executor = store.getParallelExecutor();
+        if (null != executor && itrs.length > 1) {
+            final FederatedStoreProperties properties = store.getProperties();
+            return new ConcurrentChainedIterable<>(executor, properties.getParallelExecutionBufferSize(), false, 0, properties.getParallelExecutionIdleTimeout(), itrs);
+        }
+        return new ChainedIterable<>(itrs);
+    }
+
     public static List<String> getGraphIds(final Map<String, String> config) {
         if (null == config) {
             return null;
@@ -176,4 +328,15 @@ public final class FederatedStoreUtil {
         }
         return newView;
     }
+
+    /**
+     * A function that executes an operation against a single federated graph.
+     *
+     * @param <OP> the operation type
+     * @param <O>  the output type
+     */
+    @FunctionalInterface
+    public interface GraphExecution<OP extends Operation, O> {
+        O execute(final Graph graph, final OP updatedOp) throws OperationException;
+    }
 }
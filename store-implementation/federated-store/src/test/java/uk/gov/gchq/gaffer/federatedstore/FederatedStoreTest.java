@@ -60,11 +60,13 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -880,6 +882,22 @@ public class FederatedStoreTest {
         assertNotNull(CacheServiceLoader.getService());
     }
 
+    @Test
+    public void shouldShutdownPreviousParallelExecutorWhenReinitialised() throws StoreException {
+        // Given
+        federatedProperties.setParallelExecution(true);
+        store.initialise(FEDERATED_STORE_ID, null, federatedProperties);
+        final ExecutorService previousExecutor = store.getParallelExecutor();
+
+        // When
+        store.initialise(FEDERATED_STORE_ID, null, federatedProperties);
+
+        // Then
+        assertTrue(previousExecutor.isShutdown());
+        assertNotSame(previousExecutor, store.getParallelExecutor());
+        assertFalse(store.getParallelExecutor().isShutdown());
+    }
+
     @Test
     public void shouldThrowExceptionWithoutInitialisation() throws StoreException {
         federatedProperties.setCacheProperties(CACHE_SERVICE_CLASS_STRING);
@@ -20,6 +20,7 @@ import com.google.common.collect.Sets;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
 import uk.gov.gchq.gaffer.graph.Graph;
@@ -36,6 +37,10 @@ import uk.gov.gchq.gaffer.user.User;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
@@ -158,7 +163,7 @@ public class FederatedOperationHandlerTest {
 
         Store mockStoreInner = getMockStore(unusedSchema, storeProperties);
         given(mockStoreInner.createContext(any(User.class))).willReturn(context);
-        given(mockStoreInner.execute(any(OperationChain.class), eq(context))).willThrow(new RuntimeException(message));
+        given(mockStoreInner.execute(any(OperationChain.class), any(Context.class))).willThrow(new RuntimeException(message));
 
 
         FederatedStore mockStore = mock(FederatedStore.class);
@@ -186,11 +191,11 @@ public class FederatedOperationHandlerTest {
         StoreProperties storeProperties = new StoreProperties();
 
         Store mockStore1 = getMockStore(unusedSchema, storeProperties);
-        given(mockStore1.execute(any(OperationChain.class), eq(context))).willReturn(1);
+        given(mockStore1.execute(any(OperationChain.class), any(Context.class))).willReturn(1);
         given(mockStore1.createContext(any(User.class))).willReturn(context);
         Store mockStore2 = getMockStore(unusedSchema, storeProperties);
         given(mockStore2.createContext(any(User.class))).willReturn(context);
-        given(mockStore2.execute(any(OperationChain.class), eq(context))).willThrow(new RuntimeException("Test Exception"));
+        given(mockStore2.execute(any(OperationChain.class), any(Context.class))).willThrow(new RuntimeException("Test Exception"));
 
         FederatedStore mockStore = mock(FederatedStore.class);
         LinkedHashSet<Graph> filteredGraphs = Sets.newLinkedHashSet();
@@ -206,9 +211,40 @@ public class FederatedOperationHandlerTest {
         }
 
         //Then
-        verify(mockStore1, atLeastOnce()).execute(any(OperationChain.class), eq(context));
-        verify(mockStore2, atLeastOnce()).execute(any(OperationChain.class), eq(context));
+        verify(mockStore1, atLeastOnce()).execute(any(OperationChain.class), any(Context.class));
+        verify(mockStore2, atLeastOnce()).execute(any(OperationChain.class), any(Context.class));
     }
 
+    @Test
+    public void shouldExecuteEachGraphWithItsOwnContext() throws Exception {
+        // Given
+        final Operation op = mock(Operation.class);
+        given(op.shallowClone()).willReturn(op);
+        final Schema unusedSchema = new Schema.Builder().build();
+        final StoreProperties storeProperties = new StoreProperties();
+        final Store mockStore1 = getMockStore(unusedSchema, storeProperties);
+        final Store mockStore2 = getMockStore(unusedSchema, storeProperties);
+
+        final FederatedStore mockStore = mock(FederatedStore.class);
+        final LinkedHashSet<Graph> linkedGraphs = Sets.newLinkedHashSet();
+        linkedGraphs.add(getGraphWithMockStore(mockStore1));
+        linkedGraphs.add(getGraphWithMockStore(mockStore2));
+        when(mockStore.getGraphs(user, null)).thenReturn(linkedGraphs);
 
+        // When
+        new FederatedOperationHandler().doOperation(op, context, mockStore);
+
+        // Then
+        final ArgumentCaptor<Context> context1 = ArgumentCaptor.forClass(Context.class);
+        final ArgumentCaptor<Context> context2 = ArgumentCaptor.forClass(Context.class);
+        verify(mockStore1).execute(any(OperationChain.class), context1.capture());
+        verify(mockStore2).execute(any(OperationChain.class), context2.capture());
+        assertNotSame(context, context1.getValue());
+        assertNotSame(context, context2.getValue());
+        assertNotSame(context1.getValue(), context2.getValue());
+        assertSame(user, context1.getValue().getUser());
+        assertEquals(context.getJobId(), context1.getValue().getJobId());
+        assertEquals(context.getJobId(), context2.getValue().getJobId());
+        assertNull(context.getOriginalOpChain());
+    }
 }
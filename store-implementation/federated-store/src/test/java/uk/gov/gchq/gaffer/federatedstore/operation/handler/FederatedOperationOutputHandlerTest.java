@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStoreProperties;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.graph.GraphConfig;
 import uk.gov.gchq.gaffer.operation.OperationChain;
@@ -36,6 +37,8 @@ import uk.gov.gchq.gaffer.user.User;
 
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -110,6 +113,47 @@ public abstract class FederatedOperationOutputHandlerTest<OP extends Output<O>,
         verify(mockStore4).execute(any(OperationChain.class), any(Context.class));
     }
 
+    @Test
+    public final void shouldMergeResultsFromFieldObjectsInParallel() throws Exception {
+        // Given
+        final OP op = getExampleOperation();
+
+        Schema unusedSchema = new Schema.Builder().build();
+        StoreProperties storeProperties = new StoreProperties();
+
+        Store mockStore1 = getMockStore(unusedSchema, storeProperties, o1);
+        Store mockStore2 = getMockStore(unusedSchema, storeProperties, o2);
+        Store mockStore3 = getMockStore(unusedSchema, storeProperties, o3);
+        Store mockStore4 = getMockStore(unusedSchema, storeProperties, o4);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final FederatedStoreProperties federatedStoreProperties = new FederatedStoreProperties();
+        federatedStoreProperties.setParallelExecution(true);
+        FederatedStore mockStore = Mockito.mock(FederatedStore.class);
+        LinkedHashSet<Graph> linkedGraphs = Sets.newLinkedHashSet();
+        linkedGraphs.add(getGraphWithMockStore(mockStore1));
+        linkedGraphs.add(getGraphWithMockStore(mockStore2));
+        linkedGraphs.add(getGraphWithMockStore(mockStore3));
+        linkedGraphs.add(getGraphWithMockStore(mockStore4));
+        Mockito.when(mockStore.getGraphs(user, null)).thenReturn(linkedGraphs);
+        Mockito.when(mockStore.getParallelExecutor()).thenReturn(executor);
+        Mockito.when(mockStore.getProperties()).thenReturn(federatedStoreProperties);
+
+        try {
+            // When
+            O theMergedResultsOfOperation = getFederatedHandler().doOperation(op, context, mockStore);
+
+            //Then
+            validateMergeResultsFromFieldObjects(theMergedResultsOfOperation, o1, o2, o3, o4);
+            verify(mockStore1).execute(any(OperationChain.class), any(Context.class));
+            verify(mockStore2).execute(any(OperationChain.class), any(Context.class));
+            verify(mockStore3).execute(any(OperationChain.class), any(Context.class));
+            verify(mockStore4).execute(any(OperationChain.class), any(Context.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public final void shouldMergeResultsFromFieldObjectsWithGivenGraphIds() throws Exception {
         // Given
@@ -42,9 +42,21 @@ public class HBaseProperties extends StoreProperties {
     public static final String WRITE_BUFFER_SIZE = "hbase.writeBufferSize";
     public static final String DEPENDENCY_JARS_HDFS_DIR_PATH = "hbase.hdfs.jars.path";
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER = "hbase.entriesForBatchScanner";
+    public static final String MAX_CONCURRENT_SCANS_PER_QUERY = "hbase.maxConcurrentScansPerQuery";
+    public static final String RETRIEVER_THREADS = "hbase.retrieverThreads";
+    public static final String RETRIEVER_QUEUE_SIZE = "hbase.retrieverQueueSize";
+    public static final String RETRIEVER_BUFFER_SIZE = "hbase.retrieverBufferSize";
+    public static final String ORDERED_RETRIEVAL = "hbase.orderedRetrieval";
+    public static final String RETRIEVER_IDLE_TIMEOUT = "hbase.retrieverIdleTimeout";
 
     public static final int WRITE_BUFFER_SIZE_DEFAULT = 1000000;
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER_DEFAULT = "50000";
+    public static final String MAX_CONCURRENT_SCANS_PER_QUERY_DEFAULT = "1";
+    public static final String RETRIEVER_THREADS_DEFAULT = "10";
+    public static final String RETRIEVER_QUEUE_SIZE_DEFAULT = "100";
+    public static final String RETRIEVER_BUFFER_SIZE_DEFAULT = "1000";
+    public static final String ORDERED_RETRIEVAL_DEFAULT = "true";
+    public static final String RETRIEVER_IDLE_TIMEOUT_DEFAULT = "300000";
 
     public HBaseProperties() {
         super(HBaseStore.class);
@@ -164,6 +176,100 @@ public class HBaseProperties extends StoreProperties {
         set(MAX_ENTRIES_FOR_BATCH_SCANNER, maxEntriesForBatchScanner);
     }
 
+    /**
+     * Get the maximum number of scans a single query will run concurrently.
+     * The row ranges for a query are split into at most this many scans, at
+     * region boundaries. If this is 1 then the scans are run sequentially.
+     *
+     * @return the maximum number of concurrent scans per query
+     */
+    public int getMaxConcurrentScansPerQuery() {
+        return Integer.parseInt(get(MAX_CONCURRENT_SCANS_PER_QUERY, MAX_CONCURRENT_SCANS_PER_QUERY_DEFAULT));
+    }
+
+    /**
+     * Set the maximum number of scans a single query will run concurrently.
+     *
+     * @param maxConcurrentScansPerQuery the maximum number of concurrent scans
+     *                                   per query
+     */
+    public void setMaxConcurrentScansPerQuery(final String maxConcurrentScansPerQuery) {
+        set(MAX_CONCURRENT_SCANS_PER_QUERY, maxConcurrentScansPerQuery);
+    }
+
+    /**
+     * Get the number of threads shared by all queries for running concurrent
+     * scans.
+     *
+     * @return the number of retriever threads
+     */
+    public int getRetrieverThreads() {
+        return Integer.parseInt(get(RETRIEVER_THREADS, RETRIEVER_THREADS_DEFAULT));
+    }
+
+    public void setRetrieverThreads(final String retrieverThreads) {
+        set(RETRIEVER_THREADS, retrieverThreads);
+    }
+
+    /**
+     * Get the number of scans that can be queued waiting for a retriever
+     * thread. Scans that cannot be queued are run on the query thread.
+     *
+     * @return the retriever queue size
+     */
+    public int getRetrieverQueueSize() {
+        return Integer.parseInt(get(RETRIEVER_QUEUE_SIZE, RETRIEVER_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setRetrieverQueueSize(final String retrieverQueueSize) {
+        set(RETRIEVER_QUEUE_SIZE, retrieverQueueSize);
+    }
+
+    /**
+     * Get the number of results each concurrent scan may buffer before it
+     * waits for the query to consume them.
+     *
+     * @return the retriever buffer size
+     */
+    public int getRetrieverBufferSize() {
+        return Integer.parseInt(get(RETRIEVER_BUFFER_SIZE, RETRIEVER_BUFFER_SIZE_DEFAULT));
+    }
+
+    public void setRetrieverBufferSize(final String retrieverBufferSize) {
+        set(RETRIEVER_BUFFER_SIZE, retrieverBufferSize);
+    }
+
+    /**
+     * Whether the results of concurrent scans are returned in row order. If
+     * false, results are returned as soon as any scan produces them, so they
+     * are no longer ordered.
+     *
+     * @return true if the results of concurrent scans are returned in order
+     */
+    public boolean isOrderedRetrieval() {
+        return Boolean.parseBoolean(get(ORDERED_RETRIEVAL, ORDERED_RETRIEVAL_DEFAULT));
+    }
+
+    public void setOrderedRetrieval(final boolean orderedRetrieval) {
+        set(ORDERED_RETRIEVAL, Boolean.toString(orderedRetrieval));
+    }
+
+    /**
+     * Get the number of milliseconds a concurrent scan will wait for the
+     * query to consume its buffered results before it gives up and closes
+     * its scanner. This stops scans of abandoned queries from holding on to
+     * their scanners and retriever threads.
+     *
+     * @return the retriever idle timeout in milliseconds
+     */
+    public long getRetrieverIdleTimeout() {
+        return Long.parseLong(get(RETRIEVER_IDLE_TIMEOUT, RETRIEVER_IDLE_TIMEOUT_DEFAULT));
+    }
+
+    public void setRetrieverIdleTimeout(final long retrieverIdleTimeout) {
+        set(RETRIEVER_IDLE_TIMEOUT, Long.toString(retrieverIdleTimeout));
+    }
+
     @Override
     public String getJsonSerialiserModules() {
         return new StringDeduplicateConcat().apply(
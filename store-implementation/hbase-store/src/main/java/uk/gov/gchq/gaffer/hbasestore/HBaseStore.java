@@ -23,6 +23,7 @@ import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.RegionLocator;
 import org.apache.hadoop.hbase.client.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +70,10 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static uk.gov.gchq.gaffer.store.StoreTrait.INGEST_AGGREGATION;
 import static uk.gov.gchq.gaffer.store.StoreTrait.ORDERED;
@@ -104,6 +109,7 @@ public class HBaseStore extends Store {
             ));
     private static final Logger LOGGER = LoggerFactory.getLogger(HBaseStore.class);
     private Connection connection;
+    private ExecutorService retrieverExecutor;
 
     @Override
     public void initialise(final String graphId, final Schema schema, final StoreProperties properties)
@@ -134,6 +140,11 @@ public class HBaseStore extends Store {
         } else {
             super.initialise(graphId, schema, getProperties());
         }
+
+        if (null != retrieverExecutor) {
+            retrieverExecutor.shutdown();
+        }
+        retrieverExecutor = createRetrieverExecutor();
     }
 
     public Configuration getConfiguration() {
@@ -176,6 +187,50 @@ public class HBaseStore extends Store {
         }
     }
 
+    /**
+     * Gets the start keys of the regions of the table, in order. The first
+     * start key is empty.
+     *
+     * @return the region start keys.
+     * @throws StoreException if the region locations could not be looked up.
+     */
+    public byte[][] getRegionStartKeys() throws StoreException {
+        try (final RegionLocator regionLocator = getConnection().getRegionLocator(getTableName())) {
+            return regionLocator.getStartKeys();
+        } catch (final IOException e) {
+            throw new StoreException(e);
+        }
+    }
+
+    /**
+     * Gets the executor used by retrievers to run the scans of a query
+     * concurrently. The executor has a bounded number of threads and a
+     * bounded queue, scans that are rejected are run on the query thread.
+     *
+     * @return the executor, or null if scans are run sequentially.
+     */
+    public ExecutorService getRetrieverExecutor() {
+        return retrieverExecutor;
+    }
+
+    protected ExecutorService createRetrieverExecutor() {
+        final HBaseProperties properties = getProperties();
+        if (properties.getMaxConcurrentScansPerQuery() <= 1) {
+            return null;
+        }
+
+        final int threads = properties.getRetrieverThreads();
+        final int queueSize = properties.getRetrieverQueueSize();
+        LOGGER.debug("Initialising retriever executor with {} threads and a queue size of {}", threads, queueSize);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
     public <OP extends Output<CloseableIterable<? extends Element>> & GraphFilters> HBaseRetriever<OP>
     createRetriever(final OP operation,
                     final User user,
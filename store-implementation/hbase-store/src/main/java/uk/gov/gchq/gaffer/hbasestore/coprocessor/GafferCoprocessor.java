@@ -33,6 +33,7 @@ import uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner.StoreScanner;
 import uk.gov.gchq.gaffer.hbasestore.serialisation.ElementSerialisation;
 import uk.gov.gchq.gaffer.hbasestore.utils.HBaseStoreConstants;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.DeserialisedJsonCache;
 
 import java.io.IOException;
 
@@ -44,7 +45,7 @@ public class GafferCoprocessor extends BaseRegionObserver {
     @Override
     public void start(final CoprocessorEnvironment e) throws IOException {
         final String schemaJson = StringUtil.unescapeComma(e.getConfiguration().get(HBaseStoreConstants.SCHEMA));
-        schema = Schema.fromJson(Bytes.toBytes(schemaJson));
+        schema = DeserialisedJsonCache.getSchema(Bytes.toBytes(schemaJson));
         serialisation = new ElementSerialisation(schema);
         includeMatchedVertex = e.getConfiguration().getBoolean(HBaseStoreConstants.INCLUDE_MATCHED_VERTEX, false);
     }
@@ -36,6 +36,7 @@ import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.ValidationProcessor;
 import uk.gov.gchq.gaffer.hbasestore.serialisation.ElementSerialisation;
 import uk.gov.gchq.gaffer.hbasestore.utils.HBaseStoreConstants;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.DeserialisedJsonCache;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -95,7 +96,7 @@ public class QueryScanner extends GafferScanner implements RegionScanner {
         if (null == viewJson) {
             view = null;
         } else {
-            view = View.fromJson(viewJson);
+            view = DeserialisedJsonCache.getView(viewJson);
         }
         return view;
     }
@@ -18,6 +18,7 @@ package uk.gov.gchq.gaffer.hbasestore.retriever;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
@@ -30,6 +31,7 @@ import uk.gov.gchq.gaffer.commonutil.iterable.AlwaysValid;
 import uk.gov.gchq.gaffer.commonutil.iterable.BatchedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.ConcurrentChainedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.TransformOneToManyIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
@@ -53,6 +55,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 
 public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Element>> & GraphFilters> implements CloseableIterable<Element> {
     private final ElementSerialisation serialisation;
@@ -64,6 +67,8 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
     private final OP operation;
     private final byte[] extraProcessors;
     private final boolean includeMatchedVertex;
+    private final byte[] schemaJson;
+    private final byte[] viewJson;
 
     private CloseableIterator<Element> iterator;
     private Iterator<? extends ElementId> idsIterator;
@@ -88,6 +93,8 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
         }
 
         this.includeMatchedVertex = includeMatchedVertex;
+        this.schemaJson = store.getSchema().toCompactJson();
+        this.viewJson = operation.getView().toCompactJson();
 
         if (null != extraProcessors && extraProcessors.length > 0) {
             this.extraProcessors = StringUtil.toCsv(extraProcessors);
@@ -152,10 +159,9 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
 
         Table table = null;
         try {
-            final Scan scan = new Scan();
-
+            List<MultiRowRangeFilter.RowRange> rowRanges = null;
             if (null != idsIterator) {
-                final List<MultiRowRangeFilter.RowRange> rowRanges = new ArrayList<>();
+                rowRanges = new ArrayList<>();
                 final int maxEntriesForBatchScanner = store.getProperties().getMaxEntriesForBatchScanner();
                 int count = 0;
                 while (idsIterator.hasNext() && count < maxEntriesForBatchScanner) {
@@ -166,21 +172,30 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
                 if (rowRanges.isEmpty()) {
                     return new WrappedCloseableIterable<>(Collections.emptyList());
                 }
-
-                scan.setFilter(new MultiRowRangeFilter(rowRanges));
             }
 
-            scan.setAuthorizations(authorisations);
-            scan.setAttribute(HBaseStoreConstants.SCHEMA, store.getSchema().toCompactJson());
-            scan.setAttribute(HBaseStoreConstants.INCLUDE_MATCHED_VERTEX, Bytes.toBytes(Boolean.toString(includeMatchedVertex)));
-            scan.setAttribute(HBaseStoreConstants.VIEW, operation.getView().toCompactJson());
-            if (null != operation.getDirectedType()) {
-                scan.setAttribute(HBaseStoreConstants.DIRECTED_TYPE, Bytes.toBytes(operation.getDirectedType().name()));
+            final ExecutorService executor = store.getRetrieverExecutor();
+            final int maxConcurrentScans = store.getProperties().getMaxConcurrentScansPerQuery();
+            if (null != executor && maxConcurrentScans > 1) {
+                final List<Scan> scans = createPartitionedScans(rowRanges, maxConcurrentScans);
+                if (scans.size() > 1) {
+                    final Iterable[] scanners = new Iterable[scans.size()];
+                    for (int i = 0; i < scanners.length; i++) {
+                        scanners[i] = new ResultScannerIterable(scans.get(i));
+                    }
+                    return new ConcurrentChainedIterable<>(executor,
+                            store.getProperties().getRetrieverBufferSize(),
+                            store.getProperties().isOrderedRetrieval(),
+                            0,
+                            store.getProperties().getRetrieverIdleTimeout(),
+                            scanners);
+                }
             }
-            if (null != extraProcessors) {
-                scan.setAttribute(HBaseStoreConstants.EXTRA_PROCESSORS, extraProcessors);
+
+            final Scan scan = createScan();
+            if (null != rowRanges) {
+                scan.setFilter(new MultiRowRangeFilter(rowRanges));
             }
-            scan.setMaxVersions();
             table = store.getTable();
             return new WrappedCloseableIterable<>(table.getScanner(scan));
         } catch (final IOException | StoreException e) {
@@ -191,6 +206,49 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
         }
     }
 
+    private List<Scan> createPartitionedScans(final List<MultiRowRangeFilter.RowRange> rowRanges, final int maxConcurrentScans) throws StoreException, IOException {
+        final byte[][] regionStartKeys = store.getRegionStartKeys();
+        final List<Scan> scans = new ArrayList<>(maxConcurrentScans);
+        if (null == rowRanges) {
+            for (final MultiRowRangeFilter.RowRange regionRange : RowRangePartitioner.partitionRegions(regionStartKeys, maxConcurrentScans)) {
+                final Scan scan = createScan();
+                scan.setStartRow(regionRange.getStartRow());
+                scan.setStopRow(regionRange.getStopRow());
+                scans.add(scan);
+            }
+        } else {
+            for (final List<MultiRowRangeFilter.RowRange> partition : RowRangePartitioner.partition(rowRanges, regionStartKeys, maxConcurrentScans)) {
+                final Scan scan = createScan();
+                scan.setStartRow(partition.get(0).getStartRow());
+                // Stop the scan at the end of the partition's last region
+                final byte[] lastStartRow = partition.get(partition.size() - 1).getStartRow();
+                final int nextRegion = RowRangePartitioner.getRegionIndex(regionStartKeys, lastStartRow) + 1;
+                if (null != regionStartKeys && nextRegion < regionStartKeys.length) {
+                    scan.setStopRow(regionStartKeys[nextRegion]);
+                }
+                scan.setFilter(new MultiRowRangeFilter(partition));
+                scans.add(scan);
+            }
+        }
+        return scans;
+    }
+
+    private Scan createScan() {
+        final Scan scan = new Scan();
+        scan.setAuthorizations(authorisations);
+        scan.setAttribute(HBaseStoreConstants.SCHEMA, schemaJson);
+        scan.setAttribute(HBaseStoreConstants.INCLUDE_MATCHED_VERTEX, Bytes.toBytes(Boolean.toString(includeMatchedVertex)));
+        scan.setAttribute(HBaseStoreConstants.VIEW, viewJson);
+        if (null != operation.getDirectedType()) {
+            scan.setAttribute(HBaseStoreConstants.DIRECTED_TYPE, Bytes.toBytes(operation.getDirectedType().name()));
+        }
+        if (null != extraProcessors) {
+            scan.setAttribute(HBaseStoreConstants.EXTRA_PROCESSORS, extraProcessors);
+        }
+        scan.setMaxVersions();
+        return scan;
+    }
+
     public class BatchedResultScanner extends BatchedIterable<Result> {
         @Override
         protected Iterable<Result> createBatch() {
@@ -198,6 +256,59 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
         }
     }
 
+    /**
+     * Opens its own table and scanner when iterated, so it can be consumed
+     * on a different thread to the one that created it.
+     */
+    private final class ResultScannerIterable implements CloseableIterable<Result> {
+        private final Scan scan;
+
+        private ResultScannerIterable(final Scan scan) {
+            this.scan = scan;
+        }
+
+        @Override
+        public void close() {
+            // The table and scanner are closed by each iterator
+        }
+
+        @Override
+        public CloseableIterator<Result> iterator() {
+            final Table table;
+            final ResultScanner scanner;
+            try {
+                table = store.getTable();
+            } catch (final StoreException e) {
+                throw new RuntimeException(e);
+            }
+            try {
+                scanner = table.getScanner(scan);
+            } catch (final IOException e) {
+                CloseableUtil.close(table);
+                throw new RuntimeException(e);
+            }
+
+            final Iterator<Result> results = scanner.iterator();
+            return new CloseableIterator<Result>() {
+                @Override
+                public void close() {
+                    CloseableUtil.close(scanner);
+                    CloseableUtil.close(table);
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return results.hasNext();
+                }
+
+                @Override
+                public Result next() {
+                    return results.next();
+                }
+            };
+        }
+    }
+
     private final class HBaseRetrieverIterable extends TransformOneToManyIterable<Result, Element> {
         private final CloseableIterable<Result> scanner;
 
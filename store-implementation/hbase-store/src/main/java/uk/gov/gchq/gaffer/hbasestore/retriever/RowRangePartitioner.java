@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.retriever;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+
+/**
+ * Utility methods for splitting the rows of a query into contiguous
+ * partitions, split on the region start keys from the table's
+ * {@code RegionLocator}, so that each partition can be scanned concurrently
+ * and no region is scanned by more than one partition.
+ */
+public final class RowRangePartitioner {
+    private RowRangePartitioner() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * Sorts and merges the row ranges, splits any range that spans more than
+     * one region at the region start keys and then groups the ranges by
+     * region into at most {@code maxPartitions} partitions of contiguous
+     * regions. Each region's ranges are only ever in one partition, and the
+     * regions are shared out between the partitions as evenly as possible.
+     *
+     * @param rowRanges       the row ranges to partition
+     * @param regionStartKeys the sorted start keys of the table regions
+     * @param maxPartitions   the maximum number of partitions
+     * @return the partitions, in row order
+     */
+    public static List<List<RowRange>> partition(final List<RowRange> rowRanges,
+                                                 final byte[][] regionStartKeys,
+                                                 final int maxPartitions) {
+        final List<RowRange> sortedRanges = MultiRowRangeFilter.sortAndMerge(new ArrayList<>(rowRanges));
+        if (maxPartitions <= 1 || sortedRanges.isEmpty()) {
+            return Collections.singletonList(sortedRanges);
+        }
+
+        final List<List<RowRange>> regions = groupByRegion(sortedRanges, regionStartKeys);
+        if (regions.size() <= maxPartitions) {
+            return regions;
+        }
+
+        final List<List<RowRange>> partitions = new ArrayList<>(maxPartitions);
+        for (int i = 0; i < maxPartitions; i++) {
+            final int from = i * regions.size() / maxPartitions;
+            final int to = (i + 1) * regions.size() / maxPartitions;
+            final List<RowRange> partition = new ArrayList<>();
+            for (final List<RowRange> region : regions.subList(from, to)) {
+                partition.addAll(region);
+            }
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    /**
+     * Splits the whole table into at most {@code maxPartitions} contiguous
+     * row ranges of whole regions. An empty start or stop row means the
+     * range is unbounded.
+     *
+     * @param regionStartKeys the sorted start keys of the table regions
+     * @param maxPartitions   the maximum number of partitions
+     * @return the row ranges of the partitions, in row order
+     */
+    public static List<RowRange> partitionRegions(final byte[][] regionStartKeys, final int maxPartitions) {
+        final int numRegions = null != regionStartKeys ? regionStartKeys.length : 0;
+        if (maxPartitions <= 1 || numRegions <= 1) {
+            return Collections.singletonList(new RowRange(HConstants.EMPTY_START_ROW, true, HConstants.EMPTY_END_ROW, false));
+        }
+
+        final int regionsPerPartition = (numRegions + maxPartitions - 1) / maxPartitions;
+        final List<RowRange> partitions = new ArrayList<>(maxPartitions);
+        for (int i = 0; i < numRegions; i += regionsPerPartition) {
+            final int next = i + regionsPerPartition;
+            final byte[] startRow = 0 == i ? HConstants.EMPTY_START_ROW : regionStartKeys[i];
+            final byte[] stopRow = next >= numRegions ? HConstants.EMPTY_END_ROW : regionStartKeys[next];
+            partitions.add(new RowRange(startRow, true, stopRow, false));
+        }
+        return partitions;
+    }
+
+    // Splits the sorted ranges at the region start keys and groups them by
+    // the region they are in, in row order
+    private static List<List<RowRange>> groupByRegion(final List<RowRange> sortedRanges,
+                                                      final byte[][] regionStartKeys) {
+        final int numRegions = null != regionStartKeys ? regionStartKeys.length : 0;
+        final List<List<RowRange>> regions = new ArrayList<>();
+        List<RowRange> regionRanges = null;
+        int currentRegion = -1;
+        for (final RowRange range : sortedRanges) {
+            byte[] startRow = range.getStartRow();
+            boolean startRowInclusive = range.isStartRowInclusive();
+            int region = getRegionIndex(regionStartKeys, startRow);
+            while (true) {
+                final int nextRegion = region + 1;
+                final boolean splitAtNextRegion = nextRegion < numRegions
+                        && (0 == range.getStopRow().length
+                        || Bytes.compareTo(regionStartKeys[nextRegion], range.getStopRow()) < 0);
+                if (region != currentRegion) {
+                    regionRanges = new ArrayList<>();
+                    regions.add(regionRanges);
+                    currentRegion = region;
+                }
+                if (!splitAtNextRegion) {
+                    regionRanges.add(new RowRange(startRow, startRowInclusive, range.getStopRow(), range.isStopRowInclusive()));
+                    break;
+                }
+                regionRanges.add(new RowRange(startRow, startRowInclusive, regionStartKeys[nextRegion], false));
+                startRow = regionStartKeys[nextRegion];
+                startRowInclusive = true;
+                region = nextRegion;
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Finds the region containing the row.
+     *
+     * @param regionStartKeys the sorted start keys of the table regions
+     * @param row             the row
+     * @return the index of the region containing the row
+     */
+    public static int getRegionIndex(final byte[][] regionStartKeys, final byte[] row) {
+        if (null == regionStartKeys || 0 == regionStartKeys.length || null == row || 0 == row.length) {
+            return 0;
+        }
+
+        // Find the last region with a start key less than or equal to the row
+        int low = 0;
+        int high = regionStartKeys.length - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (Bytes.compareTo(regionStartKeys[mid], row) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
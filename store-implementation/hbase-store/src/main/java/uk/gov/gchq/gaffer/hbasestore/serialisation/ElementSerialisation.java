@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.ByteArrayEscapeUtils;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.CompactProperties;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.EdgeDirection;
 import uk.gov.gchq.gaffer.data.element.Element;
@@ -98,9 +99,8 @@ public class ElementSerialisation {
 
     public Properties getPropertiesFromValue(final String group, final byte[] value)
             throws SerialisationException {
-        final Properties properties = new Properties();
         if (null == value || value.length == 0) {
-            return properties;
+            return new Properties();
         }
         int lastDelimiter = 0;
         final int arrayLength = value.length;
@@ -108,9 +108,13 @@ public class ElementSerialisation {
         if (null == elementDefinition) {
             throw new SerialisationException("No SchemaElementDefinition found for group " + group + ", is this group in your schema or do your table iterators need updating?");
         }
+        final CompactProperties properties = new CompactProperties(elementDefinition.getPropertySlots());
         final Iterator<String> propertyNames = elementDefinition.getProperties().iterator();
+        // The slot index of each property is its position in the schema
+        int slot = -1;
         while (propertyNames.hasNext() && lastDelimiter < arrayLength) {
             final String propertyName = propertyNames.next();
+            slot++;
             if (isStoredInValue(propertyName, elementDefinition)) {
                 final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyName);
                 final ToBytesSerialiser serialiser = (null != typeDefinition) ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
@@ -126,14 +130,14 @@ public class ElementSerialisation {
                     lastDelimiter += numBytesForLength;
                     if (currentPropLength > 0) {
                         try {
-                            properties.put(propertyName, serialiser.deserialise(value, lastDelimiter, currentPropLength));
+                            properties.put(slot, serialiser.deserialise(value, lastDelimiter, currentPropLength));
                             lastDelimiter += currentPropLength;
                         } catch (final SerialisationException e) {
                             throw new SerialisationException("Failed to deserialise property " + propertyName, e);
                         }
                     } else {
                         try {
-                            properties.put(propertyName, serialiser.deserialiseEmpty());
+                            properties.put(slot, serialiser.deserialiseEmpty());
                         } catch (final SerialisationException e) {
                             throw new SerialisationException("Failed to deserialise property " + propertyName, e);
                         }
@@ -240,7 +244,7 @@ public class ElementSerialisation {
             throw new SerialisationException("No SchemaElementDefinition found for group " + group + ", is this group in your schema or do your table iterators need updating?");
         }
 
-        final Properties properties = new Properties();
+        final Properties properties = new CompactProperties(elementDefinition.getPropertySlots());
         if (null == bytes || bytes.length == 0) {
             return properties;
         }
@@ -362,7 +366,7 @@ public class ElementSerialisation {
             throw new SerialisationException("No SchemaElementDefinition found for group " + group + ", is this group in your schema or do your table iterators need updating?");
         }
 
-        final Properties properties = new Properties();
+        final Properties properties = new CompactProperties(elementDefinition.getPropertySlots());
         // If the element group requires a timestamp property then add it.
         if (null != schema.getTimestampProperty() && elementDefinition.containsProperty(schema.getTimestampProperty())) {
             properties.put(schema.getTimestampProperty(), timestamp);
@@ -562,6 +566,11 @@ public class ElementSerialisation {
                 getPropertiesFromTimestamp(element.getGroup(), cell.getTimestamp()));
     }
 
+    private Properties createProperties(final String group) {
+        final SchemaElementDefinition elementDefinition = schema.getElement(group);
+        return null != elementDefinition ? new CompactProperties(elementDefinition.getPropertySlots()) : new Properties();
+    }
+
     private Edge getEdge(final Cell cell)
             throws SerialisationException {
         return getEdge(cell, false);
@@ -582,7 +591,7 @@ public class ElementSerialisation {
         final String group = getGroup(cell);
         try {
             final Edge edge = new Edge(group, ((ToBytesSerialiser) schema.getVertexSerialiser()).deserialise(result[0]),
-                    ((ToBytesSerialiser) schema.getVertexSerialiser()).deserialise(result[1]), direction.isDirected(), matchedVertex, null);
+                    ((ToBytesSerialiser) schema.getVertexSerialiser()).deserialise(result[1]), direction.isDirected(), matchedVertex, createProperties(group));
             addPropertiesToElement(edge, cell);
             return edge;
         } catch (final SerialisationException e) {
@@ -594,8 +603,9 @@ public class ElementSerialisation {
 
         try {
             final byte[] row = CellUtil.cloneRow(cell);
-            final Entity entity = new Entity(getGroup(cell), ((ToBytesSerialiser) schema.getVertexSerialiser())
-                    .deserialise(ByteArrayEscapeUtils.unEscape(row, 0, row.length - 2)));
+            final String group = getGroup(cell);
+            final Entity entity = new Entity(group, ((ToBytesSerialiser) schema.getVertexSerialiser())
+                    .deserialise(ByteArrayEscapeUtils.unEscape(row, 0, row.length - 2)), createProperties(group));
             addPropertiesToElement(entity, cell);
             return entity;
         } catch (final SerialisationException e) {
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class HBasePropertiesTest {
     @Test
@@ -39,11 +41,34 @@ public class HBasePropertiesTest {
         properties.setDependencyJarsHdfsDirPath("pathTo/jars");
         properties.setWriteBufferSize(10);
         properties.setZookeepers("zookeeper1,zookeeper2");
+        properties.setMaxConcurrentScansPerQuery("4");
+        properties.setRetrieverThreads("8");
+        properties.setRetrieverQueueSize("20");
+        properties.setRetrieverBufferSize("500");
+        properties.setOrderedRetrieval(false);
+        properties.setRetrieverIdleTimeout(1000L);
 
         // Then
         assertEquals(new Path("pathTo/jars"), properties.getDependencyJarsHdfsDirPath());
         assertEquals(10, properties.getWriteBufferSize());
         assertEquals("zookeeper1,zookeeper2", properties.getZookeepers());
+        assertEquals(4, properties.getMaxConcurrentScansPerQuery());
+        assertEquals(8, properties.getRetrieverThreads());
+        assertEquals(20, properties.getRetrieverQueueSize());
+        assertEquals(500, properties.getRetrieverBufferSize());
+        assertFalse(properties.isOrderedRetrieval());
+        assertEquals(1000L, properties.getRetrieverIdleTimeout());
+    }
+
+    @Test
+    public void shouldRetrieveSequentiallyAndInOrderByDefault() {
+        // Given
+        final HBaseProperties properties = new HBaseProperties();
+
+        // When / Then
+        assertEquals(1, properties.getMaxConcurrentScansPerQuery());
+        assertTrue(properties.isOrderedRetrieval());
+        assertEquals(300000L, properties.getRetrieverIdleTimeout());
     }
 
     @Test
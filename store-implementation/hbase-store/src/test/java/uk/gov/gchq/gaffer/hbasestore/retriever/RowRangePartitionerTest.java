@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.retriever;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RowRangePartitionerTest {
+    private static final byte[][] REGION_START_KEYS = {
+            HConstants.EMPTY_START_ROW,
+            Bytes.toBytes("d"),
+            Bytes.toBytes("h"),
+            Bytes.toBytes("m")
+    };
+
+    @Test
+    public void shouldGetRegionIndexForRow() {
+        assertEquals(0, RowRangePartitioner.getRegionIndex(REGION_START_KEYS, HConstants.EMPTY_START_ROW));
+        assertEquals(0, RowRangePartitioner.getRegionIndex(REGION_START_KEYS, Bytes.toBytes("a")));
+        assertEquals(1, RowRangePartitioner.getRegionIndex(REGION_START_KEYS, Bytes.toBytes("d")));
+        assertEquals(1, RowRangePartitioner.getRegionIndex(REGION_START_KEYS, Bytes.toBytes("g")));
+        assertEquals(2, RowRangePartitioner.getRegionIndex(REGION_START_KEYS, Bytes.toBytes("h")));
+        assertEquals(3, RowRangePartitioner.getRegionIndex(REGION_START_KEYS, Bytes.toBytes("z")));
+    }
+
+    @Test
+    public void shouldPartitionSortedRangesAtRegionBoundaries() {
+        // Given
+        final List<RowRange> ranges = Arrays.asList(
+                range("n", "o"),
+                range("a", "b"),
+                range("e", "f"),
+                range("b1", "c"),
+                range("i", "j"),
+                range("x", "y")
+        );
+
+        // When
+        final List<List<RowRange>> partitions = RowRangePartitioner.partition(ranges, REGION_START_KEYS, 3);
+
+        // Then
+        assertEquals(3, partitions.size());
+        assertStartRows(partitions.get(0), "a", "b1");
+        assertStartRows(partitions.get(1), "e");
+        assertStartRows(partitions.get(2), "i", "n", "x");
+    }
+
+    @Test
+    public void shouldNotSplitRangesStartingInTheSameRegion() {
+        // Given
+        final List<RowRange> ranges = Arrays.asList(
+                range("a", "a1"),
+                range("b", "b1"),
+                range("c", "c1"),
+                range("e", "f")
+        );
+
+        // When
+        final List<List<RowRange>> partitions = RowRangePartitioner.partition(ranges, REGION_START_KEYS, 4);
+
+        // Then
+        assertEquals(2, partitions.size());
+        assertStartRows(partitions.get(0), "a", "b", "c");
+        assertStartRows(partitions.get(1), "e");
+    }
+
+    @Test
+    public void shouldSplitRangesAtRegionStartKeys() {
+        // Given
+        final List<RowRange> ranges = Arrays.asList(range("c", "i"), range("n", "o"));
+
+        // When
+        final List<List<RowRange>> partitions = RowRangePartitioner.partition(ranges, REGION_START_KEYS, 4);
+
+        // Then
+        assertEquals(4, partitions.size());
+        assertStartRows(partitions.get(0), "c");
+        assertArrayEquals(Bytes.toBytes("d"), partitions.get(0).get(0).getStopRow());
+        assertStartRows(partitions.get(1), "d");
+        assertArrayEquals(Bytes.toBytes("h"), partitions.get(1).get(0).getStopRow());
+        assertStartRows(partitions.get(2), "h");
+        assertArrayEquals(Bytes.toBytes("i"), partitions.get(2).get(0).getStopRow());
+        assertStartRows(partitions.get(3), "n");
+    }
+
+    @Test
+    public void shouldShareRegionsEvenlyBetweenPartitions() {
+        // Given
+        final List<RowRange> ranges = Collections.singletonList(
+                new RowRange(HConstants.EMPTY_START_ROW, true, HConstants.EMPTY_END_ROW, false));
+
+        // When
+        final List<List<RowRange>> partitions = RowRangePartitioner.partition(ranges, REGION_START_KEYS, 3);
+
+        // Then
+        assertEquals(3, partitions.size());
+        assertStartRows(partitions.get(0), "");
+        assertStartRows(partitions.get(1), "d");
+        assertStartRows(partitions.get(2), "h", "m");
+        assertArrayEquals(HConstants.EMPTY_END_ROW, partitions.get(2).get(1).getStopRow());
+    }
+
+    @Test
+    public void shouldReturnSinglePartitionWhenMaxPartitionsIsOne() {
+        // Given
+        final List<RowRange> ranges = Arrays.asList(range("n", "o"), range("a", "b"));
+
+        // When
+        final List<List<RowRange>> partitions = RowRangePartitioner.partition(ranges, REGION_START_KEYS, 1);
+
+        // Then
+        assertEquals(1, partitions.size());
+        assertStartRows(partitions.get(0), "a", "n");
+    }
+
+    @Test
+    public void shouldPartitionRegionsIntoContiguousRanges() {
+        // When
+        final List<RowRange> partitions = RowRangePartitioner.partitionRegions(REGION_START_KEYS, 2);
+
+        // Then
+        assertEquals(2, partitions.size());
+        assertArrayEquals(HConstants.EMPTY_START_ROW, partitions.get(0).getStartRow());
+        assertArrayEquals(Bytes.toBytes("h"), partitions.get(0).getStopRow());
+        assertArrayEquals(Bytes.toBytes("h"), partitions.get(1).getStartRow());
+        assertArrayEquals(HConstants.EMPTY_END_ROW, partitions.get(1).getStopRow());
+    }
+
+    @Test
+    public void shouldPartitionEachRegionWhenMorePartitionsThanRegions() {
+        // When
+        final List<RowRange> partitions = RowRangePartitioner.partitionRegions(REGION_START_KEYS, 10);
+
+        // Then
+        assertEquals(4, partitions.size());
+        assertArrayEquals(Bytes.toBytes("d"), partitions.get(1).getStartRow());
+        assertArrayEquals(Bytes.toBytes("h"), partitions.get(1).getStopRow());
+    }
+
+    private static RowRange range(final String start, final String stop) {
+        return new RowRange(Bytes.toBytes(start), true, Bytes.toBytes(stop), false);
+    }
+
+    private static void assertStartRows(final List<RowRange> partition, final String... expectedStartRows) {
+        final List<String> startRows = new ArrayList<>(partition.size());
+        for (final RowRange range : partition) {
+            startRows.add(Bytes.toString(range.getStartRow()));
+        }
+        assertEquals(Arrays.asList(expectedStartRows), startRows);
+    }
+}
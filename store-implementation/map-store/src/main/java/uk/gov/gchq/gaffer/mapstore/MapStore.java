@@ -45,6 +45,10 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An implementation of {@link Store} that uses any class that implements Java's {@link java.util.Map} interface to
@@ -67,8 +71,10 @@ public class MapStore extends Store {
             StoreTrait.TRANSFORMATION,
             StoreTrait.POST_TRANSFORMATION_FILTERING));
     private static final Logger LOGGER = LoggerFactory.getLogger(MapStore.class);
+    private static final long INGEST_EXECUTOR_KEEP_ALIVE_SECONDS = 60L;
     private static MapImpl staticMapImpl;
     private MapImpl mapImpl;
+    private ExecutorService ingestExecutor;
 
     public static void resetStaticMap() {
         staticMapImpl = null;
@@ -81,12 +87,26 @@ public class MapStore extends Store {
 
         // Initialise maps
         mapImpl = createMapImpl();
+        if (null != ingestExecutor) {
+            // Any elements still being added are added to the previous maps
+            ingestExecutor.shutdown();
+        }
+        ingestExecutor = createIngestExecutor();
     }
 
     public MapImpl getMapImpl() {
         return mapImpl;
     }
 
+    /**
+     * Get the executor used to add elements concurrently.
+     *
+     * @return the ingest executor, or null if elements should be added on the calling thread
+     */
+    public ExecutorService getIngestExecutor() {
+        return ingestExecutor;
+    }
+
     @Override
     public Set<StoreTrait> getTraits() {
         return TRAITS;
@@ -116,6 +136,24 @@ public class MapStore extends Store {
         return new MapImpl(getSchema(), getProperties());
     }
 
+    protected ExecutorService createIngestExecutor() {
+        final int threads = getProperties().getIngestThreads();
+        if (threads < 2) {
+            return null;
+        }
+
+        LOGGER.debug("Initialising ingest executor with {} threads", threads);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, INGEST_EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Override
     protected void addAdditionalOperationHandlers() {
         addOperationHandler(CountAllElementsDefaultView.class, new CountAllElementsDefaultViewHandler());
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import uk.gov.gchq.gaffer.mapstore.index.CompactElementIndex;
+import uk.gov.gchq.gaffer.mapstore.index.ElementIndex;
+
+/**
+ * A {@link SimpleMapFactory} that indexes elements using a {@link CompactElementIndex}
+ * rather than {@link uk.gov.gchq.gaffer.mapstore.multimap.MultiMap}s. This
+ * significantly reduces the memory used by the index for large graphs.
+ * <p>
+ * To use this factory, set gaffer.store.mapstore.map.factory=uk.gov.gchq.gaffer.mapstore.factory.CompactIndexMapFactory
+ * </p>
+ */
+public class CompactIndexMapFactory extends SimpleMapFactory {
+    private ElementIndex elementIndex;
+
+    @Override
+    public ElementIndex getElementIndex() {
+        if (null == elementIndex) {
+            elementIndex = new CompactElementIndex();
+        }
+        return elementIndex;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        elementIndex = null;
+    }
+}
@@ -16,7 +16,11 @@
 package uk.gov.gchq.gaffer.mapstore.factory;
 
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.index.ElementIndex;
+import uk.gov.gchq.gaffer.mapstore.index.MultiMapElementIndex;
 import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
@@ -64,6 +68,22 @@ public interface MapFactory {
      */
     <K, V> MultiMap<K, V> getMultiMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass);
 
+    /**
+     * Create the {@link ElementIndex} used to look up elements by their ids.
+     *
+     * By default the index is backed by the named {@link MultiMap}s
+     * {@link MultiMapElementIndex#ENTITY_ID_TO_ELEMENTS} and
+     * {@link MultiMapElementIndex#EDGE_ID_TO_ELEMENTS}.
+     *
+     * @return the element index
+     */
+    default ElementIndex getElementIndex() {
+        return new MultiMapElementIndex(
+                getMultiMap(MultiMapElementIndex.ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class),
+                getMultiMap(MultiMapElementIndex.EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class)
+        );
+    }
+
     /**
      * Update a value associated with a key in a specified map object.
      *
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.index.ElementIndex;
+import uk.gov.gchq.gaffer.mapstore.index.OffHeapElementIndex;
+import uk.gov.gchq.gaffer.mapstore.offheap.OffHeapMap;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.RawLongSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+import uk.gov.gchq.gaffer.store.serialiser.GroupedPropertiesSerialiser;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link MapFactory} that stores the elements of a {@link uk.gov.gchq.gaffer.mapstore.MapStore}
+ * off the Java heap in {@link OffHeapMap}s, so the size of the graph is not
+ * limited by the heap size and large graphs do not cause long garbage
+ * collection pauses.
+ * <p>
+ * Elements and their properties are serialised using the vertex serialiser
+ * and property serialisers in the schema, which must all be
+ * {@link ToBytesSerialiser}s. By default the maps are held in direct memory,
+ * which is limited by the JVM option -XX:MaxDirectMemorySize. If
+ * gaffer.store.mapstore.offheap.directory is set, the maps are instead held in
+ * memory mapped files in that directory and are reloaded when the store is
+ * next created, so the graph does not need to be re-ingested.
+ * </p>
+ * <p>
+ * The element index is also held off heap, in an {@link OffHeapElementIndex}.
+ * It is always held in direct memory and is rebuilt from the maps when they
+ * are reloaded from files.
+ * </p>
+ */
+public class OffHeapMapFactory extends SimpleMapFactory {
+    public static final String PAGE_SIZE = "gaffer.store.mapstore.offheap.page.size";
+    public static final String PAGE_SIZE_DEFAULT = String.valueOf(OffHeapMap.DEFAULT_PAGE_SIZE);
+    public static final String DIRECTORY = "gaffer.store.mapstore.offheap.directory";
+
+    private final Map<String, OffHeapMap> maps = new HashMap<>();
+    private Schema schema;
+    private ElementIndex elementIndex;
+    private int pageSize = OffHeapMap.DEFAULT_PAGE_SIZE;
+    private File directory;
+
+    @Override
+    public void initialise(final Schema schema, final MapStoreProperties properties) {
+        super.initialise(schema, properties);
+        validateSchema(schema);
+        this.schema = schema;
+
+        pageSize = Integer.parseInt(properties.get(PAGE_SIZE, PAGE_SIZE_DEFAULT));
+        final String directoryPath = properties.get(DIRECTORY);
+        if (null == directoryPath) {
+            directory = null;
+        } else {
+            directory = new File(directoryPath);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IllegalArgumentException("Unable to create directory: " + directoryPath);
+            }
+        }
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        final ToBytesSerialiser keySerialiser = getSerialiser(keyClass);
+        final ToBytesSerialiser valueSerialiser = getSerialiser(valueClass);
+        if (null == keySerialiser || null == valueSerialiser) {
+            return super.getMap(mapName, keyClass, valueClass);
+        }
+
+        return maps.computeIfAbsent(mapName, n -> new OffHeapMap<>(keySerialiser, valueSerialiser, pageSize, getFile(n)));
+    }
+
+    @Override
+    public ElementIndex getElementIndex() {
+        if (null == elementIndex) {
+            elementIndex = new OffHeapElementIndex(new ElementSerialiser(schema), (ToBytesSerialiser) schema.getVertexSerialiser(), pageSize);
+        }
+        return elementIndex;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (final OffHeapMap map : maps.values()) {
+            CloseableUtil.close(map);
+        }
+        maps.clear();
+        if (null != elementIndex) {
+            elementIndex.clear();
+            elementIndex = null;
+        }
+    }
+
+    /**
+     * Checks that the vertices and properties in the schema can be serialised
+     * off heap.
+     *
+     * @param schema the schema to validate
+     * @throws IllegalArgumentException if the vertex serialiser or a property
+     *                                  serialiser is not a {@link ToBytesSerialiser}
+     */
+    public static void validateSchema(final Schema schema) {
+        if (!(schema.getVertexSerialiser() instanceof ToBytesSerialiser)) {
+            throw new IllegalArgumentException("The schema vertex serialiser must be a " + ToBytesSerialiser.class.getSimpleName()
+                    + " to store elements off heap");
+        }
+        for (final String group : schema.getGroups()) {
+            final SchemaElementDefinition elementDefinition = schema.getElement(group);
+            for (final String property : elementDefinition.getProperties()) {
+                final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(property);
+                if (null != typeDefinition && null != typeDefinition.getSerialiser()
+                        && !(typeDefinition.getSerialiser() instanceof ToBytesSerialiser)) {
+                    throw new IllegalArgumentException("The serialiser for property " + property + " in group " + group
+                            + " must be a " + ToBytesSerialiser.class.getSimpleName() + " to store elements off heap");
+                }
+            }
+        }
+    }
+
+    private ToBytesSerialiser getSerialiser(final Class<?> clazz) {
+        if (Element.class.equals(clazz)) {
+            return new ElementSerialiser(schema);
+        }
+        if (GroupedProperties.class.equals(clazz)) {
+            return new GroupedPropertiesSerialiser(schema);
+        }
+        if (Long.class.equals(clazz)) {
+            return new RawLongSerialiser();
+        }
+        return null;
+    }
+
+    private File getFile(final String mapName) {
+        if (null == directory) {
+            return null;
+        }
+        return new File(directory, mapName.replaceAll("[^A-Za-z0-9_.-]", "_") + ".map");
+    }
+}
@@ -18,16 +18,10 @@ package uk.gov.gchq.gaffer.mapstore.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
-import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
-import uk.gov.gchq.gaffer.data.element.id.EdgeId;
-import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.operation.OperationException;
-import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
-import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
@@ -39,12 +33,21 @@ import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * An {@link OperationHandler} for the {@link AddElements} operation on the {@link MapStore}.
+ * <p>
+ * If the store has an ingest executor, each batch of elements is partitioned
+ * by the stripe of the {@link MapImpl} the elements belong to and the
+ * partitions are added concurrently.
+ * </p>
  */
 public class AddElementsHandler implements OperationHandler<AddElements> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AddElementsHandler.class);
+    private static final int CONCURRENT_BATCH_SIZE_DEFAULT = 10000;
 
     @Override
     public Void doOperation(final AddElements addElements, final Context context, final Store store) throws OperationException {
@@ -57,13 +60,16 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         return null;
     }
 
-    private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) {
+    private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) throws OperationException {
         final MapImpl mapImpl = mapStore.getMapImpl();
         final Schema schema = mapStore.getSchema();
 
         final int bufferSize = mapStore.getProperties().getIngestBufferSize();
+        final ExecutorService executor = mapStore.getIngestExecutor();
 
-        if (bufferSize < 1) {
+        if (null != executor && mapImpl.getNumStripes() > 1) {
+            addElementsConcurrently(elements, mapImpl, schema, executor, bufferSize);
+        } else if (bufferSize < 1) {
             // Add all elements directly
             addBatch(mapImpl, schema, elements);
         } else {
@@ -88,14 +94,109 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         }
     }
 
+    private void addElementsConcurrently(final Iterable<? extends Element> elements, final MapImpl mapImpl, final Schema schema,
+                                         final ExecutorService executor, final int bufferSize) throws OperationException {
+        // Elements are aggregated when they are merged into each stripe so there is no need to aggregate each batch first
+        final int batchSize = bufferSize < 1 ? CONCURRENT_BATCH_SIZE_DEFAULT : bufferSize;
+        LOGGER.info("Adding elements concurrently in batches, batch size = " + batchSize);
+        final List<Element> batch = new ArrayList<>(batchSize);
+        for (final Element element : elements) {
+            if (null != element) {
+                batch.add(element);
+                if (batch.size() >= batchSize) {
+                    addBatchConcurrently(mapImpl, schema, batch, executor);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            addBatchConcurrently(mapImpl, schema, batch, executor);
+        }
+    }
+
+    private void addBatchConcurrently(final MapImpl mapImpl, final Schema schema, final List<Element> elements,
+                                      final ExecutorService executor) throws OperationException {
+        final int numStripes = mapImpl.getNumStripes();
+        final List<List<Element>> keysByStripe = new ArrayList<>(numStripes);
+        final List<List<GroupedProperties>> propertiesByStripe = new ArrayList<>(numStripes);
+        for (int stripe = 0; stripe < numStripes; stripe++) {
+            keysByStripe.add(new ArrayList<>());
+            propertiesByStripe.add(new ArrayList<>());
+        }
+
+        final List<Element> keys = new ArrayList<>(elements.size());
+        for (final Element element : elements) {
+            final Element key;
+            final GroupedProperties properties;
+            if (!mapImpl.isAggregationEnabled(element)) {
+                key = getNonAggElement(element, schema);
+                properties = null;
+            } else {
+                key = getElementWithGroupByProperties(element, mapImpl);
+                properties = getNonGroupByProperties(element, mapImpl);
+            }
+
+            final int stripe = mapImpl.getStripe(key);
+            keysByStripe.get(stripe).add(key);
+            propertiesByStripe.get(stripe).add(properties);
+            keys.add(key);
+        }
+
+        // Add the last non empty stripe on this thread
+        int lastStripe = numStripes - 1;
+        while (lastStripe > 0 && keysByStripe.get(lastStripe).isEmpty()) {
+            lastStripe--;
+        }
+        final List<Future<?>> futures = new ArrayList<>(lastStripe);
+        for (int stripe = 0; stripe < lastStripe; stripe++) {
+            if (!keysByStripe.get(stripe).isEmpty()) {
+                final int stripeToAdd = stripe;
+                futures.add(executor.submit(() -> addStripe(mapImpl, stripeToAdd, keysByStripe.get(stripeToAdd), propertiesByStripe.get(stripeToAdd))));
+            }
+        }
+        addStripe(mapImpl, lastStripe, keysByStripe.get(lastStripe), propertiesByStripe.get(lastStripe));
+
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationException("Interrupted whilst adding elements", e);
+            } catch (final ExecutionException e) {
+                throw new OperationException("Failed to add elements: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        // Update the element index once the elements are in the maps
+        if (mapImpl.isMaintainIndex()) {
+            mapImpl.addIndex(keys);
+        }
+    }
+
+    private void addStripe(final MapImpl mapImpl, final int stripe, final List<Element> keys, final List<GroupedProperties> properties) {
+        mapImpl.lockStripe(stripe);
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                if (null == properties.get(i)) {
+                    mapImpl.addNonAggElement(stripe, keys.get(i));
+                } else {
+                    mapImpl.addAggElement(stripe, keys.get(i), properties.get(i));
+                }
+            }
+        } finally {
+            mapImpl.unlockStripe(stripe);
+        }
+    }
+
     private void addBatch(final MapImpl mapImpl, final Schema schema, final Iterable<? extends Element> elements) {
         for (final Element element : elements) {
             if (null != element) {
                 final Element elementForIndexing = addElement(element, schema, mapImpl);
 
-                // Update entityIdToElements and edgeIdToElements if index required
+                // Update the element index if required
                 if (mapImpl.isMaintainIndex()) {
-                    updateElementIndex(elementForIndexing, mapImpl);
+                    mapImpl.addIndex(elementForIndexing);
                 }
             }
         }
@@ -112,21 +213,34 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
     }
 
     private Element addAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
-        final String group = element.getGroup();
+        final Element elementWithGroupByProperties = getElementWithGroupByProperties(element, mapImpl);
+        mapImpl.addAggElement(elementWithGroupByProperties, getNonGroupByProperties(element, mapImpl));
+        return elementWithGroupByProperties;
+    }
+
+    private Element addNonAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
+        final Element elementClone = getNonAggElement(element, schema);
+        mapImpl.addNonAggElement(elementClone);
+        return elementClone;
+    }
+
+    private Element getElementWithGroupByProperties(final Element element, final MapImpl mapImpl) {
         final Element elementWithGroupByProperties = element.emptyClone();
-        final GroupedProperties properties = new GroupedProperties(element.getGroup());
-        for (final String propertyName : mapImpl.getGroupByProperties(group)) {
+        for (final String propertyName : mapImpl.getGroupByProperties(element.getGroup())) {
             elementWithGroupByProperties.putProperty(propertyName, element.getProperty(propertyName));
         }
-        for (final String propertyName : mapImpl.getNonGroupByProperties(group)) {
+        return elementWithGroupByProperties;
+    }
+
+    private GroupedProperties getNonGroupByProperties(final Element element, final MapImpl mapImpl) {
+        final GroupedProperties properties = new GroupedProperties(element.getGroup());
+        for (final String propertyName : mapImpl.getNonGroupByProperties(element.getGroup())) {
             properties.put(propertyName, element.getProperty(propertyName));
         }
-
-        mapImpl.addAggElement(elementWithGroupByProperties, properties);
-        return elementWithGroupByProperties;
+        return properties;
     }
 
-    private Element addNonAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
+    private Element getNonAggElement(final Element element, final Schema schema) {
         final Element elementClone = element.emptyClone();
 
         // Copy properties that exist in the schema
@@ -134,28 +248,6 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         for (final String property : elementDef.getProperties()) {
             elementClone.putProperty(property, element.getProperty(property));
         }
-
-        mapImpl.addNonAggElement(elementClone);
         return elementClone;
     }
-
-    private void updateElementIndex(final Element element, final MapImpl mapImpl) {
-        if (element instanceof Entity) {
-            final Entity entity = (Entity) element;
-            final EntityId entityId = new EntitySeed(entity.getVertex());
-            mapImpl.addIndex(entityId, element);
-        } else {
-            final Edge edge = (Edge) element;
-            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
-            final EntityId sourceEntityId = new EntitySeed(edge.getSource());
-            mapImpl.addIndex(sourceEntityId, edge);
-
-            final Edge destMatchedEdge = new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties());
-            final EntityId destinationEntityId = new EntitySeed(edge.getDestination());
-            mapImpl.addIndex(destinationEntityId, destMatchedEdge);
-
-            final EdgeId edgeId = new EdgeSeed(edge.getSource(), edge.getDestination(), edge.isDirected());
-            mapImpl.addIndex(edgeId, edge);
-        }
-    }
 }
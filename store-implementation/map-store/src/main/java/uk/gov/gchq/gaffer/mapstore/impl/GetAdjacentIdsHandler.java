@@ -86,7 +86,7 @@ public class GetAdjacentIdsHandler implements
                                     .map(mapImpl::getAggElement));
 
             // Apply the view
-            elementStream = GetElementsUtil.applyView(elementStream, schema, getAdjacentIds.getView());
+            elementStream = new ViewFilterPlan(schema, getAdjacentIds.getView()).apply(elementStream);
 
             final Stream<EntityId> adjacentIdsStream = elementStream
                     .filter(Objects::nonNull)
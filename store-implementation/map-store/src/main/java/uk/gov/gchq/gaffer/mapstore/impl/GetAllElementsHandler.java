@@ -62,7 +62,7 @@ public class GetAllElementsHandler implements OutputOperationHandler<GetAllEleme
         public CloseableIterator<Element> iterator() {
             Stream<Element> elements = mapImpl.getAllElements(getAllElements.getView().getGroups());
             elements = GetElementsUtil.applyDirectedTypeFilter(elements, getAllElements.getView().hasEdges(), getAllElements.getDirectedType());
-            elements = GetElementsUtil.applyView(elements, schema, getAllElements.getView());
+            elements = new ViewFilterPlan(schema, getAllElements.getView()).apply(elements);
             elements = elements.map(element -> mapImpl.cloneElement(element, schema));
             elements = elements.map(element -> {
                 ViewUtil.removeProperties(getAllElements.getView(), element);
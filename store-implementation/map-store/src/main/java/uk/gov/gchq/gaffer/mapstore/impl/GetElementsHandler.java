@@ -76,7 +76,7 @@ public class GetElementsHandler
             Stream<Element> elements = Streams.toStream(getElements.getInput())
                     .flatMap(elementId -> GetElementsUtil.getRelevantElements(mapImpl, elementId, getElements.getView(), getElements.getDirectedType(), getElements.getIncludeIncomingOutGoing(), getElements.getSeedMatching()).stream());
             elements = elements.flatMap(e -> Streams.toStream(mapImpl.getElements(e)));
-            elements = GetElementsUtil.applyView(elements, schema, getElements.getView());
+            elements = new ViewFilterPlan(schema, getElements.getView()).apply(elements);
             elements = elements.map(element -> mapImpl.cloneElement(element, schema));
             elements = elements.map(element -> {
                 ViewUtil.removeProperties(getElements.getView(), element);
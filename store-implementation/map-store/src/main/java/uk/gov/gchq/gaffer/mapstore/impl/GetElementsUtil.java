@@ -19,13 +19,11 @@ package uk.gov.gchq.gaffer.mapstore.impl;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
-import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
 import uk.gov.gchq.gaffer.data.element.id.DirectedType;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
-import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.operation.SeedMatching.SeedMatchingType;
 import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
 import uk.gov.gchq.gaffer.operation.data.EntitySeed;
@@ -36,7 +34,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
@@ -57,9 +54,6 @@ public final class GetElementsUtil {
                                                    final SeedMatchingType seedMatchingType) {
         final Set<Element> relevantElements;
 
-        final Set<String> groups = view.getGroups();
-        Predicate<Element> isFiltered = e -> !groups.contains(e.getGroup());
-
         if (elementId instanceof EntityId) {
             final Collection<Element> elements = mapImpl.lookup((EntityId) elementId);
             if (elements.isEmpty()) {
@@ -67,21 +61,6 @@ public final class GetElementsUtil {
             }
 
             relevantElements = new HashSet<>(elements);
-
-            // Apply inOutType options - if option is EITHER then nothing to do
-            if (inOutType == IncludeIncomingOutgoingType.INCOMING) {
-                isFiltered = isFiltered.or(e -> e instanceof Edge
-                        && ((Edge) e).isDirected()
-                        && (EdgeId.MatchedVertex.SOURCE == ((Edge) e).getMatchedVertex()));
-            } else if (inOutType == IncludeIncomingOutgoingType.OUTGOING) {
-                isFiltered = isFiltered.or(e -> e instanceof Edge
-                        && ((Edge) e).isDirected()
-                        && (EdgeId.MatchedVertex.DESTINATION == ((Edge) e).getMatchedVertex()));
-            }
-            // Apply seedMatching option - if option is RELATED then nothing to do
-            if (seedMatchingType == SeedMatchingType.EQUAL) {
-                isFiltered = isFiltered.or(e -> e instanceof Edge);
-            }
         } else {
             relevantElements = new HashSet<>();
 
@@ -101,23 +80,51 @@ public final class GetElementsUtil {
                     .stream()
                     .filter(e -> e instanceof Entity)
                     .forEach(relevantElements::add);
+        }
 
-            // Apply seedMatching option
-            // If option is RELATED then nothing to do
-            if (seedMatchingType == SeedMatchingType.EQUAL) {
-                isFiltered = isFiltered.or(e -> e instanceof Entity);
-            }
+        final boolean isEntityId = elementId instanceof EntityId;
+        relevantElements.removeIf(e -> isFiltered(e, isEntityId, view, directedType, inOutType, seedMatchingType));
+        return relevantElements;
+    }
+
+    // Evaluates all the options in a single pass rather than composing a predicate for each seed
+    private static boolean isFiltered(final Element element,
+                                      final boolean isEntityId,
+                                      final View view,
+                                      final DirectedType directedType,
+                                      final IncludeIncomingOutgoingType inOutType,
+                                      final SeedMatchingType seedMatchingType) {
+        if (null == view.getElement(element.getGroup())) {
+            return true;
         }
 
-        // Apply directedType flag
-        if (directedType == DirectedType.DIRECTED) {
-            isFiltered = isFiltered.or(e -> e instanceof Edge && !((Edge) e).isDirected());
-        } else if (directedType == DirectedType.UNDIRECTED) {
-            isFiltered = isFiltered.or(e -> e instanceof Edge && ((Edge) e).isDirected());
+        if (element instanceof Edge) {
+            final Edge edge = (Edge) element;
+            if (isEntityId) {
+                // Apply seedMatching option - if option is RELATED then nothing to do
+                if (seedMatchingType == SeedMatchingType.EQUAL) {
+                    return true;
+                }
+                // Apply inOutType options - if option is EITHER then nothing to do
+                if (edge.isDirected()) {
+                    if (inOutType == IncludeIncomingOutgoingType.INCOMING
+                            && EdgeId.MatchedVertex.SOURCE == edge.getMatchedVertex()) {
+                        return true;
+                    }
+                    if (inOutType == IncludeIncomingOutgoingType.OUTGOING
+                            && EdgeId.MatchedVertex.DESTINATION == edge.getMatchedVertex()) {
+                        return true;
+                    }
+                }
+            }
+
+            // Apply directedType flag
+            return (directedType == DirectedType.DIRECTED && !edge.isDirected())
+                    || (directedType == DirectedType.UNDIRECTED && edge.isDirected());
         }
 
-        relevantElements.removeIf(isFiltered);
-        return relevantElements;
+        // Apply seedMatching option - if option is RELATED then nothing to do
+        return !isEntityId && seedMatchingType == SeedMatchingType.EQUAL;
     }
 
     public static Stream<Element> applyDirectedTypeFilter(final Stream<Element> elements,
@@ -134,45 +141,19 @@ public final class GetElementsUtil {
         return filteredElements;
     }
 
+    /**
+     * Filters and transforms the elements using the provided {@link View}.
+     * Handlers that apply the same view more than once should create a
+     * {@link ViewFilterPlan} and reuse it instead.
+     *
+     * @param elementStream the elements to filter and transform
+     * @param schema        the schema
+     * @param view          the view to apply
+     * @return the filtered and transformed elements
+     */
     public static Stream<Element> applyView(final Stream<Element> elementStream,
                                             final Schema schema,
                                             final View view) {
-        final Set<String> viewGroups = view.getGroups();
-        Stream<Element> stream = elementStream;
-        // Check group is valid
-        if (!view.getEntityGroups().equals(schema.getEntityGroups())
-                || !view.getEdgeGroups().equals(schema.getEdgeGroups())) {
-            stream = stream.filter(e -> viewGroups.contains(e.getGroup()));
-        }
-
-        // Apply pre-aggregation filter
-        stream = stream.filter(e -> {
-            final ViewElementDefinition ved = view.getElement(e.getGroup());
-            return ved.getPreAggregationFilter() == null || ved.getPreAggregationFilter().test(e);
-        });
-
-        // Apply post-aggregation filter
-        stream = stream.filter(e -> {
-            final ViewElementDefinition ved = view.getElement(e.getGroup());
-            return ved.getPostAggregationFilter() == null || ved.getPostAggregationFilter().test(e);
-        });
-
-        // Apply transform
-        stream = stream.map(e -> {
-            final ViewElementDefinition ved = view.getElement(e.getGroup());
-            final ElementTransformer transformer = ved.getTransformer();
-            if (transformer != null) {
-                transformer.apply(e);
-            }
-            return e;
-        });
-
-        // Apply post transform filter
-        stream = stream.filter(e -> {
-            final ViewElementDefinition ved = view.getElement(e.getGroup());
-            return ved.getPostTransformFilter() == null || ved.getPostTransformFilter().test(e);
-        });
-
-        return stream;
+        return new ViewFilterPlan(schema, view).apply(elementStream);
     }
 }
@@ -15,8 +15,12 @@
  */
 package uk.gov.gchq.gaffer.mapstore.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import uk.gov.gchq.gaffer.commonutil.iterable.RepeatItemIterable;
 import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
@@ -24,11 +28,14 @@ import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.mapstore.factory.MapFactory;
 import uk.gov.gchq.gaffer.mapstore.factory.SimpleMapFactory;
-import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.index.ElementIndex;
+import uk.gov.gchq.gaffer.mapstore.index.MultiMapElementIndex;
+import uk.gov.gchq.gaffer.mapstore.index.SynchronisedElementIndex;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -36,6 +43,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -43,44 +55,49 @@ import java.util.stream.Stream;
  * class.
  *
  * This class can be thought of as an analogue to a conventional database. Internally,
- * different {@link Map} and {@link MultiMap} instances are used to keep track of
- * the stored elements and the relationships between those elements. This data store
+ * different {@link Map} instances are used to keep track of the stored elements
+ * and an {@link ElementIndex} tracks the relationships between those elements. This data store
  * is then abstracted again as a Gaffer {@link uk.gov.gchq.gaffer.store.Store} (by
  * the {@link uk.gov.gchq.gaffer.mapstore.MapStore} class) to give Gaffer-specific
  * functionality.
  *
+ * If the store is configured with more than 1 ingest thread, the maps for each
+ * group are split into that many stripes, each guarded by its own lock, so that
+ * elements can be added to different stripes concurrently. The number of stripes
+ * is recorded alongside the maps when they are first created, so if the maps are
+ * persisted and later reopened with a different number of ingest threads the
+ * recorded number of stripes is still used to route the elements.
+ *
  * The internal variables of this class are package-private. This allows operation
  * handlers for the {@link uk.gov.gchq.gaffer.mapstore.MapStore} to be placed in the
  * same package and get access to the maps, without exposing the internal state of
  * the MapStore to classes outside of this package.
  */
 public class MapImpl {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapImpl.class);
+
     public static final String AGG_ELEMENTS = "aggElements";
     public static final String NON_AGG_ELEMENTS = "nonAggElements";
-    public static final String ENTITY_ID_TO_ELEMENTS = "entityIdToElements";
-    public static final String EDGE_ID_TO_ELEMENTS = "edgeIdToElements";
+    public static final String ENTITY_ID_TO_ELEMENTS = MultiMapElementIndex.ENTITY_ID_TO_ELEMENTS;
+    public static final String EDGE_ID_TO_ELEMENTS = MultiMapElementIndex.EDGE_ID_TO_ELEMENTS;
+    public static final String STRIPES = "stripes";
 
     /**
-     * aggElements maps from an Element group to a map of Elements containing the group-by properties
+     * aggElements maps from an Element group to the stripes of maps of Elements containing the group-by properties
      * to a Properties object without the group-by properties
      */
-    private final Map<String, Map<Element, GroupedProperties>> aggElements = new HashMap<>();
+    private final Map<String, List<Map<Element, GroupedProperties>>> aggElements = new HashMap<>();
 
     /**
-     * nonAggElements maps from an Element group to a map of non aggregated Elements to the count of the
+     * nonAggElements maps from an Element group to the stripes of maps of non aggregated Elements to the count of the
      * number of times that element has been seen.
      */
-    private final Map<String, Map<Element, Long>> nonAggElements = new HashMap<>();
-
-    /**
-     * entityIdToElements is a map from an EntityId to the element key from aggElements or nonAggElements
-     */
-    private final MultiMap<EntityId, Element> entityIdToElements;
+    private final Map<String, List<Map<Element, Long>>> nonAggElements = new HashMap<>();
 
     /**
-     * edgeIdToElements is a map from an EdgeId to the element key from aggElements or nonAggElements
+     * elementIndex maps from EntityIds and EdgeIds to the element keys from aggElements or nonAggElements
      */
-    private final MultiMap<EdgeId, Element> edgeIdToElements;
+    private final ElementIndex elementIndex;
 
     private final MapFactory mapFactory;
     private final Map<String, Set<String>> groupToGroupByProperties = new HashMap<>();
@@ -89,25 +106,46 @@ public class MapImpl {
     private final List<String> aggregatedGroups;
     private final Schema schema;
     private final boolean maintainIndex;
-    private final AggregatorUtil.IngestPropertiesBinaryOperator propertyAggregator;
+    private final int numStripes;
+    private final Lock[] stripeLocks;
+    private final AggregatorUtil.IngestPropertiesBinaryOperator[] propertyAggregators;
 
     public MapImpl(final Schema schema, final MapStoreProperties mapStoreProperties) {
         this.schema = schema;
-        propertyAggregator = new AggregatorUtil.IngestPropertiesBinaryOperator(schema);
         mapFactory = createMapFactory(schema, mapStoreProperties);
         maintainIndex = mapStoreProperties.getCreateIndex();
+        numStripes = loadNumStripes(mapFactory, mapStoreProperties);
+
+        propertyAggregators = new AggregatorUtil.IngestPropertiesBinaryOperator[numStripes];
+        if (1 == numStripes) {
+            stripeLocks = null;
+            propertyAggregators[0] = new AggregatorUtil.IngestPropertiesBinaryOperator(schema);
+        } else {
+            // The schema aggregators are not thread safe, so each stripe uses its own copy of the schema
+            stripeLocks = new Lock[numStripes];
+            for (int stripe = 0; stripe < numStripes; stripe++) {
+                stripeLocks[stripe] = new ReentrantLock();
+                propertyAggregators[stripe] = new AggregatorUtil.IngestPropertiesBinaryOperator(schema.clone());
+            }
+        }
 
         for (final String group : schema.getGroups()) {
-            aggElements.put(group, mapFactory.getMap(group + "|" + AGG_ELEMENTS, Element.class, GroupedProperties.class));
-            nonAggElements.put(group, mapFactory.getMap(group + "|" + NON_AGG_ELEMENTS, Element.class, Long.class));
+            final List<Map<Element, GroupedProperties>> aggMaps = new ArrayList<>(numStripes);
+            final List<Map<Element, Long>> nonAggMaps = new ArrayList<>(numStripes);
+            for (int stripe = 0; stripe < numStripes; stripe++) {
+                aggMaps.add(mapFactory.getMap(getMapName(group, AGG_ELEMENTS, stripe), Element.class, GroupedProperties.class));
+                nonAggMaps.add(mapFactory.getMap(getMapName(group, NON_AGG_ELEMENTS, stripe), Element.class, Long.class));
+            }
+            aggElements.put(group, aggMaps);
+            nonAggElements.put(group, nonAggMaps);
         }
 
         if (maintainIndex) {
-            entityIdToElements = mapFactory.getMultiMap(ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class);
-            edgeIdToElements = mapFactory.getMultiMap(EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class);
+            elementIndex = null == stripeLocks ? mapFactory.getElementIndex() : new SynchronisedElementIndex(mapFactory.getElementIndex());
+            // The maps may already contain elements, e.g. if they are persisted
+            indexExistingElements();
         } else {
-            entityIdToElements = null;
-            edgeIdToElements = null;
+            elementIndex = null;
         }
 
         this.aggregatedGroups = schema.getAggregatedGroups();
@@ -119,40 +157,91 @@ public class MapImpl {
         aggElements.clear();
         nonAggElements.clear();
         if (maintainIndex) {
-            entityIdToElements.clear();
-            edgeIdToElements.clear();
+            elementIndex.clear();
         }
     }
 
     void addNonAggElement(final Element element) {
-        nonAggElements.get(element.getGroup()).merge(element, 1L, (a, b) -> a + b);
+        final int stripe = getStripe(element);
+        lockStripe(stripe);
+        try {
+            addNonAggElement(stripe, element);
+        } finally {
+            unlockStripe(stripe);
+        }
     }
 
     void addAggElement(final Element elementWithGroupByProperties, final GroupedProperties properties) {
-        aggElements.get(elementWithGroupByProperties.getGroup())
-                .merge(elementWithGroupByProperties, properties, propertyAggregator);
+        final int stripe = getStripe(elementWithGroupByProperties);
+        lockStripe(stripe);
+        try {
+            addAggElement(stripe, elementWithGroupByProperties, properties);
+        } finally {
+            unlockStripe(stripe);
+        }
     }
 
-    Collection<Element> lookup(final EntityId entitId) {
-        Collection<Element> results = entityIdToElements.get(entitId);
-        if (null == results) {
-            results = Collections.emptySet();
+    /**
+     * Adds a non aggregated element to a stripe. If there is more than 1
+     * stripe then the caller must hold the lock for the stripe.
+     *
+     * @param stripe  the stripe of the element
+     * @param element the element to add
+     */
+    void addNonAggElement(final int stripe, final Element element) {
+        nonAggElements.get(element.getGroup()).get(stripe).merge(element, 1L, (a, b) -> a + b);
+    }
+
+    /**
+     * Adds an aggregated element to a stripe. If there is more than 1 stripe
+     * then the caller must hold the lock for the stripe.
+     *
+     * @param stripe                       the stripe of the element
+     * @param elementWithGroupByProperties the element containing only the group by properties
+     * @param properties                   the non group by properties
+     */
+    void addAggElement(final int stripe, final Element elementWithGroupByProperties, final GroupedProperties properties) {
+        aggElements.get(elementWithGroupByProperties.getGroup()).get(stripe)
+                .merge(elementWithGroupByProperties, properties, propertyAggregators[stripe]);
+    }
+
+    int getNumStripes() {
+        return numStripes;
+    }
+
+    int getStripe(final Element element) {
+        if (1 == numStripes) {
+            return 0;
         }
 
-        return results;
+        // Only the group and identifiers are hashed, so the stripe does not
+        // depend on the properties or on how the properties are hashed
+        final int hash = element.identityHashCode();
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % numStripes;
     }
 
-    Collection<Element> lookup(final EdgeId edgeId) {
-        Collection<Element> results = edgeIdToElements.get(edgeId);
-        if (null == results) {
-            results = Collections.emptySet();
+    void lockStripe(final int stripe) {
+        if (null != stripeLocks) {
+            stripeLocks[stripe].lock();
+        }
+    }
+
+    void unlockStripe(final int stripe) {
+        if (null != stripeLocks) {
+            stripeLocks[stripe].unlock();
         }
+    }
+
+    Collection<Element> lookup(final EntityId entitId) {
+        return elementIndex.lookup(entitId);
+    }
 
-        return results;
+    Collection<Element> lookup(final EdgeId edgeId) {
+        return elementIndex.lookup(edgeId);
     }
 
     Iterable<Element> getNonAggElements(final Element element) {
-        final Long count = nonAggElements.get(element.getGroup()).get(element);
+        final Long count = get(nonAggElements, element);
         if (null == count || count < 1) {
             return Collections.emptyList();
         }
@@ -162,7 +251,7 @@ public class MapImpl {
     Element getAggElement(final Element element) {
         final Element clone = element.emptyClone();
         clone.copyProperties(element.getProperties());
-        clone.copyProperties(aggElements.get(element.getGroup()).get(element));
+        clone.copyProperties(get(aggElements, element));
         return clone;
     }
 
@@ -175,24 +264,16 @@ public class MapImpl {
     }
 
     Stream<Element> getAllAggElements(final Set<String> groups) {
-        return aggElements.entrySet().stream()
-                .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> {
-                    final Element element = x.getKey().emptyClone();
-                    element.copyProperties(x.getKey().getProperties());
-                    element.copyProperties(x.getValue());
-                    return cloneElement(element, schema);
-                });
+        return streamStripes(aggElements, groups, x -> {
+            final Element element = x.getKey().emptyClone();
+            element.copyProperties(x.getKey().getProperties());
+            element.copyProperties(x.getValue());
+            return cloneElement(element, schema);
+        });
     }
 
     Stream<Element> getAllNonAggElements(final Set<String> groups) {
-        return nonAggElements.entrySet().stream()
-                .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> new RepeatItemIterable<>(cloneElement(x.getKey(), schema), x.getValue()))
+        return streamStripes(nonAggElements, groups, x -> new RepeatItemIterable<>(cloneElement(x.getKey(), schema), x.getValue()))
                 .flatMap(Streams::toStream);
     }
 
@@ -200,12 +281,16 @@ public class MapImpl {
         return Stream.concat(getAllAggElements(groups), getAllNonAggElements(groups));
     }
 
-    void addIndex(final EntityId entityId, final Element element) {
-        entityIdToElements.put(entityId, element);
+    void addIndex(final Element element) {
+        setSourceMatched(element);
+        elementIndex.add(element);
     }
 
-    void addIndex(final EdgeId edgeId, final Element element) {
-        edgeIdToElements.put(edgeId, element);
+    void addIndex(final Iterable<? extends Element> elements) {
+        for (final Element element : elements) {
+            setSourceMatched(element);
+        }
+        elementIndex.addAll(elements);
     }
 
     boolean isMaintainIndex() {
@@ -230,8 +315,15 @@ public class MapImpl {
 
     long countAggElements() {
         long totalCount = 0;
-        for (final Map<Element, GroupedProperties> map : aggElements.values()) {
-            totalCount += map.size();
+        for (final List<Map<Element, GroupedProperties>> maps : aggElements.values()) {
+            for (int stripe = 0; stripe < maps.size(); stripe++) {
+                lockStripe(stripe);
+                try {
+                    totalCount += maps.get(stripe).size();
+                } finally {
+                    unlockStripe(stripe);
+                }
+            }
         }
 
         return totalCount;
@@ -239,10 +331,17 @@ public class MapImpl {
 
     long countNonAggElements() {
         long totalCount = 0;
-        for (final Map<Element, Long> map : nonAggElements.values()) {
-            for (final Long count : map.values()) {
-                if (null != count) {
-                    totalCount += count;
+        for (final List<Map<Element, Long>> maps : nonAggElements.values()) {
+            for (int stripe = 0; stripe < maps.size(); stripe++) {
+                lockStripe(stripe);
+                try {
+                    for (final Long count : maps.get(stripe).values()) {
+                        if (null != count) {
+                            totalCount += count;
+                        }
+                    }
+                } finally {
+                    unlockStripe(stripe);
                 }
             }
         }
@@ -267,6 +366,92 @@ public class MapImpl {
         return mapFactory;
     }
 
+    // Streams the converted entries of the maps for the groups. If there is
+    // more than 1 stripe then elements may be added concurrently, so when the
+    // stream reaches each stripe its entries are converted whilst holding the
+    // stripe lock, rather than iterating the map whilst it is being modified.
+    private <V, T> Stream<T> streamStripes(final Map<String, List<Map<Element, V>>> maps, final Set<String> groups, final Function<Map.Entry<Element, V>, T> converter) {
+        final Stream<List<Map<Element, V>>> groupMaps = maps.entrySet().stream()
+                .filter(entry -> groups.contains(entry.getKey()))
+                .map(Map.Entry::getValue);
+        if (null == stripeLocks) {
+            return groupMaps.flatMap(List::stream)
+                    .flatMap(map -> map.entrySet().stream())
+                    .map(converter);
+        }
+
+        return groupMaps.flatMap(stripes -> IntStream.range(0, stripes.size())
+                .boxed()
+                .flatMap(stripe -> {
+                    lockStripe(stripe);
+                    try {
+                        return stripes.get(stripe).entrySet().stream()
+                                .map(converter)
+                                .collect(Collectors.toList())
+                                .stream();
+                    } finally {
+                        unlockStripe(stripe);
+                    }
+                }));
+    }
+
+    private <V> V get(final Map<String, List<Map<Element, V>>> maps, final Element element) {
+        final int stripe = getStripe(element);
+        lockStripe(stripe);
+        try {
+            return maps.get(element.getGroup()).get(stripe).get(element);
+        } finally {
+            unlockStripe(stripe);
+        }
+    }
+
+    private void indexExistingElements() {
+        for (final List<Map<Element, GroupedProperties>> maps : aggElements.values()) {
+            for (final Map<Element, GroupedProperties> map : maps) {
+                if (map.size() > 0) {
+                    map.keySet().forEach(this::addIndex);
+                }
+            }
+        }
+        for (final List<Map<Element, Long>> maps : nonAggElements.values()) {
+            for (final Map<Element, Long> map : maps) {
+                if (map.size() > 0) {
+                    map.keySet().forEach(this::addIndex);
+                }
+            }
+        }
+    }
+
+    private static void setSourceMatched(final Element element) {
+        if (element instanceof Edge) {
+            final Edge edge = (Edge) element;
+            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
+        }
+    }
+
+    // The stripes are part of the map names and decide which map holds each
+    // element, so the number of stripes is fixed when the maps are first created
+    private static int loadNumStripes(final MapFactory mapFactory, final MapStoreProperties mapStoreProperties) {
+        final Map<Long, Long> stripesMap = mapFactory.getMap(STRIPES, Long.class, Long.class);
+        final int configuredStripes = Math.max(1, mapStoreProperties.getIngestThreads());
+        final Long storedStripes = stripesMap.get(0L);
+        if (null == storedStripes) {
+            stripesMap.put(0L, (long) configuredStripes);
+            return configuredStripes;
+        }
+
+        if (storedStripes.intValue() != configuredStripes) {
+            LOGGER.warn("The maps were created with {} stripes, so they will be used instead of the {} configured ingest threads",
+                    storedStripes, configuredStripes);
+        }
+        return storedStripes.intValue();
+    }
+
+    private static String getMapName(final String group, final String mapType, final int stripe) {
+        final String mapName = group + "|" + mapType;
+        return 0 == stripe ? mapName : mapName + "|" + stripe;
+    }
+
     private void addToGroupByMap(final String group) {
         final SchemaElementDefinition sed = schema.getElement(group);
         groupToGroupByProperties.put(group, sed.getGroupBy());
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A {@code ViewFilterPlan} is a {@link View} compiled for a single query
+ * against the {@link uk.gov.gchq.gaffer.mapstore.MapStore}.
+ * <p>
+ * For each group in the view the pre-aggregation and post-aggregation
+ * filters, the transformer and the post-transform filter are resolved once,
+ * and any that are empty are dropped. Each element is then tested in a
+ * single pass using one lookup of its group, rather than a lookup per stage.
+ * Elements of groups which are not in the view are rejected. If the view
+ * contains all the groups in the schema and none of them have any filters or
+ * transformers, the plan is a no-op and streams are returned unchanged.
+ * </p>
+ * <p>
+ * Note that testing an element applies the group's transformer to it, so
+ * elements should be cloned before being tested if they must not be
+ * modified.
+ * </p>
+ */
+public final class ViewFilterPlan implements Predicate<Element> {
+    private final Map<String, GroupPlan> groupPlans = new HashMap<>();
+    private final boolean noOp;
+
+    public ViewFilterPlan(final Schema schema, final View view) {
+        boolean hasSteps = false;
+        for (final String group : view.getGroups()) {
+            final GroupPlan groupPlan = new GroupPlan(view.getElement(group));
+            groupPlans.put(group, groupPlan);
+            hasSteps = hasSteps || !groupPlan.isNoOp();
+        }
+
+        noOp = !hasSteps
+                && view.getEntityGroups().equals(schema.getEntityGroups())
+                && view.getEdgeGroups().equals(schema.getEdgeGroups());
+    }
+
+    /**
+     * Tests the element against the plan for its group, applying the
+     * group's transformer to the element if it passes the pre-transform
+     * filters.
+     *
+     * @param element the element to test
+     * @return true if the element should be returned
+     */
+    @Override
+    public boolean test(final Element element) {
+        final GroupPlan groupPlan = groupPlans.get(element.getGroup());
+        return null != groupPlan && groupPlan.test(element);
+    }
+
+    /**
+     * @param elements the elements to filter and transform
+     * @return the elements that pass the plan, transformed, or the provided
+     * stream if the plan is a no-op
+     */
+    public Stream<Element> apply(final Stream<Element> elements) {
+        return noOp ? elements : elements.filter(this);
+    }
+
+    public boolean isNoOp() {
+        return noOp;
+    }
+
+    private static final class GroupPlan {
+        private static final ElementFilter[] NO_FILTERS = new ElementFilter[0];
+
+        private final ElementFilter[] preTransformFilters;
+        private final ElementTransformer transformer;
+        private final ElementFilter postTransformFilter;
+
+        private GroupPlan(final ViewElementDefinition elementDef) {
+            final List<ElementFilter> filters = new ArrayList<>(2);
+            if (elementDef.hasPreAggregationFilters()) {
+                filters.add(elementDef.getPreAggregationFilter());
+            }
+            if (elementDef.hasPostAggregationFilters()) {
+                filters.add(elementDef.getPostAggregationFilter());
+            }
+            preTransformFilters = filters.toArray(NO_FILTERS);
+
+            final ElementTransformer elementTransformer = elementDef.getTransformer();
+            transformer = null != elementTransformer && !elementTransformer.getComponents().isEmpty()
+                    ? elementTransformer : null;
+            postTransformFilter = elementDef.hasPostTransformFilters() ? elementDef.getPostTransformFilter() : null;
+        }
+
+        private boolean isNoOp() {
+            return 0 == preTransformFilters.length && null == transformer && null == postTransformFilter;
+        }
+
+        private boolean test(final Element element) {
+            for (final ElementFilter filter : preTransformFilters) {
+                if (!filter.test(element)) {
+                    return false;
+                }
+            }
+            if (null != transformer) {
+                transformer.apply(element);
+            }
+            return null == postTransformFilter || postTransformFilter.test(element);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.index;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A memory efficient {@link ElementIndex} that holds the adjacency of each
+ * vertex in primitive arrays.
+ * <p>
+ * Each vertex is interned to an int id and each distinct element is stored
+ * once and given an int id. Every vertex then has a growable {@code long[]}
+ * adjacency list, in which each entry packs the id of the vertex at the other
+ * end of the edge (the vertex itself for entities), the element id and whether
+ * the vertex is the element's vertex, the edge source or the edge destination.
+ * No seed objects are created when elements are added and destination matched
+ * copies of edges are only created when they are looked up.
+ * </p>
+ * <p>
+ * As with the default {@link MultiMapElementIndex}, this class is not thread
+ * safe.
+ * </p>
+ */
+public class CompactElementIndex implements ElementIndex {
+    /**
+     * The maximum number of elements that can be indexed, element ids share
+     * the lower 32 bits of each adjacency entry with the entry type.
+     */
+    public static final int MAX_ELEMENTS = Integer.MAX_VALUE >>> 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ADJACENCY_SIZE = 2;
+
+    private static final int TYPE_BITS = 2;
+    private static final int TYPE_MASK = 3;
+    private static final int ENTITY = 0;
+    private static final int SOURCE = 1;
+    private static final int DESTINATION = 2;
+
+    private Object[] vertices;
+    private long[][] adjacency;
+    private int[] degrees;
+    private int[] vertexSlots;
+    private int vertexCount;
+
+    private Element[] elements;
+    private int[] elementSlots;
+    private int elementCount;
+
+    public CompactElementIndex() {
+        clear();
+    }
+
+    @Override
+    public void add(final Element element) {
+        if (null == element) {
+            return;
+        }
+
+        final int elementId = addElement(element);
+        if (elementId < 0) {
+            // Element is already indexed
+            return;
+        }
+
+        if (element instanceof Entity) {
+            final int vertexId = intern(((Entity) element).getVertex());
+            addEntry(vertexId, vertexId, elementId, ENTITY);
+        } else {
+            final Edge edge = (Edge) element;
+            final int sourceId = intern(edge.getSource());
+            final int destinationId = intern(edge.getDestination());
+            addEntry(sourceId, destinationId, elementId, SOURCE);
+
+            // Self loops are only indexed once, against the source
+            if (sourceId != destinationId) {
+                addEntry(destinationId, sourceId, elementId, DESTINATION);
+            }
+        }
+    }
+
+    @Override
+    public Collection<Element> lookup(final EntityId entityId) {
+        final int vertexId = getVertexId(entityId.getVertex());
+        if (vertexId < 0) {
+            return Collections.emptySet();
+        }
+
+        final long[] entries = adjacency[vertexId];
+        final int degree = degrees[vertexId];
+        final List<Element> results = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++) {
+            final int entry = (int) entries[i];
+            final Element element = elements[entry >>> TYPE_BITS];
+            if (DESTINATION == (entry & TYPE_MASK)) {
+                final Edge edge = (Edge) element;
+                results.add(new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties()));
+            } else {
+                results.add(element);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public Collection<Element> lookup(final EdgeId edgeId) {
+        // Edges are indexed as either directed or undirected, so an EITHER edge id matches nothing
+        final DirectedType directedType = edgeId.getDirectedType();
+        if (DirectedType.isEither(directedType)) {
+            return Collections.emptySet();
+        }
+
+        final int sourceId = getVertexId(edgeId.getSource());
+        if (sourceId < 0) {
+            return Collections.emptySet();
+        }
+        final int destinationId = getVertexId(edgeId.getDestination());
+        if (destinationId < 0) {
+            return Collections.emptySet();
+        }
+
+        final boolean directed = DirectedType.DIRECTED == directedType;
+        final long[] entries = adjacency[sourceId];
+        final int degree = degrees[sourceId];
+        List<Element> results = null;
+        for (int i = 0; i < degree; i++) {
+            final long entry = entries[i];
+            final int type = (int) entry & TYPE_MASK;
+            if (destinationId == (int) (entry >>> Integer.SIZE)
+                    && (SOURCE == type || (DESTINATION == type && !directed))) {
+                final Edge edge = (Edge) elements[(int) entry >>> TYPE_BITS];
+                if (directed == edge.isDirected()) {
+                    if (null == results) {
+                        results = new ArrayList<>(1);
+                    }
+                    results.add(edge);
+                }
+            }
+        }
+
+        return null != results ? results : Collections.emptySet();
+    }
+
+    @Override
+    public void clear() {
+        vertices = new Object[INITIAL_CAPACITY];
+        adjacency = new long[INITIAL_CAPACITY][];
+        degrees = new int[INITIAL_CAPACITY];
+        vertexSlots = new int[INITIAL_CAPACITY * 2];
+        vertexCount = 0;
+
+        elements = new Element[INITIAL_CAPACITY];
+        elementSlots = new int[INITIAL_CAPACITY * 2];
+        elementCount = 0;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Stores the element if an equal element has not already been stored.
+     *
+     * @param element the element to store
+     * @return the new element id, or -1 if the element was already stored
+     */
+    private int addElement(final Element element) {
+        if (elementCount >= MAX_ELEMENTS) {
+            throw new IllegalStateException("Unable to index more than " + MAX_ELEMENTS + " elements");
+        }
+        if (isFull(elementCount, elementSlots)) {
+            elementSlots = rehash(elements, elementCount, elementSlots.length << 1);
+        }
+
+        final int slot = findSlot(elements, elementSlots, element);
+        if (0 != elementSlots[slot]) {
+            return -1;
+        }
+
+        final int elementId = elementCount++;
+        if (elementId == elements.length) {
+            elements = Arrays.copyOf(elements, grow(elements.length));
+        }
+        elements[elementId] = element;
+        elementSlots[slot] = elementId + 1;
+        return elementId;
+    }
+
+    private int intern(final Object vertex) {
+        if (isFull(vertexCount, vertexSlots)) {
+            vertexSlots = rehash(vertices, vertexCount, vertexSlots.length << 1);
+        }
+
+        final int slot = findSlot(vertices, vertexSlots, vertex);
+        if (0 != vertexSlots[slot]) {
+            return vertexSlots[slot] - 1;
+        }
+
+        final int vertexId = vertexCount++;
+        if (vertexId == vertices.length) {
+            final int newLength = grow(vertices.length);
+            vertices = Arrays.copyOf(vertices, newLength);
+            adjacency = Arrays.copyOf(adjacency, newLength);
+            degrees = Arrays.copyOf(degrees, newLength);
+        }
+        vertices[vertexId] = vertex;
+        vertexSlots[slot] = vertexId + 1;
+        return vertexId;
+    }
+
+    private int getVertexId(final Object vertex) {
+        return vertexSlots[findSlot(vertices, vertexSlots, vertex)] - 1;
+    }
+
+    private void addEntry(final int vertexId, final int otherVertexId, final int elementId, final int type) {
+        long[] entries = adjacency[vertexId];
+        final int degree = degrees[vertexId];
+        if (null == entries) {
+            entries = new long[INITIAL_ADJACENCY_SIZE];
+            adjacency[vertexId] = entries;
+        } else if (degree == entries.length) {
+            entries = Arrays.copyOf(entries, grow(degree));
+            adjacency[vertexId] = entries;
+        }
+
+        entries[degree] = ((long) otherVertexId << Integer.SIZE) | (((long) elementId << TYPE_BITS | type) & 0xFFFFFFFFL);
+        degrees[vertexId] = degree + 1;
+    }
+
+    // Finds the slot in an open addressing table of ids (offset by 1 so that
+    // 0 marks an empty slot) that holds the id of an object equal to the key,
+    // or the empty slot the key's id should be stored in.
+    private static int findSlot(final Object[] values, final int[] slots, final Object key) {
+        final int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (0 != slots[slot] && !Objects.equals(key, values[slots[slot] - 1])) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int[] rehash(final Object[] values, final int count, final int length) {
+        final int[] slots = new int[length];
+        final int mask = length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = hash(values[id]) & mask;
+            while (0 != slots[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+        return slots;
+    }
+
+    private static boolean isFull(final int count, final int[] slots) {
+        // Keep the load factor below 0.75
+        return (count + 1) * 4L > slots.length * 3L;
+    }
+
+    private static int hash(final Object key) {
+        final int hash = Objects.hashCode(key) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int grow(final int length) {
+        return length + Math.max(1, length >> 1);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.index;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+
+import java.util.Collection;
+
+/**
+ * An {@code ElementIndex} keeps track of the elements related to each vertex
+ * and each edge id held in a {@link uk.gov.gchq.gaffer.mapstore.MapStore}.
+ * <p>
+ * Edges are added to the index with their matched vertex set to
+ * {@link EdgeId.MatchedVertex#SOURCE}. When an edge is looked up via its
+ * destination vertex, the index must return a copy of the edge with the matched
+ * vertex set to {@link EdgeId.MatchedVertex#DESTINATION}.
+ * </p>
+ */
+public interface ElementIndex {
+
+    /**
+     * Add an element to the index. Entities are indexed against their vertex,
+     * edges are indexed against their source vertex, their destination vertex
+     * and their edge id.
+     *
+     * @param element the element to add
+     */
+    void add(final Element element);
+
+    /**
+     * Add all of the provided elements to the index.
+     *
+     * @param elements the elements to add
+     */
+    default void addAll(final Iterable<? extends Element> elements) {
+        for (final Element element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * Get all of the elements related to the vertex of the provided {@link EntityId}.
+     *
+     * @param entityId the entity id to lookup
+     * @return the related elements, or an empty collection if there are none
+     */
+    Collection<Element> lookup(final EntityId entityId);
+
+    /**
+     * Get all of the edges matching the provided {@link EdgeId}.
+     *
+     * @param edgeId the edge id to lookup
+     * @return the matching edges, or an empty collection if there are none
+     */
+    Collection<Element> lookup(final EdgeId edgeId);
+
+    /**
+     * Clear the index of all entries.
+     */
+    void clear();
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.index;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * An {@link ElementIndex} backed by two {@link MultiMap}s, one from
+ * {@link EntityId} to elements and one from {@link EdgeId} to edges.
+ * <p>
+ * A destination matched copy of each edge is created and stored when the edge
+ * is added.
+ * </p>
+ */
+public class MultiMapElementIndex implements ElementIndex {
+    public static final String ENTITY_ID_TO_ELEMENTS = "entityIdToElements";
+    public static final String EDGE_ID_TO_ELEMENTS = "edgeIdToElements";
+
+    /**
+     * entityIdToElements is a map from an EntityId to the element key from aggElements or nonAggElements
+     */
+    private final MultiMap<EntityId, Element> entityIdToElements;
+
+    /**
+     * edgeIdToElements is a map from an EdgeId to the element key from aggElements or nonAggElements
+     */
+    private final MultiMap<EdgeId, Element> edgeIdToElements;
+
+    public MultiMapElementIndex(final MultiMap<EntityId, Element> entityIdToElements,
+                                final MultiMap<EdgeId, Element> edgeIdToElements) {
+        this.entityIdToElements = entityIdToElements;
+        this.edgeIdToElements = edgeIdToElements;
+    }
+
+    @Override
+    public void add(final Element element) {
+        if (element instanceof Entity) {
+            final Entity entity = (Entity) element;
+            entityIdToElements.put(new EntitySeed(entity.getVertex()), element);
+        } else {
+            final Edge edge = (Edge) element;
+            entityIdToElements.put(new EntitySeed(edge.getSource()), edge);
+
+            final Edge destMatchedEdge = new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties());
+            entityIdToElements.put(new EntitySeed(edge.getDestination()), destMatchedEdge);
+
+            edgeIdToElements.put(new EdgeSeed(edge.getSource(), edge.getDestination(), edge.isDirected()), edge);
+        }
+    }
+
+    @Override
+    public Collection<Element> lookup(final EntityId entityId) {
+        return nullToEmpty(entityIdToElements.get(entityId));
+    }
+
+    @Override
+    public Collection<Element> lookup(final EdgeId edgeId) {
+        return nullToEmpty(edgeIdToElements.get(edgeId));
+    }
+
+    @Override
+    public void clear() {
+        entityIdToElements.clear();
+        edgeIdToElements.clear();
+    }
+
+    private static Collection<Element> nullToEmpty(final Collection<Element> results) {
+        return null != results ? results : Collections.emptySet();
+    }
+}
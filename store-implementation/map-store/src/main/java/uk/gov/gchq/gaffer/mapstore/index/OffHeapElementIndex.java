@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.index;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.mapstore.offheap.OffHeapMap;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.BytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.RawLongSerialiser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link ElementIndex} that holds the elements and the adjacency of each
+ * vertex outside of the Java heap, in {@link OffHeapMap}s.
+ * <p>
+ * Each distinct element is serialised once and given a long id. The adjacency
+ * of each vertex is a linked list of entries, newest first, each holding the
+ * id of the next entry, the element id, whether the vertex is the element's
+ * vertex, the edge source or the edge destination, and the hash of the vertex
+ * at the other end of the edge so edge ids can be matched without
+ * deserialising every adjacent edge. Only the head entry of each vertex is
+ * updated when an element is added, in place, so adding an element does not
+ * depend on the degree of its vertices.
+ * </p>
+ * <p>
+ * Elements are deserialised each time they are looked up, so the results are
+ * not shared with the caller of {@link #add(Element)}. As with the other
+ * indexes, this class is not thread safe.
+ * </p>
+ */
+public class OffHeapElementIndex implements ElementIndex {
+    private static final byte ENTITY = 0;
+    private static final byte SOURCE = 1;
+    private static final byte DESTINATION = 2;
+
+    // Each entry holds the next entry id, the element id, the type and the other vertex hash
+    private static final int ENTRY_SIZE = 8 + 8 + 1 + 4;
+    private static final int NEXT_OFFSET = 0;
+    private static final int ELEMENT_OFFSET = 8;
+    private static final int TYPE_OFFSET = 16;
+    private static final int OTHER_VERTEX_HASH_OFFSET = 17;
+
+    private final OffHeapMap<Element, Long> elementIds;
+    private final OffHeapMap<Long, Element> elements;
+    private final OffHeapMap<Object, Long> heads;
+    private final OffHeapMap<Long, byte[]> entries;
+    private long elementCount;
+    private long entryCount;
+
+    /**
+     * Constructs an {@link OffHeapElementIndex}.
+     *
+     * @param elementSerialiser the serialiser for the elements, which must
+     *                          serialise equal elements to equal bytes
+     * @param vertexSerialiser  the serialiser for the vertices, which must
+     *                          serialise equal vertices to equal bytes
+     * @param pageSize          the size in bytes of each page of memory
+     */
+    public OffHeapElementIndex(final ToBytesSerialiser<Element> elementSerialiser, final ToBytesSerialiser<Object> vertexSerialiser, final int pageSize) {
+        final RawLongSerialiser idSerialiser = new RawLongSerialiser();
+        elementIds = new OffHeapMap<>(elementSerialiser, idSerialiser, pageSize, null);
+        elements = new OffHeapMap<>(idSerialiser, elementSerialiser, pageSize, null);
+        heads = new OffHeapMap<>(vertexSerialiser, idSerialiser, pageSize, null);
+        entries = new OffHeapMap<>(idSerialiser, new BytesSerialiser(), pageSize, null);
+    }
+
+    @Override
+    public void add(final Element element) {
+        if (null == element || elementIds.containsKey(element)) {
+            return;
+        }
+
+        final long elementId = ++elementCount;
+        elementIds.put(element, elementId);
+        elements.put(elementId, element);
+
+        if (element instanceof Entity) {
+            final Object vertex = ((Entity) element).getVertex();
+            addEntry(vertex, vertex, elementId, ENTITY);
+        } else {
+            final Edge edge = (Edge) element;
+            addEntry(edge.getSource(), edge.getDestination(), elementId, SOURCE);
+
+            // Self loops are only indexed once, against the source
+            if (!Objects.equals(edge.getSource(), edge.getDestination())) {
+                addEntry(edge.getDestination(), edge.getSource(), elementId, DESTINATION);
+            }
+        }
+    }
+
+    @Override
+    public Collection<Element> lookup(final EntityId entityId) {
+        final Long head = heads.get(entityId.getVertex());
+        if (null == head) {
+            return Collections.emptySet();
+        }
+
+        final List<Element> results = new ArrayList<>();
+        long entryId = head;
+        while (0 != entryId) {
+            final ByteBuffer entry = ByteBuffer.wrap(entries.get(entryId));
+            final Element element = elements.get(entry.getLong(ELEMENT_OFFSET));
+            if (element instanceof Edge) {
+                final EdgeId.MatchedVertex matchedVertex = DESTINATION == entry.get(TYPE_OFFSET) ? EdgeId.MatchedVertex.DESTINATION : EdgeId.MatchedVertex.SOURCE;
+                setMatchedVertex((Edge) element, matchedVertex);
+            }
+            results.add(element);
+            entryId = entry.getLong(NEXT_OFFSET);
+        }
+
+        // Return the elements in the order they were added
+        Collections.reverse(results);
+        return results;
+    }
+
+    @Override
+    public Collection<Element> lookup(final EdgeId edgeId) {
+        // Edges are indexed as either directed or undirected, so an EITHER edge id matches nothing
+        final DirectedType directedType = edgeId.getDirectedType();
+        if (DirectedType.isEither(directedType)) {
+            return Collections.emptySet();
+        }
+
+        final Long head = heads.get(edgeId.getSource());
+        if (null == head) {
+            return Collections.emptySet();
+        }
+
+        final boolean directed = DirectedType.DIRECTED == directedType;
+        final Object destination = edgeId.getDestination();
+        final int destinationHash = Objects.hashCode(destination);
+        List<Element> results = null;
+        long entryId = head;
+        while (0 != entryId) {
+            final ByteBuffer entry = ByteBuffer.wrap(entries.get(entryId));
+            final byte type = entry.get(TYPE_OFFSET);
+            if (destinationHash == entry.getInt(OTHER_VERTEX_HASH_OFFSET)
+                    && (SOURCE == type || (DESTINATION == type && !directed))) {
+                final Edge edge = (Edge) elements.get(entry.getLong(ELEMENT_OFFSET));
+                final Object otherVertex = SOURCE == type ? edge.getDestination() : edge.getSource();
+                if (directed == edge.isDirected() && Objects.equals(destination, otherVertex)) {
+                    if (null == results) {
+                        results = new ArrayList<>(1);
+                    }
+                    setMatchedVertex(edge, EdgeId.MatchedVertex.SOURCE);
+                    results.add(edge);
+                }
+            }
+            entryId = entry.getLong(NEXT_OFFSET);
+        }
+
+        if (null == results) {
+            return Collections.emptySet();
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    @Override
+    public void clear() {
+        elementIds.clear();
+        elements.clear();
+        heads.clear();
+        entries.clear();
+        elementCount = 0;
+        entryCount = 0;
+    }
+
+    public long getVertexCount() {
+        return heads.size();
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    private void addEntry(final Object vertex, final Object otherVertex, final long elementId, final byte type) {
+        final Long head = heads.get(vertex);
+        final long entryId = ++entryCount;
+        final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.putLong(NEXT_OFFSET, null != head ? head : 0L);
+        entry.putLong(ELEMENT_OFFSET, elementId);
+        entry.put(TYPE_OFFSET, type);
+        entry.putInt(OTHER_VERTEX_HASH_OFFSET, Objects.hashCode(otherVertex));
+        entries.put(entryId, entry.array());
+
+        // The head is a fixed length value, so it is updated in place
+        heads.put(vertex, entryId);
+    }
+
+    private static void setMatchedVertex(final Edge edge, final EdgeId.MatchedVertex matchedVertex) {
+        edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), matchedVertex);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.index;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A thread safe {@link ElementIndex} that delegates to another index whilst
+ * holding a lock. Lookup results are copied so they can be safely iterated
+ * whilst other elements are added.
+ */
+public class SynchronisedElementIndex implements ElementIndex {
+    private final ElementIndex index;
+
+    public SynchronisedElementIndex(final ElementIndex index) {
+        if (null == index) {
+            throw new IllegalArgumentException("Index is required");
+        }
+        this.index = index;
+    }
+
+    @Override
+    public synchronized void add(final Element element) {
+        index.add(element);
+    }
+
+    @Override
+    public synchronized void addAll(final Iterable<? extends Element> elements) {
+        for (final Element element : elements) {
+            index.add(element);
+        }
+    }
+
+    @Override
+    public synchronized Collection<Element> lookup(final EntityId entityId) {
+        return new ArrayList<>(index.lookup(entityId));
+    }
+
+    @Override
+    public synchronized Collection<Element> lookup(final EdgeId edgeId) {
+        return new ArrayList<>(index.lookup(edgeId));
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+    }
+}
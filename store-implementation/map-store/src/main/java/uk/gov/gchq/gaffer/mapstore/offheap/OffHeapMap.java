@@ -0,0 +1,644 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.offheap;
+
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link Map} that holds its keys and values outside of the Java heap.
+ * <p>
+ * Keys and values are serialised with the provided {@link ToBytesSerialiser}s
+ * and appended as records to pages of direct memory, or to pages of a memory
+ * mapped file if a file is provided. The only on-heap state is an open
+ * addressing table holding the address and hash of each record, so no Java
+ * objects are held per entry. Keys are matched using their serialised form, so
+ * the key serialiser must serialise equal keys to equal bytes.
+ * </p>
+ * <p>
+ * Values are updated in place when the new serialised value fits in the
+ * existing record, otherwise the record is moved to the end of the map. If the
+ * map is backed by a file, reopening the file restores the previous entries.
+ * </p>
+ * <p>
+ * Records that have been removed or moved are left in place until at least
+ * half of the storage is taken up by them, at which point the map is
+ * compacted by rewriting the live records into new pages. A file backed map
+ * is compacted into a new file that then replaces the old one, so the old
+ * file is left intact if the compaction fails.
+ * </p>
+ * <p>
+ * Null keys and values are not supported and, like {@link java.util.HashMap},
+ * this class is not thread safe.
+ * </p>
+ *
+ * @param <K> the type of key in the map
+ * @param <V> the type of value in the map
+ */
+public class OffHeapMap<K, V> extends AbstractMap<K, V> implements Closeable {
+    public static final int DEFAULT_PAGE_SIZE = 64 * 1024 * 1024;
+
+    // Each page starts with its length, each record starts with
+    // the key length, the value capacity and the value length.
+    private static final int PAGE_HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final int VALUE_CAPACITY_OFFSET = 4;
+    private static final int VALUE_LENGTH_OFFSET = 8;
+    private static final int DELETED = -1;
+    private static final int INITIAL_TABLE_SIZE = 64;
+
+    private final ToBytesSerialiser<K> keySerialiser;
+    private final ToBytesSerialiser<V> valueSerialiser;
+    private final int pageSize;
+    private final File file;
+    private FileChannel channel;
+    private List<ByteBuffer> pages = new ArrayList<>();
+    private long fileLength;
+    private int writePosition;
+
+    // The total size of all records and of the records that have been removed or moved
+    private long recordBytes;
+    private long deadRecordBytes;
+
+    private long[] addresses = new long[INITIAL_TABLE_SIZE];
+    private int[] hashes = new int[INITIAL_TABLE_SIZE];
+    private int size;
+
+    public OffHeapMap(final ToBytesSerialiser<K> keySerialiser, final ToBytesSerialiser<V> valueSerialiser) {
+        this(keySerialiser, valueSerialiser, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Constructs an {@link OffHeapMap}.
+     *
+     * @param keySerialiser   the serialiser for the keys
+     * @param valueSerialiser the serialiser for the values
+     * @param pageSize        the size in bytes of each page of memory
+     * @param file            the file to memory map, or null to use direct memory.
+     *                        If the file already exists its entries are loaded.
+     */
+    public OffHeapMap(final ToBytesSerialiser<K> keySerialiser, final ToBytesSerialiser<V> valueSerialiser, final int pageSize, final File file) {
+        if (null == keySerialiser || null == valueSerialiser) {
+            throw new IllegalArgumentException("Key and value serialisers are required");
+        }
+        if (pageSize <= PAGE_HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Page size is too small: " + pageSize);
+        }
+        this.keySerialiser = keySerialiser;
+        this.valueSerialiser = valueSerialiser;
+        this.pageSize = pageSize;
+        this.file = file;
+
+        if (null == file) {
+            channel = null;
+        } else {
+            try {
+                channel = open(file);
+                load();
+            } catch (final IOException e) {
+                throw new IllegalArgumentException("Unable to open map file: " + file.getPath(), e);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return null != key && 0 != addresses[findSlot(serialiseKey(key))];
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (null == key) {
+            return null;
+        }
+
+        final long address = addresses[findSlot(serialiseKey(key))];
+        return 0 != address ? readValue(address) : null;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        if (null == value) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+
+        final byte[] keyBytes = serialiseKey(key);
+        final int slot = findSlot(keyBytes);
+        final long address = addresses[slot];
+        if (0 == address) {
+            insert(slot, keyBytes, serialiseValue(value));
+            return null;
+        }
+
+        final V previous = readValue(address);
+        update(slot, keyBytes, serialiseValue(value));
+        compactIfRequired();
+        return previous;
+    }
+
+    @Override
+    public V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (null == value) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+
+        final byte[] keyBytes = serialiseKey(key);
+        final int slot = findSlot(keyBytes);
+        final long address = addresses[slot];
+        if (0 == address) {
+            insert(slot, keyBytes, serialiseValue(value));
+            return value;
+        }
+
+        final V newValue = remappingFunction.apply(readValue(address), value);
+        if (null == newValue) {
+            delete(slot);
+        } else {
+            update(slot, keyBytes, serialiseValue(newValue));
+        }
+        compactIfRequired();
+        return newValue;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final V previous = removeEntry(key);
+        compactIfRequired();
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        pages.clear();
+        writePosition = 0;
+        fileLength = 0;
+        recordBytes = 0;
+        deadRecordBytes = 0;
+        addresses = new long[INITIAL_TABLE_SIZE];
+        hashes = new int[INITIAL_TABLE_SIZE];
+        size = 0;
+        if (null != channel) {
+            try {
+                channel.truncate(0);
+            } catch (final IOException e) {
+                throw new GafferRuntimeException("Unable to clear map file", e);
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new RecordIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Rewrites the live records into new pages, reclaiming the space taken up
+     * by records that have been removed or moved. This is done automatically
+     * when the map is modified and at least half of its storage is taken up
+     * by dead records.
+     */
+    public void compact() {
+        final List<ByteBuffer> oldPages = pages;
+        final FileChannel oldChannel = channel;
+        final File compactFile = null != file ? new File(file.getPath() + ".compact") : null;
+        try {
+            if (null != compactFile) {
+                Files.deleteIfExists(compactFile.toPath());
+                channel = open(compactFile);
+            }
+            pages = new ArrayList<>();
+            writePosition = 0;
+            fileLength = 0;
+            recordBytes = 0;
+            deadRecordBytes = 0;
+
+            for (int slot = 0; slot < addresses.length; slot++) {
+                final long address = addresses[slot];
+                if (0 != address) {
+                    final ByteBuffer page = oldPages.get(getPage(address));
+                    final int offset = getOffset(address);
+                    final int keyLength = page.getInt(offset);
+                    final byte[] keyBytes = read(page, offset + RECORD_HEADER_SIZE, keyLength);
+                    final byte[] valueBytes = read(page, offset + RECORD_HEADER_SIZE + keyLength, page.getInt(offset + VALUE_LENGTH_OFFSET));
+                    addresses[slot] = append(keyBytes, valueBytes, page.getInt(offset + VALUE_CAPACITY_OFFSET));
+                }
+            }
+
+            if (null != compactFile) {
+                for (final ByteBuffer page : pages) {
+                    ((MappedByteBuffer) page).force();
+                }
+                Files.move(compactFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                oldChannel.close();
+            }
+        } catch (final IOException e) {
+            throw new GafferRuntimeException("Unable to compact map file: " + file.getPath(), e);
+        }
+    }
+
+    /**
+     * Flushes any changes to the map file and closes it. The map should not
+     * be used after it has been closed.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (null != channel && channel.isOpen()) {
+            for (final ByteBuffer page : pages) {
+                ((MappedByteBuffer) page).force();
+            }
+            channel.close();
+        }
+    }
+
+    private V removeEntry(final Object key) {
+        if (null == key) {
+            return null;
+        }
+
+        final int slot = findSlot(serialiseKey(key));
+        final long address = addresses[slot];
+        if (0 == address) {
+            return null;
+        }
+
+        final V previous = readValue(address);
+        delete(slot);
+        return previous;
+    }
+
+    private void compactIfRequired() {
+        if (deadRecordBytes >= pageSize && deadRecordBytes * 2 >= recordBytes) {
+            compact();
+        }
+    }
+
+    private void insert(final int slot, final byte[] keyBytes, final byte[] valueBytes) {
+        insert(slot, keyBytes, append(keyBytes, valueBytes, valueBytes.length));
+    }
+
+    private void update(final int slot, final byte[] keyBytes, final byte[] valueBytes) {
+        final long address = addresses[slot];
+        final ByteBuffer page = pages.get(getPage(address));
+        final int offset = getOffset(address);
+        final int capacity = page.getInt(offset + VALUE_CAPACITY_OFFSET);
+        if (valueBytes.length <= capacity) {
+            write(page, offset + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+            page.putInt(offset + VALUE_LENGTH_OFFSET, valueBytes.length);
+        } else {
+            // Leave some room for the value to grow again. The new record is
+            // written before the old one is deleted so a file is never left
+            // without the entry.
+            addresses[slot] = append(keyBytes, valueBytes, valueBytes.length + (valueBytes.length >> 1));
+            markDeleted(page, offset);
+        }
+    }
+
+    private void delete(final int slot) {
+        final long address = addresses[slot];
+        markDeleted(pages.get(getPage(address)), getOffset(address));
+        size--;
+
+        // Shift back any following entries that would no longer be found
+        final int mask = addresses.length - 1;
+        int emptySlot = slot;
+        int nextSlot = (slot + 1) & mask;
+        while (0 != addresses[nextSlot]) {
+            final int idealSlot = hashes[nextSlot] & mask;
+            if (((nextSlot - idealSlot) & mask) >= ((nextSlot - emptySlot) & mask)) {
+                addresses[emptySlot] = addresses[nextSlot];
+                hashes[emptySlot] = hashes[nextSlot];
+                emptySlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        addresses[emptySlot] = 0;
+        hashes[emptySlot] = 0;
+    }
+
+    private long append(final byte[] keyBytes, final byte[] valueBytes, final int valueCapacity) {
+        final int recordSize = RECORD_HEADER_SIZE + keyBytes.length + valueCapacity;
+        if (pages.isEmpty() || writePosition + recordSize > pages.get(pages.size() - 1).capacity()) {
+            addPage(Math.max(pageSize, PAGE_HEADER_SIZE + recordSize));
+        }
+
+        final int pageIndex = pages.size() - 1;
+        final ByteBuffer page = pages.get(pageIndex);
+        final int offset = writePosition;
+        write(page, offset + RECORD_HEADER_SIZE, keyBytes);
+        write(page, offset + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+        page.putInt(offset + VALUE_CAPACITY_OFFSET, valueCapacity);
+        page.putInt(offset + VALUE_LENGTH_OFFSET, valueBytes.length);
+        // The key length is written last as a non zero key length marks the record as complete
+        page.putInt(offset, keyBytes.length);
+        writePosition += recordSize;
+        recordBytes += recordSize;
+
+        return ((long) pageIndex << Integer.SIZE) | offset;
+    }
+
+    private void markDeleted(final ByteBuffer page, final int offset) {
+        page.putInt(offset + VALUE_LENGTH_OFFSET, DELETED);
+        deadRecordBytes += getRecordSize(page, offset);
+    }
+
+    private void addPage(final int length) {
+        final ByteBuffer page;
+        if (null == channel) {
+            page = ByteBuffer.allocateDirect(length);
+        } else {
+            page = map(fileLength, length);
+            fileLength += length;
+        }
+        page.putInt(0, length);
+        pages.add(page);
+        writePosition = PAGE_HEADER_SIZE;
+    }
+
+    private ByteBuffer map(final long position, final int length) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+        } catch (final IOException e) {
+            throw new GafferRuntimeException("Unable to map " + length + " bytes of the map file", e);
+        }
+    }
+
+    private void load() throws IOException {
+        final long channelSize = channel.size();
+        final ByteBuffer lengthBuffer = ByteBuffer.allocate(PAGE_HEADER_SIZE);
+        while (fileLength + PAGE_HEADER_SIZE <= channelSize) {
+            lengthBuffer.clear();
+            channel.read(lengthBuffer, fileLength);
+            final int length = lengthBuffer.getInt(0);
+            if (length <= PAGE_HEADER_SIZE || fileLength + length > channelSize) {
+                break;
+            }
+
+            final ByteBuffer page = map(fileLength, length);
+            final int pageIndex = pages.size();
+            pages.add(page);
+            fileLength += length;
+
+            int offset = PAGE_HEADER_SIZE;
+            while (offset + RECORD_HEADER_SIZE <= length) {
+                final int keyLength = page.getInt(offset);
+                if (0 == keyLength) {
+                    break;
+                }
+                final int recordSize = getRecordSize(page, offset);
+                recordBytes += recordSize;
+                if (DELETED == page.getInt(offset + VALUE_LENGTH_OFFSET)) {
+                    deadRecordBytes += recordSize;
+                } else {
+                    final byte[] keyBytes = read(page, offset + RECORD_HEADER_SIZE, keyLength);
+                    final long address = ((long) pageIndex << Integer.SIZE) | offset;
+                    final int slot = findSlot(keyBytes);
+                    if (0 == addresses[slot]) {
+                        insert(slot, keyBytes, address);
+                    } else {
+                        // A record that was being moved, keep the newer copy
+                        final long oldAddress = addresses[slot];
+                        markDeleted(pages.get(getPage(oldAddress)), getOffset(oldAddress));
+                        addresses[slot] = address;
+                    }
+                }
+                offset += recordSize;
+            }
+            writePosition = offset;
+        }
+
+        // Discard anything after the last complete page
+        channel.truncate(fileLength);
+    }
+
+    private void insert(final int slot, final byte[] keyBytes, final long address) {
+        addresses[slot] = address;
+        hashes[slot] = hash(keyBytes);
+        size++;
+        if (size * 4L > addresses.length * 3L) {
+            resize(addresses.length << 1);
+        }
+    }
+
+    private void resize(final int length) {
+        final long[] oldAddresses = addresses;
+        final int[] oldHashes = hashes;
+        addresses = new long[length];
+        hashes = new int[length];
+        final int mask = length - 1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (0 != oldAddresses[i]) {
+                int slot = oldHashes[i] & mask;
+                while (0 != addresses[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                addresses[slot] = oldAddresses[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private int findSlot(final byte[] keyBytes) {
+        final int hash = hash(keyBytes);
+        final int mask = addresses.length - 1;
+        int slot = hash & mask;
+        while (0 != addresses[slot]) {
+            if (hash == hashes[slot] && keyEquals(addresses[slot], keyBytes)) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(final long address, final byte[] keyBytes) {
+        final ByteBuffer page = pages.get(getPage(address));
+        final int offset = getOffset(address);
+        if (keyBytes.length != page.getInt(offset)) {
+            return false;
+        }
+
+        final int keyOffset = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (keyBytes[i] != page.get(keyOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private K readKey(final long address) {
+        final ByteBuffer page = pages.get(getPage(address));
+        final int offset = getOffset(address);
+        try {
+            return keySerialiser.deserialise(read(page, offset + RECORD_HEADER_SIZE, page.getInt(offset)));
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to deserialise key", e);
+        }
+    }
+
+    private V readValue(final long address) {
+        final ByteBuffer page = pages.get(getPage(address));
+        final int offset = getOffset(address);
+        final int keyLength = page.getInt(offset);
+        try {
+            return valueSerialiser.deserialise(read(page, offset + RECORD_HEADER_SIZE + keyLength, page.getInt(offset + VALUE_LENGTH_OFFSET)));
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to deserialise value", e);
+        }
+    }
+
+    private byte[] serialiseKey(final Object key) {
+        if (null == key) {
+            throw new IllegalArgumentException("Null keys are not supported");
+        }
+
+        try {
+            final byte[] bytes = keySerialiser.serialise((K) key);
+            if (0 == bytes.length) {
+                throw new IllegalArgumentException("Keys must not serialise to an empty byte array");
+            }
+            return bytes;
+        } catch (final SerialisationException | ClassCastException e) {
+            throw new GafferRuntimeException("Unable to serialise key", e);
+        }
+    }
+
+    private byte[] serialiseValue(final V value) {
+        try {
+            return valueSerialiser.serialise(value);
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to serialise value", e);
+        }
+    }
+
+    private static FileChannel open(final File file) throws IOException {
+        return new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    private static int getRecordSize(final ByteBuffer page, final int offset) {
+        return RECORD_HEADER_SIZE + page.getInt(offset) + page.getInt(offset + VALUE_CAPACITY_OFFSET);
+    }
+
+    private static byte[] read(final ByteBuffer page, final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        final ByteBuffer view = page.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static void write(final ByteBuffer page, final int offset, final byte[] bytes) {
+        final ByteBuffer view = page.duplicate();
+        view.position(offset);
+        view.put(bytes);
+    }
+
+    private static int hash(final byte[] bytes) {
+        final int hash = Arrays.hashCode(bytes) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int getPage(final long address) {
+        return (int) (address >>> Integer.SIZE);
+    }
+
+    private static int getOffset(final long address) {
+        return (int) address;
+    }
+
+    private final class RecordIterator implements Iterator<Entry<K, V>> {
+        private int pageIndex;
+        private int offset = PAGE_HEADER_SIZE;
+        private long nextAddress;
+        private long lastAddress;
+
+        @Override
+        public boolean hasNext() {
+            while (0 == nextAddress && pageIndex < pages.size()) {
+                final ByteBuffer page = pages.get(pageIndex);
+                final int limit = pageIndex == pages.size() - 1 ? writePosition : page.capacity();
+                if (offset + RECORD_HEADER_SIZE > limit || 0 == page.getInt(offset)) {
+                    pageIndex++;
+                    offset = PAGE_HEADER_SIZE;
+                } else {
+                    if (DELETED != page.getInt(offset + VALUE_LENGTH_OFFSET)) {
+                        nextAddress = ((long) pageIndex << Integer.SIZE) | offset;
+                    }
+                    offset += getRecordSize(page, offset);
+                }
+            }
+            return 0 != nextAddress;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastAddress = nextAddress;
+            nextAddress = 0;
+            return new SimpleImmutableEntry<>(readKey(lastAddress), readValue(lastAddress));
+        }
+
+        @Override
+        public void remove() {
+            if (0 == lastAddress) {
+                throw new IllegalStateException();
+            }
+            // Compaction is not triggered as it would move the remaining records
+            removeEntry(readKey(lastAddress));
+            lastAddress = 0;
+        }
+    }
+}
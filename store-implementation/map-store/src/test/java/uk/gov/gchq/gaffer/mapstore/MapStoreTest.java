@@ -24,8 +24,12 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 public class MapStoreTest {
 
@@ -41,4 +45,22 @@ public class MapStoreTest {
                 StoreTrait.POST_TRANSFORMATION_FILTERING));
         assertEquals(expectedTraits, mapStore.getTraits());
     }
+
+    @Test
+    public void shouldShutdownPreviousIngestExecutorWhenReinitialised() throws StoreException {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setIngestThreads(2);
+        final MapStore mapStore = new MapStore();
+        mapStore.initialise("graphId", new Schema(), properties);
+        final ExecutorService previousExecutor = mapStore.getIngestExecutor();
+
+        // When
+        mapStore.initialise("graphId", new Schema(), properties);
+
+        // Then
+        assertTrue(previousExecutor.isShutdown());
+        assertNotSame(previousExecutor, mapStore.getIngestExecutor());
+        assertFalse(mapStore.getIngestExecutor().isShutdown());
+    }
 }
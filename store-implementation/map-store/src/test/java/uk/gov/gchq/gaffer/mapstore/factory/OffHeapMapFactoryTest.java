@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.index.ElementIndex;
+import uk.gov.gchq.gaffer.mapstore.index.OffHeapElementIndex;
+import uk.gov.gchq.gaffer.mapstore.offheap.OffHeapMap;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.tostring.StringToStringSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffHeapMapFactoryTest {
+
+    @Test
+    public void shouldStoreElementsAndIndexOffHeap() {
+        // Given
+        final OffHeapMapFactory factory = new OffHeapMapFactory();
+        factory.initialise(createSchema(), new MapStoreProperties());
+        final Entity entity = new Entity(TestGroups.ENTITY, "A");
+
+        // When
+        final Map<Element, Long> map = factory.getMap("map", Element.class, Long.class);
+        final ElementIndex index = factory.getElementIndex();
+        map.put(entity, 1L);
+        index.add(entity);
+
+        // Then
+        assertTrue(map instanceof OffHeapMap);
+        assertTrue(index instanceof OffHeapElementIndex);
+        assertEquals(1L, (long) map.get(entity));
+        assertEquals(Arrays.asList(entity), index.lookup(new EntitySeed("A")));
+        factory.clear();
+    }
+
+    @Test
+    public void shouldThrowExceptionIfVertexSerialiserIsNotToBytesSerialiser() {
+        // Given
+        final Schema schema = createSchema();
+        final Schema invalidSchema = new Schema.Builder()
+                .merge(schema)
+                .vertexSerialiser(new StringToStringSerialiser())
+                .build();
+
+        // When / Then
+        try {
+            OffHeapMapFactory.validateSchema(invalidSchema);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("vertex serialiser"));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfPropertySerialiserIsNotToBytesSerialiser() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property("name", "toString")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .type("toString", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringToStringSerialiser())
+                        .build())
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+
+        // When / Then
+        try {
+            new OffHeapMapFactory().initialise(schema, new MapStoreProperties());
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("property name"));
+        }
+    }
+
+    private Schema createSchema() {
+        return new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY1;
+
+public class AddElementsHandlerTest {
+    private static final int NUM_VERTICES = 100;
+    private static final int NUM_THREADS = 4;
+    private static final int NUM_ADDS_PER_THREAD = 5;
+
+    @Test
+    public void shouldAddAndAggregateElementsConcurrently() throws Exception {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setIngestThreads(NUM_THREADS);
+        storeProperties.setIngestBufferSize(7);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("graph1")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(storeProperties)
+                .build();
+
+        // When
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < NUM_THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < NUM_ADDS_PER_THREAD; i++) {
+                        graph.execute(new AddElements.Builder()
+                                .input(getElements())
+                                .build(), new User());
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        final int expectedCount = NUM_THREADS * NUM_ADDS_PER_THREAD;
+        final Set<Element> expectedElements = getElements().stream()
+                .peek(element -> element.putProperty(COUNT, expectedCount))
+                .collect(Collectors.toSet());
+        assertEquals(expectedElements, getAllElements(graph));
+
+        final CloseableIterable<? extends Element> results = graph.execute(new GetElements.Builder()
+                .input(new EntitySeed("1"))
+                .build(), new User());
+        assertEquals(3, Streams.toStream(results).count());
+    }
+
+    @Test
+    public void shouldAddNonAggregatedElementsConcurrently() throws OperationException {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setIngestThreads(NUM_THREADS);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("graph1")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchemaNoAggregation())
+                .storeProperties(storeProperties)
+                .build();
+
+        // When
+        graph.execute(new AddElements.Builder()
+                .input(getElements())
+                .build(), new User());
+        graph.execute(new AddElements.Builder()
+                .input(getElements())
+                .build(), new User());
+
+        // Then
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+        assertEquals(2 * getElements().size(), Streams.toStream(results).count());
+    }
+
+    @Test
+    public void shouldGetAllElementsWhilstAddingElementsConcurrently() throws Exception {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setIngestThreads(NUM_THREADS);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("graph1")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchemaNoAggregation())
+                .storeProperties(storeProperties)
+                .build();
+        final int numAdds = 20;
+
+        // When
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> adds = executor.submit(() -> {
+                for (int i = 0; i < numAdds; i++) {
+                    graph.execute(new AddElements.Builder()
+                            .input(getElements())
+                            .build(), new User());
+                }
+                return null;
+            });
+            while (!adds.isDone()) {
+                final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+                Streams.toStream(results).forEach(element -> assertEquals(1, element.getProperty(COUNT)));
+            }
+            adds.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+        assertEquals(numAdds * getElements().size(), Streams.toStream(results).count());
+    }
+
+    private static Set<Element> getAllElements(final Graph graph) throws OperationException {
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+        final Set<Element> resultsSet = new HashSet<>();
+        Streams.toStream(results).forEach(resultsSet::add);
+        return resultsSet;
+    }
+
+    private static List<Element> getElements() {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_VERTICES; i++) {
+            elements.add(new Entity.Builder()
+                    .group(BASIC_ENTITY)
+                    .vertex("" + i)
+                    .property(PROPERTY1, "p")
+                    .property(COUNT, 1)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE1)
+                    .source("" + i)
+                    .dest("" + ((i + 1) % NUM_VERTICES))
+                    .directed(true)
+                    .property(PROPERTY1, "q")
+                    .property(COUNT, 1)
+                    .build());
+        }
+        return elements;
+    }
+}
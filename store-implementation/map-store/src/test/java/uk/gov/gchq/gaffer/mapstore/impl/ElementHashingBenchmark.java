@@ -0,0 +1,250 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY1;
+
+/**
+ * JMH benchmark of the element hashing and equality used by the
+ * {@link uk.gov.gchq.gaffer.mapstore.MapStore}.
+ * <p>
+ * The ingest and query benchmarks exercise the element keyed maps and sets
+ * in the store, so should be run before and after a change to element
+ * hashing to compare them. The deduplication benchmarks compare hashing
+ * elements directly with the previous HashCodeBuilder and EqualsBuilder
+ * based implementation.
+ * </p>
+ * <p>
+ * Run it from the map-store module test classpath using the main method.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementHashingBenchmark {
+    private static final User USER = new User();
+
+    @Param({"10000", "100000"})
+    public int numElements;
+
+    private List<Element> elements;
+    private Graph graph;
+    private List<EntitySeed> seeds;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ElementHashingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup
+    public void setup() throws OperationException {
+        elements = new ArrayList<>(numElements);
+        seeds = new ArrayList<>();
+        final int numVertices = numElements / 4;
+        for (int i = 0; i < numElements; i++) {
+            final String vertex = "vertex" + (i % numVertices);
+            if (0 == i % 2) {
+                elements.add(new Entity.Builder()
+                        .group(BASIC_ENTITY)
+                        .vertex(vertex)
+                        .property(PROPERTY1, "p")
+                        .property(COUNT, 1)
+                        .build());
+            } else {
+                elements.add(new Edge.Builder()
+                        .group(BASIC_EDGE1)
+                        .source(vertex)
+                        .dest("vertex" + ((i + 1) % numVertices))
+                        .directed(true)
+                        .property(PROPERTY1, "q")
+                        .property(COUNT, 1)
+                        .build());
+            }
+            if (0 == i % 100) {
+                seeds.add(new EntitySeed(vertex));
+            }
+        }
+
+        graph = createGraph();
+        ingest(graph);
+    }
+
+    @Benchmark
+    public Graph ingest() throws OperationException {
+        final Graph ingestGraph = createGraph();
+        ingest(ingestGraph);
+        return ingestGraph;
+    }
+
+    @Benchmark
+    public long getElements() throws OperationException {
+        try (final CloseableIterable<? extends Element> results = graph.execute(new GetElements.Builder()
+                .input(seeds)
+                .build(), USER)) {
+            return count(results);
+        }
+    }
+
+    @Benchmark
+    public long getAllElements() throws OperationException {
+        try (final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), USER)) {
+            return count(results);
+        }
+    }
+
+    @Benchmark
+    public int deduplicateElements() {
+        final Set<Element> deduplicated = new HashSet<>();
+        deduplicated.addAll(elements);
+        deduplicated.addAll(elements);
+        return deduplicated.size();
+    }
+
+    @Benchmark
+    public int deduplicateElementsWithBuilders() {
+        final Set<BuilderHashedElement> deduplicated = new HashSet<>();
+        for (final Element element : elements) {
+            deduplicated.add(new BuilderHashedElement(element));
+        }
+        for (final Element element : elements) {
+            deduplicated.add(new BuilderHashedElement(element));
+        }
+        return deduplicated.size();
+    }
+
+    private Graph createGraph() {
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("benchmarkGraph")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(new MapStoreProperties())
+                .build();
+    }
+
+    private void ingest(final Graph ingestGraph) throws OperationException {
+        ingestGraph.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), USER);
+    }
+
+    private static long count(final Iterable<? extends Element> results) {
+        long count = 0;
+        for (final Element ignored : results) {
+            count++;
+        }
+        return count;
+    }
+
+    // Hashes and compares an element as Element, Edge and Entity did using the commons-lang builders
+    private static final class BuilderHashedElement {
+        private final Element element;
+
+        private BuilderHashedElement(final Element element) {
+            this.element = element;
+        }
+
+        @Override
+        public int hashCode() {
+            final HashCodeBuilder builder = new HashCodeBuilder(21, 3)
+                    .appendSuper(new HashCodeBuilder(53, 17)
+                            .append(element.getGroup())
+                            .append(element.getProperties())
+                            .toHashCode());
+            if (element instanceof Edge) {
+                final Edge edge = (Edge) element;
+                builder.append(edge.getSource())
+                        .append(edge.getDestination())
+                        .append(edge.isDirected());
+            } else {
+                builder.append(((Entity) element).getVertex());
+            }
+            return builder.toHashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof BuilderHashedElement)) {
+                return false;
+            }
+
+            final Element other = ((BuilderHashedElement) obj).element;
+            if (element.getClass() != other.getClass()) {
+                return false;
+            }
+
+            final EqualsBuilder builder = new EqualsBuilder()
+                    .append(element.getGroup(), other.getGroup())
+                    .append(element.getProperties(), other.getProperties());
+            if (element instanceof Edge) {
+                final Edge edge = (Edge) element;
+                final Edge otherEdge = (Edge) other;
+                builder.append(edge.isDirected(), otherEdge.isDirected())
+                        .append(edge.getSource(), otherEdge.getSource())
+                        .append(edge.getDestination(), otherEdge.getDestination());
+            } else {
+                builder.append(((Entity) element).getVertex(), ((Entity) other).getVertex());
+            }
+            return builder.isEquals();
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package uk.gov.gchq.gaffer.mapstore.impl;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
@@ -22,17 +23,28 @@ import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.mapstore.factory.MapFactory;
+import uk.gov.gchq.gaffer.mapstore.factory.OffHeapMapFactory;
 import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
 import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
 import uk.gov.gchq.gaffer.store.schema.Schema;
-
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -66,6 +78,7 @@ public class MapImplTest {
         given(properties.getCreateIndex()).willReturn(true);
         given(mockMapFactory.getMap(TestGroups.EDGE + "|" + MapImpl.AGG_ELEMENTS, Element.class, GroupedProperties.class)).willReturn(aggElements);
         given(mockMapFactory.getMap(TestGroups.EDGE + "|" + MapImpl.NON_AGG_ELEMENTS, Element.class, Integer.class)).willReturn(nonAggElements);
+        given(mockMapFactory.getMap(MapImpl.STRIPES, Long.class, Long.class)).willReturn(new HashMap<>());
         given(mockMapFactory.getMultiMap(MapImpl.ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class)).willReturn(entityIdToElements);
         given(mockMapFactory.getMultiMap(MapImpl.EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class)).willReturn(edgeIdToElements);
 
@@ -74,6 +87,7 @@ public class MapImplTest {
 
         // Then
         verify(mockMapFactory).getMap(TestGroups.EDGE + "|" + MapImpl.AGG_ELEMENTS, Element.class, GroupedProperties.class);
+        verify(mockMapFactory).getMap(MapImpl.STRIPES, Long.class, Long.class);
         verify(mockMapFactory).getMap(TestGroups.EDGE + "|" + MapImpl.NON_AGG_ELEMENTS, Element.class, Long.class);
         verify(mockMapFactory).getMultiMap(MapImpl.ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class);
         verify(mockMapFactory).getMultiMap(MapImpl.EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class);
@@ -92,17 +106,63 @@ public class MapImplTest {
         given(properties.getCreateIndex()).willReturn(false);
         given(mockMapFactory.getMap(TestGroups.EDGE + "|" + MapImpl.AGG_ELEMENTS, Element.class, GroupedProperties.class)).willReturn(aggElements);
         given(mockMapFactory.getMap(TestGroups.EDGE + "|" + MapImpl.NON_AGG_ELEMENTS, Element.class, Integer.class)).willReturn(nonAggElements);
+        given(mockMapFactory.getMap(MapImpl.STRIPES, Long.class, Long.class)).willReturn(new HashMap<>());
 
         // When
         new MapImpl(schema, properties);
 
         // Then
         verify(mockMapFactory).getMap(TestGroups.EDGE + "|" + MapImpl.AGG_ELEMENTS, Element.class, GroupedProperties.class);
+        verify(mockMapFactory).getMap(MapImpl.STRIPES, Long.class, Long.class);
         verify(mockMapFactory).getMap(TestGroups.EDGE + "|" + MapImpl.NON_AGG_ELEMENTS, Element.class, Long.class);
         verify(mockMapFactory, never()).getMultiMap(MapImpl.ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class);
         verify(mockMapFactory, never()).getMultiMap(MapImpl.EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class);
     }
 
+    @Test
+    public void shouldKeepNumberOfStripesWhenPersistedMapsAreReopened() throws IOException {
+        // Given
+        final File directory = Files.createTempDirectory("mapImpl").toFile();
+        final Schema schema = new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .aggregate(false)
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setMapFactory(OffHeapMapFactory.class.getName());
+        properties.set(OffHeapMapFactory.DIRECTORY, directory.getPath());
+        properties.setIngestThreads(4);
+        final MapImpl mapImpl = new MapImpl(schema, properties);
+        for (int i = 0; i < 20; i++) {
+            mapImpl.addNonAggElement(new Entity(TestGroups.ENTITY, "vertex" + i));
+        }
+
+        try {
+            // When
+            properties.setIngestThreads(1);
+            final MapImpl reopenedMapImpl = new MapImpl(schema, properties);
+
+            // Then
+            assertEquals(4, reopenedMapImpl.getNumStripes());
+            assertEquals(20, reopenedMapImpl.countNonAggElements());
+            for (int i = 0; i < 20; i++) {
+                final Entity entity = new Entity(TestGroups.ENTITY, "vertex" + i);
+                assertEquals(Collections.singletonList(entity), Lists.newArrayList(reopenedMapImpl.getNonAggElements(entity)));
+            }
+        } finally {
+            for (final File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
     public static final class TestMapFactory implements MapFactory {
 
         @Override
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE2;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+
+/**
+ * JMH benchmark comparing a {@link ViewFilterPlan} with applying a
+ * {@link View} as separate stream stages, each looking up the view element
+ * definition for every element.
+ * <p>
+ * Run it from the map-store module test classpath using the main method.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewFilterPlanBenchmark {
+    @Param({"1000", "100000"})
+    public int numElements;
+
+    private Schema schema;
+    private View view;
+    private List<Element> elements;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ViewFilterPlanBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup
+    public void setup() {
+        schema = GetAllElementsHandlerTest.getSchema();
+        view = new View.Builder()
+                .entity(BASIC_ENTITY)
+                .edge(BASIC_EDGE1, new ViewElementDefinition.Builder()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(COUNT)
+                                .execute(new IsMoreThan(10))
+                                .build())
+                        .build())
+                .edge(BASIC_EDGE2, new ViewElementDefinition.Builder()
+                        .postTransformFilter(new ElementFilter.Builder()
+                                .select(COUNT)
+                                .execute(new IsMoreThan(50))
+                                .build())
+                        .build())
+                .build();
+
+        elements = new ArrayList<>(numElements);
+        for (int i = 0; i < numElements; i++) {
+            final int count = i % 100;
+            switch (i % 3) {
+                case 0:
+                    elements.add(new Entity.Builder()
+                            .group(BASIC_ENTITY)
+                            .vertex("vertex" + i)
+                            .property(COUNT, count)
+                            .build());
+                    break;
+                case 1:
+                    elements.add(new Edge.Builder()
+                            .group(BASIC_EDGE1)
+                            .source("vertex" + i)
+                            .dest("dest")
+                            .directed(true)
+                            .property(COUNT, count)
+                            .build());
+                    break;
+                default:
+                    elements.add(new Edge.Builder()
+                            .group(BASIC_EDGE2)
+                            .source("vertex" + i)
+                            .dest("dest")
+                            .directed(false)
+                            .property(COUNT, count)
+                            .build());
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public long viewFilterPlan() {
+        return new ViewFilterPlan(schema, view).apply(elements.stream()).count();
+    }
+
+    @Benchmark
+    public long separateStages() {
+        return applyViewInStages(elements.stream()).count();
+    }
+
+    // The view stages as they were applied before the ViewFilterPlan was introduced
+    private Stream<Element> applyViewInStages(final Stream<Element> elementStream) {
+        final Set<String> viewGroups = view.getGroups();
+        Stream<Element> stream = elementStream;
+        if (!view.getEntityGroups().equals(schema.getEntityGroups())
+                || !view.getEdgeGroups().equals(schema.getEdgeGroups())) {
+            stream = stream.filter(e -> viewGroups.contains(e.getGroup()));
+        }
+        stream = stream.filter(e -> {
+            final ViewElementDefinition ved = view.getElement(e.getGroup());
+            return null == ved.getPreAggregationFilter() || ved.getPreAggregationFilter().test(e);
+        });
+        stream = stream.filter(e -> {
+            final ViewElementDefinition ved = view.getElement(e.getGroup());
+            return null == ved.getPostAggregationFilter() || ved.getPostAggregationFilter().test(e);
+        });
+        stream = stream.map(e -> {
+            final ViewElementDefinition ved = view.getElement(e.getGroup());
+            if (null != ved.getTransformer()) {
+                ved.getTransformer().apply(e);
+            }
+            return e;
+        });
+        return stream.filter(e -> {
+            final ViewElementDefinition ved = view.getElement(e.getGroup());
+            return null == ved.getPostTransformFilter() || ved.getPostTransformFilter().test(e);
+        });
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE2;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+
+public class ViewFilterPlanTest {
+    @Test
+    public void shouldReturnStreamUnchangedIfViewHasAllGroupsAndNoFilters() {
+        // Given
+        final Schema schema = GetAllElementsHandlerTest.getSchema();
+        final View view = new View.Builder()
+                .entity(BASIC_ENTITY)
+                .edges(schema.getEdgeGroups())
+                .build();
+        final Stream<Element> elements = GetAllElementsHandlerTest.getElements().stream();
+
+        // When
+        final ViewFilterPlan plan = new ViewFilterPlan(schema, view);
+
+        // Then
+        assertTrue(plan.isNoOp());
+        assertSame(elements, plan.apply(elements));
+    }
+
+    @Test
+    public void shouldRejectElementsOfGroupsNotInView() {
+        // Given
+        final View view = new View.Builder()
+                .edge(BASIC_EDGE1)
+                .build();
+
+        // When
+        final ViewFilterPlan plan = new ViewFilterPlan(GetAllElementsHandlerTest.getSchema(), view);
+        final List<Element> results = plan.apply(GetAllElementsHandlerTest.getElements().stream())
+                .collect(Collectors.toList());
+
+        // Then
+        assertFalse(plan.isNoOp());
+        assertEquals(GetAllElementsHandlerTest.getElements().stream().filter(e -> BASIC_EDGE1.equals(e.getGroup())).count(),
+                results.size());
+        assertTrue(results.stream().allMatch(e -> BASIC_EDGE1.equals(e.getGroup())));
+    }
+
+    @Test
+    public void shouldApplyFiltersAndTransformerInOrder() {
+        // Given
+        final View view = new View.Builder()
+                .edge(BASIC_EDGE1, new ViewElementDefinition.Builder()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(COUNT)
+                                .execute(new IsMoreThan(1))
+                                .build())
+                        .postAggregationFilter(new ElementFilter.Builder()
+                                .select(COUNT)
+                                .execute(new IsMoreThan(2))
+                                .build())
+                        .transformer(new ElementTransformer.Builder()
+                                .select(COUNT)
+                                .execute((Function<Integer, Integer>) count -> count * 10)
+                                .project(COUNT)
+                                .build())
+                        .postTransformFilter(new ElementFilter.Builder()
+                                .select(COUNT)
+                                .execute(new IsMoreThan(40))
+                                .build())
+                        .build())
+                .build();
+        final ViewFilterPlan plan = new ViewFilterPlan(GetAllElementsHandlerTest.getSchema(), view);
+
+        // When / Then
+        assertFalse(plan.test(createEdge(BASIC_EDGE1, 1)));
+        assertFalse(plan.test(createEdge(BASIC_EDGE1, 2)));
+        assertFalse(plan.test(createEdge(BASIC_EDGE1, 4)));
+        final Edge edge = createEdge(BASIC_EDGE1, 5);
+        assertTrue(plan.test(edge));
+        assertEquals(50, edge.getProperty(COUNT));
+        assertFalse(plan.test(createEdge(BASIC_EDGE2, 5)));
+        assertFalse(plan.test(new Entity(BASIC_ENTITY, "A")));
+    }
+
+    private static Edge createEdge(final String group, final int count) {
+        return new Edge.Builder()
+                .group(group)
+                .source("A")
+                .dest("B")
+                .directed(true)
+                .property(COUNT, count)
+                .build();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.index;
+
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactElementIndexTest {
+    private CompactElementIndex index;
+
+    @Before
+    public void before() {
+        index = new CompactElementIndex();
+    }
+
+    @Test
+    public void shouldLookupEntityByVertex() {
+        // Given
+        final Entity entity = new Entity(TestGroups.ENTITY, "A");
+
+        // When
+        index.add(entity);
+
+        // Then
+        assertEquals(Sets.newHashSet(entity), new HashSet<>(index.lookup(new EntitySeed("A"))));
+        assertTrue(index.lookup(new EntitySeed("B")).isEmpty());
+    }
+
+    @Test
+    public void shouldLookupEdgeBySourceAndDestinationWithMatchedVertex() {
+        // Given
+        final Edge edge = new Edge(TestGroups.EDGE, "A", "B", true);
+        edge.putProperty("count", 1);
+
+        // When
+        index.add(edge);
+
+        // Then
+        final Collection<Element> sourceResults = index.lookup(new EntitySeed("A"));
+        assertEquals(1, sourceResults.size());
+        assertSame(edge, sourceResults.iterator().next());
+
+        final Collection<Element> destResults = index.lookup(new EntitySeed("B"));
+        assertEquals(1, destResults.size());
+        final Edge destEdge = (Edge) destResults.iterator().next();
+        assertEquals(edge, destEdge);
+        assertEquals(EdgeId.MatchedVertex.DESTINATION, destEdge.getMatchedVertex());
+        assertSame(edge.getProperties(), destEdge.getProperties());
+    }
+
+    @Test
+    public void shouldLookupDirectedEdgeByEdgeId() {
+        // Given
+        final Edge edge = new Edge(TestGroups.EDGE, "A", "B", true);
+
+        // When
+        index.add(edge);
+
+        // Then
+        assertEquals(Sets.newHashSet(edge), new HashSet<>(index.lookup(new EdgeSeed("A", "B", true))));
+        assertTrue(index.lookup(new EdgeSeed("B", "A", true)).isEmpty());
+        assertTrue(index.lookup(new EdgeSeed("A", "B", false)).isEmpty());
+        assertTrue(index.lookup(new EdgeSeed("A", "B", DirectedType.EITHER)).isEmpty());
+    }
+
+    @Test
+    public void shouldLookupUndirectedEdgeByEdgeIdInEitherOrder() {
+        // Given
+        final Edge edge = new Edge(TestGroups.EDGE, "A", "B", false);
+
+        // When
+        index.add(edge);
+
+        // Then
+        assertEquals(Sets.newHashSet(edge), new HashSet<>(index.lookup(new EdgeSeed("A", "B", false))));
+        assertEquals(Sets.newHashSet(edge), new HashSet<>(index.lookup(new EdgeSeed("B", "A", false))));
+        assertTrue(index.lookup(new EdgeSeed("A", "B", true)).isEmpty());
+    }
+
+    @Test
+    public void shouldOnlyIndexEqualElementsOnce() {
+        // Given
+        final Edge edge = new Edge(TestGroups.EDGE, "A", "B", true);
+        final Edge equalEdge = new Edge(TestGroups.EDGE, "A", "B", true);
+        final Entity entity = new Entity(TestGroups.ENTITY, "A");
+
+        // When
+        index.add(edge);
+        index.add(equalEdge);
+        index.add(entity);
+        index.add(entity);
+
+        // Then
+        assertEquals(2, index.getElementCount());
+        assertEquals(2, index.lookup(new EntitySeed("A")).size());
+        assertEquals(1, index.lookup(new EntitySeed("B")).size());
+        assertEquals(1, index.lookup(new EdgeSeed("A", "B", true)).size());
+    }
+
+    @Test
+    public void shouldIndexSelfLoopOnce() {
+        // Given
+        final Edge edge = new Edge(TestGroups.EDGE, "A", "A", true);
+
+        // When
+        index.add(edge);
+
+        // Then
+        final Collection<Element> results = index.lookup(new EntitySeed("A"));
+        assertEquals(1, results.size());
+        assertSame(edge, results.iterator().next());
+        assertEquals(1, index.lookup(new EdgeSeed("A", "A", true)).size());
+    }
+
+    @Test
+    public void shouldIndexManyVerticesAndElements() {
+        // Given
+        final int numVertices = 1000;
+
+        // When
+        for (int i = 0; i < numVertices; i++) {
+            index.add(new Entity(TestGroups.ENTITY, i));
+            index.add(new Edge(TestGroups.EDGE, i, (i + 1) % numVertices, true));
+        }
+
+        // Then
+        assertEquals(numVertices, index.getVertexCount());
+        assertEquals(2 * numVertices, index.getElementCount());
+        for (int i = 0; i < numVertices; i++) {
+            assertEquals(3, index.lookup(new EntitySeed(i)).size());
+            assertEquals(Sets.newHashSet(new Edge(TestGroups.EDGE, i, (i + 1) % numVertices, true)),
+                    new HashSet<>(index.lookup(new EdgeSeed(i, (i + 1) % numVertices, true))));
+        }
+    }
+
+    @Test
+    public void shouldClearIndex() {
+        // Given
+        index.add(new Entity(TestGroups.ENTITY, "A"));
+        index.add(new Edge(TestGroups.EDGE, "A", "B", true));
+
+        // When
+        index.clear();
+
+        // Then
+        assertEquals(0, index.getVertexCount());
+        assertEquals(0, index.getElementCount());
+        assertTrue(index.lookup(new EntitySeed("A")).isEmpty());
+        assertTrue(index.lookup(new EdgeSeed("A", "B", true)).isEmpty());
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.offheap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.RawLongSerialiser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapMapTest {
+    private static final int PAGE_SIZE = 1024;
+
+    private File file;
+
+    @Before
+    public void before() throws IOException {
+        file = File.createTempFile("offHeapMap", ".map");
+        file.delete();
+    }
+
+    @After
+    public void after() {
+        file.delete();
+    }
+
+    @Test
+    public void shouldPutAndGetValues() {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(null);
+
+        // When
+        final Long previous = map.put("key1", 1L);
+        map.put("key2", 2L);
+        final Long replaced = map.put("key1", 3L);
+
+        // Then
+        assertNull(previous);
+        assertEquals(1L, (long) replaced);
+        assertEquals(2, map.size());
+        assertEquals(3L, (long) map.get("key1"));
+        assertEquals(2L, (long) map.get("key2"));
+        assertNull(map.get("key3"));
+        assertTrue(map.containsKey("key1"));
+        assertFalse(map.containsKey("key3"));
+    }
+
+    @Test
+    public void shouldMergeValues() {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(null);
+
+        // When
+        map.merge("key1", 1L, Long::sum);
+        map.merge("key1", 2L, Long::sum);
+        map.merge("key2", 5L, Long::sum);
+
+        // Then
+        assertEquals(3L, (long) map.get("key1"));
+        assertEquals(5L, (long) map.get("key2"));
+    }
+
+    @Test
+    public void shouldMoveValuesThatGrowBeyondTheirCapacity() {
+        // Given
+        final OffHeapMap<String, String> map = new OffHeapMap<>(new StringSerialiser(), new StringSerialiser(), PAGE_SIZE, null);
+        map.put("key1", "a");
+        map.put("key2", "b");
+
+        // When
+        map.merge("key1", "bcdefghijklmnopqrstuvwxyz", String::concat);
+        map.merge("key1", "ABCDEFGHIJKLMNOPQRSTUVWXYZ", String::concat);
+
+        // Then
+        assertEquals("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ", map.get("key1"));
+        assertEquals("b", map.get("key2"));
+        assertEquals(2, map.entrySet().size());
+        assertEquals(2, new HashMap<>(map).size());
+    }
+
+    @Test
+    public void shouldRemoveValues() {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(null);
+        final Map<String, Long> expected = new HashMap<>();
+        for (long i = 0; i < 500; i++) {
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+
+        // When
+        for (long i = 0; i < 500; i += 3) {
+            assertEquals(i, (long) map.remove("key" + i));
+            expected.remove("key" + i);
+        }
+
+        // Then
+        assertEquals(expected, new HashMap<>(map));
+        for (final Map.Entry<String, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertNull(map.get("key0"));
+    }
+
+    @Test
+    public void shouldStoreValuesAcrossManyPages() {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(null);
+
+        // When
+        for (long i = 0; i < 10000; i++) {
+            map.merge("key" + (i % 1000), 1L, Long::sum);
+        }
+
+        // Then
+        assertEquals(1000, map.size());
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(10L, (long) map.get("key" + i));
+        }
+    }
+
+    @Test
+    public void shouldStoreRecordsLargerThanThePageSize() {
+        // Given
+        final OffHeapMap<String, String> map = new OffHeapMap<>(new StringSerialiser(), new StringSerialiser(), PAGE_SIZE, null);
+        final StringBuilder value = new StringBuilder();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            value.append('x');
+        }
+
+        // When
+        map.put("key1", value.toString());
+        map.put("key2", "y");
+
+        // Then
+        assertEquals(value.toString(), map.get("key1"));
+        assertEquals("y", map.get("key2"));
+    }
+
+    @Test
+    public void shouldClearMap() {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(null);
+        map.put("key1", 1L);
+
+        // When
+        map.clear();
+
+        // Then
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertNull(map.get("key1"));
+    }
+
+    @Test
+    public void shouldReloadEntriesFromFile() throws IOException {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(file);
+        for (long i = 0; i < 1000; i++) {
+            map.merge("key" + (i % 100), i, Long::sum);
+        }
+        map.remove("key0");
+        final Map<String, Long> expected = new HashMap<>(map);
+        map.close();
+
+        // When
+        final OffHeapMap<String, Long> reloadedMap = createMap(file);
+
+        // Then
+        assertEquals(99, reloadedMap.size());
+        assertEquals(expected, new HashMap<>(reloadedMap));
+        reloadedMap.merge("key1", 1L, Long::sum);
+        assertEquals(expected.get("key1") + 1, (long) reloadedMap.get("key1"));
+        reloadedMap.close();
+    }
+
+    @Test
+    public void shouldCompactRemovedAndMovedRecords() throws IOException {
+        // Given
+        final OffHeapMap<String, String> map = new OffHeapMap<>(new StringSerialiser(), new StringSerialiser(), PAGE_SIZE, file);
+        for (int i = 0; i < 500; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        final long fullFileLength = file.length();
+
+        // When
+        for (int i = 10; i < 500; i++) {
+            map.remove("key" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            map.merge("key" + i, "-a-much-longer-value-that-does-not-fit", String::concat);
+        }
+        final Map<String, String> expected = new HashMap<>(map);
+        map.close();
+
+        // Then
+        assertTrue("File was not compacted: " + file.length(), file.length() < fullFileLength / 2);
+        assertEquals(10, expected.size());
+        assertEquals("value0-a-much-longer-value-that-does-not-fit", expected.get("key0"));
+        final OffHeapMap<String, String> reloadedMap = new OffHeapMap<>(new StringSerialiser(), new StringSerialiser(), PAGE_SIZE, file);
+        assertEquals(expected, new HashMap<>(reloadedMap));
+        reloadedMap.close();
+        assertFalse(new File(file.getPath() + ".compact").exists());
+    }
+
+    @Test
+    public void shouldCompactDirectMemoryMap() {
+        // Given
+        final OffHeapMap<String, Long> map = createMap(null);
+        for (long i = 0; i < 1000; i++) {
+            map.put("key" + i, i);
+        }
+
+        // When
+        for (long i = 0; i < 1000; i += 2) {
+            map.remove("key" + i);
+        }
+        map.compact();
+
+        // Then
+        assertEquals(500, map.size());
+        assertEquals(500, new HashMap<>(map).size());
+        for (long i = 1; i < 1000; i += 2) {
+            assertEquals(i, (long) map.get("key" + i));
+        }
+        map.put("key0", 0L);
+        assertEquals(0L, (long) map.get("key0"));
+    }
+
+    private OffHeapMap<String, Long> createMap(final File file) {
+        return new OffHeapMap<>(new StringSerialiser(), new RawLongSerialiser(), PAGE_SIZE, file);
+    }
+}
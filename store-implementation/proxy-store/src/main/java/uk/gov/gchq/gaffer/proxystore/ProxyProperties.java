@@ -35,12 +35,21 @@ public class ProxyProperties extends StoreProperties {
     public static final String GAFFER_CONTEXT_ROOT = "gaffer.context-root";
     public static final String CONNECT_TIMEOUT = "gaffer.connect-timeout";
     public static final String READ_TIMEOUT = "gaffer.read-timeout";
+    public static final String MAX_CONNECTIONS = "gaffer.max-connections";
+    public static final String CONNECTION_REQUEST_TIMEOUT = "gaffer.connection-request-timeout";
+    public static final String GZIP = "gaffer.gzip";
+    public static final String STREAMING = "gaffer.streaming";
+    public static final String CHUNKED = "gaffer.chunked";
 
     public static final String DEFAULT_GAFFER_HOST = "localhost";
     public static final String DEFAULT_GAFFER_CONTEXT_ROOT = "/rest";
     public static final int DEFAULT_GAFFER_PORT = 8080;
     public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
     public static final int DEFAULT_READ_TIMEOUT = 10000;
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 10000;
+    public static final String DEFAULT_GZIP = "false";
+    public static final String DEFAULT_STREAMING = "false";
+    public static final String DEFAULT_CHUNKED = "false";
 
     private static final String GAFFER_REST_API_VERSION = "v2";
 
@@ -94,6 +103,84 @@ public class ProxyProperties extends StoreProperties {
         set(READ_TIMEOUT, String.valueOf(timeout));
     }
 
+    /**
+     * Get the maximum number of pooled connections to the Gaffer REST API.
+     * If this is not set then the default Jersey connector is used, which
+     * does not maintain a connection pool.
+     *
+     * @return the maximum number of pooled connections, or null if not set
+     */
+    public Integer getMaxConnections() {
+        final String maxConnections = get(MAX_CONNECTIONS, null);
+        try {
+            return null == maxConnections ? null : Integer.parseInt(maxConnections);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to convert gaffer max connections into an integer", e);
+        }
+    }
+
+    public void setMaxConnections(final Integer maxConnections) {
+        set(MAX_CONNECTIONS, null == maxConnections ? null : String.valueOf(maxConnections));
+    }
+
+    /**
+     * Get the number of milliseconds to wait for a pooled connection to
+     * become free before failing the request. This is only used when
+     * {@link #getMaxConnections()} is set.
+     *
+     * @return the connection request timeout in milliseconds
+     */
+    public int getConnectionRequestTimeout() {
+        final String timeout = get(CONNECTION_REQUEST_TIMEOUT, null);
+        try {
+            return null == timeout ? DEFAULT_CONNECTION_REQUEST_TIMEOUT : Integer.parseInt(timeout);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Unable to convert gaffer connection request timeout into an integer", e);
+        }
+    }
+
+    public void setConnectionRequestTimeout(final int timeout) {
+        set(CONNECTION_REQUEST_TIMEOUT, String.valueOf(timeout));
+    }
+
+    public boolean isGzip() {
+        return Boolean.parseBoolean(get(GZIP, DEFAULT_GZIP));
+    }
+
+    public void setGzip(final boolean gzip) {
+        set(GZIP, String.valueOf(gzip));
+    }
+
+    /**
+     * If true, iterable results are parsed incrementally from the response
+     * as they are consumed, rather than being buffered and deserialised in
+     * one go. The results can then only be iterated over once.
+     *
+     * @return true if iterable results should be streamed
+     */
+    public boolean isStreaming() {
+        return Boolean.parseBoolean(get(STREAMING, DEFAULT_STREAMING));
+    }
+
+    public void setStreaming(final boolean streaming) {
+        set(STREAMING, String.valueOf(streaming));
+    }
+
+    /**
+     * If true, iterable results are requested from the chunked execute
+     * endpoint so they are returned as the delegate graph produces them.
+     * This implies {@link #isStreaming()}.
+     *
+     * @return true if the chunked endpoint should be used
+     */
+    public boolean isChunked() {
+        return Boolean.parseBoolean(get(CHUNKED, DEFAULT_CHUNKED));
+    }
+
+    public void setChunked(final boolean chunked) {
+        set(CHUNKED, String.valueOf(chunked));
+    }
+
     public String getGafferHost() {
         return get(GAFFER_HOST, DEFAULT_GAFFER_HOST);
     }
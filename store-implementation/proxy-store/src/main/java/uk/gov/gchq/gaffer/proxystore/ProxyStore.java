@@ -17,8 +17,17 @@
 package uk.gov.gchq.gaffer.proxystore;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.filter.EncodingFilter;
+import org.glassfish.jersey.message.GZipEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +78,10 @@ import java.util.Set;
  * <p>
  * The ProxyStore is simply a Gaffer store which delegates all operations to a Gaffer
  * REST API.
+ * <p>
+ * By default, results are read from the REST API in full before being
+ * deserialised. See {@link ProxyProperties} for enabling streaming of
+ * iterable results, the chunked endpoint, gzip and connection pooling.
  */
 public class ProxyStore extends Store {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxyStore.class);
@@ -153,6 +166,13 @@ public class ProxyStore extends Store {
 
     public <O> O executeOpChainViaUrl(final OperationChain<O> opChain, final Context context)
             throws OperationException {
+        if (getProperties().isStreaming() || getProperties().isChunked()) {
+            final JavaType outputType = getStreamableOutputType(opChain.getOutputTypeReference());
+            if (null != outputType) {
+                return executeOpChainViaUrlStreaming(opChain, outputType, context);
+            }
+        }
+
         final String opChainJson;
         try {
             opChainJson = new String(JSONSerialiser.serialise(opChain), CommonConstants.UTF_8);
@@ -168,6 +188,69 @@ public class ProxyStore extends Store {
         }
     }
 
+    /**
+     * Executes the operation chain via the REST API, returning a
+     * {@link StreamingResponseIterable} that deserialises the results lazily
+     * as they are read from the response.
+     *
+     * @param opChain    the operation chain to execute
+     * @param outputType the iterable output type of the operation chain
+     * @param context    the context
+     * @param <O>        the output type of the operation chain
+     * @return the lazily deserialised results
+     * @throws OperationException if the operation chain could not be executed
+     */
+    protected <O> O executeOpChainViaUrlStreaming(final OperationChain<O> opChain, final JavaType outputType, final Context context)
+            throws OperationException {
+        final byte[] opChainJson;
+        try {
+            opChainJson = JSONSerialiser.serialise(opChain);
+        } catch (final SerialisationException e) {
+            throw new OperationException("Unable to serialise operation chain into JSON.", e);
+        }
+
+        final boolean chunked = getProperties().isChunked();
+        final URL url = getProperties().getGafferUrl(chunked ? "graph/operations/execute/chunked" : "graph/operations/execute");
+        final Response response;
+        try {
+            response = createRequest(null, url, context).post(Entity.json(opChainJson));
+        } catch (final Exception e) {
+            throw new OperationException("Failed to execute post via " +
+                    "the Gaffer URL " + url.toExternalForm(), e);
+        }
+
+        if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()) {
+            final String outputJson = response.hasEntity() ? response.readEntity(String.class) : null;
+            response.close();
+            LOGGER.warn("Gaffer bad status {}", response.getStatus());
+            LOGGER.warn("Detail: {}", outputJson);
+            throw new OperationException("Delegate Gaffer store returned status: " + response.getStatus() + ". Response content was: " + outputJson);
+        }
+
+        final ObjectReader reader = JSONSerialiser.getMapper().readerFor(outputType.containedTypeOrUnknown(0));
+        return (O) new StreamingResponseIterable<>(response, reader, chunked);
+    }
+
+    /**
+     * Gets the output type if results of that type can be streamed, i.e. if
+     * a {@link StreamingResponseIterable} can be returned in its place.
+     *
+     * @param outputTypeReference the output type reference of the operation chain
+     * @return the output type, or null if it cannot be streamed
+     */
+    protected JavaType getStreamableOutputType(final TypeReference<?> outputTypeReference) {
+        if (null == outputTypeReference) {
+            return null;
+        }
+        final JavaType outputType = JSONSerialiser.getMapper().getTypeFactory().constructType(outputTypeReference);
+        final Class<?> outputClass = outputType.getRawClass();
+        if (Iterable.class.isAssignableFrom(outputClass)
+                && outputClass.isAssignableFrom(StreamingResponseIterable.class)) {
+            return outputType;
+        }
+        return null;
+    }
+
     protected <O> O doPost(final URL url, final Object body,
                            final TypeReference<O> outputType,
                            final Context context) throws StoreException {
@@ -307,9 +390,26 @@ public class ProxyStore extends Store {
     }
 
     protected Client createClient() {
-        final Client client = ClientBuilder.newClient();
+        final ClientConfig config = new ClientConfig();
+        final Integer maxConnections = getProperties().getMaxConnections();
+        if (null != maxConnections) {
+            final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxConnections);
+            connectionManager.setDefaultMaxPerRoute(maxConnections);
+            config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+            config.property(ApacheClientProperties.REQUEST_CONFIG, RequestConfig.custom()
+                    .setConnectionRequestTimeout(getProperties().getConnectionRequestTimeout())
+                    .build());
+            config.connectorProvider(new ApacheConnectorProvider());
+        }
+
+        final Client client = ClientBuilder.newClient(config);
         client.property(ClientProperties.CONNECT_TIMEOUT, getProperties().getConnectTimeout());
         client.property(ClientProperties.READ_TIMEOUT, getProperties().getReadTimeout());
+        if (getProperties().isGzip()) {
+            client.register(EncodingFilter.class);
+            client.register(GZipEncoder.class);
+        }
         return client;
     }
 
@@ -355,6 +455,31 @@ public class ProxyStore extends Store {
             return this;
         }
 
+        public Builder maxConnections(final int maxConnections) {
+            properties.setMaxConnections(maxConnections);
+            return this;
+        }
+
+        public Builder connectionRequestTimeout(final int timeout) {
+            properties.setConnectionRequestTimeout(timeout);
+            return this;
+        }
+
+        public Builder gzip(final boolean gzip) {
+            properties.setGzip(gzip);
+            return this;
+        }
+
+        public Builder streaming(final boolean streaming) {
+            properties.setStreaming(streaming);
+            return this;
+        }
+
+        public Builder chunked(final boolean chunked) {
+            properties.setChunked(chunked);
+            return this;
+        }
+
         public Builder jsonSerialiser(final Class<? extends JSONSerialiser> serialiserClass) {
             properties.setJsonSerialiserClass(serialiserClass);
             return this;
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.proxystore;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import javax.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@code StreamingResponseIterable} lazily deserialises the items of a
+ * JSON response from the Gaffer REST API as they are iterated over.
+ * <p>
+ * The response body can either be a JSON array, as returned by the execute
+ * endpoint, or a sequence of JSON values, as returned by the chunked execute
+ * endpoint. As the items are read directly from the response, this iterable
+ * can only be iterated over once. The response, and any pooled connection
+ * it holds, is released when the iterator is exhausted or closed, when this
+ * iterable is closed or, if it is abandoned without being closed, when it is
+ * garbage collected.
+ * </p>
+ *
+ * @param <T> the type of items in the response
+ */
+public class StreamingResponseIterable<T> implements CloseableIterable<T> {
+    private final Response response;
+    private final ObjectReader reader;
+    private final boolean chunked;
+    private boolean iteratorAvailable = true;
+    private volatile boolean closed;
+
+    /**
+     * @param response the successful response to read the items from
+     * @param reader   the reader to deserialise each item with
+     * @param chunked  true if the response is a sequence of JSON values
+     *                 rather than a JSON array
+     */
+    public StreamingResponseIterable(final Response response, final ObjectReader reader, final boolean chunked) {
+        this.response = response;
+        this.reader = reader;
+        this.chunked = chunked;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            response.close();
+        }
+    }
+
+    // Releases the connection of a response that was abandoned without being closed
+    @Override
+    protected void finalize() throws Throwable {
+        try {
+            close();
+        } finally {
+            super.finalize();
+        }
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+        if (!iteratorAvailable) {
+            throw new IllegalStateException("Streamed results from the delegate Gaffer REST API can only be iterated over once.");
+        }
+        iteratorAvailable = false;
+
+        final JsonParser parser;
+        try {
+            parser = JSONSerialiser.getMapper().getFactory().createParser(response.readEntity(InputStream.class));
+        } catch (final IOException | RuntimeException e) {
+            close();
+            throw new RuntimeException("Unable to read response from the delegate Gaffer REST API", e);
+        }
+        return new ResponseIterator(parser);
+    }
+
+    private class ResponseIterator implements CloseableIterator<T> {
+        private final JsonParser parser;
+        private boolean started;
+        private boolean finished;
+        private boolean hasNext;
+
+        ResponseIterator(final JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!hasNext && !finished) {
+                try {
+                    hasNext = advance();
+                } catch (final IOException | RuntimeException e) {
+                    close();
+                    throw new RuntimeException("Unable to read response from the delegate Gaffer REST API", e);
+                }
+                if (!hasNext) {
+                    close();
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            try {
+                return reader.readValue(parser);
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to deserialise result from the delegate Gaffer REST API", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!finished) {
+                finished = true;
+                hasNext = false;
+                try {
+                    parser.close();
+                } catch (final IOException e) {
+                    // ignore - the response is closed below
+                }
+                StreamingResponseIterable.this.close();
+            }
+        }
+
+        // Moves the parser onto the start of the next item, returning false
+        // if there are no more items.
+        private boolean advance() throws IOException {
+            final JsonToken token = parser.nextToken();
+            if (chunked) {
+                return null != token;
+            }
+            if (!started) {
+                started = true;
+                if (null == token || JsonToken.VALUE_NULL == token) {
+                    return false;
+                }
+                if (JsonToken.START_ARRAY != token) {
+                    throw new IOException("Expected a JSON array of results but found " + token);
+                }
+                return advance();
+            }
+            return null != token && JsonToken.END_ARRAY != token;
+        }
+    }
+}
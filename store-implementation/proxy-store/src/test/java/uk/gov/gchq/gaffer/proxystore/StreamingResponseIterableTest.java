@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.proxystore;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import javax.ws.rs.core.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class StreamingResponseIterableTest {
+    private static final ObjectReader READER = JSONSerialiser.getMapper().readerFor(String.class);
+
+    @Test
+    public void shouldReadJsonArrayAcrossChunkBoundaries() {
+        // Given
+        final Response response = createResponse(new ChunkedInputStream(StringUtil.toBytes("[\"a\",\"bb\",\"ccc\"]"), 1));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+
+        // When
+        final List<String> results = readAll(iterable);
+
+        // Then
+        assertEquals(Arrays.asList("a", "bb", "ccc"), results);
+        verify(response, times(1)).close();
+    }
+
+    @Test
+    public void shouldReadChunkedValuesAcrossChunkBoundaries() {
+        // Given
+        final Response response = createResponse(new ChunkedInputStream(StringUtil.toBytes("\"a\"\r\n\"bb\"\r\n\"ccc\"\r\n"), 3));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, true);
+
+        // When
+        final List<String> results = readAll(iterable);
+
+        // Then
+        assertEquals(Arrays.asList("a", "bb", "ccc"), results);
+        verify(response, times(1)).close();
+    }
+
+    @Test
+    public void shouldReadGzipEncodedResponse() throws IOException {
+        // Given
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(StringUtil.toBytes("[\"a\",\"bb\",\"ccc\"]"));
+        }
+        final InputStream body = new GZIPInputStream(new ChunkedInputStream(bytes.toByteArray(), 2));
+        final Response response = createResponse(body);
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+
+        // When
+        final List<String> results = readAll(iterable);
+
+        // Then
+        assertEquals(Arrays.asList("a", "bb", "ccc"), results);
+        verify(response, times(1)).close();
+    }
+
+    @Test
+    public void shouldReturnNoResultsForANullOrEmptyBody() {
+        for (final String body : Arrays.asList("null", "[]", "")) {
+            // Given
+            final Response response = createResponse(new ByteArrayInputStream(StringUtil.toBytes(body)));
+            final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+
+            // When
+            final List<String> results = readAll(iterable);
+
+            // Then
+            assertEquals(Collections.emptyList(), results);
+            verify(response, times(1)).close();
+        }
+    }
+
+    @Test
+    public void shouldCloseResponseOnceWhenClosedEarly() {
+        // Given
+        final Response response = createResponse(new ByteArrayInputStream(StringUtil.toBytes("[\"a\",\"bb\",\"ccc\"]")));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+        final CloseableIterator<String> itr = iterable.iterator();
+
+        // When
+        final String first = itr.next();
+        itr.close();
+        iterable.close();
+
+        // Then
+        assertEquals("a", first);
+        assertFalse(itr.hasNext());
+        verify(response, times(1)).close();
+    }
+
+    @Test
+    public void shouldCloseResponseAndThrowExceptionForAnErrorBody() {
+        // Given
+        final Response response = createResponse(new ByteArrayInputStream(StringUtil.toBytes("{\"statusCode\":500,\"simpleMessage\":\"error\"}")));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+        final CloseableIterator<String> itr = iterable.iterator();
+
+        // When / Then
+        try {
+            itr.hasNext();
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage().contains("Unable to read response"));
+        }
+        verify(response, times(1)).close();
+    }
+
+    @Test
+    public void shouldCloseResponseAndThrowExceptionForATruncatedBody() {
+        // Given
+        final Response response = createResponse(new ByteArrayInputStream(StringUtil.toBytes("[\"a\",\"b")));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+        final CloseableIterator<String> itr = iterable.iterator();
+        assertEquals("a", itr.next());
+
+        // When / Then
+        try {
+            itr.next();
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage().contains("delegate Gaffer REST API"));
+        }
+        verify(response, times(1)).close();
+    }
+
+    @Test
+    public void shouldOnlyBeIterableOnce() {
+        // Given
+        final Response response = createResponse(new ByteArrayInputStream(StringUtil.toBytes("[\"a\"]")));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+        iterable.iterator();
+
+        // When / Then
+        try {
+            iterable.iterator();
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().contains("only be iterated over once"));
+        }
+    }
+
+    @Test
+    public void shouldCloseResponseWhenAbandoned() throws Throwable {
+        // Given
+        final Response response = createResponse(new ByteArrayInputStream(StringUtil.toBytes("[\"a\",\"bb\"]")));
+        final StreamingResponseIterable<String> iterable = new StreamingResponseIterable<>(response, READER, false);
+        iterable.iterator().next();
+
+        // When
+        iterable.finalize();
+
+        // Then
+        verify(response, times(1)).close();
+    }
+
+    private static Response createResponse(final InputStream body) {
+        final Response response = mock(Response.class);
+        given(response.readEntity(InputStream.class)).willReturn(body);
+        return response;
+    }
+
+    private static List<String> readAll(final StreamingResponseIterable<String> iterable) {
+        final List<String> results = new ArrayList<>();
+        final CloseableIterator<String> itr = iterable.iterator();
+        while (itr.hasNext()) {
+            results.add(itr.next());
+        }
+        return results;
+    }
+
+    /**
+     * Returns at most {@code chunkSize} bytes per read, so that items are
+     * split across reads in the way a chunked HTTP response can split them.
+     */
+    private static final class ChunkedInputStream extends ByteArrayInputStream {
+        private final int chunkSize;
+
+        private ChunkedInputStream(final byte[] bytes, final int chunkSize) {
+            super(bytes);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public synchronized int read(final byte[] b, final int off, final int len) {
+            return super.read(b, off, Math.min(len, chunkSize));
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package uk.gov.gchq.gaffer.proxystore.integration;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -52,6 +53,7 @@ import uk.gov.gchq.gaffer.user.User;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.hasItems;
@@ -115,14 +117,7 @@ public class ProxyStoreBasicIT {
         client.reinitialiseGraph(testFolder, StreamUtil.SCHEMA, "map-store.properties");
 
         // setup ProxyStore
-        graph = new Graph.Builder()
-                .store(new ProxyStore.Builder()
-                        .graphId("graph1")
-                        .host("localhost")
-                        .port(8080)
-                        .contextRoot("rest")
-                        .build())
-                .build();
+        graph = createGraph(new ProxyStore.Builder());
     }
 
     @Test
@@ -139,6 +134,40 @@ public class ProxyStoreBasicIT {
         assertThat((CloseableIterable<Element>) results, hasItems(DEFAULT_ELEMENTS));
     }
 
+    @Test
+    public void shouldAddElementsAndStreamAllElements() throws Exception {
+        // Given
+        addDefaultElements();
+        final Graph streamingGraph = createGraph(new ProxyStore.Builder()
+                .streaming(true)
+                .maxConnections(2)
+                .gzip(true));
+
+        // When
+        final CloseableIterable<? extends Element> results = streamingGraph.execute(new GetAllElements(), USER);
+
+        // Then
+        final List<Element> resultList = Lists.newArrayList(results);
+        assertEquals(DEFAULT_ELEMENTS.length, resultList.size());
+        assertThat(resultList, hasItems(DEFAULT_ELEMENTS));
+    }
+
+    @Test
+    public void shouldAddElementsAndGetAllElementsFromChunkedEndpoint() throws Exception {
+        // Given
+        addDefaultElements();
+        final Graph chunkedGraph = createGraph(new ProxyStore.Builder()
+                .chunked(true));
+
+        // When
+        final CloseableIterable<? extends Element> results = chunkedGraph.execute(new GetAllElements(), USER);
+
+        // Then
+        final List<Element> resultList = Lists.newArrayList(results);
+        assertEquals(DEFAULT_ELEMENTS.length, resultList.size());
+        assertThat(resultList, hasItems(DEFAULT_ELEMENTS));
+    }
+
     @Test
     public void shouldAddElementsAndGetRelatedElements() throws Exception {
         // Given
@@ -203,6 +232,17 @@ public class ProxyStoreBasicIT {
         assertEquals(expectedTraits, storeTraits);
     }
 
+    private Graph createGraph(final ProxyStore.Builder storeBuilder) {
+        return new Graph.Builder()
+                .store(storeBuilder
+                        .graphId("graph1")
+                        .host("localhost")
+                        .port(8080)
+                        .contextRoot("rest")
+                        .build())
+                .build();
+    }
+
     private void addDefaultElements() throws OperationException {
         final AddElements add = new AddElements.Builder()
                 .input(DEFAULT_ELEMENTS)